@@ -0,0 +1,57 @@
+package com.payment.redis.benchmark;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: the JMH command line, always with the gc
+ * profiler, so every result carries its allocation rate per operation
+ * (gc.alloc.rate.norm, bytes/op) next to its time.
+ *
+ *   java -jar target/benchmarks.jar                    # everything
+ *   java -jar target/benchmarks.jar TransactionMapper  # matching benchmarks only
+ *   java -jar target/benchmarks.jar -l                 # list them
+ *
+ * Anything that does not run benchmarks (-h, -l, -lp, -lprof, -lrf), and a
+ * command line that already asks for -prof gc, goes to JMH's own Main
+ * unchanged.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws IOException, CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (!runsBenchmarks(commandLine) || hasGcProfiler(commandLine)) {
+            Main.main(args);
+            return;
+        }
+        new Runner(new OptionsBuilder()
+            .parent(commandLine)
+            .addProfiler(GCProfiler.class)
+            .build())
+            .run();
+    }
+
+    private static boolean runsBenchmarks(CommandLineOptions commandLine) {
+        return !commandLine.shouldHelp()
+            && !commandLine.shouldList()
+            && !commandLine.shouldListWithParams()
+            && !commandLine.shouldListProfilers()
+            && !commandLine.shouldListResultFormats();
+    }
+
+    private static boolean hasGcProfiler(CommandLineOptions commandLine) {
+        return commandLine.getProfilers().stream()
+            .map(profiler -> profiler.getKlass())
+            .anyMatch(name -> name.equals("gc") || name.equals(GCProfiler.class.getName()));
+    }
+}
@@ -0,0 +1,39 @@
+package com.payment.redis.benchmark;
+
+import com.payment.redis.domain.Transaction;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Transactions shaped like the ones the portal creates: every field set,
+ * amounts with two decimals
+ */
+public final class SampleTransactions {
+
+    private SampleTransactions() {
+    }
+
+    public static Transaction transaction(int i) {
+        Instant created = Instant.parse("2026-01-15T10:30:00Z").plusSeconds(i * 60L);
+        BigDecimal amount = new BigDecimal("12500.00").add(BigDecimal.valueOf(i));
+        BigDecimal fee = amount.multiply(new BigDecimal("0.02"));
+        return new Transaction(UUID.nameUUIDFromBytes(("bench-" + i).getBytes(StandardCharsets.UTF_8)).toString(),
+            "REF" + (100000 + i), "Bench User " + i, "bench" + i + "@example.com",
+            amount, amount, "Bench University", "Bench User " + i, "IN", i + " Bench Road, Mumbai",
+            "INR", "S-" + i, "EXACT", BigDecimal.valueOf(2.0), fee, amount.add(fee),
+            created, created);
+    }
+
+    public static List<Transaction> transactions(int count) {
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(transaction(i));
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,76 @@
+package com.payment.redis.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.redis.benchmark.SampleTransactions;
+import com.payment.redis.domain.Transaction;
+import io.micronaut.jackson.JacksonConfiguration;
+import io.micronaut.jackson.ObjectMapperFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the response of a transaction and writing responses as JSON, one
+ * (GET /api/transactions/{id}) or a page of them (GET /api/transactions/page).
+ * JSON goes through an ObjectMapper configured the way the server's is.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionResponseBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapperFactory().objectMapper(new JacksonConfiguration(), null);
+
+    private Transaction transaction;
+    private TransactionResponse response;
+
+    @State(Scope.Benchmark)
+    public static class Page {
+        @Param({"20", "100"})
+        private int size;
+
+        private List<TransactionResponse> responses;
+
+        @Setup
+        public void setUp() {
+            responses = SampleTransactions.transactions(size).stream()
+                .map(TransactionResponse::fromTransaction)
+                .toList();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        transaction = SampleTransactions.transaction(1);
+        response = TransactionResponse.fromTransaction(transaction);
+    }
+
+    @Benchmark
+    public TransactionResponse fromTransaction() {
+        return TransactionResponse.fromTransaction(transaction);
+    }
+
+    @Benchmark
+    public byte[] toJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] listToJson(Page page) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page.responses);
+    }
+}
@@ -0,0 +1,48 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.benchmark.SampleTransactions;
+import com.payment.redis.domain.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion between a transaction and its Redis hash, done once per
+ * transaction written or read in the hash layout
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionMapperBenchmark {
+    private Transaction transaction;
+    private Map<String, String> hash;
+
+    @Setup
+    public void setUp() {
+        transaction = SampleTransactions.transaction(1);
+        hash = TransactionMapper.transactionToMap(transaction);
+    }
+
+    @Benchmark
+    public Map<String, String> transactionToMap() {
+        return TransactionMapper.transactionToMap(transaction);
+    }
+
+    @Benchmark
+    public Transaction mapToTransaction() {
+        return TransactionMapper.mapToTransaction(hash);
+    }
+}
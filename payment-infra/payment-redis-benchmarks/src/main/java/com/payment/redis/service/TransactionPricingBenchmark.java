@@ -0,0 +1,50 @@
+package com.payment.redis.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fee tier and payment status of a new transaction, once per amount in each
+ * fee tier. In the service's package for its package-private helpers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionPricingBenchmark {
+    @Param({"1000.00", "35000.00", "75000.00"})
+    private String amount;
+
+    private BigDecimal value;
+    private BigDecimal received;
+
+    @Setup
+    public void setUp() {
+        value = new BigDecimal(amount);
+        received = value.add(new BigDecimal("0.01"));
+    }
+
+    @Benchmark
+    public BigDecimal calculateFeePercentage() {
+        return TransactionService.calculateFeePercentage(value);
+    }
+
+    @Benchmark
+    public String determineStatus() {
+        return TransactionService.determineStatus(value, received);
+    }
+}
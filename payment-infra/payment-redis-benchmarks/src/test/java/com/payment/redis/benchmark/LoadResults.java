@@ -0,0 +1,45 @@
+package com.payment.redis.benchmark;
+
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.reporting.ReportEntry;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Keeps what the load benchmarks publish through TestReporter, which the
+ * Maven test output leaves out: one line per entry, appended to
+ * target/load-results.txt (or -Dload.results). Registered through
+ * META-INF/services.
+ */
+public class LoadResults implements TestExecutionListener {
+    private final Path file = Path.of(System.getProperty("load.results", "target/load-results.txt"));
+
+    @Override
+    public void reportingEntryPublished(TestIdentifier test, ReportEntry entry) {
+        StringBuilder line = new StringBuilder()
+            .append(entry.getTimestamp().withNano(0)).append("  ")
+            .append(test.getSource().map(LoadResults::name).orElse(test.getDisplayName()));
+        entry.getKeyValuePairs().forEach((key, value) -> line.append("  ").append(key).append(": ").append(value));
+        try {
+            Files.writeString(file, line.append(System.lineSeparator()), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String name(TestSource source) {
+        if (source instanceof MethodSource method) {
+            return method.getJavaClass().getSimpleName() + "." + method.getMethodName();
+        }
+        return source.toString();
+    }
+}
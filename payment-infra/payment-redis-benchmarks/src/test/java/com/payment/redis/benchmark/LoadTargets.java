@@ -0,0 +1,41 @@
+package com.payment.redis.benchmark;
+
+import com.payment.redis.domain.Transaction;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * What the load benchmarks run against, and the transactions they write.
+ * Every setting is a system property with a local default:
+ *
+ *   load.redis   scratch Redis for the repository benchmarks (redis://localhost:6379/15)
+ *   load.url     running payment-redis-service for the HTTP benchmarks (http://localhost:8081)
+ */
+public final class LoadTargets {
+
+    private LoadTargets() {
+    }
+
+    public static String redisUri() {
+        return System.getProperty("load.redis", "redis://localhost:6379/15");
+    }
+
+    public static String serviceUrl() {
+        return System.getProperty("load.url", "http://localhost:8081");
+    }
+
+    /**
+     * A new transaction as the portal would submit it; the repository assigns
+     * the reference
+     */
+    public static Transaction newTransaction() {
+        Instant now = Instant.now();
+        BigDecimal amount = new BigDecimal("12500.00");
+        return new Transaction(UUID.randomUUID().toString(), null, "Bench User", "bench@example.com",
+            amount, amount, "Bench University", "Bench User", "IN", "1 Bench Road", "INR", "S-1",
+            "EXACT", BigDecimal.valueOf(2.0), new BigDecimal("250.00"), new BigDecimal("12750.00"),
+            now, now);
+    }
+}
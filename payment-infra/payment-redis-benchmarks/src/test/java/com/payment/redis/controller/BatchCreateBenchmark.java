@@ -0,0 +1,91 @@
+package com.payment.redis.controller;
+
+import com.payment.redis.benchmark.LoadTargets;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Create throughput against a running payment-redis-service: looping
+ * POST /api/transactions versus POST /api/transactions/batch with different
+ * batch sizes, at the same client concurrency. Every request must be
+ * created, or shed by the concurrency limiter (503).
+ */
+class BatchCreateBenchmark {
+    private static final int TRANSACTIONS = Integer.getInteger("load.requests", 20_000);
+    private static final int CLIENTS = Integer.getInteger("load.clients", 16);
+    private static final int[] BATCH_SIZES = {10, 100, 1000};
+    private static final String ITEM = """
+        {"name":"Bench User","email":"bench@example.com","amount":12500,
+         "school":"MIT","countryFrom":"India","senderAddress":"1 Bench Road",
+         "currencyFrom":"usd","studentId":"S-1"}""";
+
+    private final String baseUrl = LoadTargets.serviceUrl();
+    private final HttpClient client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    @Test
+    void compareSingleAndBatchCreate(TestReporter reporter) throws Exception {
+        run(reporter, "single", 1, "/api/transactions", ITEM, 201);
+        for (int size : BATCH_SIZES) {
+            StringJoiner body = new StringJoiner(",", "[", "]");
+            for (int i = 0; i < size; i++) {
+                body.add(ITEM);
+            }
+            run(reporter, "batch " + size, size, "/api/transactions/batch", body.toString(), 201);
+        }
+    }
+
+    private void run(TestReporter reporter, String name, int perRequest, String path, String body,
+                     int expectedStatus) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(60))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        int requests = Math.max(1, TRANSACTIONS / perRequest);
+        Semaphore inFlight = new Semaphore(CLIENTS);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger shed = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CompletableFuture<?>[] futures = new CompletableFuture[requests];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            futures[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        errors.incrementAndGet();
+                    } else if (response.statusCode() == expectedStatus) {
+                        created.incrementAndGet();
+                    } else if (response.statusCode() == 503) {
+                        shed.incrementAndGet();
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                    inFlight.release();
+                });
+        }
+        CompletableFuture.allOf(futures).exceptionally(e -> null).join();
+        long elapsed = System.nanoTime() - start;
+
+        reporter.publishEntry(String.format("%s, %,d requests x %d", name, requests, perRequest),
+            String.format("%,.0f transactions/s, shed %d",
+                (double) created.get() * perRequest / (elapsed / 1e9), shed.get()));
+        assertEquals(0, errors.get(), name + " requests failed");
+        assertTrue(created.get() > 0, name + " created nothing");
+    }
+}
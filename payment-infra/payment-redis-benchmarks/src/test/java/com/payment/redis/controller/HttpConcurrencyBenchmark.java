@@ -0,0 +1,110 @@
+package com.payment.redis.controller;
+
+import com.payment.redis.benchmark.LoadTargets;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HTTP load against a running payment-redis-service with 1k+ concurrent
+ * clients, to compare execution modes. Start the service once per mode and
+ * run the benchmark against each:
+ *
+ *   SERVER_THREAD_SELECTION=AUTO      java -jar app.jar   (io pool / event loop)
+ *   SERVER_THREAD_SELECTION=BLOCKING  java -jar app.jar   (virtual threads on Java 21)
+ *
+ * Reports throughput, p50/p99 latency and shed requests (503 from the
+ * concurrency limiter) for the blocking and the reactive by-ID routes at each
+ * concurrency level. Any other failure fails the run.
+ */
+class HttpConcurrencyBenchmark {
+    private static final int[] CLIENTS = {1_000, 2_000, 4_000};
+    private static final int REQUESTS = Integer.getInteger("load.requests", 50_000);
+    private static final Pattern ID = Pattern.compile("\"_id\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final String baseUrl = LoadTargets.serviceUrl();
+    private final HttpClient client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    @Test
+    void compareExecutionModes(TestReporter reporter) throws Exception {
+        String id = seed();
+        for (int clients : CLIENTS) {
+            run(reporter, "blocking", "/api/transactions/" + id, clients);
+            run(reporter, "reactive", "/api/reactive/transactions/" + id, clients);
+        }
+    }
+
+    private String seed() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/transactions"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("""
+                {"name":"Bench User","email":"bench@example.com","amount":12500,
+                 "school":"Bench University","countryFrom":"IN","senderAddress":"1 Bench Road",
+                 "currencyFrom":"INR","studentId":"S-1"}"""))
+            .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = ID.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Could not create seed transaction: " + body);
+        }
+        return matcher.group(1);
+    }
+
+    private void run(TestReporter reporter, String name, String path, int clients) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+        Semaphore inFlight = new Semaphore(clients);
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger shed = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CompletableFuture<?>[] futures = new CompletableFuture[REQUESTS];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            inFlight.acquire();
+            int slot = i;
+            long sent = System.nanoTime();
+            futures[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    latencies[slot] = System.nanoTime() - sent;
+                    if (error != null) {
+                        errors.incrementAndGet();
+                    } else if (response.statusCode() == 200) {
+                        ok.incrementAndGet();
+                    } else if (response.statusCode() == 503) {
+                        shed.incrementAndGet();
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                    inFlight.release();
+                });
+        }
+        CompletableFuture.allOf(futures).exceptionally(e -> null).join();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        reporter.publishEntry(String.format("%s, %,d clients", name, clients),
+            String.format("%,.0f req/s, p50 %.1f ms, p99 %.1f ms, shed %d", REQUESTS / (elapsed / 1e9),
+                latencies[REQUESTS / 2] / 1e6, latencies[(int) (REQUESTS * 0.99)] / 1e6, shed.get()));
+        assertEquals(0, errors.get(), name + " requests failed at " + clients + " clients");
+        assertTrue(ok.get() > 0, name + " answered no request at " + clients + " clients");
+    }
+}
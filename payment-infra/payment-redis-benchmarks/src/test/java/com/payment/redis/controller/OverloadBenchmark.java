@@ -0,0 +1,172 @@
+package com.payment.redis.controller;
+
+import com.payment.redis.benchmark.LoadTargets;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Goodput of a running payment-redis-service under overload: many more
+ * clients than Redis can serve, each giving up after a deadline, while Redis
+ * is held with CLIENT PAUSE most of the time (a pause takes no CPU away from
+ * the service when both run on one machine). Goodput is the rate of 200
+ * responses that arrive within the deadline. A client whose request is shed
+ * (503) waits for Retry-After before its next one; a timed out request is
+ * work the service did for nothing.
+ *
+ * Run it once with the limiter on and once with it off:
+ *
+ *   REDIS_LIMITER_ENABLED=true   java -jar app.jar
+ *   REDIS_LIMITER_ENABLED=false  java -jar app.jar
+ *
+ * load.redis must be the service's Redis. With -Dload.overload.stall-ms=0
+ * Redis is not slowed down, and only the number of clients overloads the
+ * service.
+ *
+ * With the limiter on (GET /limiter answers) some requests must get through
+ * and some must be shed, each with a Retry-After; with it off none may be shed.
+ */
+class OverloadBenchmark {
+    private static final int CLIENTS = Integer.getInteger("load.overload.clients", 2_000);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.overload.seconds", 20));
+    private static final String PATH = System.getProperty("load.overload.path", "/api/transactions/page?limit=20");
+    private static final Duration DEADLINE = Duration.ofMillis(Integer.getInteger("load.overload.deadline-ms", 1000));
+    // Redis serves no one else for STALL_MILLIS out of every STALL_MILLIS + SERVE_MILLIS
+    private static final long STALL_MILLIS = Long.getLong("load.overload.stall-ms", 8);
+    private static final long SERVE_MILLIS = Long.getLong("load.overload.serve-ms", 2);
+    private static final Pattern ID = Pattern.compile("\"_id\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final String baseUrl = LoadTargets.serviceUrl();
+    private final HttpClient client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    @Test
+    void measureGoodput(TestReporter reporter) throws Exception {
+        seed();
+        boolean limiterOn = limiterOn();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + PATH))
+            .timeout(DEADLINE)
+            .GET()
+            .build();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread staller = STALL_MILLIS == 0 ? null : stallRedis(running);
+        AtomicLong ok = new AtomicLong();
+        AtomicLong shed = new AtomicLong();
+        AtomicLong shedWithoutRetryAfter = new AtomicLong();
+        AtomicLong timedOut = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        ConcurrentLinkedQueue<Long> okLatencies = new ConcurrentLinkedQueue<>();
+        Semaphore inFlight = new Semaphore(CLIENTS);
+        ScheduledExecutorService backoff = Executors.newSingleThreadScheduledExecutor();
+
+        long start = System.nanoTime();
+        long end = start + DURATION.toNanos();
+        while (System.nanoTime() < end) {
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        (error.getCause() instanceof HttpTimeoutException ? timedOut : errors).incrementAndGet();
+                    } else if (response.statusCode() == 200) {
+                        ok.incrementAndGet();
+                        okLatencies.add(System.nanoTime() - sent);
+                    } else if (response.statusCode() == 503) {
+                        shed.incrementAndGet();
+                        if (response.headers().firstValue("Retry-After").isEmpty()) {
+                            shedWithoutRetryAfter.incrementAndGet();
+                        }
+                        // The client backs off as asked before its next request
+                        long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                        backoff.schedule(() -> inFlight.release(), retryAfter, TimeUnit.SECONDS);
+                        return;
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                    inFlight.release();
+                });
+        }
+        inFlight.acquire(CLIENTS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        running.set(false);
+        backoff.shutdown();
+        if (staller != null) {
+            staller.join();
+        }
+
+        long[] latencies = okLatencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        reporter.publishEntry(String.format("limiter %s, %,d clients, %d ms deadline, Redis %s",
+                limiterOn ? "on" : "off", CLIENTS, DEADLINE.toMillis(), staller == null ? "not slowed" : "slowed"),
+            String.format("goodput %,.0f req/s, shed %,.0f req/s, timed out %,d, errors %,d, p50 %.1f ms, p99 %.1f ms",
+                ok.get() / seconds, shed.get() / seconds, timedOut.get(), errors.get(),
+                latencies.length == 0 ? 0 : latencies[latencies.length / 2] / 1e6,
+                latencies.length == 0 ? 0 : latencies[(int) (latencies.length * 0.99)] / 1e6));
+
+        if (limiterOn) {
+            assertTrue(ok.get() > 0, "no request got through within the deadline");
+            assertTrue(shed.get() > 0, "the limiter shed nothing");
+            assertEquals(0, shedWithoutRetryAfter.get(), "503 without Retry-After");
+        } else {
+            assertEquals(0, shed.get(), "503 with the limiter off");
+        }
+    }
+
+    private boolean limiterOn() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/limiter")).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+    }
+
+    private Thread stallRedis(AtomicBoolean running) {
+        Thread thread = new Thread(() -> {
+            RedisClient redis = RedisClient.create(LoadTargets.redisUri());
+            try (StatefulRedisConnection<String, String> connection = redis.connect()) {
+                while (running.get()) {
+                    connection.sync().clientPause(STALL_MILLIS);
+                    Thread.sleep(STALL_MILLIS + SERVE_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                redis.shutdown();
+            }
+        }, "redis-staller");
+        thread.start();
+        return thread;
+    }
+
+    private void seed() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/transactions"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("""
+                {"name":"Overload User","email":"overload@example.com","amount":12500,
+                 "school":"Bench University","countryFrom":"IN","senderAddress":"1 Bench Road",
+                 "currencyFrom":"INR","studentId":"S-1"}"""))
+            .build();
+        CompletableFuture<HttpResponse<String>> response = client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        String body = response.get().body();
+        if (!ID.matcher(body).find()) {
+            throw new IllegalStateException("Could not create seed transaction: " + body);
+        }
+    }
+}
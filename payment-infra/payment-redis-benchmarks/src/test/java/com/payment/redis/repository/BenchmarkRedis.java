@@ -0,0 +1,63 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.benchmark.LoadTargets;
+import com.payment.redis.cache.TransactionNearCache;
+import com.payment.redis.config.BulkReadConnections;
+import com.payment.redis.config.RedisConfig;
+import com.payment.redis.config.RedisConnection;
+import com.payment.redis.config.RedisConnectionFactory;
+
+import java.util.List;
+
+/**
+ * Connections and repositories for the Redis load benchmarks, wired by hand
+ * instead of through the application context. The near cache is disabled so
+ * every read reaches Redis; the storage format comes from -Dload.format (hash
+ * or binary, default hash).
+ */
+final class BenchmarkRedis implements AutoCloseable {
+    final RedisConnectionFactory factory;
+    final RedisConnection<String, String> connection;
+    final RedisConnection<String, byte[]> binaryConnection;
+    final RedisKeys keys = RedisKeys.standalone();
+    final ReferenceAllocator referenceAllocator;
+
+    BenchmarkRedis() {
+        factory = RedisConnectionFactory.standalone(LoadTargets.redisUri());
+        connection = factory.connect();
+        binaryConnection = factory.connect(RedisConfig.BINARY_CODEC);
+        referenceAllocator = new ReferenceAllocator(new RedisReferenceLeaseSource(connection), 1000, 200);
+    }
+
+    RedisConnection<String, byte[]> connectBinary() {
+        return factory.connect(RedisConfig.BINARY_CODEC);
+    }
+
+    static TransactionCodec codec() {
+        return new TransactionCodec(System.getProperty("load.format", "hash"));
+    }
+
+    TransactionRepository repository() {
+        return repository(new BulkReadConnections(List.of(binaryConnection)), 500, codec());
+    }
+
+    TransactionRepository repository(BulkReadConnections bulk, int batchSize, TransactionCodec codec) {
+        return new TransactionRepository(connection, binaryConnection, keys,
+            ReplicaReads.disabled(connection, binaryConnection, bulk, keys), batchSize, codec,
+            referenceAllocator, TransactionNearCache.disabled());
+    }
+
+    ReactiveTransactionRepository reactiveRepository() {
+        BulkReadConnections bulk = new BulkReadConnections(List.of(binaryConnection));
+        return new ReactiveTransactionRepository(binaryConnection, keys,
+            ReplicaReads.disabled(connection, binaryConnection, bulk, keys), 500, codec(), referenceAllocator,
+            TransactionNearCache.disabled());
+    }
+
+    @Override
+    public void close() {
+        binaryConnection.close();
+        connection.close();
+        factory.shutdown();
+    }
+}
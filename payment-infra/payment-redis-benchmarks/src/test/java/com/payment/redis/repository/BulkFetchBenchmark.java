@@ -0,0 +1,112 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.benchmark.LoadTargets;
+import com.payment.redis.config.BulkReadConnections;
+import com.payment.redis.config.RedisConnection;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk-fetch latency against a real Redis for 1k/10k/100k records: one
+ * blocking HGETALL per ID versus findAllById with different batch sizes and
+ * connection counts. Seeds 100k payment:* keys.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BulkFetchBenchmark {
+    private static final int[] SIZES = {1_000, 10_000, 100_000};
+    private static final int[][] CONFIGS = {{100, 1}, {500, 1}, {500, 4}, {1000, 8}};
+    private static final int RUNS = 5;
+
+    private BenchmarkRedis redis;
+    private final List<String> ids = new ArrayList<>();
+
+    @BeforeAll
+    void seed() throws Exception {
+        redis = new BenchmarkRedis();
+        TransactionRepository repository = redis.repository();
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<String> seeded = Collections.synchronizedList(ids);
+        for (int i = 0; i < SIZES[SIZES.length - 1]; i++) {
+            pool.execute(() -> {
+                var t = LoadTargets.newTransaction();
+                repository.create(t, "CREATE", "Benchmark seed");
+                seeded.add(t.getId());
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.MINUTES), "seeding did not finish");
+        assertEquals(SIZES[SIZES.length - 1], ids.size());
+    }
+
+    @AfterAll
+    void close() {
+        redis.close();
+    }
+
+    @Test
+    void compareBulkFetch(TestReporter reporter) {
+        for (int size : SIZES) {
+            List<String> window = ids.subList(0, size);
+
+            reporter.publishEntry(String.format("%,d records, sequential HGETALL", size),
+                String.format("median %d ms", median(() -> sequentialFetch(window), size)));
+
+            for (int[] config : CONFIGS) {
+                List<RedisConnection<String, byte[]>> connections = new ArrayList<>();
+                for (int i = 0; i < config[1]; i++) {
+                    connections.add(redis.connectBinary());
+                }
+                try (BulkReadConnections bulk = new BulkReadConnections(connections)) {
+                    TransactionRepository repository = redis.repository(bulk, config[0], BenchmarkRedis.codec());
+                    reporter.publishEntry(
+                        String.format("%,d records, batch %d x %d connections", size, config[0], config[1]),
+                        String.format("median %d ms", median(() -> repository.findAllById(window), size)));
+                }
+            }
+        }
+    }
+
+    private List<?> sequentialFetch(List<String> window) {
+        RedisClusterCommands<String, String> commands = redis.connection.sync();
+        List<Map<String, String>> found = new ArrayList<>(window.size());
+        for (String id : window) {
+            Map<String, String> hash = commands.hgetall(redis.keys.payment(id));
+            if (!hash.isEmpty()) {
+                found.add(hash);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The first fetch warms up and checks that every record was found
+     */
+    private static long median(Supplier<List<?>> fetch, int expected) {
+        assertEquals(expected, fetch.get().size());
+        long[] samples = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            fetch.get();
+            samples[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+}
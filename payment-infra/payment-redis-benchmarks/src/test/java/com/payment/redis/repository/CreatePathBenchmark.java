@@ -0,0 +1,127 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.benchmark.LoadTargets;
+import com.payment.redis.domain.Transaction;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestReporter;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Create-path throughput against a real Redis: the legacy six-command sequence
+ * versus the single create script. Writes payment:* and audit:* keys.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CreatePathBenchmark {
+    private static final int OPERATIONS = Integer.getInteger("load.operations", 20_000);
+    private static final int THREADS = Integer.getInteger("load.threads", 8);
+
+    private BenchmarkRedis redis;
+    private TransactionRepository repository;
+
+    @BeforeAll
+    void connect() {
+        redis = new BenchmarkRedis();
+        repository = redis.repository();
+    }
+
+    @AfterAll
+    void close() {
+        redis.close();
+    }
+
+    @Test
+    void compareCreatePaths(TestReporter reporter) throws Exception {
+        run("legacy (6 round trips)", this::legacyCreate, OPERATIONS / 10);
+        run("script (1 round trip)", this::scriptCreate, OPERATIONS / 10);
+
+        report(reporter, "legacy (6 round trips)", this::legacyCreate);
+        report(reporter, "script (1 round trip)", this::scriptCreate);
+    }
+
+    private void report(TestReporter reporter, String name, Runnable create) throws Exception {
+        long elapsed = run(name, create, OPERATIONS);
+        reporter.publishEntry(name, String.format("%d creates, %d threads: %,.0f ops/s",
+            OPERATIONS, THREADS, OPERATIONS / (elapsed / 1e9)));
+    }
+
+    private long run(String name, Runnable create, int operations) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            pool.execute(() -> {
+                try {
+                    create.run();
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.MINUTES), name + " did not finish");
+        assertEquals(0, failures.get(), name + " creates failed");
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * The create path as it was: INCR, HSET, RPUSH, EXPIRE, HSET, EXPIRE
+     */
+    private void legacyCreate() {
+        RedisClusterCommands<String, String> commands = redis.connection.sync();
+        Transaction t = LoadTargets.newTransaction();
+        t.setReference("REF" + String.format("%03d", commands.incr("payment:counter")));
+        String key = "payment:" + t.getId();
+        commands.hset(key, toMap(t));
+        commands.rpush("payment:all", t.getId());
+        commands.expire(key, 365 * 24 * 60 * 60);
+
+        String auditKey = "audit:" + UUID.randomUUID();
+        commands.hset(auditKey, Map.of(
+            "paymentId", t.getId(),
+            "action", "CREATE",
+            "details", "Transaction created",
+            "createdAt", Instant.now().toString()));
+        commands.expire(auditKey, 365 * 24 * 60 * 60);
+    }
+
+    private void scriptCreate() {
+        repository.create(LoadTargets.newTransaction(), "CREATE", "Transaction created");
+    }
+
+    private static Map<String, String> toMap(Transaction t) {
+        Map<String, String> map = new HashMap<>();
+        map.put("_id", t.getId());
+        map.put("reference", t.getReference());
+        map.put("name", t.getName());
+        map.put("email", t.getEmail());
+        map.put("amount", t.getAmount().toString());
+        map.put("amountReceived", t.getAmountReceived().toString());
+        map.put("school", t.getSchool());
+        map.put("senderFullName", t.getSenderFullName());
+        map.put("countryFrom", t.getCountryFrom());
+        map.put("senderAddress", t.getSenderAddress());
+        map.put("currencyFrom", t.getCurrencyFrom());
+        map.put("studentId", t.getStudentId());
+        map.put("status", t.getStatus());
+        map.put("feePercentage", t.getFeePercentage().toString());
+        map.put("feeAmount", t.getFeeAmount().toString());
+        map.put("finalAmount", t.getFinalAmount().toString());
+        map.put("createdAt", t.getCreatedAt().toString());
+        map.put("updatedAt", t.getUpdatedAt().toString());
+        return map;
+    }
+}
@@ -0,0 +1,106 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.benchmark.LoadTargets;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestReporter;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * How far request concurrency scales with a fixed number of worker threads:
+ * blocking findById on a fixed pool versus reactive findById subscribed from
+ * the same number of threads with increasing in-flight limits.
+ *
+ * With blocking calls in-flight requests are capped at the thread count, so
+ * throughput is roughly threads / RTT. The reactive path keeps the same
+ * threads free while Redis works and scales with the in-flight limit instead.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactiveLoadBenchmark {
+    private static final int THREADS = Integer.getInteger("load.threads", 4);
+    private static final int REQUESTS = Integer.getInteger("load.operations", 100_000);
+    private static final int[] IN_FLIGHT = {4, 16, 64, 256, 1024};
+
+    private BenchmarkRedis redis;
+    private TransactionRepository repository;
+    private ReactiveTransactionRepository reactiveRepository;
+    private final List<String> ids = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        redis = new BenchmarkRedis();
+        repository = redis.repository();
+        reactiveRepository = redis.reactiveRepository();
+
+        for (int i = 0; i < 1_000; i++) {
+            var t = LoadTargets.newTransaction();
+            repository.create(t, "CREATE", "Benchmark seed");
+            ids.add(t.getId());
+        }
+    }
+
+    @AfterAll
+    void close() {
+        redis.close();
+    }
+
+    @Test
+    void compareConcurrencyScaling(TestReporter reporter) throws Exception {
+        blocking();
+        long elapsed = blocking();
+        reporter.publishEntry(String.format("blocking, %d threads", THREADS),
+            String.format("%,.0f req/s", REQUESTS / (elapsed / 1e9)));
+
+        Scheduler scheduler = Schedulers.newParallel("bench", THREADS);
+        try {
+            for (int inFlight : IN_FLIGHT) {
+                reactive(scheduler, inFlight);
+                elapsed = reactive(scheduler, inFlight);
+                reporter.publishEntry(String.format("reactive, %d threads, %d in flight", THREADS, inFlight),
+                    String.format("%,.0f req/s", REQUESTS / (elapsed / 1e9)));
+            }
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    private long blocking() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger found = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            String id = ids.get(i % ids.size());
+            pool.execute(() -> repository.findById(id).ifPresent(t -> found.incrementAndGet()));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.MINUTES), "blocking reads did not finish");
+        long elapsed = System.nanoTime() - start;
+        assertEquals(REQUESTS, found.get());
+        return elapsed;
+    }
+
+    private long reactive(Scheduler scheduler, int inFlight) {
+        long start = System.nanoTime();
+        Long found = Flux.range(0, REQUESTS)
+            .flatMap(i -> reactiveRepository.findById(ids.get(i % ids.size()))
+                .publishOn(scheduler), inFlight)
+            .count()
+            .block();
+        long elapsed = System.nanoTime() - start;
+        assertEquals(REQUESTS, found);
+        return elapsed;
+    }
+}
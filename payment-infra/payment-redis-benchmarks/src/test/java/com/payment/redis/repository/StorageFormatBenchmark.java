@@ -0,0 +1,86 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.benchmark.LoadTargets;
+import com.payment.redis.config.BulkReadConnections;
+import com.payment.redis.domain.Transaction;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Storage cost and decode time of the hash layout versus binary records:
+ * MEMORY USAGE per transaction key, raw field+value bytes, and the time to
+ * turn one fetched hash into a Transaction (Redis round trip excluded).
+ * Writes payment:* and audit:* keys in both formats.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StorageFormatBenchmark {
+    private static final int RECORDS = Integer.getInteger("load.operations", 10_000);
+    private static final int RUNS = 10;
+
+    private BenchmarkRedis redis;
+
+    @BeforeAll
+    void connect() {
+        redis = new BenchmarkRedis();
+    }
+
+    @AfterAll
+    void close() {
+        redis.close();
+    }
+
+    @Test
+    void compareStorageFormats(TestReporter reporter) {
+        for (String format : List.of("hash", "binary")) {
+            TransactionCodec codec = new TransactionCodec(format);
+            TransactionRepository repository =
+                redis.repository(new BulkReadConnections(List.of(redis.binaryConnection)), 500, codec);
+
+            List<String> ids = new ArrayList<>(RECORDS);
+            for (int i = 0; i < RECORDS; i++) {
+                Transaction t = LoadTargets.newTransaction();
+                repository.create(t, "CREATE", "Benchmark seed");
+                ids.add(t.getId());
+            }
+
+            RedisClusterCommands<String, byte[]> commands = redis.binaryConnection.sync();
+            long memory = 0;
+            long payload = 0;
+            List<Map<String, byte[]>> hashes = new ArrayList<>(RECORDS);
+            for (String id : ids) {
+                memory += commands.memoryUsage(redis.keys.payment(id));
+                Map<String, byte[]> hash = commands.hgetall(redis.keys.payment(id));
+                assertEquals(id, codec.decode(hash).getId(), format + " record not read back");
+                for (Map.Entry<String, byte[]> field : hash.entrySet()) {
+                    payload += field.getKey().length() + field.getValue().length;
+                }
+                hashes.add(hash);
+            }
+
+            long[] runs = new long[RUNS];
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                for (Map<String, byte[]> hash : hashes) {
+                    codec.decode(hash);
+                }
+                runs[run] = System.nanoTime() - start;
+            }
+            Arrays.sort(runs);
+
+            reporter.publishEntry(format, String.format(
+                "%,d B/key (MEMORY USAGE), %,d B fields+values, decode %,d ns/record",
+                memory / RECORDS, payload / RECORDS, runs[RUNS / 2] / RECORDS));
+        }
+    }
+}
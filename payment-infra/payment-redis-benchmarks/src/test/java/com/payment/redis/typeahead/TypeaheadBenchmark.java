@@ -0,0 +1,120 @@
+package com.payment.redis.typeahead;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Typeahead index at scale: build time, heap used (measured and as reported by
+ * memoryBytes) and query latency for one- and two-word prefixes of 1 to 4
+ * letters, against synthetic transactions with generated names, schools and
+ * emails. No Redis involved; a million transactions need about 2 GB of heap
+ * (-DargLine=-Xmx2g).
+ */
+class TypeaheadBenchmark {
+    private static final int RECORDS = Integer.getInteger("load.records", 1_000_000);
+    private static final int QUERIES = 20_000;
+    private static final String[] SYLLABLES = {"ka", "ri", "mo", "na", "le", "sa", "to", "vi", "an", "el",
+        "jo", "ha", "mi", "ru", "de", "lo", "pa", "ne", "is", "or", "ta", "be", "ci", "gu"};
+    private static final String[] DOMAINS = {"gmail.com", "yahoo.com", "outlook.com", "example.org"};
+
+    @Test
+    void measureIndex(TestReporter reporter) {
+        Random random = new Random(42);
+        String[] firstNames = names(random, 2_000, 2);
+        String[] lastNames = names(random, 20_000, 3);
+        String[] schools = new String[300];
+        for (int i = 0; i < schools.length; i++) {
+            schools[i] = capitalize(word(random, 3)) + " University";
+        }
+
+        long before = usedHeap();
+        TypeaheadIndex index = new TypeaheadIndex();
+        String indexed = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < RECORDS; i++) {
+            String first = firstNames[random.nextInt(firstNames.length)];
+            String last = lastNames[random.nextInt(lastNames.length)];
+            if (indexed == null) {
+                indexed = first + " " + last;
+            }
+            index.put(UUID.randomUUID().toString(), List.of(
+                first + " " + last,
+                random.nextInt(4) == 0 ? firstNames[random.nextInt(firstNames.length)] + " " + last : first,
+                schools[random.nextInt(schools.length)],
+                first.toLowerCase() + "." + last.toLowerCase() + random.nextInt(100) + "@"
+                    + DOMAINS[random.nextInt(DOMAINS.length)]));
+        }
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        long measured = usedHeap() - before;
+
+        assertEquals(RECORDS, index.size());
+        assertFalse(index.search(indexed, 10).isEmpty(), indexed + " not found");
+        reporter.publishEntry("build", String.format("%,d transactions indexed in %,d ms: %,d terms, %,d postings",
+            index.size(), buildMillis, index.termCount(), index.postingCount()));
+        reporter.publishEntry("heap", String.format("%,d MB measured, %,d MB reported by memoryBytes",
+            measured / (1024 * 1024), index.memoryBytes() / (1024 * 1024)));
+
+        for (int words = 1; words <= 2; words++) {
+            for (int letters = 1; letters <= 4; letters++) {
+                List<String> queries = new ArrayList<>(QUERIES);
+                for (int i = 0; i < QUERIES; i++) {
+                    StringBuilder query = new StringBuilder();
+                    for (int w = 0; w < words; w++) {
+                        String[] pool = w == 0 ? lastNames : firstNames;
+                        String word = pool[random.nextInt(pool.length)];
+                        query.append(word, 0, Math.min(letters, word.length())).append(' ');
+                    }
+                    queries.add(query.toString());
+                }
+                queries.forEach(query -> index.search(query, 10));
+
+                long[] nanos = new long[QUERIES];
+                for (int i = 0; i < QUERIES; i++) {
+                    long queryStart = System.nanoTime();
+                    index.search(queries.get(i), 10);
+                    nanos[i] = System.nanoTime() - queryStart;
+                }
+                Arrays.sort(nanos);
+                reporter.publishEntry(String.format("%d word(s) x %d letter(s), limit 10", words, letters),
+                    String.format("p50 %d us, p99 %d us, max %d us", nanos[QUERIES / 2] / 1000,
+                        nanos[QUERIES * 99 / 100] / 1000, nanos[QUERIES - 1] / 1000));
+            }
+        }
+    }
+
+    private static String[] names(Random random, int count, int syllables) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = capitalize(word(random, 1 + random.nextInt(syllables) + 1));
+        }
+        return names;
+    }
+
+    private static String word(Random random, int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,20 @@
+package com.payment.redis.audit;
+
+import com.payment.redis.domain.AuditEntry;
+
+import java.util.List;
+
+/**
+ * Where AuditWriteBehind sends its batches (AuditRepository#appendAll in the
+ * application)
+ */
+@FunctionalInterface
+public interface AuditBatchWriter {
+
+    /**
+     * Write all entries, in one pipeline where possible
+     *
+     * @throws RuntimeException if the batch could not be written
+     */
+    void write(List<AuditEntry> entries);
+}
@@ -0,0 +1,23 @@
+package com.payment.redis.audit;
+
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.Map;
+
+/**
+ * Audit write-behind queue depth, counters and flush latency at GET /auditqueue
+ */
+@Endpoint(id = "auditqueue", defaultSensitive = false)
+public class AuditQueueEndpoint {
+    private final AuditWriteBehind writeBehind;
+
+    public AuditQueueEndpoint(AuditWriteBehind writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        return writeBehind.stats();
+    }
+}
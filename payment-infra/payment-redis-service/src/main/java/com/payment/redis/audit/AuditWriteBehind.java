@@ -0,0 +1,297 @@
+package com.payment.redis.audit;
+
+import com.payment.redis.domain.AuditEntry;
+import com.payment.redis.repository.AuditRepository;
+import io.micronaut.context.annotation.Value;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous, batched write-behind for standalone audit entries.
+ *
+ * Callers queue an entry and return at once; a single background thread
+ * drains the bounded queue and writes batch-size entries per pipeline, or
+ * whatever has arrived once flush-interval has passed since the first entry
+ * of the batch. A failed batch is retried a few times before it is counted as
+ * failed and dropped.
+ *
+ * When the queue is full the overflow policy decides:
+ * - BLOCK (default): submit waits for space, so no entry is lost and a slow
+ *   Redis slows writers down; offer returns false so non-blocking callers can
+ *   write the entry themselves instead of parking an event loop thread
+ * - DROP: the entry is discarded and counted in "dropped"
+ *
+ * On shutdown the queue is flushed before the Redis connections close.
+ * Entries still queued if the process dies are lost; the audited write itself
+ * is not affected. Entries are appended up to flush-interval after the action,
+ * so they carry their own createdAt.
+ */
+@Singleton
+public class AuditWriteBehind {
+    private static final Logger log = LoggerFactory.getLogger(AuditWriteBehind.class);
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+    private static final long IDLE_POLL_MILLIS = 200;
+
+    public enum OverflowPolicy {
+        BLOCK, DROP
+    }
+
+    private final AuditBatchWriter writer;
+    private final boolean enabled;
+    private final BlockingQueue<AuditEntry> queue;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration shutdownTimeout;
+    private final Thread flusher;
+    private volatile boolean running;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushNanosTotal = new AtomicLong();
+    private final AtomicLong flushNanosMax = new AtomicLong();
+    private volatile long flushNanosLast;
+
+    @Inject
+    public AuditWriteBehind(AuditRepository repository,
+                            @Value("${redis.audit.write-behind.enabled:true}") boolean enabled,
+                            @Value("${redis.audit.write-behind.capacity:10000}") int capacity,
+                            @Value("${redis.audit.write-behind.batch-size:200}") int batchSize,
+                            @Value("${redis.audit.write-behind.flush-interval:50ms}") Duration flushInterval,
+                            @Value("${redis.audit.write-behind.overflow:block}") String overflowPolicy,
+                            @Value("${redis.audit.write-behind.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this(repository::appendAll, enabled, capacity, batchSize, flushInterval,
+            OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT)), shutdownTimeout);
+    }
+
+    AuditWriteBehind(AuditBatchWriter writer, boolean enabled, int capacity, int batchSize,
+                     Duration flushInterval, OverflowPolicy overflowPolicy, Duration shutdownTimeout) {
+        this.writer = writer;
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.overflowPolicy = overflowPolicy;
+        this.shutdownTimeout = shutdownTimeout;
+        this.flusher = new Thread(this::run, "audit-write-behind");
+        this.flusher.setDaemon(true);
+        if (enabled) {
+            running = true;
+            flusher.start();
+            log.info("🔧 Audit write-behind enabled (capacity {}, batch size {}, flush interval {}, overflow {})",
+                capacity, batchSize, flushInterval, overflowPolicy);
+        }
+    }
+
+    /**
+     * Queue an audit entry. Under BLOCK this waits while the queue is full.
+     * When write-behind is disabled or stopped the entry is written directly.
+     *
+     * @return false if the entry was dropped
+     */
+    public boolean submit(String paymentId, String action, String details) {
+        AuditEntry entry = new AuditEntry(null, paymentId, action, details, Instant.now());
+        if (!running) {
+            return writeDirectly(entry);
+        }
+        if (queue.offer(entry)) {
+            return queued(entry) || writeDirectly(entry);
+        }
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            return drop(entry);
+        }
+        try {
+            queue.put(entry);
+            return queued(entry) || writeDirectly(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return drop(entry);
+        }
+    }
+
+    /**
+     * Queue an audit entry without ever blocking
+     *
+     * @return false if the caller should write the entry itself: write-behind
+     *         is off or stopped while the entry was queued, or the queue is
+     *         full under BLOCK
+     */
+    public boolean offer(String paymentId, String action, String details) {
+        if (!running) {
+            return false;
+        }
+        AuditEntry entry = new AuditEntry(null, paymentId, action, details, Instant.now());
+        if (queue.offer(entry)) {
+            return queued(entry);
+        }
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            drop(entry);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stop accepting entries and flush what is queued, waiting at most shutdown-timeout
+     */
+    @PreDestroy
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            flusher.interrupt();
+            log.error("❌ Audit write-behind did not finish within {}, {} entries lost",
+                shutdownTimeout, queue.size());
+        } else {
+            log.info("✅ Audit write-behind flushed ({} written, {} dropped, {} failed)",
+                written.get(), dropped.get(), failed.get());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue depth, counters and flush latency
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long flushCount = flushes.get();
+        stats.put("enabled", enabled);
+        stats.put("overflowPolicy", overflowPolicy.name());
+        stats.put("queueDepth", queue.size());
+        stats.put("capacity", capacity);
+        stats.put("enqueued", enqueued.get());
+        stats.put("written", written.get());
+        stats.put("dropped", dropped.get());
+        stats.put("failed", failed.get());
+        stats.put("flushes", flushCount);
+        stats.put("flushLatencyLastMs", flushNanosLast / 1_000_000.0);
+        stats.put("flushLatencyAvgMs", flushCount == 0 ? 0.0 : flushNanosTotal.get() / 1_000_000.0 / flushCount);
+        stats.put("flushLatencyMaxMs", flushNanosMax.get() / 1_000_000.0);
+        return stats;
+    }
+
+    private void run() {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEntry first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Fill the batch until it is full or the first entry has waited flush-interval
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    AuditEntry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flush(List<AuditEntry> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                writer.write(batch);
+                long elapsed = System.nanoTime() - start;
+                written.addAndGet(batch.size());
+                flushes.incrementAndGet();
+                flushNanosTotal.addAndGet(elapsed);
+                flushNanosMax.accumulateAndGet(elapsed, Math::max);
+                flushNanosLast = elapsed;
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    failed.addAndGet(batch.size());
+                    log.error("❌ Failed to write {} audit entries after {} attempts", batch.size(), attempt, e);
+                    return;
+                }
+                log.warn("⚠️ Audit batch write failed (attempt {}), retrying: {}", attempt, e.getMessage());
+                Thread.sleep(RETRY_BACKOFF_MILLIS * attempt);
+            }
+        }
+    }
+
+    /**
+     * Count an entry that made it into the queue, unless close() ran meanwhile:
+     * the flusher may already have seen the queue empty for the last time, so
+     * the entry is taken back if nobody has taken it yet.
+     *
+     * @return false if the entry was taken back and the caller has to write it
+     */
+    private boolean queued(AuditEntry entry) {
+        if (!running && queue.remove(entry)) {
+            return false;
+        }
+        enqueued.incrementAndGet();
+        return true;
+    }
+
+    private boolean writeDirectly(AuditEntry entry) {
+        try {
+            writer.write(List.of(entry));
+            written.incrementAndGet();
+            return true;
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.error("❌ Error saving audit log", e);
+            return false;
+        }
+    }
+
+    private boolean drop(AuditEntry entry) {
+        long total = dropped.incrementAndGet();
+        // Log the first drop and then every thousandth, not every one
+        if (total == 1 || total % 1000 == 0) {
+            log.warn("⚠️ Audit queue full, dropped {} entries so far (latest: {} for {})",
+                total, entry.getAction(), entry.getPaymentId());
+        }
+        return false;
+    }
+}
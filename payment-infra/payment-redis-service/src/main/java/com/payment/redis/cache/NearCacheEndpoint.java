@@ -0,0 +1,23 @@
+package com.payment.redis.cache;
+
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.Map;
+
+/**
+ * Near cache counters at GET /nearcache
+ */
+@Endpoint(id = "nearcache", defaultSensitive = false)
+public class NearCacheEndpoint {
+    private final TransactionNearCache nearCache;
+
+    public NearCacheEndpoint(TransactionNearCache nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        return nearCache.stats();
+    }
+}
@@ -0,0 +1,88 @@
+package com.payment.redis.cache;
+
+import com.payment.redis.config.RedisConnectionFactory;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.SocketAddress;
+
+/**
+ * Keeps the near cache coherent with writes made by other instances.
+ *
+ * Subscribes to {@link TransactionNearCache#INVALIDATION_CHANNEL} on a
+ * dedicated pub/sub connection and evicts every ID published there. Lettuce
+ * resubscribes after a reconnect, but messages sent while the connection was
+ * down are gone, so the cache is bypassed while disconnected and starts empty
+ * again once the subscription is back.
+ */
+@Singleton
+@Requires(property = "redis.near-cache.enabled", notEquals = "false")
+public class NearCacheInvalidationListener implements RedisConnectionStateListener {
+    private static final Logger log = LoggerFactory.getLogger(NearCacheInvalidationListener.class);
+
+    private final RedisConnectionFactory client;
+    private final TransactionNearCache nearCache;
+    private StatefulRedisPubSubConnection<String, String> connection;
+
+    public NearCacheInvalidationListener(RedisConnectionFactory client, TransactionNearCache nearCache) {
+        this.client = client;
+        this.nearCache = nearCache;
+    }
+
+    @EventListener
+    public void onStartup(StartupEvent event) {
+        try {
+            connection = client.connectPubSub();
+            connection.addListener(new RedisPubSubAdapter<>() {
+                @Override
+                public void message(String channel, String id) {
+                    nearCache.invalidate(id);
+                }
+            });
+            client.addListener(this);
+            connection.sync().subscribe(TransactionNearCache.INVALIDATION_CHANNEL);
+            nearCache.setCoherent(true);
+            log.info("✅ Near cache subscribed to {}", TransactionNearCache.INVALIDATION_CHANNEL);
+        } catch (Exception e) {
+            // The cache stays bypassed; reads go to Redis as before
+            log.error("❌ Near cache invalidation subscription failed, cache disabled", e);
+        }
+    }
+
+    @Override
+    public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress socketAddress) {
+        if (handler == connection) {
+            log.info("🔧 Invalidation connection restored, near cache cleared");
+            nearCache.setCoherent(true);
+        }
+    }
+
+    @Override
+    public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+        if (handler == connection) {
+            log.warn("⚠️ Invalidation connection lost, near cache bypassed until it reconnects");
+            nearCache.setCoherent(false);
+        }
+    }
+
+    @Override
+    public void onRedisExceptionCaught(RedisChannelHandler<?, ?> handler, Throwable cause) {
+    }
+
+    @PreDestroy
+    public void close() {
+        nearCache.setCoherent(false);
+        if (connection != null) {
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.payment.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.payment.redis.domain.Transaction;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process L1 cache of decoded transactions, keyed by ID, with a second
+ * small map from reference number to ID.
+ *
+ * Coherence across instances: every script that changes or deletes a
+ * transaction publishes its ID on {@link #INVALIDATION_CHANNEL}, and
+ * {@link NearCacheInvalidationListener} evicts it here. While the
+ * subscription is down the cache is bypassed and emptied, because
+ * invalidations sent in the meantime are lost.
+ *
+ * A read that misses takes a ticket before going to Redis and only stores its
+ * result if no invalidation arrived in between, so a slow reader can never
+ * put back a value that a concurrent write has already replaced.
+ */
+@Singleton
+public class TransactionNearCache {
+    private static final Logger log = LoggerFactory.getLogger(TransactionNearCache.class);
+    public static final String INVALIDATION_CHANNEL = "payment:invalidations";
+
+    private final boolean enabled;
+    private final Cache<String, Transaction> byId;
+    private final Cache<String, String> idByReference;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile boolean coherent;
+
+    @Inject
+    public TransactionNearCache(@Value("${redis.near-cache.enabled:true}") boolean enabled,
+                                @Value("${redis.near-cache.maximum-size:10000}") long maximumSize,
+                                @Value("${redis.near-cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.enabled = enabled;
+        this.byId = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+        this.idByReference = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .build();
+        if (enabled) {
+            log.info("🔧 Near cache enabled (maximum size {}, expire after write {})", maximumSize, expireAfterWrite);
+        }
+    }
+
+    /**
+     * A cache that never holds anything, for repositories used outside the application context
+     */
+    public static TransactionNearCache disabled() {
+        return new TransactionNearCache(false, 0, Duration.ZERO);
+    }
+
+    /**
+     * Get a copy of the cached transaction
+     */
+    public Optional<Transaction> get(String id) {
+        if (!isActive()) {
+            return Optional.empty();
+        }
+        Transaction cached = byId.getIfPresent(id);
+        return cached == null ? Optional.empty() : Optional.of(copy(cached));
+    }
+
+    /**
+     * Get a copy of the cached transaction with the given reference number
+     */
+    public Optional<Transaction> getByReference(String reference) {
+        if (!isActive()) {
+            return Optional.empty();
+        }
+        String id = idByReference.getIfPresent(reference);
+        return id == null ? Optional.empty() : get(id);
+    }
+
+    /**
+     * Take a ticket before reading from Redis, to be passed back to {@link #put}
+     */
+    public long ticket() {
+        return generation.get();
+    }
+
+    /**
+     * Cache a transaction read from Redis, unless an invalidation arrived since the ticket was taken
+     */
+    public void put(long ticket, Transaction transaction) {
+        if (!isActive()) {
+            return;
+        }
+        byId.put(transaction.getId(), copy(transaction));
+        if (transaction.getReference() != null) {
+            idByReference.put(transaction.getReference(), transaction.getId());
+        }
+        // Re-check after the write: an invalidation racing with put() removes
+        // the entry again here rather than leaving a stale value behind
+        if (generation.get() != ticket) {
+            byId.invalidate(transaction.getId());
+        }
+    }
+
+    /**
+     * Drop one transaction, after a local write or an invalidation message
+     */
+    public void invalidate(String id) {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        byId.invalidate(id);
+    }
+
+    /**
+     * Drop everything, when invalidation messages may have been missed
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        byId.invalidateAll();
+        idByReference.invalidateAll();
+    }
+
+    /**
+     * Called by the invalidation listener as its subscription goes up or down
+     */
+    void setCoherent(boolean coherent) {
+        this.coherent = coherent;
+        invalidateAll();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Hit, miss and eviction counters
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = byId.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("coherent", coherent);
+        result.put("size", byId.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("invalidations", invalidations.get());
+        return result;
+    }
+
+    private boolean isActive() {
+        return enabled && coherent;
+    }
+
+    /**
+     * Transactions are mutable, so callers never share an instance with the cache
+     */
+    private static Transaction copy(Transaction t) {
+        return new Transaction(t.getId(), t.getReference(), t.getName(), t.getEmail(),
+            t.getAmount(), t.getAmountReceived(), t.getSchool(), t.getSenderFullName(),
+            t.getCountryFrom(), t.getSenderAddress(), t.getCurrencyFrom(), t.getStudentId(),
+            t.getStatus(), t.getFeePercentage(), t.getFeeAmount(), t.getFinalAmount(),
+            t.getCreatedAt(), t.getUpdatedAt());
+    }
+}
@@ -0,0 +1,49 @@
+package com.payment.redis.config;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small fixed set of connections reserved for bulk reads, so that large
+ * list fetches are spread over several sockets in parallel and do not queue
+ * behind (or in front of) the request traffic on the shared connection.
+ * They use the binary codec, like every connection that reads transaction hashes.
+ */
+public class BulkReadConnections implements AutoCloseable {
+    private final List<RedisConnection<String, byte[]>> connections;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public BulkReadConnections(List<RedisConnection<String, byte[]>> connections) {
+        if (connections.isEmpty()) {
+            throw new IllegalArgumentException("At least one bulk read connection is required");
+        }
+        this.connections = List.copyOf(connections);
+    }
+
+    /**
+     * Number of connections available for parallel batches
+     */
+    public int size() {
+        return connections.size();
+    }
+
+    /**
+     * Connection for the given batch, rotating the starting point between
+     * callers so concurrent bulk reads do not all start on the same socket
+     */
+    public RedisConnection<String, byte[]> forBatch(int start, int batch) {
+        return connections.get(Math.floorMod(start + batch, connections.size()));
+    }
+
+    /**
+     * Starting offset for a new bulk read
+     */
+    public int nextStart() {
+        return next.getAndIncrement();
+    }
+
+    @Override
+    public void close() {
+        connections.forEach(RedisConnection::close);
+    }
+}
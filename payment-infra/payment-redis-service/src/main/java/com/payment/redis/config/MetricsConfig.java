@@ -0,0 +1,57 @@
+package com.payment.redis.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+
+import java.util.List;
+
+/**
+ * Metrics configuration, exported in Prometheus format at GET /prometheus.
+ *
+ * Meters:
+ * - http.server.requests (timer, by method, uri template and status) - every HTTP route
+ * - payment.repository (timer, by repository, operation and exception) - every
+ *   repository call; calls that threw carry the exception's class name. The
+ *   repositories bind the Timed interceptor on the class, and each timed
+ *   method carries @Timed with its tags
+ * - redis.command, redis.command.errors, redis.payload - see RedisMetrics
+ */
+@Factory
+@Requires(property = "micronaut.metrics.enabled", notEquals = "false")
+public class MetricsConfig {
+    private static final List<String> LATENCY_HISTOGRAMS = List.of(
+        "http.server.requests", "payment.repository", "redis.command");
+    private static final String PAYLOAD_HISTOGRAM = "redis.payload";
+
+    /**
+     * Publish histogram buckets for the latency and payload meters, so
+     * percentiles can be computed over any set of instances and any range
+     */
+    @Singleton
+    MeterFilter histograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().equals(PAYLOAD_HISTOGRAM)) {
+                    return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue(16.0)
+                        .maximumExpectedValue(1024.0 * 1024)
+                        .build()
+                        .merge(config);
+                }
+                if (LATENCY_HISTOGRAMS.contains(id.getName())) {
+                    return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+}
@@ -1,46 +1,109 @@
 package com.payment.redis.config;
 
-import io.lettuce.core.RedisClient;
-import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
 import io.micronaut.context.annotation.Bean;
 import io.micronaut.context.annotation.Factory;
-import io.micronaut.context.annotation.Prototype;
+import io.micronaut.context.annotation.Primary;
 import io.micronaut.context.annotation.Value;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
- * Redis configuration and connection management
+ * Redis configuration and connection management.
+ *
+ * Connects to the standalone Redis at redis.uri, or with
+ * redis.cluster.enabled=true to the Redis Cluster whose seed nodes are listed
+ * in redis.cluster.uris.
  */
 @Factory
 public class RedisConfig {
     private static final Logger log = LoggerFactory.getLogger(RedisConfig.class);
 
+    /**
+     * String keys, raw byte values: transaction hashes in any storage format
+     */
+    public static final RedisCodec<String, byte[]> BINARY_CODEC =
+        RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
+
     @Value("${redis.uri:redis://localhost:6379}")
     private String redisUri;
 
+    @Value("${redis.cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Value("${redis.cluster.uris:}")
+    private String clusterUris;
+
+    @Value("${redis.cluster.topology-refresh:30s}")
+    private Duration topologyRefresh;
+
     public RedisConfig() {
         log.info("🔧 Initializing Redis configuration");
     }
 
     /**
-     * Create Redis client
+     * Create the Redis client, standalone or cluster
      */
     @Singleton
-    public RedisClient redisClient() {
-        log.info("Creating Redis client with URI: {}", redisUri);
-        return RedisClient.create(redisUri);
+    @Bean(preDestroy = "shutdown")
+    public RedisConnectionFactory redisConnectionFactory(@Nullable RedisMetrics metrics) {
+        RedisConnectionFactory factory;
+        if (clusterEnabled) {
+            log.info("Creating Redis Cluster client with seed nodes: {}", clusterUris);
+            factory = RedisConnectionFactory.cluster(clusterUris, topologyRefresh);
+        } else {
+            log.info("Creating Redis client with URI: {}", redisUri);
+            factory = RedisConnectionFactory.standalone(redisUri);
+        }
+        return metrics == null ? factory : factory.instrument(metrics);
     }
 
     /**
      * Create Redis connection
      */
     @Singleton
-    public StatefulRedisConnection<String, String> createRedisConnection(
-            RedisClient client) {
-        StatefulRedisConnection<String, String> connection = client.connect();
+    @Primary
+    @Bean(preDestroy = "close")
+    public RedisConnection<String, String> createRedisConnection(RedisConnectionFactory factory) {
+        RedisConnection<String, String> connection = factory.connect();
         log.info("✅ Redis connection established");
         return connection;
     }
+
+    /**
+     * Create the connection used to read and write transaction hashes
+     */
+    @Singleton
+    @Named("binary")
+    @Bean(preDestroy = "close")
+    public RedisConnection<String, byte[]> binaryRedisConnection(RedisConnectionFactory factory) {
+        RedisConnection<String, byte[]> connection = factory.connect(BINARY_CODEC);
+        log.info("✅ Redis binary connection established");
+        return connection;
+    }
+
+    /**
+     * Create the dedicated connections used for pipelined bulk reads
+     */
+    @Singleton
+    @Bean(preDestroy = "close")
+    public BulkReadConnections bulkReadConnections(
+            RedisConnectionFactory factory,
+            @Value("${redis.bulk-fetch.connections:4}") int size) {
+        List<RedisConnection<String, byte[]>> connections = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            connections.add(factory.connect(BINARY_CODEC));
+        }
+        log.info("✅ {} bulk read connections established", size);
+        return new BulkReadConnections(connections);
+    }
 }
@@ -0,0 +1,91 @@
+package com.payment.redis.config;
+
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.api.reactive.RedisClusterReactiveCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+
+import java.time.Duration;
+
+/**
+ * A connection to either a standalone Redis or a Redis Cluster, exposing the
+ * command interfaces both have in common. Repositories only use these, so
+ * the same code runs in both modes: in cluster mode Lettuce routes every
+ * command (and every script call, by its first key) to the node owning the
+ * slot, and multi-key commands such as DEL are split per slot.
+ */
+public interface RedisConnection<K, V> extends AutoCloseable {
+
+    RedisClusterCommands<K, V> sync();
+
+    RedisClusterAsyncCommands<K, V> async();
+
+    RedisClusterReactiveCommands<K, V> reactive();
+
+    /**
+     * Command timeout, also used when waiting for pipelined futures
+     */
+    Duration getTimeout();
+
+    @Override
+    void close();
+
+    static <K, V> RedisConnection<K, V> of(StatefulRedisConnection<K, V> connection) {
+        return new RedisConnection<>() {
+            @Override
+            public RedisClusterCommands<K, V> sync() {
+                return connection.sync();
+            }
+
+            @Override
+            public RedisClusterAsyncCommands<K, V> async() {
+                return connection.async();
+            }
+
+            @Override
+            public RedisClusterReactiveCommands<K, V> reactive() {
+                return connection.reactive();
+            }
+
+            @Override
+            public Duration getTimeout() {
+                return connection.getTimeout();
+            }
+
+            @Override
+            public void close() {
+                connection.close();
+            }
+        };
+    }
+
+    static <K, V> RedisConnection<K, V> of(StatefulRedisClusterConnection<K, V> connection) {
+        return new RedisConnection<>() {
+            @Override
+            public RedisClusterCommands<K, V> sync() {
+                return connection.sync();
+            }
+
+            @Override
+            public RedisClusterAsyncCommands<K, V> async() {
+                return connection.async();
+            }
+
+            @Override
+            public RedisClusterReactiveCommands<K, V> reactive() {
+                return connection.reactive();
+            }
+
+            @Override
+            public Duration getTimeout() {
+                return connection.getTimeout();
+            }
+
+            @Override
+            public void close() {
+                connection.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package com.payment.redis.config;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.masterreplica.MasterReplica;
+import io.lettuce.core.masterreplica.StatefulRedisMasterReplicaConnection;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Opens connections to a standalone Redis (RedisClient) or to a Redis Cluster
+ * (RedisClusterClient), whichever the service is configured for.
+ *
+ * In cluster mode only seed nodes are configured; Lettuce discovers the rest
+ * of the topology, refreshes it periodically and as soon as a node answers
+ * MOVED/ASK or a connection drops, so resharding and failovers are followed
+ * without a restart.
+ */
+public final class RedisConnectionFactory {
+    private final AbstractRedisClient client;
+    private final RedisURI primary;
+    private RedisMetrics metrics;
+
+    private RedisConnectionFactory(AbstractRedisClient client, RedisURI primary) {
+        this.client = client;
+        this.primary = primary;
+    }
+
+    public static RedisConnectionFactory standalone(String uri) {
+        RedisURI primary = RedisURI.create(uri);
+        return new RedisConnectionFactory(RedisClient.create(primary), primary);
+    }
+
+    /**
+     * @param uris comma-separated seed node URIs
+     */
+    public static RedisConnectionFactory cluster(String uris, Duration topologyRefresh) {
+        List<RedisURI> seeds = parseUris(uris);
+        if (seeds.isEmpty()) {
+            throw new IllegalArgumentException("redis.cluster.uris must list at least one node");
+        }
+        RedisClusterClient client = RedisClusterClient.create(seeds);
+        client.setOptions(ClusterClientOptions.builder()
+            .topologyRefreshOptions(ClusterTopologyRefreshOptions.builder()
+                .enablePeriodicRefresh(topologyRefresh)
+                .enableAllAdaptiveRefreshTriggers()
+                .build())
+            .build());
+        return new RedisConnectionFactory(client, null);
+    }
+
+    /**
+     * Record the latency and errors of every command, and the size of the
+     * values of connections opened from now on
+     */
+    public RedisConnectionFactory instrument(RedisMetrics metrics) {
+        this.metrics = metrics;
+        client.addListener(metrics);
+        return this;
+    }
+
+    public boolean isCluster() {
+        return client instanceof RedisClusterClient;
+    }
+
+    public RedisConnection<String, String> connect() {
+        return connect(StringCodec.UTF8);
+    }
+
+    public <V> RedisConnection<String, V> connect(RedisCodec<String, V> codec) {
+        codec = measured(codec);
+        if (client instanceof RedisClusterClient cluster) {
+            return RedisConnection.of(cluster.connect(codec));
+        }
+        return RedisConnection.of(((RedisClient) client).connect(codec));
+    }
+
+    /**
+     * Connection that sends read-only commands to a replica when one is up and
+     * everything else (scripts included) to the primary. In a cluster the
+     * replica is one of the key's shard. A standalone primary's replicas are
+     * discovered from its INFO replication, unless `nodes` lists the primary and
+     * its replicas explicitly (needed when replicas announce unreachable addresses).
+     *
+     * @param nodes comma-separated node URIs, or empty to discover them
+     */
+    public <V> RedisConnection<String, V> connectReplicas(RedisCodec<String, V> codec, String nodes) {
+        codec = measured(codec);
+        if (client instanceof RedisClusterClient cluster) {
+            StatefulRedisClusterConnection<String, V> connection = cluster.connect(codec);
+            connection.setReadFrom(ReadFrom.REPLICA_PREFERRED);
+            return RedisConnection.of(connection);
+        }
+        List<RedisURI> uris = parseUris(nodes);
+        StatefulRedisMasterReplicaConnection<String, V> connection =
+            MasterReplica.connect((RedisClient) client, codec, uris.isEmpty() ? List.of(primary) : uris);
+        connection.setReadFrom(ReadFrom.REPLICA_PREFERRED);
+        return RedisConnection.of(connection);
+    }
+
+    /**
+     * Pub/sub connection. In a cluster, messages published on any node are
+     * delivered to subscribers on every node, so one subscription suffices.
+     */
+    public StatefulRedisPubSubConnection<String, String> connectPubSub() {
+        if (client instanceof RedisClusterClient cluster) {
+            return cluster.connectPubSub();
+        }
+        return ((RedisClient) client).connectPubSub();
+    }
+
+    public void addListener(RedisConnectionStateListener listener) {
+        client.addListener(listener);
+    }
+
+    public void shutdown() {
+        client.shutdown();
+    }
+
+    private <V> RedisCodec<String, V> measured(RedisCodec<String, V> codec) {
+        return metrics == null ? codec : metrics.measure(codec);
+    }
+
+    private static List<RedisURI> parseUris(String uris) {
+        return Arrays.stream(uris.split(","))
+            .map(String::trim)
+            .filter(uri -> !uri.isEmpty())
+            .map(RedisURI::create)
+            .toList();
+    }
+}
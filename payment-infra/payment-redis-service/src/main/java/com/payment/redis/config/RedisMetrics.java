@@ -0,0 +1,119 @@
+package com.payment.redis.config;
+
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.event.command.CommandFailedEvent;
+import io.lettuce.core.event.command.CommandListener;
+import io.lettuce.core.event.command.CommandStartedEvent;
+import io.lettuce.core.event.command.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of the Redis commands sent by every connection:
+ *
+ * - redis.command (timer, by command) - time from sending a command until its
+ *   reply is decoded; for pipelined commands this includes the wait behind
+ *   the ones sent before it
+ * - redis.command.errors (counter, by command and exception) - error replies,
+ *   timeouts and commands cancelled by a disconnect
+ * - redis.payload (distribution, bytes, by direction) - size of each value
+ *   written (write) and read (read): hash fields, script arguments and
+ *   replies, stream entries
+ *
+ * Registered on the client by {@link RedisConnectionFactory#instrument}.
+ */
+@Singleton
+@Requires(beans = MeterRegistry.class)
+public class RedisMetrics implements CommandListener {
+    static final String COMMAND_TIMER = "redis.command";
+    static final String COMMAND_ERRORS = "redis.command.errors";
+    static final String PAYLOAD = "redis.payload";
+    private static final String STARTED = "redis.metrics.started";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final DistributionSummary written;
+    private final DistributionSummary read;
+
+    public RedisMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.written = payload(registry, "write");
+        this.read = payload(registry, "read");
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        // The event's own duration is in whole milliseconds, longer than most commands take
+        event.getContext().put(STARTED, System.nanoTime());
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Object started = event.getContext().get(STARTED);
+        if (started == null) {
+            return;
+        }
+        timers.computeIfAbsent(event.getCommand().getType().name(), command -> Timer.builder(COMMAND_TIMER)
+                .description("Redis command latency")
+                .tag("command", command)
+                .register(registry))
+            .record(System.nanoTime() - (Long) started, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Counter.builder(COMMAND_ERRORS)
+            .description("Redis commands that failed")
+            .tag("command", event.getCommand().getType().name())
+            .tag("exception", event.getCause().getClass().getSimpleName())
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * The codec with the size of every value it encodes and decodes recorded
+     */
+    public <K, V> RedisCodec<K, V> measure(RedisCodec<K, V> codec) {
+        return new RedisCodec<>() {
+            @Override
+            public K decodeKey(ByteBuffer bytes) {
+                return codec.decodeKey(bytes);
+            }
+
+            @Override
+            public V decodeValue(ByteBuffer bytes) {
+                read.record(bytes.remaining());
+                return codec.decodeValue(bytes);
+            }
+
+            @Override
+            public ByteBuffer encodeKey(K key) {
+                return codec.encodeKey(key);
+            }
+
+            @Override
+            public ByteBuffer encodeValue(V value) {
+                ByteBuffer encoded = codec.encodeValue(value);
+                written.record(encoded.remaining());
+                return encoded;
+            }
+        };
+    }
+
+    private static DistributionSummary payload(MeterRegistry registry, String direction) {
+        return DistributionSummary.builder(PAYLOAD)
+            .description("Size of Redis values written and read")
+            .baseUnit("bytes")
+            .tag("direction", direction)
+            .register(registry);
+    }
+}
@@ -0,0 +1,51 @@
+package com.payment.redis.controller;
+
+import com.payment.redis.dto.AuditPageResponse;
+import com.payment.redis.service.AuditService;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.QueryValue;
+import io.micronaut.http.exceptions.HttpStatusException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+
+/**
+ * REST API for the audit log of all payments
+ */
+@Controller("/api/audit")
+public class AuditController {
+    private static final Logger log = LoggerFactory.getLogger(AuditController.class);
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private final AuditService auditService;
+
+    public AuditController(AuditService auditService) {
+        this.auditService = auditService;
+    }
+
+    /**
+     * Get one page of audit entries in [from, to], oldest first.
+     * Pass the returned nextCursor back as cursor to fetch the following page.
+     */
+    @Get
+    public AuditPageResponse getAuditLog(@Nullable @QueryValue Integer limit,
+                                         @Nullable @QueryValue String cursor,
+                                         @Nullable @QueryValue Instant from,
+                                         @Nullable @QueryValue Instant to) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST,
+                "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        log.info("Fetching audit log page (limit {})", pageSize);
+        try {
+            return AuditPageResponse.fromPage(auditService.getAuditLog(pageSize, cursor, from, to));
+        } catch (IllegalArgumentException e) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.payment.redis.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.payment.redis.dto.TransactionResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Turns batches of transactions into NDJSON chunks (one JSON object per line),
+ * optionally as one continuous gzip stream. Each chunk is flushed so it can be
+ * written to the client on its own; finish() returns the gzip trailer.
+ *
+ * Stateful: one encoder per response, used by one subscriber at a time.
+ */
+final class NdjsonEncoder {
+    private final ObjectWriter writer;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+    private final OutputStream out;
+
+    NdjsonEncoder(ObjectMapper objectMapper, boolean gzip) {
+        this.writer = objectMapper.writerFor(TransactionResponse.class);
+        try {
+            this.out = gzip ? new GZIPOutputStream(buffer, 8192, true) : buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    byte[] encode(List<TransactionResponse> records) {
+        try {
+            for (TransactionResponse record : records) {
+                out.write(writer.writeValueAsBytes(record));
+                out.write('\n');
+            }
+            out.flush();
+            return drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    byte[] finish() {
+        try {
+            if (out instanceof GZIPOutputStream gzip) {
+                gzip.finish();
+            }
+            return drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] drain() {
+        byte[] chunk = buffer.toByteArray();
+        buffer.reset();
+        return chunk;
+    }
+}
@@ -0,0 +1,153 @@
+package com.payment.redis.controller;
+
+import com.payment.redis.controller.TransactionController.TransactionNotFoundException;
+import com.payment.redis.dto.CreateTransactionRequest;
+import com.payment.redis.dto.TimeSeriesResponse;
+import com.payment.redis.dto.TransactionPageResponse;
+import com.payment.redis.dto.TransactionResponse;
+import com.payment.redis.dto.TransactionStatsResponse;
+import com.payment.redis.service.ReactiveTransactionService;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.annotation.*;
+import io.micronaut.http.exceptions.HttpStatusException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Non-blocking REST API for transactions. Mirrors {@link TransactionController}
+ * but returns Mono/Flux end to end, so handlers stay on the event loop and no
+ * thread waits on Redis.
+ */
+@Controller("/api/reactive/transactions")
+public class ReactiveTransactionController {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveTransactionController.class);
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private final ReactiveTransactionService transactionService;
+
+    public ReactiveTransactionController(ReactiveTransactionService transactionService) {
+        this.transactionService = transactionService;
+    }
+
+    /**
+     * Get all transactions
+     */
+    @Get
+    public Flux<TransactionResponse> getAllTransactions() {
+        log.info("Fetching all transactions");
+        return transactionService.getAllTransactions()
+            .map(TransactionResponse::fromTransaction);
+    }
+
+    /**
+     * Get one page of transactions, newest first
+     */
+    @Get("/page")
+    public Mono<TransactionPageResponse> getTransactionPage(@Nullable @QueryValue Integer limit,
+                                                            @Nullable @QueryValue String cursor,
+                                                            @Nullable @QueryValue Instant from,
+                                                            @Nullable @QueryValue Instant to) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return Mono.error(new HttpStatusException(HttpStatus.BAD_REQUEST,
+                "limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        log.info("Fetching transaction page (limit {})", pageSize);
+        return transactionService.getTransactionPage(pageSize, cursor, from, to)
+            .map(TransactionPageResponse::fromPage)
+            .onErrorMap(IllegalArgumentException.class,
+                e -> new HttpStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    /**
+     * Get transaction by ID
+     */
+    @Get("/{id}")
+    public Mono<TransactionResponse> getTransactionById(@PathVariable String id) {
+        log.info("Fetching transaction: {}", id);
+        return transactionService.getTransactionById(id)
+            .map(TransactionResponse::fromTransaction)
+            .switchIfEmpty(Mono.error(() -> new TransactionNotFoundException("Transaction not found: " + id)));
+    }
+
+    /**
+     * Create a new transaction
+     */
+    @Post
+    @Status(HttpStatus.CREATED)
+    public Mono<TransactionResponse> createTransaction(@Body CreateTransactionRequest request) {
+        log.info("Creating new transaction for: {}", request.getEmail());
+        return transactionService.createTransaction(
+                request.getName(),
+                request.getEmail(),
+                request.getAmount(),
+                request.getSchool(),
+                request.getCountryFrom(),
+                request.getSenderAddress(),
+                request.getCurrencyFrom(),
+                request.getStudentId())
+            .map(TransactionResponse::fromTransaction);
+    }
+
+    /**
+     * Get transaction by reference number
+     */
+    @Get("/reference/{reference}")
+    public Mono<TransactionResponse> getByReference(@PathVariable String reference) {
+        log.info("Fetching transaction by reference: {}", reference);
+        return transactionService.getTransactionByReference(reference)
+            .map(TransactionResponse::fromTransaction)
+            .switchIfEmpty(Mono.error(() -> new TransactionNotFoundException("Transaction not found: " + reference)));
+    }
+
+    /**
+     * Delete transaction
+     */
+    @Delete("/{id}")
+    public Mono<Map<String, String>> deleteTransaction(@PathVariable String id) {
+        log.info("Deleting transaction: {}", id);
+        return transactionService.deleteTransaction(id)
+            .flatMap(deleted -> deleted
+                ? Mono.just(Map.of("message", "Transaction deleted successfully"))
+                : Mono.error(new TransactionNotFoundException("Transaction not found: " + id)));
+    }
+
+    /**
+     * Get transaction statistics
+     */
+    @Get("/stats/count")
+    public Mono<Map<String, Long>> getTransactionCount() {
+        log.info("Fetching transaction count");
+        return transactionService.getTransactionCount()
+            .map(total -> Map.of("total", total));
+    }
+
+    /**
+     * Get count and amount sums, in total and by status, currency, country and school
+     */
+    @Get("/stats")
+    public Mono<TransactionStatsResponse> getTransactionStats() {
+        log.info("Fetching transaction stats");
+        return transactionService.getTransactionStats()
+            .map(TransactionStatsResponse::fromStats);
+    }
+
+    /**
+     * Get count and amount sums per minute, hour or day of createdAt in [from, to]
+     */
+    @Get("/stats/timeseries")
+    public Mono<TimeSeriesResponse> getTransactionTimeSeries(@Nullable @QueryValue String resolution,
+                                                             @Nullable @QueryValue Instant from,
+                                                             @Nullable @QueryValue Instant to) {
+        TimeSeriesQuery query = TimeSeriesQuery.of(resolution, from, to);
+        log.info("Fetching transaction time series ({} from {} to {})", query.resolution().id(), query.from(), query.to());
+        return transactionService.getTransactionTimeSeries(query.resolution(), query.from(), query.to())
+            .map(points -> TimeSeriesResponse.fromPoints(query.resolution(), points));
+    }
+}
@@ -0,0 +1,36 @@
+package com.payment.redis.controller;
+
+import com.payment.redis.domain.StatsResolution;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+
+import java.time.Instant;
+
+/**
+ * Validated parameters of a time series request, shared by the blocking and
+ * reactive controllers. Without bounds the last DEFAULT_POINTS buckets up to
+ * now are returned; a request may span at most MAX_POINTS buckets.
+ */
+record TimeSeriesQuery(StatsResolution resolution, Instant from, Instant to) {
+    static final int DEFAULT_POINTS = 60;
+    static final int MAX_POINTS = 10_000;
+
+    static TimeSeriesQuery of(String resolution, Instant from, Instant to) {
+        StatsResolution parsed;
+        try {
+            parsed = StatsResolution.parse(resolution == null ? "hour" : resolution);
+        } catch (IllegalArgumentException e) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? end.minus(parsed.getWidth().multipliedBy(DEFAULT_POINTS - 1)) : from;
+        if (start.isAfter(end)) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        if (parsed.bucketCount(start, end) > MAX_POINTS) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST,
+                "at most " + MAX_POINTS + " buckets per request, use a coarser resolution");
+        }
+        return new TimeSeriesQuery(parsed, start, end);
+    }
+}
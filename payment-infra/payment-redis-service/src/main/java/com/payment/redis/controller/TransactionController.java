@@ -1,16 +1,37 @@
 package com.payment.redis.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.redis.domain.BatchItemResult;
 import com.payment.redis.domain.Transaction;
+import com.payment.redis.dto.AuditEntryResponse;
+import com.payment.redis.dto.BatchCreateResponse;
 import com.payment.redis.dto.CreateTransactionRequest;
+import com.payment.redis.dto.TimeSeriesResponse;
+import com.payment.redis.dto.TransactionPageResponse;
 import com.payment.redis.dto.TransactionResponse;
+import com.payment.redis.dto.TransactionStatsResponse;
+import com.payment.redis.limit.ConcurrencyLimitFilter;
+import com.payment.redis.service.AuditService;
+import com.payment.redis.service.IdempotencyService;
 import com.payment.redis.service.TransactionService;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.MutableHttpResponse;
 import io.micronaut.http.annotation.*;
 import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -19,10 +40,22 @@ import java.util.stream.Collectors;
 @Controller("/api/transactions")
 public class TransactionController {
     private static final Logger log = LoggerFactory.getLogger(TransactionController.class);
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
     private final TransactionService transactionService;
+    private final AuditService auditService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, AuditService auditService,
+                                 IdempotencyService idempotencyService, ObjectMapper objectMapper) {
         this.transactionService = transactionService;
+        this.auditService = auditService;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -37,6 +70,65 @@ public class TransactionController {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Get one page of transactions, newest first.
+     * Pass the returned nextCursor back as cursor to fetch the following page.
+     */
+    @Get("/page")
+    public TransactionPageResponse getTransactionPage(@Nullable @QueryValue Integer limit,
+                                                      @Nullable @QueryValue String cursor,
+                                                      @Nullable @QueryValue Instant from,
+                                                      @Nullable @QueryValue Instant to) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST,
+                "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        log.info("Fetching transaction page (limit {})", pageSize);
+        try {
+            return TransactionPageResponse.fromPage(
+                transactionService.getTransactionPage(pageSize, cursor, from, to));
+        } catch (IllegalArgumentException e) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Search transactions by email, studentId, school, status and/or
+     * countryFrom (exact match, case-insensitive), newest first. All given
+     * criteria must match. Pass the returned nextCursor back as cursor to
+     * fetch the following page; a page may hold fewer than limit items while
+     * nextCursor is set.
+     */
+    @Get("/search")
+    public TransactionPageResponse searchTransactions(@Nullable @QueryValue String email,
+                                                      @Nullable @QueryValue String studentId,
+                                                      @Nullable @QueryValue String school,
+                                                      @Nullable @QueryValue String status,
+                                                      @Nullable @QueryValue String countryFrom,
+                                                      @Nullable @QueryValue Integer limit,
+                                                      @Nullable @QueryValue String cursor) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST,
+                "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Map<String, String> criteria = new LinkedHashMap<>();
+        criteria.put("email", email);
+        criteria.put("studentId", studentId);
+        criteria.put("school", school);
+        criteria.put("status", status);
+        criteria.put("countryFrom", countryFrom);
+        criteria.values().removeIf(Objects::isNull);
+        log.info("Searching transactions by {} (limit {})", criteria.keySet(), pageSize);
+        try {
+            return TransactionPageResponse.fromPage(
+                transactionService.searchTransactions(criteria, pageSize, cursor));
+        } catch (IllegalArgumentException e) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     /**
      * Get transaction by ID
      */
@@ -49,11 +141,50 @@ public class TransactionController {
     }
 
     /**
-     * Create a new transaction
+     * Get the audit trail of a transaction, oldest first
+     */
+    @Get("/{id}/audit")
+    public List<AuditEntryResponse> getAuditTrail(@PathVariable String id) {
+        log.info("Fetching audit trail: {}", id);
+        return auditService.getAuditTrail(id).stream()
+            .map(AuditEntryResponse::fromEntry)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Create a new transaction.
+     * With an Idempotency-Key header, a retry of the same request gets the
+     * first response back (marked Idempotent-Replayed) instead of creating
+     * another transaction; see IdempotencyService.
      */
     @Post
-    @Status(HttpStatus.CREATED)
-    public TransactionResponse createTransaction(@Body CreateTransactionRequest request) {
+    public HttpResponse<?> createTransaction(HttpRequest<?> httpRequest,
+                                             @Body CreateTransactionRequest request,
+                                             @Nullable @Header(IDEMPOTENCY_KEY) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return HttpResponse.created(create(request));
+        }
+        IdempotencyService.Response response;
+        try {
+            response = idempotencyService.execute(idempotencyKey, json(request),
+                () -> ConcurrencyLimitFilter.releaseUnsampled(httpRequest),
+                () -> new IdempotencyService.Response(HttpStatus.CREATED.getCode(), json(create(request)), false));
+        } catch (IllegalArgumentException e) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IdempotencyService.KeyReusedException e) {
+            throw new HttpStatusException(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage());
+        } catch (IdempotencyService.RequestInProgressException e) {
+            return HttpResponse.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("message", e.getMessage()));
+        }
+        MutableHttpResponse<byte[]> created = HttpResponse.<byte[]>status(HttpStatus.valueOf(response.status()))
+            .contentType(MediaType.APPLICATION_JSON_TYPE)
+            .body(response.body());
+        return response.replayed() ? created.header(IDEMPOTENT_REPLAYED, "true") : created;
+    }
+
+    private TransactionResponse create(CreateTransactionRequest request) {
         log.info("Creating new transaction for: {}", request.getEmail());
         
         Transaction transaction = transactionService.createTransaction(
@@ -70,6 +201,34 @@ public class TransactionController {
         return TransactionResponse.fromTransaction(transaction);
     }
 
+    private byte[] json(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Create up to MAX_BATCH_SIZE transactions in one request.
+     * Responds 201 when every item was created, otherwise 207 with the
+     * outcome of each item (by position in the request).
+     */
+    @Post("/batch")
+    public HttpResponse<BatchCreateResponse> createTransactions(@Body List<CreateTransactionRequest> requests) {
+        if (requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST,
+                "batch must contain between 1 and " + MAX_BATCH_SIZE + " transactions");
+        }
+        log.info("Creating batch of {} transactions", requests.size());
+        
+        List<BatchItemResult> results = transactionService.createTransactions(requests);
+        BatchCreateResponse response = BatchCreateResponse.fromResults(results);
+        return response.getFailed() == 0
+            ? HttpResponse.created(response)
+            : HttpResponse.status(HttpStatus.MULTI_STATUS).body(response);
+    }
+
     /**
      * Get transaction by reference number
      */
@@ -105,6 +264,43 @@ public class TransactionController {
         return Map.of("total", transactionService.getTransactionCount());
     }
 
+    /**
+     * Get count and amount sums, in total and by status, currency, country
+     * and school. Read from running aggregates, not computed per request.
+     */
+    @Get("/stats")
+    public TransactionStatsResponse getTransactionStats() {
+        log.info("Fetching transaction stats");
+        return TransactionStatsResponse.fromStats(transactionService.getTransactionStats());
+    }
+
+    /**
+     * Get count and amount sums per minute, hour or day of createdAt in
+     * [from, to], reading only the buckets of that range
+     */
+    @Get("/stats/timeseries")
+    public TimeSeriesResponse getTransactionTimeSeries(@Nullable @QueryValue String resolution,
+                                                       @Nullable @QueryValue Instant from,
+                                                       @Nullable @QueryValue Instant to) {
+        TimeSeriesQuery query = TimeSeriesQuery.of(resolution, from, to);
+        log.info("Fetching transaction time series ({} from {} to {})", query.resolution().id(), query.from(), query.to());
+        return TimeSeriesResponse.fromPoints(query.resolution(),
+            transactionService.getTransactionTimeSeries(query.resolution(), query.from(), query.to()));
+    }
+
+    /**
+     * Recompute the aggregates from the stored transactions
+     */
+    @Post("/stats/rebuild")
+    public Map<String, Long> rebuildTransactionStats() {
+        log.info("Rebuilding transaction stats");
+        try {
+            return Map.of("counted", transactionService.rebuildTransactionStats());
+        } catch (IllegalStateException e) {
+            throw new HttpStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
     /**
      * Custom exception
      */
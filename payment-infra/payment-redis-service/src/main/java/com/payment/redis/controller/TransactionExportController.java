@@ -0,0 +1,86 @@
+package com.payment.redis.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.redis.dto.TransactionResponse;
+import com.payment.redis.service.ReactiveTransactionService;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.Header;
+import io.micronaut.http.annotation.QueryValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streaming export of the full payment history as NDJSON, one transaction per
+ * line, newest first. Unlike GET /api/transactions nothing is collected: the
+ * creation index is walked a chunk at a time and each chunk is written as soon
+ * as it is fetched. The next chunk is only fetched once the previous one has
+ * been written, so a slow client slows the export down instead of growing the
+ * heap.
+ *
+ * Gzip is used when the client sends Accept-Encoding: gzip. An error after the
+ * first chunk can only abort the response; clients should treat a body that
+ * does not end in a newline as incomplete.
+ */
+@Controller("/api/transactions/export")
+public class TransactionExportController {
+    private static final Logger log = LoggerFactory.getLogger(TransactionExportController.class);
+    static final String NDJSON = "application/x-ndjson";
+    private static final int RECORDS_PER_WRITE = 100;
+
+    private final ReactiveTransactionService transactionService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public TransactionExportController(ReactiveTransactionService transactionService,
+                                       ObjectMapper objectMapper,
+                                       @Value("${redis.export.chunk-size:500}") int chunkSize) {
+        this.transactionService = transactionService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Export all transactions, optionally limited to [from, to]
+     */
+    @Get(produces = NDJSON)
+    public HttpResponse<Flux<byte[]>> exportTransactions(@Nullable @QueryValue Instant from,
+                                                         @Nullable @QueryValue Instant to,
+                                                         @Nullable @Header(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        log.info("Exporting transactions (gzip: {})", gzip);
+
+        Flux<byte[]> body = Flux.defer(() -> {
+            NdjsonEncoder encoder = new NdjsonEncoder(objectMapper, gzip);
+            AtomicLong exported = new AtomicLong();
+            long start = System.currentTimeMillis();
+            return transactionService.exportTransactions(chunkSize, from, to)
+                .map(TransactionResponse::fromTransaction)
+                .buffer(RECORDS_PER_WRITE)
+                .doOnNext(records -> exported.addAndGet(records.size()))
+                .map(encoder::encode)
+                .concatWith(Mono.fromCallable(encoder::finish))
+                .filter(chunk -> chunk.length > 0)
+                .doOnComplete(() -> log.info("✅ Exported {} transactions in {} ms",
+                    exported.get(), System.currentTimeMillis() - start))
+                .doOnCancel(() -> log.warn("⚠️ Export cancelled by client after {} transactions", exported.get()))
+                .doOnError(e -> log.error("❌ Export failed after {} transactions", exported.get(), e));
+        });
+
+        MutableHttpResponse<Flux<byte[]>> response = HttpResponse.ok(body);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response;
+    }
+}
@@ -0,0 +1,48 @@
+package com.payment.redis.controller;
+
+import com.payment.redis.dto.TransactionResponse;
+import com.payment.redis.typeahead.TransactionTypeahead;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.QueryValue;
+import io.micronaut.http.exceptions.HttpStatusException;
+
+import java.util.List;
+
+/**
+ * Typeahead over sender name, name, school and email, answered from the
+ * in-process index (see TransactionTypeahead)
+ */
+@Controller("/api/transactions/typeahead")
+@Requires(beans = TransactionTypeahead.class)
+public class TypeaheadController {
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+
+    private final TransactionTypeahead typeahead;
+
+    public TypeaheadController(TransactionTypeahead typeahead) {
+        this.typeahead = typeahead;
+    }
+
+    /**
+     * Newest transactions with a word starting with each word of q
+     */
+    @Get
+    public List<TransactionResponse> typeahead(@QueryValue String q, @Nullable @QueryValue Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : limit;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        try {
+            return typeahead.search(q, size).stream()
+                .map(TransactionResponse::fromTransaction)
+                .toList();
+        } catch (IllegalStateException e) {
+            throw new HttpStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+}
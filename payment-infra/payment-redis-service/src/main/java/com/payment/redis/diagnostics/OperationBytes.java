@@ -0,0 +1,58 @@
+package com.payment.redis.diagnostics;
+
+/**
+ * Bytes of transaction data moved by the operations running on the current
+ * thread. Operations nest (a service call makes repository calls), and the
+ * bytes of an inner one count towards the outer one when it ends.
+ */
+public final class OperationBytes {
+    private static final ThreadLocal<Frame> CURRENT = new ThreadLocal<>();
+
+    private OperationBytes() {
+    }
+
+    /**
+     * Count bytes encoded or decoded towards the running operation, if any
+     */
+    public static void add(long bytes) {
+        Frame frame = CURRENT.get();
+        if (frame != null) {
+            frame.bytes += bytes;
+        }
+    }
+
+    /**
+     * Whether an operation is running on this thread, i.e. whether sizes are worth computing
+     */
+    public static boolean counting() {
+        return CURRENT.get() != null;
+    }
+
+    static Frame open() {
+        Frame frame = new Frame(CURRENT.get());
+        CURRENT.set(frame);
+        return frame;
+    }
+
+    static final class Frame {
+        private final Frame parent;
+        private long bytes;
+
+        private Frame(Frame parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * End the operation and return its bytes
+         */
+        long close() {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                parent.bytes += bytes;
+                CURRENT.set(parent);
+            }
+            return bytes;
+        }
+    }
+}
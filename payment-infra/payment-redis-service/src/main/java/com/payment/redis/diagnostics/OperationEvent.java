@@ -0,0 +1,49 @@
+package com.payment.redis.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one call of a {@link Recorded} bean. Disabled unless the
+ * recording's settings enable it (see jfr/payment.jfc); a disabled event is
+ * never begun or committed. A service event spans the repository events of
+ * the Redis calls it made, on the same thread.
+ */
+@Name(OperationEvent.NAME)
+@Label("Payment Operation")
+@Category({"Payment", "Redis"})
+@Description("A service or repository call and the data it moved")
+@Enabled(false)
+@StackTrace(false)
+final class OperationEvent extends Event {
+    static final String NAME = "com.payment.redis.Operation";
+
+    @Label("Layer")
+    @Description("service or repository")
+    String layer;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Keys")
+    @Description("Transactions addressed by the arguments: IDs, references, transactions")
+    int keys;
+
+    @Label("Bytes")
+    @Description("Transaction data encoded and decoded by the call")
+    @DataAmount
+    long bytes;
+
+    @Label("Records")
+    @Description("Items returned: transactions, or points of a time series")
+    int records;
+
+    @Label("Exception")
+    String exception;
+}
@@ -0,0 +1,108 @@
+package com.payment.redis.diagnostics;
+
+import com.payment.redis.domain.Transaction;
+import com.payment.redis.domain.TransactionPage;
+import io.micronaut.aop.MethodInterceptor;
+import io.micronaut.aop.MethodInvocationContext;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.type.Argument;
+import jakarta.inject.Singleton;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Times the calls of {@link Recorded} beans and reports them to JFR and
+ * {@link SlowOperations}. With the JFR event disabled and slow operations
+ * turned off a call costs one check; otherwise two clock reads, and the
+ * arguments and result are only inspected for a call that is reported.
+ *
+ * Keys are the transactions the arguments address: one per id or reference
+ * argument and per transaction, and the size of a collection argument.
+ * Records are the items returned: one for a transaction, the size of a list
+ * or page. Bytes are the transaction data encoded and decoded by
+ * TransactionCodec on the calling thread during the call.
+ */
+@Singleton
+public class OperationInterceptor implements MethodInterceptor<Object, Object> {
+    private static final Set<String> KEY_ARGUMENTS = Set.of("id", "reference");
+
+    private final SlowOperations slowOperations;
+
+    public OperationInterceptor(@Nullable SlowOperations slowOperations) {
+        this.slowOperations = slowOperations;
+    }
+
+    @Override
+    public Object intercept(MethodInvocationContext<Object, Object> context) {
+        OperationEvent event = new OperationEvent();
+        if (!event.isEnabled() && slowOperations == null) {
+            return context.proceed();
+        }
+
+        event.begin();
+        long start = System.nanoTime();
+        OperationBytes.Frame frame = OperationBytes.open();
+        Object result = null;
+        String exception = null;
+        try {
+            result = context.proceed();
+            return result;
+        } catch (RuntimeException | Error e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long duration = System.nanoTime() - start;
+            long bytes = frame.close();
+            event.end();
+            boolean commit = event.shouldCommit();
+            boolean slow = slowOperations != null && slowOperations.isSlow(duration);
+            if (commit || slow) {
+                String layer = context.stringValue(Recorded.class).orElse("");
+                String operation = context.getMethodName();
+                int keys = keys(context.getArguments(), context.getParameterValues());
+                int records = records(result);
+                if (commit) {
+                    event.layer = layer;
+                    event.operation = operation;
+                    event.keys = keys;
+                    event.bytes = bytes;
+                    event.records = records;
+                    event.exception = exception;
+                    event.commit();
+                }
+                if (slow) {
+                    slowOperations.add(layer, operation, duration, keys, bytes, records, exception);
+                }
+            }
+        }
+    }
+
+    static int keys(Argument<?>[] arguments, Object[] values) {
+        int keys = 0;
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value instanceof Transaction
+                || (value instanceof String && KEY_ARGUMENTS.contains(arguments[i].getName()))) {
+                keys++;
+            } else if (value instanceof Collection<?> collection) {
+                keys += collection.size();
+            }
+        }
+        return keys;
+    }
+
+    static int records(Object result) {
+        if (result instanceof Transaction) {
+            return 1;
+        } else if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        } else if (result instanceof Collection<?> collection) {
+            return collection.size();
+        } else if (result instanceof TransactionPage page) {
+            return page.getItems().size();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.payment.redis.diagnostics;
+
+import io.micronaut.aop.Around;
+import io.micronaut.context.annotation.Type;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Record every public method of the bean as an operation: a JFR
+ * {@link OperationEvent} when the recording enables it, and an entry in
+ * {@link SlowOperations} when it is slower than the threshold
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Around
+@Type(OperationInterceptor.class)
+public @interface Recorded {
+    /**
+     * Layer the operations are reported under, e.g. service or repository
+     */
+    String value();
+}
@@ -0,0 +1,87 @@
+package com.payment.redis.diagnostics;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The most recent operations that took longer than the threshold, in a ring
+ * buffer of fixed size: once it is full each slow operation replaces the
+ * oldest one.
+ */
+@Singleton
+@Requires(property = "redis.slow-ops.enabled", notEquals = "false")
+public class SlowOperations {
+    private final long thresholdNanos;
+    private final SlowOperation[] buffer;
+    private final AtomicLong recorded = new AtomicLong();
+    private int next;
+
+    public SlowOperations(@Value("${redis.slow-ops.threshold:50ms}") Duration threshold,
+                          @Value("${redis.slow-ops.size:100}") int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("redis.slow-ops.size must be positive");
+        }
+        this.thresholdNanos = threshold.toNanos();
+        this.buffer = new SlowOperation[size];
+    }
+
+    public boolean isSlow(long durationNanos) {
+        return durationNanos >= thresholdNanos;
+    }
+
+    /**
+     * Keep a slow operation, replacing the oldest one once the buffer is full
+     */
+    public void add(String layer, String operation, long durationNanos,
+                    int keys, long bytes, int records, String exception) {
+        SlowOperation slow = new SlowOperation(Instant.now().toString(), layer, operation,
+            durationNanos / 1000, keys, bytes, records, exception, Thread.currentThread().getName());
+        recorded.incrementAndGet();
+        synchronized (buffer) {
+            buffer[next] = slow;
+            next = (next + 1) % buffer.length;
+        }
+    }
+
+    /**
+     * Operations in the buffer, slowest first
+     */
+    public List<SlowOperation> slowest() {
+        List<SlowOperation> operations = new ArrayList<>(buffer.length);
+        synchronized (buffer) {
+            for (SlowOperation slow : buffer) {
+                if (slow != null) {
+                    operations.add(slow);
+                }
+            }
+        }
+        operations.sort(Comparator.comparingLong(SlowOperation::durationMicros).reversed());
+        return operations;
+    }
+
+    /**
+     * Threshold, number of slow operations seen and the slowest ones in the buffer
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("thresholdMs", thresholdNanos / 1_000_000.0);
+        stats.put("size", buffer.length);
+        stats.put("recorded", recorded.get());
+        stats.put("operations", slowest());
+        return stats;
+    }
+
+    public record SlowOperation(String at, String layer, String operation, long durationMicros,
+                                int keys, long bytes, int records, String exception, String thread) {
+    }
+}
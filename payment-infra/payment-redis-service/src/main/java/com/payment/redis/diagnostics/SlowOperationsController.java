@@ -0,0 +1,25 @@
+package com.payment.redis.diagnostics;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+
+import java.util.Map;
+
+/**
+ * The slowest recent service and repository operations at GET /debug/slow-ops
+ */
+@Controller("/debug/slow-ops")
+@Requires(beans = SlowOperations.class)
+public class SlowOperationsController {
+    private final SlowOperations slowOperations;
+
+    public SlowOperationsController(SlowOperations slowOperations) {
+        this.slowOperations = slowOperations;
+    }
+
+    @Get
+    public Map<String, Object> slowOperations() {
+        return slowOperations.stats();
+    }
+}
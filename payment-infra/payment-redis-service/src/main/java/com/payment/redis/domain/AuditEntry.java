@@ -0,0 +1,43 @@
+package com.payment.redis.domain;
+
+import java.time.Instant;
+
+/**
+ * One audit log entry. The ID is the entry's Redis stream ID
+ * (epoch millis-sequence), which also gives its creation time.
+ */
+public class AuditEntry {
+    private final String id;
+    private final String paymentId;
+    private final String action;
+    private final String details;
+    private final Instant createdAt;
+
+    public AuditEntry(String id, String paymentId, String action, String details, Instant createdAt) {
+        this.id = id;
+        this.paymentId = paymentId;
+        this.action = action;
+        this.details = details;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getPaymentId() {
+        return paymentId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public String getDetails() {
+        return details;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
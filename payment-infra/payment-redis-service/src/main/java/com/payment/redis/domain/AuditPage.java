@@ -0,0 +1,25 @@
+package com.payment.redis.domain;
+
+import java.util.List;
+
+/**
+ * One page of audit entries, oldest first, with the cursor for the next page
+ * (null when there are no more results)
+ */
+public class AuditPage {
+    private final List<AuditEntry> items;
+    private final String nextCursor;
+
+    public AuditPage(List<AuditEntry> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<AuditEntry> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,51 @@
+package com.payment.redis.domain;
+
+/**
+ * Outcome of one item of a batch create: the created transaction, or the
+ * reason it was not created
+ */
+public class BatchItemResult {
+    private final int index;
+    private final Transaction transaction;
+    private final String error;
+
+    private BatchItemResult(int index, Transaction transaction, String error) {
+        this.index = index;
+        this.transaction = transaction;
+        this.error = error;
+    }
+
+    public static BatchItemResult created(int index, Transaction transaction) {
+        return new BatchItemResult(index, transaction, null);
+    }
+
+    public static BatchItemResult failed(int index, String error) {
+        return new BatchItemResult(index, null, error);
+    }
+
+    /**
+     * Position of the item in the batch request
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isCreated() {
+        return error == null;
+    }
+
+    /**
+     * The same outcome at another position, e.g. in the original request
+     */
+    public BatchItemResult withIndex(int newIndex) {
+        return new BatchItemResult(newIndex, transaction, error);
+    }
+}
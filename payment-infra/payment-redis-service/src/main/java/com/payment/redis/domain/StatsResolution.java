@@ -0,0 +1,70 @@
+package com.payment.redis.domain;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Width and retention of the time buckets of the transaction aggregates.
+ * The same table is in transaction-stats.lua, which maintains the buckets.
+ */
+public enum StatsResolution {
+    MINUTE(Duration.ofMinutes(1), Duration.ofHours(48)),
+    HOUR(Duration.ofHours(1), Duration.ofDays(90)),
+    DAY(Duration.ofDays(1), null);
+
+    private final Duration width;
+    private final Duration retention;
+
+    StatsResolution(Duration width, Duration retention) {
+        this.width = width;
+        this.retention = retention;
+    }
+
+    public Duration getWidth() {
+        return width;
+    }
+
+    /**
+     * How long buckets are kept after they end, or null if kept forever
+     */
+    public Duration getRetention() {
+        return retention;
+    }
+
+    /**
+     * Name used in the bucket keys and the API
+     */
+    public String id() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Start of the bucket containing the instant (buckets are aligned to the epoch, UTC)
+     */
+    public Instant bucketStart(Instant instant) {
+        long seconds = instant.getEpochSecond();
+        return Instant.ofEpochSecond(seconds - Math.floorMod(seconds, width.getSeconds()));
+    }
+
+    /**
+     * Number of buckets from the one containing from up to the one containing to
+     */
+    public long bucketCount(Instant from, Instant to) {
+        if (to.isBefore(from)) {
+            return 0;
+        }
+        return (bucketStart(to).getEpochSecond() - bucketStart(from).getEpochSecond()) / width.getSeconds() + 1;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the name is not a resolution
+     */
+    public static StatsResolution parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("resolution must be one of minute, hour, day");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.payment.redis.domain;
+
+import java.time.Instant;
+
+/**
+ * Aggregates of the transactions created in one time bucket
+ */
+public class TimeSeriesPoint {
+    private final Instant bucket;
+    private final TransactionStats.Totals totals;
+
+    public TimeSeriesPoint(Instant bucket, TransactionStats.Totals totals) {
+        this.bucket = bucket;
+        this.totals = totals;
+    }
+
+    /**
+     * Start of the bucket
+     */
+    public Instant getBucket() {
+        return bucket;
+    }
+
+    public TransactionStats.Totals getTotals() {
+        return totals;
+    }
+}
@@ -0,0 +1,25 @@
+package com.payment.redis.domain;
+
+import java.util.List;
+
+/**
+ * One page of transactions, newest first, with the cursor for the next page
+ * (null when there are no more results)
+ */
+public class TransactionPage {
+    private final List<Transaction> items;
+    private final String nextCursor;
+
+    public TransactionPage(List<Transaction> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Transaction> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,62 @@
+package com.payment.redis.domain;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates over all stored transactions: totals, and the same totals
+ * grouped by each dimension (dimension -> value -> totals)
+ */
+public class TransactionStats {
+    public static final List<String> DIMENSIONS = List.of("status", "currency", "country", "school");
+
+    private final Totals total;
+    private final Map<String, Map<String, Totals>> groups;
+
+    public TransactionStats(Totals total, Map<String, Map<String, Totals>> groups) {
+        this.total = total;
+        this.groups = groups;
+    }
+
+    public Totals getTotal() {
+        return total;
+    }
+
+    public Map<String, Map<String, Totals>> getGroups() {
+        return groups;
+    }
+
+    /**
+     * Count and amount sums of a set of transactions
+     */
+    public static class Totals {
+        private final long count;
+        private final BigDecimal amount;
+        private final BigDecimal feeAmount;
+        private final BigDecimal finalAmount;
+
+        public Totals(long count, BigDecimal amount, BigDecimal feeAmount, BigDecimal finalAmount) {
+            this.count = count;
+            this.amount = amount;
+            this.feeAmount = feeAmount;
+            this.finalAmount = finalAmount;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public BigDecimal getFeeAmount() {
+            return feeAmount;
+        }
+
+        public BigDecimal getFinalAmount() {
+            return finalAmount;
+        }
+    }
+}
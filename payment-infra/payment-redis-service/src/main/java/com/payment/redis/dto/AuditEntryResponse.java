@@ -0,0 +1,52 @@
+package com.payment.redis.dto;
+
+import com.payment.redis.domain.AuditEntry;
+import io.micronaut.core.annotation.Introspected;
+
+import java.time.Instant;
+
+/**
+ * Response DTO for an audit log entry
+ */
+@Introspected
+public class AuditEntryResponse {
+    private String id;
+    private String paymentId;
+    private String action;
+    private String details;
+    private Instant createdAt;
+
+    public AuditEntryResponse() {
+    }
+
+    public AuditEntryResponse(String id, String paymentId, String action, String details, Instant createdAt) {
+        this.id = id;
+        this.paymentId = paymentId;
+        this.action = action;
+        this.details = details;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Convert from AuditEntry domain object to DTO
+     */
+    public static AuditEntryResponse fromEntry(AuditEntry entry) {
+        return new AuditEntryResponse(entry.getId(), entry.getPaymentId(), entry.getAction(),
+            entry.getDetails(), entry.getCreatedAt());
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getPaymentId() { return paymentId; }
+    public void setPaymentId(String paymentId) { this.paymentId = paymentId; }
+
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+
+    public String getDetails() { return details; }
+    public void setDetails(String details) { this.details = details; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,42 @@
+package com.payment.redis.dto;
+
+import com.payment.redis.domain.AuditPage;
+import io.micronaut.core.annotation.Introspected;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Response DTO for a page of audit entries
+ */
+@Introspected
+public class AuditPageResponse {
+    private List<AuditEntryResponse> items;
+    private String nextCursor;
+
+    public AuditPageResponse() {
+    }
+
+    public AuditPageResponse(List<AuditEntryResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Convert from AuditPage domain object to DTO
+     */
+    public static AuditPageResponse fromPage(AuditPage page) {
+        return new AuditPageResponse(
+            page.getItems().stream()
+                .map(AuditEntryResponse::fromEntry)
+                .collect(Collectors.toList()),
+            page.getNextCursor()
+        );
+    }
+
+    public List<AuditEntryResponse> getItems() { return items; }
+    public void setItems(List<AuditEntryResponse> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
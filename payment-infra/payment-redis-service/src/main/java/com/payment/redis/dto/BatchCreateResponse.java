@@ -0,0 +1,85 @@
+package com.payment.redis.dto;
+
+import com.payment.redis.domain.BatchItemResult;
+import io.micronaut.core.annotation.Introspected;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Response DTO for a batch create: counts plus one entry per request item, in request order
+ */
+@Introspected
+public class BatchCreateResponse {
+    private int created;
+    private int failed;
+    private List<Item> items;
+
+    public BatchCreateResponse() {
+    }
+
+    public BatchCreateResponse(int created, int failed, List<Item> items) {
+        this.created = created;
+        this.failed = failed;
+        this.items = items;
+    }
+
+    /**
+     * Convert from batch results to DTO
+     */
+    public static BatchCreateResponse fromResults(List<BatchItemResult> results) {
+        List<Item> items = results.stream()
+            .map(Item::fromResult)
+            .collect(Collectors.toList());
+        int created = (int) results.stream().filter(BatchItemResult::isCreated).count();
+        return new BatchCreateResponse(created, results.size() - created, items);
+    }
+
+    public int getCreated() { return created; }
+    public void setCreated(int created) { this.created = created; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+
+    /**
+     * Outcome of one request item: CREATED with the transaction, or FAILED with the error
+     */
+    @Introspected
+    public static class Item {
+        private int index;
+        private String status;
+        private TransactionResponse transaction;
+        private String error;
+
+        public Item() {
+        }
+
+        public Item(int index, String status, TransactionResponse transaction, String error) {
+            this.index = index;
+            this.status = status;
+            this.transaction = transaction;
+            this.error = error;
+        }
+
+        static Item fromResult(BatchItemResult result) {
+            return result.isCreated()
+                ? new Item(result.getIndex(), "CREATED", TransactionResponse.fromTransaction(result.getTransaction()), null)
+                : new Item(result.getIndex(), "FAILED", null, result.getError());
+        }
+
+        public int getIndex() { return index; }
+        public void setIndex(int index) { this.index = index; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public TransactionResponse getTransaction() { return transaction; }
+        public void setTransaction(TransactionResponse transaction) { this.transaction = transaction; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+}
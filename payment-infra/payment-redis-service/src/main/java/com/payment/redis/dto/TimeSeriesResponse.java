@@ -0,0 +1,83 @@
+package com.payment.redis.dto;
+
+import com.payment.redis.domain.StatsResolution;
+import com.payment.redis.domain.TimeSeriesPoint;
+import io.micronaut.core.annotation.Introspected;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Response DTO for a time series of transaction aggregates, one point per
+ * bucket in ascending order, empty buckets included
+ */
+@Introspected
+public class TimeSeriesResponse {
+    private String resolution;
+    private List<Point> points;
+
+    public TimeSeriesResponse() {
+    }
+
+    public TimeSeriesResponse(String resolution, List<Point> points) {
+        this.resolution = resolution;
+        this.points = points;
+    }
+
+    /**
+     * Convert from time series points to DTO
+     */
+    public static TimeSeriesResponse fromPoints(StatsResolution resolution, List<TimeSeriesPoint> points) {
+        return new TimeSeriesResponse(resolution.id(), points.stream()
+            .map(Point::fromPoint)
+            .collect(Collectors.toList()));
+    }
+
+    public String getResolution() { return resolution; }
+    public void setResolution(String resolution) { this.resolution = resolution; }
+
+    public List<Point> getPoints() { return points; }
+    public void setPoints(List<Point> points) { this.points = points; }
+
+    @Introspected
+    public static class Point {
+        private Instant bucket;
+        private long count;
+        private BigDecimal amount;
+        private BigDecimal feeAmount;
+        private BigDecimal finalAmount;
+
+        public Point() {
+        }
+
+        public Point(Instant bucket, long count, BigDecimal amount, BigDecimal feeAmount, BigDecimal finalAmount) {
+            this.bucket = bucket;
+            this.count = count;
+            this.amount = amount;
+            this.feeAmount = feeAmount;
+            this.finalAmount = finalAmount;
+        }
+
+        static Point fromPoint(TimeSeriesPoint point) {
+            return new Point(point.getBucket(), point.getTotals().getCount(), point.getTotals().getAmount(),
+                point.getTotals().getFeeAmount(), point.getTotals().getFinalAmount());
+        }
+
+        public Instant getBucket() { return bucket; }
+        public void setBucket(Instant bucket) { this.bucket = bucket; }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+
+        public BigDecimal getAmount() { return amount; }
+        public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+        public BigDecimal getFeeAmount() { return feeAmount; }
+        public void setFeeAmount(BigDecimal feeAmount) { this.feeAmount = feeAmount; }
+
+        public BigDecimal getFinalAmount() { return finalAmount; }
+        public void setFinalAmount(BigDecimal finalAmount) { this.finalAmount = finalAmount; }
+    }
+}
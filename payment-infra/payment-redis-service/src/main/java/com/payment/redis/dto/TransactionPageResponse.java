@@ -0,0 +1,42 @@
+package com.payment.redis.dto;
+
+import com.payment.redis.domain.TransactionPage;
+import io.micronaut.core.annotation.Introspected;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Response DTO for a page of transactions
+ */
+@Introspected
+public class TransactionPageResponse {
+    private List<TransactionResponse> items;
+    private String nextCursor;
+
+    public TransactionPageResponse() {
+    }
+
+    public TransactionPageResponse(List<TransactionResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Convert from TransactionPage domain object to DTO
+     */
+    public static TransactionPageResponse fromPage(TransactionPage page) {
+        return new TransactionPageResponse(
+            page.getItems().stream()
+                .map(TransactionResponse::fromTransaction)
+                .collect(Collectors.toList()),
+            page.getNextCursor()
+        );
+    }
+
+    public List<TransactionResponse> getItems() { return items; }
+    public void setItems(List<TransactionResponse> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
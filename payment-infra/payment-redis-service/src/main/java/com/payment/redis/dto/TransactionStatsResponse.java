@@ -0,0 +1,80 @@
+package com.payment.redis.dto;
+
+import com.payment.redis.domain.TransactionStats;
+import io.micronaut.core.annotation.Introspected;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Response DTO for the transaction aggregates; groups are keyed by dimension,
+ * then by value in alphabetical order
+ */
+@Introspected
+public class TransactionStatsResponse {
+    private Totals total;
+    private Map<String, Map<String, Totals>> groups;
+
+    public TransactionStatsResponse() {
+    }
+
+    public TransactionStatsResponse(Totals total, Map<String, Map<String, Totals>> groups) {
+        this.total = total;
+        this.groups = groups;
+    }
+
+    /**
+     * Convert from TransactionStats domain object to DTO
+     */
+    public static TransactionStatsResponse fromStats(TransactionStats stats) {
+        Map<String, Map<String, Totals>> groups = new LinkedHashMap<>();
+        stats.getGroups().forEach((dimension, values) -> {
+            Map<String, Totals> byValue = new TreeMap<>();
+            values.forEach((value, totals) -> byValue.put(value, Totals.fromTotals(totals)));
+            groups.put(dimension, byValue);
+        });
+        return new TransactionStatsResponse(Totals.fromTotals(stats.getTotal()), groups);
+    }
+
+    public Totals getTotal() { return total; }
+    public void setTotal(Totals total) { this.total = total; }
+
+    public Map<String, Map<String, Totals>> getGroups() { return groups; }
+    public void setGroups(Map<String, Map<String, Totals>> groups) { this.groups = groups; }
+
+    @Introspected
+    public static class Totals {
+        private long count;
+        private BigDecimal amount;
+        private BigDecimal feeAmount;
+        private BigDecimal finalAmount;
+
+        public Totals() {
+        }
+
+        public Totals(long count, BigDecimal amount, BigDecimal feeAmount, BigDecimal finalAmount) {
+            this.count = count;
+            this.amount = amount;
+            this.feeAmount = feeAmount;
+            this.finalAmount = finalAmount;
+        }
+
+        static Totals fromTotals(TransactionStats.Totals totals) {
+            return new Totals(totals.getCount(), totals.getAmount(), totals.getFeeAmount(), totals.getFinalAmount());
+        }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+
+        public BigDecimal getAmount() { return amount; }
+        public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+        public BigDecimal getFeeAmount() { return feeAmount; }
+        public void setFeeAmount(BigDecimal feeAmount) { this.feeAmount = feeAmount; }
+
+        public BigDecimal getFinalAmount() { return finalAmount; }
+        public void setFinalAmount(BigDecimal finalAmount) { this.finalAmount = finalAmount; }
+    }
+}
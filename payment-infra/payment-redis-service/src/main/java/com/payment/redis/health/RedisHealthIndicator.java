@@ -1,6 +1,6 @@
 package com.payment.redis.health;
 
-import io.lettuce.core.api.StatefulRedisConnection;
+import com.payment.redis.config.RedisConnection;
 import io.micronaut.health.HealthStatus;
 import io.micronaut.management.health.indicator.HealthIndicator;
 import io.micronaut.management.health.indicator.HealthResult;
@@ -16,9 +16,9 @@ import reactor.core.publisher.Mono;
 @Singleton
 public class RedisHealthIndicator implements HealthIndicator {
     private static final Logger log = LoggerFactory.getLogger(RedisHealthIndicator.class);
-    private final StatefulRedisConnection<String, String> connection;
+    private final RedisConnection<String, String> connection;
 
-    public RedisHealthIndicator(StatefulRedisConnection<String, String> connection) {
+    public RedisHealthIndicator(RedisConnection<String, String> connection) {
         this.connection = connection;
     }
 
@@ -0,0 +1,189 @@
+package com.payment.redis.limit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A concurrency limit that follows latency, gradient style.
+ *
+ * Completed requests are collected in windows of at least window length. At
+ * the end of a window its average latency (short RTT) is compared with a
+ * slow moving average of past windows (long RTT):
+ *
+ *   gradient = clamp(tolerance * longRtt / shortRtt, 0.5, 1)
+ *   limit    = limit * gradient + sqrt(limit)
+ *
+ * While latency stays within tolerance of its usual level the limit grows by
+ * sqrt(limit) per window; once requests queue up and latency rises the
+ * limit shrinks in proportion. The new limit is smoothed into the old one. A
+ * window in which a request failed (5xx, e.g. a command timeout) backs the
+ * limit off by 10% instead. A window in which fewer than half the permits
+ * were used says nothing about capacity, so the limit is left as it is.
+ *
+ * The long RTT drifts up under a long overload. When latency drops back to
+ * less than half of it, it is reduced faster, so the limit recovers.
+ *
+ * Only hold times that are Redis latency may be sampled. A permit held for
+ * something else (an admin command walking the keyspace, a wait on another
+ * request) is released with {@link Permit#releaseUnsampled()}; sampling it
+ * would read as queueing and shrink the limit to min-limit.
+ */
+final class AdaptiveLimit {
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final int LONG_WINDOW = 600;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long windowNanos;
+    private final LongSupplier clock;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile double limit;
+
+    // Current window and RTT estimates, guarded by this
+    private long windowStart;
+    private long windowSum;
+    private int windowCount;
+    private int windowMaxInflight;
+    private boolean windowDropped;
+    private double longRtt;
+    private volatile double shortRtt;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, long windowNanos,
+                  LongSupplier clock) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(
+                "limits must satisfy 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowNanos = windowNanos;
+        this.clock = clock;
+        this.limit = initialLimit;
+        this.windowStart = clock.getAsLong();
+    }
+
+    /**
+     * Take a permit if fewer than limit requests are in flight
+     *
+     * @return null if the limit is reached
+     */
+    Permit tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                rejected.incrementAndGet();
+                return null;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                accepted.incrementAndGet();
+                return new Permit(clock.getAsLong(), current + 1);
+            }
+        }
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInflight() {
+        return inflight.get();
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("limit", getLimit());
+        stats.put("inflight", getInflight());
+        stats.put("shortRttMicros", (long) shortRtt / 1000);
+        synchronized (this) {
+            stats.put("longRttMicros", (long) longRtt / 1000);
+        }
+        stats.put("accepted", accepted.get());
+        stats.put("rejected", rejected.get());
+        stats.put("dropped", dropped.get());
+        return stats;
+    }
+
+    private synchronized void sample(long rtt, int inflightAtStart, boolean failed) {
+        windowSum += rtt;
+        windowCount++;
+        windowMaxInflight = Math.max(windowMaxInflight, inflightAtStart);
+        windowDropped |= failed;
+
+        long now = clock.getAsLong();
+        if (now - windowStart < windowNanos || (windowCount < MIN_WINDOW_SAMPLES && !windowDropped)) {
+            return;
+        }
+        double current = limit;
+        double next = current;
+        shortRtt = (double) windowSum / windowCount;
+        if (windowDropped) {
+            next = current * BACKOFF;
+        } else {
+            longRtt = longRtt == 0 ? shortRtt : longRtt + (shortRtt - longRtt) / LONG_WINDOW;
+            if (longRtt > 2 * shortRtt) {
+                longRtt *= 0.95;
+            }
+            if (windowMaxInflight * 2 >= current) {
+                double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+                double target = current * gradient + Math.sqrt(current);
+                next = current * (1 - SMOOTHING) + target * SMOOTHING;
+            }
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+
+        windowStart = now;
+        windowSum = 0;
+        windowCount = 0;
+        windowMaxInflight = 0;
+        windowDropped = false;
+    }
+
+    /**
+     * One admitted request; released once when it completes, later releases are ignored
+     */
+    final class Permit {
+        private final long startedAt;
+        private final int inflightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startedAt, int inflightAtStart) {
+            this.startedAt = startedAt;
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        /**
+         * @param failed true if the request failed in a way that suggests overload
+         */
+        void release(boolean failed) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            inflight.decrementAndGet();
+            if (failed) {
+                dropped.incrementAndGet();
+            }
+            sample(clock.getAsLong() - startedAt, inflightAtStart, failed);
+        }
+
+        /**
+         * Release without counting the hold time as a latency sample
+         */
+        void releaseUnsampled() {
+            if (released.compareAndSet(false, true)) {
+                inflight.decrementAndGet();
+            }
+        }
+    }
+}
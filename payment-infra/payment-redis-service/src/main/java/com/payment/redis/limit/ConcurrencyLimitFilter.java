@@ -0,0 +1,78 @@
+package com.payment.redis.limit;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.annotation.Filter;
+import io.micronaut.http.filter.HttpServerFilter;
+import io.micronaut.http.filter.ServerFilterChain;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits API requests through the {@link ConcurrencyLimiter} and sheds the
+ * rest with 503 and Retry-After before any work is done for them.
+ *
+ * A permit is held until the response is written, so the latency the limit
+ * sees is the time the request spent waiting on Redis. A 5xx response counts
+ * as a failure. The NDJSON export is not limited: its duration is that of the
+ * whole stream, not of a Redis call. A stats rebuild holds a write permit but
+ * its hold time, a walk of the whole keyspace, is not sampled. A request that
+ * is about to wait on another one gives its permit back early with
+ * {@link #releaseUnsampled(HttpRequest)}.
+ */
+@Filter("/api/**")
+@Requires(beans = ConcurrencyLimiter.class)
+public class ConcurrencyLimitFilter implements HttpServerFilter {
+    private static final String EXPORT_PATH = "/api/transactions/export";
+    private static final String REBUILD_PATH = "/api/transactions/stats/rebuild";
+    private static final String PERMIT_ATTRIBUTE = "concurrency-limit.permit";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final ConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Publisher<MutableHttpResponse<?>> doFilter(HttpRequest<?> request, ServerFilterChain chain) {
+        if (request.getPath().startsWith(EXPORT_PATH)) {
+            return chain.proceed(request);
+        }
+        AdaptiveLimit.Permit permit = limiter.limitFor(request.getMethod()).tryAcquire();
+        if (permit == null) {
+            return Mono.just(HttpResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(Map.of("message", "Too many requests in progress, retry later")));
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        if (request.getPath().equals(REBUILD_PATH)) {
+            return Flux.from(chain.proceed(request))
+                .doFinally(signal -> permit.releaseUnsampled());
+        }
+        AtomicBoolean failed = new AtomicBoolean();
+        return Flux.from(chain.proceed(request))
+            .doOnNext(response -> failed.set(response.getStatus().getCode() >= 500))
+            .doOnError(e -> failed.set(true))
+            .doFinally(signal -> permit.release(failed.get()));
+    }
+
+    /**
+     * Give back the permit of a request before it waits on something other
+     * than Redis, such as a duplicate Idempotency-Key request waiting for the
+     * first one. The wait is not sampled and does not occupy the limit. No-op
+     * if the request holds no permit.
+     */
+    public static void releaseUnsampled(HttpRequest<?> request) {
+        request.getAttribute(PERMIT_ATTRIBUTE, AdaptiveLimit.Permit.class)
+            .ifPresent(AdaptiveLimit.Permit::releaseUnsampled);
+    }
+}
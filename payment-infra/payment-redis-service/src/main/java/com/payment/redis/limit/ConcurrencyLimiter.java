@@ -0,0 +1,66 @@
+package com.payment.redis.limit;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.http.HttpMethod;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limits for API requests, one for reads and one for
+ * writes, so a burst of one kind cannot starve the other.
+ *
+ * Every API request waits on the shared Redis connection, so when Redis
+ * slows down, requests in flight pile up and everyone's latency grows until
+ * clients time out. Each limit follows the latency of the requests it admits
+ * (see {@link AdaptiveLimit}) and settles near the concurrency Redis serves
+ * without queueing. Requests over the limit are turned away at once with
+ * 503 and Retry-After by {@link ConcurrencyLimitFilter}, and the admitted
+ * ones keep completing in time.
+ */
+@Singleton
+@Requires(property = "redis.limiter.enabled", notEquals = "false")
+public class ConcurrencyLimiter {
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+
+    private final AdaptiveLimit reads;
+    private final AdaptiveLimit writes;
+
+    public ConcurrencyLimiter(@Value("${redis.limiter.reads.initial-limit:100}") int readsInitial,
+                              @Value("${redis.limiter.reads.min-limit:10}") int readsMin,
+                              @Value("${redis.limiter.reads.max-limit:1000}") int readsMax,
+                              @Value("${redis.limiter.writes.initial-limit:50}") int writesInitial,
+                              @Value("${redis.limiter.writes.min-limit:5}") int writesMin,
+                              @Value("${redis.limiter.writes.max-limit:500}") int writesMax,
+                              @Value("${redis.limiter.tolerance:1.5}") double tolerance,
+                              @Value("${redis.limiter.window:100ms}") Duration window) {
+        this.reads = new AdaptiveLimit(readsInitial, readsMin, readsMax, tolerance, window.toNanos(),
+            System::nanoTime);
+        this.writes = new AdaptiveLimit(writesInitial, writesMin, writesMax, tolerance, window.toNanos(),
+            System::nanoTime);
+        log.info("🔧 Concurrency limiter enabled (reads {}..{}, writes {}..{}, tolerance {})",
+            readsMin, readsMax, writesMin, writesMax, tolerance);
+    }
+
+    /**
+     * The limit a request counts against: reads for GET and HEAD, writes otherwise
+     */
+    AdaptiveLimit limitFor(HttpMethod method) {
+        return method == HttpMethod.GET || method == HttpMethod.HEAD ? reads : writes;
+    }
+
+    /**
+     * Current limits, requests in flight, latency and admission counters
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("reads", reads.stats());
+        stats.put("writes", writes.stats());
+        return stats;
+    }
+}
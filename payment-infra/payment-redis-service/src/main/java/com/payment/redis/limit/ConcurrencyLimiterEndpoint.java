@@ -0,0 +1,25 @@
+package com.payment.redis.limit;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.Map;
+
+/**
+ * Read and write concurrency limits, in-flight requests and shed counts at GET /limiter
+ */
+@Endpoint(id = "limiter", defaultSensitive = false)
+@Requires(beans = ConcurrencyLimiter.class)
+public class ConcurrencyLimiterEndpoint {
+    private final ConcurrencyLimiter limiter;
+
+    public ConcurrencyLimiterEndpoint(ConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        return limiter.stats();
+    }
+}
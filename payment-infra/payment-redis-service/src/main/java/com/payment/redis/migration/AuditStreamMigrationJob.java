@@ -0,0 +1,61 @@
+package com.payment.redis.migration;
+
+import com.payment.redis.repository.AuditRepository;
+import com.payment.redis.repository.TransactionRepository;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One-off move of the legacy audit:{uuid} hashes into the audit streams (see
+ * AuditRepository#migrateLegacyEntries). Recorded in payment:migrations so it
+ * only runs once per keyspace.
+ *
+ * Run it once no instance writes audit hashes any more: entries written by an
+ * older instance after the migration stay in their hash until they expire.
+ */
+@Singleton
+@Requires(property = "redis.migrations.enabled", notEquals = "false")
+public class AuditStreamMigrationJob {
+    private static final Logger log = LoggerFactory.getLogger(AuditStreamMigrationJob.class);
+    static final String AUDIT_STREAM_MIGRATION = "audit-stream-v1";
+
+    private final TransactionRepository transactionRepository;
+    private final AuditRepository auditRepository;
+    private final int batchSize;
+
+    public AuditStreamMigrationJob(TransactionRepository transactionRepository,
+                                   AuditRepository auditRepository,
+                                   @Value("${redis.migrations.batch-size:1000}") int batchSize) {
+        this.transactionRepository = transactionRepository;
+        this.auditRepository = auditRepository;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener
+    public void onStartup(StartupEvent event) {
+        try {
+            if (!transactionRepository.isMigrationApplied(AUDIT_STREAM_MIGRATION)) {
+                log.info("🔧 Moving audit hashes to streams (batch size {})", batchSize);
+                long start = System.currentTimeMillis();
+                long migrated = auditRepository.migrateLegacyEntries(batchSize);
+                transactionRepository.markMigrationApplied(AUDIT_STREAM_MIGRATION);
+                log.info("✅ Moved {} audit entries to streams in {} ms",
+                    migrated, System.currentTimeMillis() - start);
+            }
+            // Only once the move is recorded, so a failed move can start over;
+            // finishes an earlier cleanup that was interrupted
+            long removed = auditRepository.removeMigratedLegacyEntries(batchSize);
+            if (removed > 0) {
+                log.info("✅ Removed {} migrated audit hashes", removed);
+            }
+        } catch (Exception e) {
+            // Never block startup; the hashes are kept and the move is retried on the next start
+            log.error("❌ Audit stream migration failed", e);
+        }
+    }
+}
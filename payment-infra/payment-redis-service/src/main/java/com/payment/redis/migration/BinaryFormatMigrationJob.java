@@ -0,0 +1,52 @@
+package com.payment.redis.migration;
+
+import com.payment.redis.repository.TransactionRepository;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One-off rewrite of hash-layout transactions as binary records, once the
+ * service runs with redis.storage.format=binary. Reads accept both layouts,
+ * so the service is fully functional before, during and after the rewrite.
+ * Recorded in payment:migrations so it only runs once per keyspace.
+ */
+@Singleton
+@Requires(property = "redis.migrations.enabled", notEquals = "false")
+@Requires(property = "redis.storage.format", value = "binary")
+public class BinaryFormatMigrationJob {
+    private static final Logger log = LoggerFactory.getLogger(BinaryFormatMigrationJob.class);
+    static final String BINARY_FORMAT_MIGRATION = "binary-format-v1";
+
+    private final TransactionRepository repository;
+    private final int batchSize;
+
+    public BinaryFormatMigrationJob(TransactionRepository repository,
+                                    @Value("${redis.migrations.batch-size:1000}") int batchSize) {
+        this.repository = repository;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener
+    public void onStartup(StartupEvent event) {
+        try {
+            if (repository.isMigrationApplied(BINARY_FORMAT_MIGRATION)) {
+                return;
+            }
+            log.info("🔧 Converting transactions to binary records (batch size {})", batchSize);
+            long start = System.currentTimeMillis();
+            long converted = repository.convertToBinary(batchSize);
+            repository.markMigrationApplied(BINARY_FORMAT_MIGRATION);
+            log.info("✅ Converted {} transactions to binary records in {} ms",
+                converted, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // Never block startup; hash-layout records stay readable and the
+            // conversion is retried on the next start
+            log.error("❌ Binary record conversion failed", e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.payment.redis.migration;
+
+import com.payment.redis.repository.TransactionRepository;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One-off backfill of secondary indexes for transactions written before the
+ * index existed. Runs on startup, before the server accepts requests, and
+ * records itself in payment:migrations so it only ever runs once per keyspace.
+ */
+@Singleton
+@Requires(property = "redis.migrations.enabled", notEquals = "false")
+public class IndexBackfillJob {
+    private static final Logger log = LoggerFactory.getLogger(IndexBackfillJob.class);
+    static final String REFERENCE_INDEX_MIGRATION = "reference-index-v1";
+    static final String CREATED_INDEX_MIGRATION = "created-index-v1";
+    static final String STATS_MIGRATION = "transaction-stats-v1";
+    static final String TIME_SERIES_MIGRATION = "transaction-timeseries-v1";
+    static final String ALL_LIST_REMOVAL_MIGRATION = "all-list-removed-v1";
+    static final String FIELD_INDEX_MIGRATION = "field-index-v1";
+
+    private final TransactionRepository repository;
+    private final int batchSize;
+
+    public IndexBackfillJob(TransactionRepository repository,
+                            @Value("${redis.migrations.batch-size:1000}") int batchSize) {
+        this.repository = repository;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener
+    public void onStartup(StartupEvent event) {
+        try {
+            backfillReferenceIndex();
+            backfillCreatedIndex();
+            dropAllPaymentsList();
+            backfillFieldIndexes();
+            backfillStats();
+        } catch (Exception e) {
+            // Never block startup on a backfill; it is retried on the next start
+            log.error("❌ Index backfill failed", e);
+        }
+    }
+
+    /**
+     * Populate payment:idx:reference from the existing transaction hashes
+     */
+    void backfillReferenceIndex() {
+        if (repository.isMigrationApplied(REFERENCE_INDEX_MIGRATION)) {
+            return;
+        }
+        log.info("🔧 Backfilling reference index (batch size {})", batchSize);
+        long start = System.currentTimeMillis();
+        long indexed = repository.backfillReferenceIndex(batchSize);
+        repository.markMigrationApplied(REFERENCE_INDEX_MIGRATION);
+        log.info("✅ Reference index backfilled: {} entries in {} ms",
+            indexed, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Populate payment:idx:created from the existing transaction hashes
+     */
+    void backfillCreatedIndex() {
+        if (repository.isMigrationApplied(CREATED_INDEX_MIGRATION)) {
+            return;
+        }
+        log.info("🔧 Backfilling creation-time index (batch size {})", batchSize);
+        long start = System.currentTimeMillis();
+        long indexed = repository.backfillCreatedIndex(batchSize);
+        repository.markMigrationApplied(CREATED_INDEX_MIGRATION);
+        log.info("✅ Creation-time index backfilled: {} entries in {} ms",
+            indexed, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Remove payment:all once both indexes have been backfilled from it. The
+     * creation-time index has taken its place as the set of all payments.
+     */
+    void dropAllPaymentsList() {
+        if (repository.isMigrationApplied(ALL_LIST_REMOVAL_MIGRATION)) {
+            return;
+        }
+        long removed = repository.dropLegacyAllPayments();
+        repository.markMigrationApplied(ALL_LIST_REMOVAL_MIGRATION);
+        log.info("✅ Legacy payment:all list removed ({} keys)", removed);
+    }
+
+    /**
+     * Populate the field indexes (payment:idx:{field}:{value}) from the
+     * existing transactions
+     */
+    void backfillFieldIndexes() {
+        if (repository.isMigrationApplied(FIELD_INDEX_MIGRATION)) {
+            return;
+        }
+        log.info("🔧 Backfilling field indexes (batch size {})", batchSize);
+        long start = System.currentTimeMillis();
+        long indexed = repository.backfillFieldIndexes(batchSize);
+        repository.markMigrationApplied(FIELD_INDEX_MIGRATION);
+        log.info("✅ Field indexes backfilled: {} transactions in {} ms",
+            indexed, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Count the existing transactions into payment:stats and the time buckets.
+     * One rebuild covers both: it adds every transaction not yet in the time
+     * buckets.
+     */
+    void backfillStats() {
+        if (repository.isMigrationApplied(STATS_MIGRATION) && repository.isMigrationApplied(TIME_SERIES_MIGRATION)) {
+            return;
+        }
+        log.info("🔧 Building transaction stats (batch size {})", batchSize);
+        long start = System.currentTimeMillis();
+        long counted = repository.rebuildStats(batchSize);
+        repository.markMigrationApplied(STATS_MIGRATION);
+        repository.markMigrationApplied(TIME_SERIES_MIGRATION);
+        log.info("✅ Transaction stats built from {} transactions in {} ms",
+            counted, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,376 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.domain.AuditEntry;
+import com.payment.redis.domain.AuditPage;
+import com.payment.redis.config.RedisConnection;
+import io.lettuce.core.KeyScanArgs;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XAddArgs;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import io.micrometer.core.annotation.Timed;
+import io.micronaut.aop.InterceptorBinding;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import static com.payment.redis.repository.RedisKeys.*;
+
+/**
+ * Audit log reads and the migration from per-entry hashes to streams.
+ *
+ * Entries are appended by the transaction scripts to two streams; a third
+ * holds what was migrated:
+ * - audit:stream - every entry, trimmed to the retention period, for time-range queries
+ *   (one per partition in cluster mode, see RedisKeys)
+ * - audit:payment:{uuid} - the entries of one payment, for its audit trail
+ * - audit:stream:legacy - entries migrated from the old audit:{uuid} hashes,
+ *   in time order; read alongside audit:stream until it expires
+ *
+ * Stream IDs start with the entry's epoch millis, so both lookups are
+ * XRANGE calls over an ID range; nothing is ever scanned. Time-range queries
+ * read all audit streams and merge them by ID.
+ */
+@Singleton
+@InterceptorBinding(Timed.class)
+public class AuditRepository {
+    private static final Logger log = LoggerFactory.getLogger(AuditRepository.class);
+    private static final Pattern STREAM_ID = Pattern.compile("\\d{1,19}-\\d{1,20}");
+    private static final String MAX_SEQUENCE = "18446744073709551615";
+
+    private final RedisConnection<String, String> connection;
+    private final RedisConnection<String, byte[]> binaryConnection;
+    private final RedisKeys keys;
+
+    public AuditRepository(RedisConnection<String, String> connection,
+                           @Named("binary") RedisConnection<String, byte[]> binaryConnection,
+                           RedisKeys keys) {
+        this.connection = connection;
+        this.binaryConnection = binaryConnection;
+        this.keys = keys;
+    }
+
+    /**
+     * Audit trail of one payment, oldest first
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "audit", "operation", "findByPayment"})
+    public List<AuditEntry> findByPayment(String paymentId) {
+        try {
+            RedisClusterCommands<String, String> commands = connection.sync();
+            List<StreamMessage<String, String>> messages = commands.xrange(keys.auditTrail(paymentId),
+                Range.from(Range.Boundary.including(auditRetentionStart() + "-0"), Range.Boundary.unbounded()));
+
+            List<AuditEntry> entries = new ArrayList<>(messages.size());
+            messages.forEach(message -> entries.add(toEntry(message)));
+            return entries;
+        } catch (Exception e) {
+            log.error("❌ Error fetching audit trail", e);
+            throw new RuntimeException("Failed to fetch audit trail", e);
+        }
+    }
+
+    /**
+     * One page of audit entries of all payments, oldest first.
+     *
+     * @param limit  maximum number of entries to return
+     * @param cursor nextCursor of the previous page (a stream ID), or null
+     * @param from   inclusive lower bound on createdAt, or null
+     * @param to     inclusive upper bound on createdAt, or null
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "audit", "operation", "findRange"})
+    public AuditPage findRange(int limit, String cursor, Instant from, Instant to) {
+        if (cursor != null && !isStreamId(cursor)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            long lowerMillis = Math.max(auditRetentionStart(), from == null ? 0 : from.toEpochMilli());
+            Range.Boundary<String> lower = cursor != null && millis(cursor) >= lowerMillis
+                ? Range.Boundary.excluding(cursor)
+                : Range.Boundary.including(lowerMillis + "-0");
+            Range.Boundary<String> upper = to == null
+                ? Range.Boundary.unbounded()
+                : Range.Boundary.including(to.toEpochMilli() + "-" + MAX_SEQUENCE);
+            Range<String> range = Range.from(lower, upper);
+            Limit window = Limit.from(limit + 1);
+
+            // All streams in one round trip, one extra entry to detect another page
+            RedisClusterAsyncCommands<String, String> async = connection.async();
+            List<RedisFuture<List<StreamMessage<String, String>>>> reads = new ArrayList<>(keys.partitions() + 1);
+            for (int partition = 0; partition < keys.partitions(); partition++) {
+                reads.add(async.xrange(keys.auditStream(partition), range, window));
+            }
+            reads.add(async.xrange(AUDIT_LEGACY_STREAM_KEY, range, window));
+            LettuceFutures.awaitAll(connection.getTimeout(), reads.toArray(new RedisFuture[0]));
+
+            List<List<StreamMessage<String, String>>> streams = new ArrayList<>(reads.size());
+            for (RedisFuture<List<StreamMessage<String, String>>> read : reads) {
+                streams.add(read.get());
+            }
+            List<StreamMessage<String, String>> merged = merge(streams, Integer.MAX_VALUE);
+            int end = pageEnd(merged, limit);
+            boolean hasMore = end < merged.size();
+            List<StreamMessage<String, String>> pageMessages = merged.subList(0, end);
+
+            List<AuditEntry> entries = new ArrayList<>(pageMessages.size());
+            pageMessages.forEach(message -> entries.add(toEntry(message)));
+            String nextCursor = hasMore ? pageMessages.get(pageMessages.size() - 1).getId() : null;
+            return new AuditPage(entries, nextCursor);
+        } catch (Exception e) {
+            log.error("❌ Error fetching audit log", e);
+            throw new RuntimeException("Failed to fetch audit log", e);
+        }
+    }
+
+    /**
+     * Move the legacy audit:{uuid} hashes into streams:
+     * 1. SCAN them into a staging sorted set scored by createdAt, so they can
+     *    be replayed in time order without holding them in memory
+     * 2. walk the staging set in batches, appending each entry to
+     *    audit:stream:legacy with an ID derived from its createdAt, and merging
+     *    it into the payment's own stream
+     *
+     * The hashes are left in place; once the migration is recorded they are
+     * removed with removeMigratedLegacyEntries. Until then this is safe to
+     * re-run: the legacy stream is rebuilt from scratch and entries already
+     * merged into a payment stream are skipped.
+     *
+     * @return number of entries migrated
+     */
+    public long migrateLegacyEntries(int batchSize) {
+        RedisClusterCommands<String, String> commands = connection.sync();
+        RedisClusterAsyncCommands<String, String> async = connection.async();
+        commands.del(AUDIT_MIGRATION_KEY, AUDIT_LEGACY_STREAM_KEY);
+
+        KeyScanArgs scanArgs = KeyScanArgs.Builder.matches(AUDIT_KEY_PREFIX + "*").type("hash").limit(batchSize);
+        ScanCursor scanCursor = ScanCursor.INITIAL;
+        do {
+            KeyScanCursor<String> scan = commands.scan(scanCursor, scanArgs);
+            stage(scan.getKeys());
+            scanCursor = scan;
+        } while (!scanCursor.isFinished());
+
+        long migrated = 0;
+        long previousMillis = -1;
+        long sequence = 0;
+        for (long start = 0; ; start += batchSize) {
+            List<ScoredValue<String>> staged =
+                commands.zrangeWithScores(AUDIT_MIGRATION_KEY, start, start + batchSize - 1);
+            if (staged.isEmpty()) {
+                break;
+            }
+
+            List<RedisFuture<Map<String, String>>> reads = new ArrayList<>(staged.size());
+            for (ScoredValue<String> entry : staged) {
+                reads.add(async.hgetall(entry.getValue()));
+            }
+            LettuceFutures.awaitAll(connection.getTimeout(), reads.toArray(new RedisFuture[0]));
+
+            List<RedisFuture<String>> appends = new ArrayList<>(staged.size());
+            Map<String, List<String[]>> byPayment = new LinkedHashMap<>();
+            for (int i = 0; i < staged.size(); i++) {
+                Map<String, String> data = reads.get(i).toCompletableFuture().join();
+                String paymentId = data.get("paymentId");
+                if (paymentId == null) {
+                    continue;
+                }
+                long millis = (long) staged.get(i).getScore();
+                sequence = millis == previousMillis ? sequence + 1 : 0;
+                previousMillis = millis;
+                String id = millis + "-" + sequence;
+                String action = Objects.toString(data.get("action"), "");
+                String details = Objects.toString(data.get("details"), "");
+
+                appends.add(async.xadd(AUDIT_LEGACY_STREAM_KEY, new XAddArgs().id(id),
+                    Map.of("paymentId", paymentId, "action", action, "details", details)));
+                byPayment.computeIfAbsent(paymentId, ignored -> new ArrayList<>())
+                    .add(new String[]{id, action, details});
+            }
+            LettuceFutures.awaitAll(connection.getTimeout(), appends.toArray(new RedisFuture[0]));
+
+            List<Flux<Long>> merges = new ArrayList<>(byPayment.size());
+            byPayment.forEach((paymentId, entries) -> merges.add(TransactionScripts.MERGE_AUDIT.execute(
+                binaryConnection.reactive(), ScriptOutputType.INTEGER,
+                TransactionScripts.mergeAuditKeys(keys, paymentId),
+                TransactionScripts.mergeAuditArgs(paymentId, entries))));
+            Flux.merge(merges).blockLast();
+            migrated += appends.size();
+        }
+
+        // Nothing in the legacy stream outlives the retention period from now on
+        commands.expire(AUDIT_LEGACY_STREAM_KEY, TTL_SECONDS);
+        return migrated;
+    }
+
+    /**
+     * Delete the legacy hashes moved by migrateLegacyEntries, then its staging
+     * set. Does nothing if there is no staging set.
+     *
+     * @return number of hashes deleted
+     */
+    public long removeMigratedLegacyEntries(int batchSize) {
+        RedisClusterCommands<String, String> commands = connection.sync();
+        long removed = 0;
+        while (true) {
+            List<String> keys = commands.zrange(AUDIT_MIGRATION_KEY, 0, batchSize - 1);
+            if (keys.isEmpty()) {
+                return removed;
+            }
+            removed += commands.unlink(keys.toArray(new String[0]));
+            commands.zrem(AUDIT_MIGRATION_KEY, keys.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * Add legacy audit hashes to the staging set, scored by their createdAt.
+     * Hashes without a readable createdAt are left alone to expire.
+     */
+    private void stage(List<String> hashKeys) {
+        if (hashKeys.isEmpty()) {
+            return;
+        }
+        RedisClusterAsyncCommands<String, String> async = connection.async();
+        List<RedisFuture<String>> futures = new ArrayList<>(hashKeys.size());
+        for (String key : hashKeys) {
+            futures.add(async.hget(key, "createdAt"));
+        }
+        LettuceFutures.awaitAll(connection.getTimeout(), futures.toArray(new RedisFuture[0]));
+
+        List<ScoredValue<String>> entries = new ArrayList<>(hashKeys.size());
+        for (int i = 0; i < hashKeys.size(); i++) {
+            String createdAt = futures.get(i).toCompletableFuture().join();
+            try {
+                entries.add(ScoredValue.just(Instant.parse(createdAt).toEpochMilli(), hashKeys.get(i)));
+            } catch (NullPointerException | DateTimeParseException e) {
+                log.warn("⚠️ Not migrating audit entry {} without a valid createdAt", hashKeys.get(i));
+            }
+        }
+        if (!entries.isEmpty()) {
+            connection.sync().zadd(AUDIT_MIGRATION_KEY, entries.toArray(new ScoredValue[0]));
+        }
+    }
+
+    /**
+     * Append entries queued by AuditWriteBehind, pipelined, waiting for all of them
+     *
+     * @throws RuntimeException if any of them could not be written
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "audit", "operation", "appendAll"})
+    public void appendAll(List<AuditEntry> entries) {
+        List<Flux<byte[]>> appends = new ArrayList<>(entries.size());
+        for (AuditEntry entry : entries) {
+            appends.add(TransactionScripts.APPEND_AUDIT.execute(binaryConnection.reactive(), ScriptOutputType.VALUE,
+                TransactionScripts.appendAuditKeys(keys, entry.getPaymentId()),
+                TransactionScripts.appendAuditArgs(entry.getPaymentId(), entry.getAction(), entry.getDetails(),
+                    entry.getCreatedAt())));
+        }
+        Flux.merge(appends).blockLast();
+    }
+
+    /**
+     * The entry's time is its createdAt field when written behind, otherwise
+     * the time part of its stream ID
+     */
+    private static AuditEntry toEntry(StreamMessage<String, String> message) {
+        Map<String, String> body = message.getBody();
+        String createdAt = body.get("createdAt");
+        long millis = createdAt == null ? millis(message.getId()) : Long.parseLong(createdAt);
+        return new AuditEntry(message.getId(), body.get("paymentId"), body.get("action"), body.get("details"),
+            Instant.ofEpochMilli(millis));
+    }
+
+    /**
+     * Merge ID-ordered lists of stream entries, keeping the first `limit`.
+     * Entries with equal IDs (from different streams) keep the order of their lists.
+     */
+    static <T extends StreamMessage<?, ?>> List<T> merge(List<List<T>> streams, int limit) {
+        int total = streams.stream().mapToInt(List::size).sum();
+        List<T> merged = new ArrayList<>(Math.min(limit, total));
+        int[] next = new int[streams.size()];
+        while (merged.size() < Math.min(limit, total)) {
+            int lowest = -1;
+            for (int s = 0; s < streams.size(); s++) {
+                if (next[s] < streams.get(s).size() && (lowest < 0
+                        || compareIds(streams.get(s).get(next[s]).getId(),
+                                      streams.get(lowest).get(next[lowest]).getId()) < 0)) {
+                    lowest = s;
+                }
+            }
+            merged.add(streams.get(lowest).get(next[lowest]++));
+        }
+        return merged;
+    }
+
+    /**
+     * Number of merged entries to return for a page of at most `limit`. The
+     * cursor is the last entry's ID, so entries sharing an ID (possible across
+     * partitions) must not be split between pages: the page ends before them,
+     * or, if they are all it holds, includes all of them.
+     */
+    static int pageEnd(List<? extends StreamMessage<?, ?>> merged, int limit) {
+        if (merged.size() <= limit) {
+            return merged.size();
+        }
+        String boundary = merged.get(limit).getId();
+        int end = limit;
+        while (end > 0 && merged.get(end - 1).getId().equals(boundary)) {
+            end--;
+        }
+        if (end > 0) {
+            return end;
+        }
+        end = limit;
+        while (end < merged.size() && merged.get(end).getId().equals(boundary)) {
+            end++;
+        }
+        return end;
+    }
+
+    static int compareIds(String a, String b) {
+        int byMillis = Long.compare(millis(a), millis(b));
+        if (byMillis != 0) {
+            return byMillis;
+        }
+        return Long.compareUnsigned(sequence(a), sequence(b));
+    }
+
+    static boolean isStreamId(String id) {
+        if (!STREAM_ID.matcher(id).matches()) {
+            return false;
+        }
+        try {
+            millis(id);
+            sequence(id);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static long millis(String id) {
+        return Long.parseLong(id, 0, id.indexOf('-'), 10);
+    }
+
+    private static long sequence(String id) {
+        return Long.parseUnsignedLong(id, id.indexOf('-') + 1, id.length(), 10);
+    }
+}
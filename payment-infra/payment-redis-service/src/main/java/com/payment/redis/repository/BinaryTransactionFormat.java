@@ -0,0 +1,265 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.domain.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary record for a transaction, stored in the "bin" field of the
+ * transaction hash. The reference number is not part of the record: it is
+ * allocated before the write and kept in its own hash field.
+ *
+ * Layout (version 1), integers as LEB128 varints, signed ones zigzag-encoded:
+ * <pre>
+ *   u8      version
+ *   u8      flags            bit 0: id is a UUID stored as 16 raw bytes
+ *   id      16 bytes, or a string
+ *   varint  null mask        bit i set: field i (NAME .. UPDATED_AT) is null and omitted
+ *   fields  in that order:
+ *             string         varint byte length + UTF-8
+ *             table string   varint 0 + string, or k for STRING_TABLE[k - 1]
+ *             decimal        zigzag scale + zigzag unscaled value (minor units)
+ *             timestamp      zigzag epoch micros
+ * </pre>
+ *
+ * The string table is part of the version: entries may be appended, but
+ * never reordered or removed, without bumping VERSION.
+ */
+final class BinaryTransactionFormat {
+    static final int VERSION = 1;
+    private static final int FLAG_UUID_ID = 1;
+
+    private static final List<String> STRING_TABLE = List.of(
+        // status
+        "EXACT", "UNDERPAYMENT", "OVERPAYMENT",
+        // currencyFrom
+        "usd", "eur", "cad", "gbp", "inr", "cny",
+        // countryFrom
+        "USA", "Canada", "UK", "India", "China", "Spain",
+        // school
+        "MIT", "Stanford", "Arizona", "Unknown");
+
+    private static final int NAME = 0;
+    private static final int EMAIL = 1;
+    private static final int AMOUNT = 2;
+    private static final int AMOUNT_RECEIVED = 3;
+    private static final int SCHOOL = 4;
+    private static final int SENDER_FULL_NAME = 5;
+    private static final int COUNTRY_FROM = 6;
+    private static final int SENDER_ADDRESS = 7;
+    private static final int CURRENCY_FROM = 8;
+    private static final int STUDENT_ID = 9;
+    private static final int STATUS = 10;
+    private static final int FEE_PERCENTAGE = 11;
+    private static final int FEE_AMOUNT = 12;
+    private static final int FINAL_AMOUNT = 13;
+    private static final int CREATED_AT = 14;
+    private static final int UPDATED_AT = 15;
+    private static final int FIELD_COUNT = 16;
+
+    private BinaryTransactionFormat() {
+    }
+
+    /**
+     * Encode a transaction. Timestamps are truncated to microseconds.
+     *
+     * @throws IllegalArgumentException if an amount does not fit in 63 bits of minor units
+     */
+    static byte[] encode(Transaction t) {
+        Object[] values = {
+            t.getName(), t.getEmail(), t.getAmount(), t.getAmountReceived(), t.getSchool(),
+            t.getSenderFullName(), t.getCountryFrom(), t.getSenderAddress(), t.getCurrencyFrom(),
+            t.getStudentId(), t.getStatus(), t.getFeePercentage(), t.getFeeAmount(), t.getFinalAmount(),
+            t.getCreatedAt(), t.getUpdatedAt()
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        out.write(VERSION);
+
+        UUID uuid = parseUuid(t.getId());
+        out.write(uuid != null ? FLAG_UUID_ID : 0);
+        if (uuid != null) {
+            writeLong(out, uuid.getMostSignificantBits());
+            writeLong(out, uuid.getLeastSignificantBits());
+        } else {
+            writeString(out, t.getId());
+        }
+
+        int nullMask = 0;
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if (values[i] == null) {
+                nullMask |= 1 << i;
+            }
+        }
+        writeVarint(out, nullMask);
+
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            switch (i) {
+                case SCHOOL, COUNTRY_FROM, CURRENCY_FROM, STATUS -> writeTableString(out, (String) value);
+                case AMOUNT, AMOUNT_RECEIVED, FEE_PERCENTAGE, FEE_AMOUNT, FINAL_AMOUNT ->
+                    writeDecimal(out, (BigDecimal) value);
+                case CREATED_AT, UPDATED_AT -> writeVarint(out, zigzag(epochMicros((Instant) value)));
+                default -> writeString(out, (String) value);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a record; the reference is left null
+     *
+     * @throws IllegalArgumentException if the record is truncated or of an unknown version
+     */
+    static Transaction decode(byte[] record) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(record);
+            int version = in.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported transaction record version: " + version);
+            }
+            int flags = in.get() & 0xFF;
+
+            Transaction t = new Transaction();
+            if ((flags & FLAG_UUID_ID) != 0) {
+                t.setId(new UUID(in.getLong(), in.getLong()).toString());
+            } else {
+                t.setId(readString(in));
+            }
+
+            int nullMask = (int) readVarint(in);
+            for (int i = 0; i < FIELD_COUNT; i++) {
+                if ((nullMask & (1 << i)) != 0) {
+                    continue;
+                }
+                switch (i) {
+                    case NAME -> t.setName(readString(in));
+                    case EMAIL -> t.setEmail(readString(in));
+                    case AMOUNT -> t.setAmount(readDecimal(in));
+                    case AMOUNT_RECEIVED -> t.setAmountReceived(readDecimal(in));
+                    case SCHOOL -> t.setSchool(readTableString(in));
+                    case SENDER_FULL_NAME -> t.setSenderFullName(readString(in));
+                    case COUNTRY_FROM -> t.setCountryFrom(readTableString(in));
+                    case SENDER_ADDRESS -> t.setSenderAddress(readString(in));
+                    case CURRENCY_FROM -> t.setCurrencyFrom(readTableString(in));
+                    case STUDENT_ID -> t.setStudentId(readString(in));
+                    case STATUS -> t.setStatus(readTableString(in));
+                    case FEE_PERCENTAGE -> t.setFeePercentage(readDecimal(in));
+                    case FEE_AMOUNT -> t.setFeeAmount(readDecimal(in));
+                    case FINAL_AMOUNT -> t.setFinalAmount(readDecimal(in));
+                    case CREATED_AT -> t.setCreatedAt(fromEpochMicros(unzigzag(readVarint(in))));
+                    case UPDATED_AT -> t.setUpdatedAt(fromEpochMicros(unzigzag(readVarint(in))));
+                    default -> throw new IllegalStateException("Unknown field " + i);
+                }
+            }
+            return t;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Corrupt transaction record (" + record.length + " bytes)", e);
+        }
+    }
+
+    private static UUID parseUuid(String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            // Only use the raw form if it round-trips to the exact same text
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeTableString(ByteArrayOutputStream out, String value) {
+        int index = STRING_TABLE.indexOf(value);
+        writeVarint(out, index + 1);
+        if (index < 0) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readTableString(ByteBuffer in) {
+        int code = (int) readVarint(in);
+        return code == 0 ? readString(in) : STRING_TABLE.get(code - 1);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarint(in);
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static void writeDecimal(ByteArrayOutputStream out, BigDecimal value) {
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() > 63) {
+            throw new IllegalArgumentException("Amount out of range for binary record: " + value);
+        }
+        writeVarint(out, zigzag(value.scale()));
+        writeVarint(out, zigzag(unscaled.longValue()));
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer in) {
+        int scale = (int) unzigzag(readVarint(in));
+        return BigDecimal.valueOf(unzigzag(readVarint(in)), scale);
+    }
+
+    private static long epochMicros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+
+    private static Instant fromEpochMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in transaction record");
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,137 @@
+package com.payment.redis.repository;
+
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.cluster.api.reactive.RedisClusterReactiveCommands;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads of the creation-time index shared by the blocking and reactive
+ * repositories. Every partition (see RedisKeys) has its own index; they are
+ * read concurrently and merged newest first, so the result is the same as
+ * reading one index holding every transaction.
+ */
+final class CreatedIndex {
+
+    private CreatedIndex() {
+    }
+
+    /**
+     * IDs of all indexed transactions, newest first
+     */
+    static Flux<String> all(RedisClusterReactiveCommands<String, String> commands, RedisKeys keys) {
+        if (keys.partitions() == 1) {
+            return commands.zrevrange(keys.createdIndex(0), 0, -1);
+        }
+        @SuppressWarnings("unchecked")
+        Publisher<ScoredValue<String>>[] partitions = new Publisher[keys.partitions()];
+        for (int partition = 0; partition < partitions.length; partition++) {
+            partitions[partition] = commands.zrevrangeWithScores(keys.createdIndex(partition), 0, -1);
+        }
+        return Flux.mergeComparing(PageCursor.NEWEST_FIRST, partitions).map(ScoredValue::getValue);
+    }
+
+    /**
+     * IDs of all indexed transactions, oldest first. Each partition is read
+     * `chunk` entries at a time, continuing after the last entry read (by
+     * score, then ID), so entries added or removed meanwhile never make the
+     * walk skip or repeat others.
+     */
+    static Flux<String> oldestFirst(RedisClusterReactiveCommands<String, String> commands, RedisKeys keys,
+                                    int chunk) {
+        @SuppressWarnings("unchecked")
+        Publisher<ScoredValue<String>>[] partitions = new Publisher[keys.partitions()];
+        for (int partition = 0; partition < partitions.length; partition++) {
+            String key = keys.createdIndex(partition);
+            partitions[partition] = chunkAfter(commands, key, null, chunk, 0)
+                .expand(next -> next.more()
+                    ? chunkAfter(commands, key, next.entries().get(next.entries().size() - 1), chunk, 0)
+                    : Mono.empty())
+                .flatMapIterable(Chunk::entries);
+        }
+        return Flux.mergeComparing(PageCursor.NEWEST_FIRST.reversed(), partitions).map(ScoredValue::getValue);
+    }
+
+    /**
+     * Up to `wanted` index entries past the cursor within [from, to], newest
+     * first. Each partition is read until it has contributed `wanted` entries
+     * or is exhausted; entries sharing the cursor's score that were already
+     * returned are skipped.
+     */
+    static Mono<List<ScoredValue<String>>> window(RedisClusterReactiveCommands<String, String> commands,
+                                                  RedisKeys keys, PageCursor after,
+                                                  Instant from, Instant to, int wanted) {
+        Range<Long> range = PageCursor.scoreRange(after, from, to);
+        return Flux.range(0, keys.partitions())
+            .flatMap(partition -> collect(commands, keys.createdIndex(partition), range, after, wanted,
+                0, new ArrayList<>(wanted)))
+            .collectList()
+            .map(partitions -> {
+                if (partitions.size() == 1) {
+                    return partitions.get(0);
+                }
+                List<ScoredValue<String>> merged = new ArrayList<>();
+                partitions.forEach(merged::addAll);
+                merged.sort(PageCursor.NEWEST_FIRST);
+                return merged.size() > wanted ? merged.subList(0, wanted) : merged;
+            });
+    }
+
+    private static Mono<List<ScoredValue<String>>> collect(RedisClusterReactiveCommands<String, String> commands,
+                                                           String key, Range<Long> range, PageCursor after,
+                                                           int wanted, long offset,
+                                                           List<ScoredValue<String>> window) {
+        int missing = wanted - window.size();
+        return commands.zrevrangebyscoreWithScores(key, range, Limit.create(offset, missing))
+            .collectList()
+            .flatMap(batch -> {
+                for (ScoredValue<String> entry : batch) {
+                    if (after == null || after.isBefore((long) entry.getScore(), entry.getValue())) {
+                        window.add(entry);
+                    }
+                }
+                if (batch.size() < missing || window.size() >= wanted) {
+                    return Mono.just(window);
+                }
+                return collect(commands, key, range, after, wanted, offset + batch.size(), window);
+            });
+    }
+
+    /**
+     * The next `chunk` entries after `last` (from the start if null), oldest first
+     */
+    private static Mono<Chunk> chunkAfter(RedisClusterReactiveCommands<String, String> commands, String key,
+                                          ScoredValue<String> last, int chunk, long offset) {
+        Range<Long> range = last == null
+            ? Range.unbounded()
+            : Range.from(Range.Boundary.including((long) last.getScore()), Range.Boundary.unbounded());
+        return commands.zrangebyscoreWithScores(key, range, Limit.create(offset, chunk))
+            .collectList()
+            .flatMap(batch -> {
+                List<ScoredValue<String>> entries = new ArrayList<>(batch.size());
+                for (ScoredValue<String> entry : batch) {
+                    if (last == null || entry.getScore() > last.getScore()
+                        || entry.getValue().compareTo(last.getValue()) > 0) {
+                        entries.add(entry);
+                    }
+                }
+                boolean more = batch.size() == chunk;
+                if (entries.isEmpty() && more) {
+                    // Only entries sharing the last score, all read before
+                    return chunkAfter(commands, key, last, chunk, offset + chunk);
+                }
+                return Mono.just(new Chunk(entries, more));
+            })
+            .filter(next -> !next.entries().isEmpty());
+    }
+
+    private record Chunk(List<ScoredValue<String>> entries, boolean more) {
+    }
+}
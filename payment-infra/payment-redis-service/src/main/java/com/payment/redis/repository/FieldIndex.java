@@ -0,0 +1,178 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.domain.Transaction;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.cluster.api.reactive.RedisClusterReactiveCommands;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Equality indexes of the searchable transaction fields (layout in
+ * transaction-index.lua): the entries a transaction passes to the write
+ * scripts, and the search that intersects them.
+ *
+ * Values are compared case-insensitively and without surrounding whitespace.
+ * A search reads, per partition, the smallest of the requested indexes newest
+ * first and checks each member against the others (search-index.lua), so it
+ * touches the members of that index, not every transaction, and only the
+ * matching transactions are fetched. A script call examines at most
+ * MAX_EXAMINED members; when a partition stops early the page ends where it
+ * stopped, so a page can hold fewer than limit items and still have a next
+ * cursor.
+ */
+final class FieldIndex {
+    static final int MAX_EXAMINED = 10_000;
+
+    /**
+     * Searchable fields, by query parameter name
+     */
+    static final Map<String, Function<Transaction, String>> FIELDS = fields();
+
+    private FieldIndex() {
+    }
+
+    private static Map<String, Function<Transaction, String>> fields() {
+        Map<String, Function<Transaction, String>> fields = new LinkedHashMap<>();
+        fields.put("email", Transaction::getEmail);
+        fields.put("studentId", Transaction::getStudentId);
+        fields.put("school", Transaction::getSchool);
+        fields.put("status", Transaction::getStatus);
+        fields.put("countryFrom", Transaction::getCountryFrom);
+        return fields;
+    }
+
+    /**
+     * Index value of a field: trimmed, lower case, on one line; null if blank
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.strip().replaceAll("\\s*[\\r\\n]+\\s*", " ").toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    /**
+     * The transaction's index entries ({field}:{value}), one per line, as
+     * passed to the write scripts
+     */
+    static String entries(Transaction t) {
+        StringJoiner entries = new StringJoiner("\n");
+        FIELDS.forEach((field, getter) -> {
+            String value = normalize(getter.apply(t));
+            if (value != null) {
+                entries.add(field + ":" + value);
+            }
+        });
+        return entries.toString();
+    }
+
+    /**
+     * Index entries to intersect for the given criteria; blank values are ignored
+     *
+     * @throws IllegalArgumentException for an unknown field or no criteria at all
+     */
+    static List<String> criteria(Map<String, String> criteria) {
+        List<String> entries = new ArrayList<>();
+        criteria.forEach((field, value) -> {
+            if (!FIELDS.containsKey(field)) {
+                throw new IllegalArgumentException("Unknown search field: " + field);
+            }
+            String normalized = normalize(value);
+            if (normalized != null) {
+                entries.add(field + ":" + normalized);
+            }
+        });
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("At least one of " + FIELDS.keySet() + " is required");
+        }
+        return entries;
+    }
+
+    /**
+     * Up to `limit` IDs in all of the given indexes, newest first, after the cursor
+     */
+    static Mono<Window> search(RedisClusterReactiveCommands<String, byte[]> commands, RedisKeys keys,
+                               List<String> entries, PageCursor after, int limit) {
+        return Flux.range(0, keys.partitions())
+            .flatMap(partition -> TransactionScripts.SEARCH_INDEX.<List<Object>>execute(commands,
+                    ScriptOutputType.MULTI, TransactionScripts.searchIndexKeys(keys, partition, entries),
+                    TransactionScripts.searchIndexArgs(after, limit + 1, MAX_EXAMINED))
+                .map(FieldIndex::partial))
+            .collectList()
+            .map(partials -> merge(partials, limit));
+    }
+
+    /**
+     * Result of a search: the IDs of one page and the cursor of the next (null if none)
+     */
+    record Window(List<String> ids, PageCursor next) {
+    }
+
+    /**
+     * Result of search-index.lua for one partition: the matches, and the
+     * position reached unless it read its index to the end (last is null)
+     */
+    record Partial(List<ScoredValue<String>> matches, ScoredValue<String> last) {
+    }
+
+    /**
+     * Merge the partitions' matches newest first. Matches after the newest
+     * position where a partition stopped are left for the next page, since
+     * that partition may still have matches before them.
+     */
+    static Window merge(List<Partial> partials, int limit) {
+        List<ScoredValue<String>> matches = new ArrayList<>();
+        ScoredValue<String> boundary = null;
+        for (Partial partial : partials) {
+            matches.addAll(partial.matches());
+            if (partial.last() != null
+                && (boundary == null || PageCursor.NEWEST_FIRST.compare(partial.last(), boundary) < 0)) {
+                boundary = partial.last();
+            }
+        }
+        matches.sort(PageCursor.NEWEST_FIRST);
+        if (boundary != null) {
+            ScoredValue<String> stop = boundary;
+            matches.removeIf(match -> PageCursor.NEWEST_FIRST.compare(match, stop) > 0);
+        }
+
+        if (matches.size() > limit) {
+            List<ScoredValue<String>> page = matches.subList(0, limit);
+            return new Window(ids(page), PageCursor.after(page.get(limit - 1)));
+        }
+        return new Window(ids(matches), boundary == null ? null : PageCursor.after(boundary));
+    }
+
+    private static Partial partial(List<Object> reply) {
+        List<ScoredValue<String>> matches = new ArrayList<>((reply.size() - 3) / 2);
+        for (int i = 3; i + 1 < reply.size(); i += 2) {
+            matches.add(ScoredValue.just(score(reply.get(i + 1)), string(reply.get(i))));
+        }
+        boolean done = (Long) reply.get(0) == 1;
+        return new Partial(matches, done ? null : ScoredValue.just(score(reply.get(1)), string(reply.get(2))));
+    }
+
+    private static List<String> ids(List<ScoredValue<String>> entries) {
+        List<String> ids = new ArrayList<>(entries.size());
+        entries.forEach(entry -> ids.add(entry.getValue()));
+        return ids;
+    }
+
+    private static String string(Object value) {
+        return TransactionCodec.string((byte[]) value);
+    }
+
+    private static double score(Object value) {
+        return Double.parseDouble(string(value));
+    }
+}
@@ -0,0 +1,104 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.config.RedisConnection;
+import io.lettuce.core.ScriptOutputType;
+import io.micrometer.core.annotation.Timed;
+import io.micronaut.aop.InterceptorBinding;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Outcomes of requests sent with an idempotency key.
+ *
+ * Redis Schema:
+ * - payment:idempotency:{key} (hash) - state (pending or completed), the
+ *   request fingerprint, the token of the request that reserved it and, once
+ *   completed, the response status and body. A pending entry expires after
+ *   the reservation lifetime, a completed one after the retention period.
+ *
+ * Reserving is one script that either creates the pending entry or returns
+ * the existing one, so of two concurrent requests exactly one reserves the
+ * key. Completing and releasing only act while the caller's token is still
+ * the reserving one.
+ */
+@Singleton
+@InterceptorBinding(Timed.class)
+public class IdempotencyRepository {
+    private final RedisConnection<String, byte[]> binaryConnection;
+
+    public IdempotencyRepository(@Named("binary") RedisConnection<String, byte[]> binaryConnection) {
+        this.binaryConnection = binaryConnection;
+    }
+
+    /**
+     * Reserve the key for a request, unless it is already known
+     *
+     * @return empty if the key was reserved, otherwise the existing entry
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "idempotency", "operation", "reserve"})
+    public Optional<Entry> reserve(String key, String fingerprint, String token, Duration lifetime) {
+        List<Object> entry = TransactionScripts.RESERVE_IDEMPOTENCY.execute(binaryConnection.sync(),
+            ScriptOutputType.MULTI, TransactionScripts.idempotencyKeys(key),
+            TransactionScripts.reserveIdempotencyArgs(fingerprint, token, lifetime));
+        return entry(TransactionCodec.fieldsToMap(entry));
+    }
+
+    /**
+     * The entry of a key, if any
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "idempotency", "operation", "find"})
+    public Optional<Entry> find(String key) {
+        return entry(binaryConnection.sync().hgetall(RedisKeys.idempotency(key)));
+    }
+
+    /**
+     * Store the response of the request holding the reservation, and keep it for the retention period
+     *
+     * @return false if the reservation was no longer held by that request
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "idempotency", "operation", "complete"})
+    public boolean complete(String key, String token, int status, byte[] body, Duration retention) {
+        Long completed = TransactionScripts.COMPLETE_IDEMPOTENCY.execute(binaryConnection.sync(),
+            ScriptOutputType.INTEGER, TransactionScripts.idempotencyKeys(key),
+            TransactionScripts.completeIdempotencyArgs(token, status, body, retention));
+        return completed == 1;
+    }
+
+    /**
+     * Drop a reservation that is still pending and held by the given request
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "idempotency", "operation", "release"})
+    public boolean release(String key, String token) {
+        Long released = TransactionScripts.RELEASE_IDEMPOTENCY.execute(binaryConnection.sync(),
+            ScriptOutputType.INTEGER, TransactionScripts.idempotencyKeys(key),
+            TransactionScripts.releaseIdempotencyArgs(token));
+        return released == 1;
+    }
+
+    private static Optional<Entry> entry(Map<String, byte[]> fields) {
+        if (fields.isEmpty()) {
+            return Optional.empty();
+        }
+        boolean completed = "completed".equals(string(fields.get("state")));
+        return Optional.of(new Entry(
+            string(fields.get("fingerprint")),
+            completed,
+            completed ? Integer.parseInt(string(fields.get("status"))) : 0,
+            completed ? fields.get("body") : null));
+    }
+
+    private static String string(byte[] value) {
+        return value == null ? null : TransactionCodec.string(value);
+    }
+
+    /**
+     * A reserved key: still pending, or completed with the stored response
+     */
+    public record Entry(String fingerprint, boolean completed, int status, byte[] body) {
+    }
+}
@@ -0,0 +1,275 @@
+package com.payment.redis.repository;
+
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScoredValueScanCursor;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Removes index entries of transactions that expired instead of being
+ * deleted. The hash expires after its TTL, but nothing takes its ID out of
+ * payment:idx:created and the field indexes or its reference out of
+ * payment:idx:reference, so count() would drift and reads would fetch hashes
+ * that no longer exist.
+ *
+ * A pass sweeps the creation-time and reference indexes of every partition
+ * with ZSCAN and HSCAN, one batch-size chunk per batch-interval: the IDs of a
+ * chunk are checked with pipelined EXISTS, and the missing ones are handed to
+ * prune-index.lua, which checks each one again before removing it, so an
+ * entry written meanwhile is kept. An ID removed from the creation-time index
+ * is removed from the field indexes too, through its index entries key,
+ * which outlives the transaction (see transaction-index.lua). Every command touches at most batch-size entries, so
+ * Redis is never blocked for long, however large the indexes are.
+ *
+ * Passes start every pass-interval. The instance that sets payment:reconciler
+ * (SET NX, expiring after pass-interval) runs the pass; the others skip it.
+ * The aggregates keep the share of expired transactions until the next stats
+ * rebuild (see TransactionRepository#rebuildStats).
+ *
+ * The commands go through {@link ReconcilerCommands}, so a pass can be
+ * driven against a fake in tests.
+ *
+ * Keyspace notifications are not used: they need notify-keyspace-events set
+ * on every node, and an expiry that happens while no instance is subscribed
+ * is never announced again.
+ */
+@Singleton
+public class IndexReconciler {
+    private static final Logger log = LoggerFactory.getLogger(IndexReconciler.class);
+
+    private final ReconcilerCommands commands;
+    private final RedisKeys keys;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration batchInterval;
+    private final Duration passInterval;
+    private final String instanceId = UUID.randomUUID().toString();
+    private ScheduledExecutorService sweeper;
+    private volatile Sweep current;
+    private long nextPassAt;
+    private volatile boolean sweepFailing;
+
+    private final AtomicLong passes = new AtomicLong();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong prunedIds = new AtomicLong();
+    private final AtomicLong prunedReferences = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile Instant lastPassCompletedAt;
+    private volatile long lastPassMillis;
+
+    @Inject
+    public IndexReconciler(ReconcilerCommands commands,
+                           RedisKeys keys,
+                           @Value("${redis.reconciler.enabled:true}") boolean enabled,
+                           @Value("${redis.reconciler.batch-size:500}") int batchSize,
+                           @Value("${redis.reconciler.batch-interval:50ms}") Duration batchInterval,
+                           @Value("${redis.reconciler.pass-interval:1h}") Duration passInterval) {
+        this.commands = commands;
+        this.keys = keys;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.batchInterval = batchInterval;
+        this.passInterval = passInterval;
+    }
+
+    @EventListener
+    public void onStartup(StartupEvent event) {
+        if (!enabled || sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "index-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::tick, batchInterval.toMillis(), batchInterval.toMillis(),
+            TimeUnit.MILLISECONDS);
+        log.info("🔧 Index reconciler enabled (batch size {}, batch interval {}, pass interval {})",
+            batchSize, batchInterval, passInterval);
+    }
+
+    /**
+     * Run a whole pass now, on the calling thread, without the lease
+     *
+     * @return number of index entries removed
+     */
+    public long reconcile() {
+        Sweep sweep = new Sweep();
+        boolean done = false;
+        while (!done) {
+            done = step(sweep);
+        }
+        finish(sweep);
+        return sweep.prunedIds + sweep.prunedReferences;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Pass progress and counters
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Sweep sweep = current;
+        stats.put("enabled", enabled);
+        stats.put("batchSize", batchSize);
+        stats.put("batchInterval", batchInterval.toString());
+        stats.put("passInterval", passInterval.toString());
+        stats.put("passActive", sweep != null);
+        if (sweep != null) {
+            stats.put("passPartition", sweep.partition);
+            stats.put("passIndex", sweep.referencePhase ? "reference" : "created");
+        }
+        stats.put("passes", passes.get());
+        stats.put("lastPassCompletedAt", lastPassCompletedAt == null ? null : lastPassCompletedAt.toString());
+        stats.put("lastPassMs", lastPassMillis);
+        stats.put("scanned", scanned.get());
+        stats.put("prunedIds", prunedIds.get());
+        stats.put("prunedReferences", prunedReferences.get());
+        stats.put("failures", failures.get());
+        return stats;
+    }
+
+    /**
+     * One scheduled step: start a pass if one is due and the lease is free,
+     * otherwise sweep the next chunk of the pass in progress. A failed chunk
+     * is retried on the next tick from the same cursor.
+     */
+    void tick() {
+        try {
+            if (current == null) {
+                long now = System.currentTimeMillis();
+                if (now < nextPassAt) {
+                    return;
+                }
+                nextPassAt = now + passInterval.toMillis();
+                if (!commands.lease(instanceId, passInterval)) {
+                    return;
+                }
+                current = new Sweep();
+            }
+            if (step(current)) {
+                finish(current);
+                current = null;
+            }
+            if (sweepFailing) {
+                sweepFailing = false;
+                log.info("✅ Index reconciler restored");
+            }
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            if (!sweepFailing) {
+                sweepFailing = true;
+                log.warn("⚠️ Index reconciliation failed, retrying: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sweep the next chunk of a pass
+     *
+     * @return true once the pass has covered both indexes of every partition
+     */
+    private boolean step(Sweep sweep) {
+        int partition = sweep.partition;
+
+        if (!sweep.referencePhase) {
+            ScoredValueScanCursor<String> scan = commands.scanCreated(partition, sweep.cursor, batchSize);
+            List<String> ids = scan.getValues().stream().map(ScoredValue::getValue).toList();
+            List<String> missing = commands.missing(ids);
+            if (!missing.isEmpty()) {
+                prune(sweep, partition, missing, Map.of());
+            }
+            scanned.addAndGet(ids.size());
+            sweep.cursor = scan;
+            if (scan.isFinished()) {
+                sweep.referencePhase = true;
+                sweep.cursor = ScanCursor.INITIAL;
+            }
+            return false;
+        }
+
+        MapScanCursor<String, String> scan = commands.scanReferences(partition, sweep.cursor, batchSize);
+        List<String> references = new ArrayList<>(scan.getMap().keySet());
+        List<String> ids = references.stream().map(scan.getMap()::get).toList();
+        Set<String> missing = new HashSet<>(commands.missing(ids));
+        if (!missing.isEmpty()) {
+            Map<String, String> dangling = new LinkedHashMap<>();
+            for (int i = 0; i < references.size(); i++) {
+                if (missing.contains(ids.get(i))) {
+                    dangling.put(references.get(i), ids.get(i));
+                }
+            }
+            prune(sweep, partition, List.of(), dangling);
+        }
+        scanned.addAndGet(ids.size());
+        sweep.cursor = scan;
+        if (scan.isFinished()) {
+            sweep.referencePhase = false;
+            sweep.cursor = ScanCursor.INITIAL;
+            sweep.partition++;
+        }
+        return sweep.partition == keys.partitions();
+    }
+
+    private void prune(Sweep sweep, int partition, List<String> ids, Map<String, String> references) {
+        List<Long> removed = commands.prune(partition, ids, references);
+        sweep.prunedIds += removed.get(0);
+        sweep.prunedReferences += removed.get(1);
+        prunedIds.addAndGet(removed.get(0));
+        prunedReferences.addAndGet(removed.get(1));
+    }
+
+    private void finish(Sweep sweep) {
+        passes.incrementAndGet();
+        lastPassCompletedAt = Instant.now();
+        lastPassMillis = System.currentTimeMillis() - sweep.startedAt;
+        if (sweep.prunedIds + sweep.prunedReferences > 0) {
+            log.info("✅ Index reconciliation pass done: {} IDs and {} references of expired transactions "
+                + "removed in {} ms", sweep.prunedIds, sweep.prunedReferences, lastPassMillis);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Position of a pass: the partition, which of its indexes, and the scan cursor
+     */
+    private static final class Sweep {
+        private final long startedAt = System.currentTimeMillis();
+        private int partition;
+        private boolean referencePhase;
+        private ScanCursor cursor = ScanCursor.INITIAL;
+        private long prunedIds;
+        private long prunedReferences;
+    }
+}
@@ -0,0 +1,23 @@
+package com.payment.redis.repository;
+
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.Map;
+
+/**
+ * Index reconciliation progress and counters at GET /reconciler
+ */
+@Endpoint(id = "reconciler", defaultSensitive = false)
+public class IndexReconcilerEndpoint {
+    private final IndexReconciler reconciler;
+
+    public IndexReconcilerEndpoint(IndexReconciler reconciler) {
+        this.reconciler = reconciler;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        return reconciler.stats();
+    }
+}
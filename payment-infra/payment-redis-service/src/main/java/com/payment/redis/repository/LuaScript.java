@@ -0,0 +1,122 @@
+package com.payment.redis.repository;
+
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.cluster.api.reactive.RedisClusterReactiveCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Server-side Lua script loaded from the classpath (redis/{name}.lua).
+ *
+ * Scripts are executed with EVALSHA so only the digest travels over the wire.
+ * When the node does not know the script yet (restart, failover, SCRIPT FLUSH)
+ * the full source is sent once with EVAL, which also caches it on the server.
+ *
+ * Arguments and replies are raw bytes (binary transaction connection), so
+ * values of any storage format pass through unchanged.
+ *
+ * Functions shared by several scripts live in library files that are
+ * prepended to the script source when it is loaded.
+ *
+ * In a cluster the call goes to the node owning the first key, and the script
+ * is cached on each node the first time it runs there. All keys a script
+ * touches must share its slot (see RedisKeys).
+ *
+ * Redis expects every key a script touches to be passed in KEYS, and the
+ * scripts declare every key the caller can name. A few keys are only known
+ * from data the script reads, and declaring them would take a read in an
+ * earlier round trip that races with concurrent writes:
+ * - field indexes named by a transaction's stored index entries, and for
+ *   symmetry its new ones (index_replace in transaction-index.lua)
+ * - the hash of the ID a reference resolves to (find-by-reference.lua)
+ * - the time buckets of a transaction's stored aggregate contribution, and
+ *   for symmetry those of its new one (transaction-stats.lua)
+ * These are built inside the script from a prefix passed in ARGV that carries
+ * the partition's hash tag, so they always hash to the slot of the declared
+ * keys. A script must not build an undeclared key from any other prefix, and
+ * the scripts need a server that does not enforce key declaration (Redis and
+ * Redis Cluster do not; a proxy that routes or locks by KEYS alone would).
+ */
+final class LuaScript {
+    private final String name;
+    private final String source;
+    private final String sha;
+
+    private LuaScript(String name, String source) {
+        this.name = name;
+        this.source = source;
+        this.sha = sha1(source);
+    }
+
+    /**
+     * Load a script from redis/{name}.lua on the classpath, preceded by the
+     * given libraries (redis/{library}.lua)
+     */
+    static LuaScript load(String name, String... libraries) {
+        StringBuilder source = new StringBuilder();
+        for (String library : libraries) {
+            source.append(read(library)).append('\n');
+        }
+        source.append(read(name));
+        return new LuaScript(name, source.toString());
+    }
+
+    /**
+     * Execute the script, falling back to EVAL if the server has not cached it
+     */
+    <T> T execute(RedisClusterCommands<String, byte[]> commands, ScriptOutputType type,
+                  String[] keys, byte[]... args) {
+        try {
+            return commands.evalsha(sha, type, keys, args);
+        } catch (RedisNoScriptException e) {
+            return commands.eval(source, type, keys, args);
+        }
+    }
+
+    /**
+     * Execute the script reactively, falling back to EVAL if the server has not cached it
+     */
+    <T> Flux<T> execute(RedisClusterReactiveCommands<String, byte[]> commands, ScriptOutputType type,
+                        String[] keys, byte[]... args) {
+        return commands.<T>evalsha(sha, type, keys, args)
+            .onErrorResume(RedisNoScriptException.class, e -> commands.eval(source, type, keys, args));
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getSha() {
+        return sha;
+    }
+
+    private static String read(String name) {
+        String path = "redis/" + name + ".lua";
+        try (InputStream in = LuaScript.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Lua script not found on classpath: " + path);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read Lua script: " + path, e);
+        }
+    }
+
+    private static String sha1(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+}
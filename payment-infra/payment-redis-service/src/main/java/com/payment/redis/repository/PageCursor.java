@@ -0,0 +1,95 @@
+package com.payment.redis.repository;
+
+import io.lettuce.core.Range;
+import io.lettuce.core.ScoredValue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * Opaque keyset cursor for paging the creation-time index newest first.
+ *
+ * Encodes the position of the last item returned: its score (createdAt epoch
+ * millis) and its ID. Within one score Redis orders members lexicographically,
+ * so (score, id) identifies a unique position even when timestamps collide.
+ */
+public final class PageCursor {
+    /**
+     * Order of the creation-time index read newest first (ZREVRANGE): by
+     * score, then by ID, both descending
+     */
+    static final Comparator<ScoredValue<String>> NEWEST_FIRST = Comparator
+        .comparingDouble((ScoredValue<String> entry) -> entry.getScore())
+        .thenComparing(ScoredValue::getValue)
+        .reversed();
+
+    private final long score;
+    private final String id;
+
+    public PageCursor(long score, String id) {
+        this.score = score;
+        this.id = id;
+    }
+
+    /**
+     * Decode a cursor token produced by {@link #encode()}
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new PageCursor(Long.parseLong(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException and bad Base64
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    /**
+     * Cursor positioned at the given index entry
+     */
+    static PageCursor after(ScoredValue<String> entry) {
+        return new PageCursor((long) entry.getScore(), entry.getValue());
+    }
+
+    /**
+     * Score range still to be read for a page: bounded by from/to and, when
+     * continuing, by the cursor's score (inclusive, so tied entries are seen)
+     */
+    static Range<Long> scoreRange(PageCursor after, Instant from, Instant to) {
+        long upper = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+        if (after != null) {
+            upper = Math.min(upper, after.getScore());
+        }
+        return Range.from(
+            from == null ? Range.Boundary.unbounded() : Range.Boundary.including(from.toEpochMilli()),
+            upper == Long.MAX_VALUE ? Range.Boundary.unbounded() : Range.Boundary.including(upper));
+    }
+
+    public String encode() {
+        String raw = score + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getScore() {
+        return score;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Whether (score, id) comes strictly after this cursor in newest-first order
+     */
+    boolean isBefore(long otherScore, String otherId) {
+        return otherScore < score || (otherScore == score && otherId.compareTo(id) < 0);
+    }
+}
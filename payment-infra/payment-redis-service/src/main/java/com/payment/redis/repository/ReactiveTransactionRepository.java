@@ -0,0 +1,324 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.cache.TransactionNearCache;
+import com.payment.redis.config.BulkReadConnections;
+import com.payment.redis.config.RedisConnection;
+import com.payment.redis.domain.StatsResolution;
+import com.payment.redis.domain.TimeSeriesPoint;
+import com.payment.redis.domain.Transaction;
+import com.payment.redis.domain.TransactionPage;
+import com.payment.redis.domain.TransactionStats;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.cluster.api.reactive.RedisClusterReactiveCommands;
+import io.micrometer.core.annotation.Timed;
+import io.micronaut.aop.InterceptorBinding;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Non-blocking counterpart of {@link TransactionRepository} built on Lettuce's
+ * reactive commands. Same key layout and scripts; no method ever parks the
+ * calling thread on Redis I/O.
+ */
+@Singleton
+@InterceptorBinding(Timed.class)
+public class ReactiveTransactionRepository {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveTransactionRepository.class);
+    private static final int TIME_SERIES_CONCURRENCY = 256;
+
+    private final RedisConnection<String, byte[]> binaryConnection;
+    private final RedisKeys keys;
+    private final ReplicaReads replicaReads;
+    private final int bulkBatchSize;
+    private final TransactionCodec codec;
+    private final ReferenceAllocator referenceAllocator;
+    private final TransactionNearCache nearCache;
+
+    public ReactiveTransactionRepository(@Named("binary") RedisConnection<String, byte[]> binaryConnection,
+                                         RedisKeys keys,
+                                         ReplicaReads replicaReads,
+                                         @Value("${redis.bulk-fetch.batch-size:500}") int bulkBatchSize,
+                                         TransactionCodec codec,
+                                         ReferenceAllocator referenceAllocator,
+                                         TransactionNearCache nearCache) {
+        this.binaryConnection = binaryConnection;
+        this.keys = keys;
+        this.replicaReads = replicaReads;
+        this.bulkBatchSize = bulkBatchSize;
+        this.codec = codec;
+        this.referenceAllocator = referenceAllocator;
+        this.nearCache = nearCache;
+    }
+
+    /**
+     * Create a new transaction in a single round trip (see TransactionRepository#create)
+     *
+     * @return the allocated reference, also set on the given transaction
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "reactive", "operation", "create"})
+    public Mono<String> create(Transaction transaction, String auditAction, String auditDetails) {
+        return Mono.fromFuture(referenceAllocator::nextReferenceAsync)
+            .flatMap(reference -> {
+                transaction.setReference(reference);
+                return TransactionScripts.INSERT.<Long>execute(binaryConnection.reactive(), ScriptOutputType.INTEGER,
+                        TransactionScripts.insertKeys(keys, transaction),
+                        TransactionScripts.insertArgs(keys, codec, transaction, auditAction, auditDetails))
+                    .next()
+                    .thenReturn(reference);
+            })
+            .doOnNext(reference -> {
+                transaction.setReference(reference);
+                replicaReads.recordWrite(transaction);
+                log.info("✅ Transaction created: {} with reference: {}", transaction.getId(), reference);
+            })
+            .doOnError(e -> log.error("❌ Error creating transaction", e));
+    }
+
+    /**
+     * Find a transaction by ID, from the near cache when possible, else from a
+     * replica (see ReplicaReads) or the primary
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "reactive", "operation", "findById"})
+    public Mono<Transaction> findById(String id) {
+        return Mono.defer(() -> {
+                Optional<Transaction> cached = nearCache.get(id);
+                if (cached.isPresent()) {
+                    return Mono.just(cached.get());
+                }
+                long ticket = nearCache.ticket();
+                RedisConnection<String, byte[]> reader = replicaReads.binaryConnection(id);
+                Mono<Transaction> primary = hgetall(binaryConnection, id)
+                    .doOnNext(transaction -> nearCache.put(ticket, transaction));
+                if (!replicaReads.isReplica(reader)) {
+                    return primary;
+                }
+                return hgetall(reader, id)
+                    .switchIfEmpty(Mono.defer(() -> {
+                        replicaReads.recordMissRetry();
+                        return primary;
+                    }));
+            })
+            .doOnError(e -> log.error("❌ Error finding transaction by ID", e));
+    }
+
+    /**
+     * Find transaction by reference number (single round trip via the reference
+     * index), from the near cache when possible, else from a replica or the primary
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "reactive", "operation", "findByReference"})
+    public Mono<Transaction> findByReference(String reference) {
+        return Mono.defer(() -> {
+                Optional<Transaction> cached = nearCache.getByReference(reference);
+                if (cached.isPresent()) {
+                    return Mono.just(cached.get());
+                }
+                long ticket = nearCache.ticket();
+                RedisConnection<String, byte[]> reader = replicaReads.binaryConnectionForReference(reference);
+                Mono<Transaction> primary = TransactionScripts.findByReference(binaryConnection.reactive(), keys, reference)
+                    .map(codec::decode)
+                    .doOnNext(transaction -> nearCache.put(ticket, transaction));
+                if (!replicaReads.isReplica(reader)) {
+                    return primary;
+                }
+                return TransactionScripts.findByReferenceOnReplica(reader.reactive(), keys, reference)
+                    .map(codec::decode)
+                    .switchIfEmpty(Mono.defer(() -> {
+                        replicaReads.recordMissRetry();
+                        return primary;
+                    }));
+            })
+            .doOnError(e -> log.error("❌ Error finding transaction by reference", e));
+    }
+
+    /**
+     * Stream all transactions newest first. Hashes are fetched in pipelined
+     * batches, one batch in flight per bulk read connection, in index order.
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "reactive", "operation", "findAll"})
+    public Flux<Transaction> findAll() {
+        return Flux.defer(() -> {
+                BulkReadConnections bulkConnections = replicaReads.bulkConnections();
+                int start = bulkConnections.nextStart();
+                return CreatedIndex.all(replicaReads.connection().reactive(), keys)
+                    .buffer(bulkBatchSize)
+                    .index()
+                    .flatMapSequential(batch ->
+                            fetchBatch(bulkConnections, batch.getT2(), start, batch.getT1().intValue()),
+                        bulkConnections.size());
+            })
+            .doOnError(e -> log.error("❌ Error fetching all transactions", e));
+    }
+
+    /**
+     * Stream transactions newest first, optionally limited to [from, to], by
+     * walking the creation index one page of chunkSize at a time. A page is
+     * only fetched once the subscriber has consumed the previous one, so memory
+     * stays bounded by chunkSize however many transactions there are.
+     */
+    public Flux<Transaction> streamAll(int chunkSize, Instant from, Instant to) {
+        return Flux.defer(() -> findPage(chunkSize, null, from, to)
+                .expand(page -> page.getNextCursor() == null
+                    ? Mono.empty()
+                    : findPage(chunkSize, page.getNextCursor(), from, to))
+                .concatMapIterable(TransactionPage::getItems, 1))
+            .doOnError(e -> log.error("❌ Error streaming transactions", e));
+    }
+
+    /**
+     * Get one page of transactions, newest first (see TransactionRepository#findPage)
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "reactive", "operation", "findPage"})
+    public Mono<TransactionPage> findPage(int limit, String cursor, Instant from, Instant to) {
+        PageCursor after = cursor == null ? null : PageCursor.decode(cursor);
+
+        return Mono.defer(() -> CreatedIndex.window(replicaReads.connection().reactive(), keys, after, from, to, limit + 1))
+            .flatMap(window -> {
+                boolean hasMore = window.size() > limit;
+                List<ScoredValue<String>> pageEntries = hasMore ? window.subList(0, limit) : window;
+                List<String> ids = new ArrayList<>(pageEntries.size());
+                pageEntries.forEach(entry -> ids.add(entry.getValue()));
+                String nextCursor = hasMore ? PageCursor.after(pageEntries.get(pageEntries.size() - 1)).encode() : null;
+
+                BulkReadConnections bulkConnections = replicaReads.bulkConnections();
+                return fetchBatch(bulkConnections, ids, bulkConnections.nextStart(), 0).collectList()
+                    .map(items -> new TransactionPage(items, nextCursor));
+            })
+            .doOnError(e -> log.error("❌ Error fetching transaction page", e));
+    }
+
+    /**
+     * Delete a transaction by ID
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "reactive", "operation", "deleteById"})
+    public Mono<Boolean> deleteById(String id) {
+        return TransactionScripts.DELETE.<Long>execute(binaryConnection.reactive(), ScriptOutputType.INTEGER,
+                TransactionScripts.deleteKeys(keys, id), TransactionScripts.deleteArgs(keys, id))
+            .next()
+            .doOnNext(ignored -> {
+                nearCache.invalidate(id);
+                replicaReads.recordWrite(id);
+            })
+            .map(deleted -> deleted > 0)
+            .doOnNext(deleted -> {
+                if (deleted) {
+                    log.info("✅ Transaction deleted: {}", id);
+                }
+            })
+            .doOnError(e -> log.error("❌ Error deleting transaction", e));
+    }
+
+    /**
+     * Get count of all transactions
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "reactive", "operation", "count"})
+    public Mono<Long> count() {
+        return Flux.defer(() -> {
+                RedisClusterReactiveCommands<String, String> commands = replicaReads.connection().reactive();
+                return Flux.range(0, keys.partitions())
+                    .flatMap(partition -> commands.zcard(keys.createdIndex(partition)));
+            })
+            .reduce(0L, Long::sum)
+            .doOnError(e -> log.error("❌ Error counting transactions", e));
+    }
+
+    /**
+     * Get the running aggregates (see TransactionRepository#findStats)
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "reactive", "operation", "findStats"})
+    public Mono<TransactionStats> findStats() {
+        return Flux.defer(() -> {
+                RedisClusterReactiveCommands<String, String> commands = replicaReads.connection().reactive();
+                return Flux.range(0, keys.partitions())
+                    .flatMap(partition -> commands.hgetall(keys.stats(partition))
+                        .collectMap(KeyValue::getKey, KeyValue::getValue));
+            })
+            .collectList()
+            .map(TransactionAggregates::toStats)
+            .doOnError(e -> log.error("❌ Error fetching transaction stats", e));
+    }
+
+    /**
+     * Get the aggregates per time bucket in [from, to] (see TransactionRepository#findTimeSeries)
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "reactive", "operation", "findTimeSeries"})
+    public Mono<List<TimeSeriesPoint>> findTimeSeries(StatsResolution resolution, Instant from, Instant to) {
+        return Mono.defer(() -> {
+                Instant now = Instant.now();
+                RedisClusterReactiveCommands<String, String> commands = replicaReads.connection().reactive();
+                return Flux.fromIterable(TransactionAggregates.bucketStarts(resolution, from, to))
+                    .flatMapSequential(bucket -> {
+                        Mono<List<List<String>>> values = TransactionAggregates.isRetained(resolution, bucket, now)
+                            ? Flux.range(0, keys.partitions())
+                                .flatMap(partition -> commands.hmget(keys.timeBucket(partition, resolution, bucket),
+                                        TransactionAggregates.BUCKET_FIELDS)
+                                    .map(kv -> kv.getValueOrElse("0"))
+                                    .collectList())
+                                .collectList()
+                            : Mono.just(List.of());
+                        return values.map(v -> new TimeSeriesPoint(bucket, TransactionAggregates.sumTotals(v)));
+                    }, TIME_SERIES_CONCURRENCY)
+                    .collectList();
+            })
+            .doOnError(e -> log.error("❌ Error fetching transaction time series", e));
+    }
+
+    /**
+     * Append an audit log entry to the audit stream and the payment's own
+     * stream (one script call), bypassing the write-behind queue
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "reactive", "operation", "saveAuditLog"})
+    public Mono<Void> saveAuditLog(String paymentId, String action, String details) {
+        return TransactionScripts.APPEND_AUDIT.<byte[]>execute(binaryConnection.reactive(), ScriptOutputType.VALUE,
+                TransactionScripts.appendAuditKeys(keys, paymentId),
+                TransactionScripts.appendAuditArgs(paymentId, action, details, Instant.now()))
+            .then()
+            .doOnSuccess(ignored -> log.info("✅ Audit log saved: {} for transaction: {}", action, paymentId))
+            .doOnError(e -> log.error("❌ Error saving audit log", e))
+            .onErrorResume(e -> Mono.empty())
+            .then();
+    }
+
+    private Mono<Transaction> hgetall(RedisConnection<String, byte[]> reader, String id) {
+        return reader.reactive().hgetall(keys.payment(id))
+            .collectMap(KeyValue::getKey, KeyValue::getValue)
+            .filter(data -> !data.isEmpty())
+            .map(codec::decode);
+    }
+
+    /**
+     * Fetch one batch of hashes as a pipeline on a bulk read connection,
+     * preserving order and skipping missing, expired or undecodable entries
+     */
+    private Flux<Transaction> fetchBatch(BulkReadConnections bulkConnections, List<String> ids, int start, int batch) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        RedisClusterReactiveCommands<String, byte[]> commands = bulkConnections.forBatch(start, batch).reactive();
+        return Flux.fromIterable(ids)
+            .flatMapSequential(id -> commands.hgetall(keys.payment(id))
+                .collectMap(KeyValue::getKey, KeyValue::getValue)
+                .filter(data -> !data.isEmpty())
+                .flatMap(data -> {
+                    try {
+                        return Mono.just(codec.decode(data));
+                    } catch (RuntimeException e) {
+                        log.warn("⚠️ Skipping undecodable transaction {}: {}", id, e.getMessage());
+                        return Mono.empty();
+                    }
+                }), ids.size());
+    }
+}
@@ -0,0 +1,47 @@
+package com.payment.redis.repository;
+
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScoredValueScanCursor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Redis commands an {@link IndexReconciler} pass is made of
+ */
+public interface ReconcilerCommands {
+
+    /**
+     * Take the pass lease (payment:reconciler) unless another instance holds it
+     *
+     * @return true if the caller now holds it, for the given lifetime
+     */
+    boolean lease(String owner, Duration lifetime);
+
+    /**
+     * Next chunk of a partition's creation-time index (ZSCAN)
+     */
+    ScoredValueScanCursor<String> scanCreated(int partition, ScanCursor cursor, int count);
+
+    /**
+     * Next chunk of a partition's reference index (HSCAN)
+     */
+    MapScanCursor<String, String> scanReferences(int partition, ScanCursor cursor, int count);
+
+    /**
+     * The IDs whose transaction hash does not exist, in the given order
+     */
+    List<String> missing(List<String> ids);
+
+    /**
+     * Remove the given IDs from the partition's creation-time and field
+     * indexes, and the given reference -> ID entries from its reference index.
+     * Each is removed only if its transaction hash still does not exist, and a
+     * reference only if it still points to that ID (see prune-index.lua).
+     *
+     * @return {IDs removed, references removed}
+     */
+    List<Long> prune(int partition, List<String> ids, Map<String, String> references);
+}
@@ -0,0 +1,215 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.domain.StatsResolution;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.time.Instant;
+
+/**
+ * Redis key layout shared by the blocking and reactive repositories.
+ * See TransactionRepository for the full schema.
+ *
+ * The keys every transaction is added to (indexes, audit stream,
+ * aggregates, time buckets) are split into partitions, and a transaction
+ * belongs to the partition its ID hashes to. A standalone Redis uses a single
+ * partition with untagged names, i.e. the historical layout. In cluster mode
+ * each partition's keys, and the hash and audit trail of every transaction in
+ * it, carry the hash tag {n}: a script touching one transaction and its
+ * partition stays within one slot, while the partitions spread the global
+ * structures (and their write load) over up to redis.cluster.partitions slots.
+ * Queries over all transactions read every partition and merge the results.
+ *
+ * The number of partitions is part of the layout: changing it for an existing
+ * keyspace would leave transactions in the wrong partition.
+ */
+@Singleton
+public final class RedisKeys {
+    static final String PAYMENT_KEY_PREFIX = "payment:";
+    static final String COUNTER_KEY = "payment:counter";
+    static final String ALL_PAYMENTS_KEY = "payment:all";
+    static final String REFERENCE_INDEX_KEY = "payment:idx:reference";
+    static final String CREATED_INDEX_KEY = "payment:idx:created";
+    static final String FIELD_INDEX_KEY_PREFIX = "payment:idx:";
+    static final String INDEX_ENTRIES_KEY_PREFIX = "payment:idx:entries:";
+    static final String MIGRATIONS_KEY = "payment:migrations";
+    static final String STATS_KEY = "payment:stats";
+    static final String STATS_REBUILD_KEY = "payment:stats:rebuild";
+    static final String TIME_BUCKET_KEY_PREFIX = "payment:ts:";
+    static final String HEARTBEAT_KEY = "payment:heartbeat";
+    static final String RECONCILER_KEY = "payment:reconciler";
+    static final String IDEMPOTENCY_KEY_PREFIX = "payment:idempotency:";
+    static final String AUDIT_KEY_PREFIX = "audit:";
+    static final String AUDIT_STREAM_KEY = "audit:stream";
+    static final String AUDIT_LEGACY_STREAM_KEY = "audit:stream:legacy";
+    static final String AUDIT_PAYMENT_KEY_PREFIX = "audit:payment:";
+    static final String AUDIT_MIGRATION_KEY = "audit:migration:staging";
+
+    static final long TTL_SECONDS = 365 * 24 * 60 * 60;
+
+    private final int partitions;
+    private final boolean tagged;
+
+    @Inject
+    public RedisKeys(@Value("${redis.cluster.enabled:false}") boolean cluster,
+                     @Value("${redis.cluster.partitions:16}") int partitions) {
+        this(cluster ? partitions : 1, cluster);
+    }
+
+    private RedisKeys(int partitions, boolean tagged) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("redis.cluster.partitions must be at least 1");
+        }
+        this.partitions = partitions;
+        this.tagged = tagged;
+    }
+
+    /**
+     * Single-partition layout without hash tags, for a standalone Redis
+     */
+    static RedisKeys standalone() {
+        return new RedisKeys(1, false);
+    }
+
+    /**
+     * Hash-tagged layout with the given number of partitions, for a cluster
+     */
+    static RedisKeys cluster(int partitions) {
+        return new RedisKeys(partitions, true);
+    }
+
+    int partitions() {
+        return partitions;
+    }
+
+    /**
+     * Partition of a transaction, by its ID
+     */
+    int partition(String paymentId) {
+        return partitions == 1 ? 0 : Math.floorMod(paymentId.hashCode(), partitions);
+    }
+
+    String payment(String id) {
+        return paymentPrefix(partition(id)) + id;
+    }
+
+    /**
+     * Prefix of the transaction hashes in a partition, followed by the ID
+     */
+    String paymentPrefix(int partition) {
+        return PAYMENT_KEY_PREFIX + tagPrefix(partition);
+    }
+
+    /**
+     * Legacy list of all transaction IDs, only read by the index backfills
+     */
+    String allPayments(int partition) {
+        return ALL_PAYMENTS_KEY + tagSuffix(partition);
+    }
+
+    String referenceIndex(int partition) {
+        return REFERENCE_INDEX_KEY + tagSuffix(partition);
+    }
+
+    String createdIndex(int partition) {
+        return CREATED_INDEX_KEY + tagSuffix(partition);
+    }
+
+    /**
+     * Prefix of the field indexes of a partition, followed by {field}:{value}
+     * (see transaction-index.lua)
+     */
+    String fieldIndexPrefix(int partition) {
+        return FIELD_INDEX_KEY_PREFIX + tagPrefix(partition);
+    }
+
+    String fieldIndex(int partition, String entry) {
+        return fieldIndexPrefix(partition) + entry;
+    }
+
+    /**
+     * Prefix of the index entry keys in a partition, followed by the ID
+     */
+    String indexEntriesPrefix(int partition) {
+        return INDEX_ENTRIES_KEY_PREFIX + tagPrefix(partition);
+    }
+
+    /**
+     * Field index entries of one transaction (see transaction-index.lua)
+     */
+    String indexEntries(String paymentId) {
+        return indexEntriesPrefix(partition(paymentId)) + paymentId;
+    }
+
+    String auditStream(int partition) {
+        return AUDIT_STREAM_KEY + tagSuffix(partition);
+    }
+
+    String stats(int partition) {
+        return STATS_KEY + tagSuffix(partition);
+    }
+
+    String statsRebuild(int partition) {
+        return STATS_REBUILD_KEY + tagSuffix(partition);
+    }
+
+    /**
+     * Prefix of the time buckets of a partition, followed by
+     * {resolution}:{epoch seconds} (see transaction-stats.lua)
+     */
+    String timeBucketPrefix(int partition) {
+        return TIME_BUCKET_KEY_PREFIX + tagPrefix(partition);
+    }
+
+    String timeBucket(int partition, StatsResolution resolution, Instant start) {
+        return timeBucketPrefix(partition) + resolution.id() + ":" + start.getEpochSecond();
+    }
+
+    /**
+     * Replication heartbeat of one instance in a partition (see ReplicaReads)
+     */
+    String heartbeat(int partition, String instanceId) {
+        return HEARTBEAT_KEY + tagSuffix(partition) + ":" + instanceId;
+    }
+
+    String auditTrail(String paymentId) {
+        return AUDIT_PAYMENT_KEY_PREFIX + tagPrefix(partition(paymentId)) + paymentId;
+    }
+
+    /**
+     * Stored outcome of a request sent with an idempotency key. Scripts only
+     * touch this one key, so it is not partitioned.
+     */
+    static String idempotency(String key) {
+        return IDEMPOTENCY_KEY_PREFIX + key;
+    }
+
+    /**
+     * Legacy per-entry audit hash, only read by the stream migration
+     */
+    static String audit(String auditId) {
+        return AUDIT_KEY_PREFIX + auditId;
+    }
+
+    /**
+     * Lowest audit stream ID (epoch millis) still within the retention period
+     */
+    static long auditRetentionStart() {
+        return System.currentTimeMillis() - TTL_SECONDS * 1000;
+    }
+
+    /**
+     * ":{n}" after the name of a partition's key, "" when untagged
+     */
+    private String tagSuffix(int partition) {
+        return tagged ? ":{" + partition + "}" : "";
+    }
+
+    /**
+     * "{n}:" before the ID in a partition's per-transaction keys, "" when untagged
+     */
+    private String tagPrefix(int partition) {
+        return tagged ? "{" + partition + "}:" : "";
+    }
+}
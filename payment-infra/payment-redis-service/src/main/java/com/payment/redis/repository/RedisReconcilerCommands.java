@@ -0,0 +1,80 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.config.RedisConnection;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScoredValueScanCursor;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.payment.redis.repository.RedisKeys.RECONCILER_KEY;
+
+/**
+ * Runs reconciliation passes against Redis: SCAN chunks, pipelined EXISTS,
+ * and prune-index.lua on the binary connection
+ */
+@Singleton
+public class RedisReconcilerCommands implements ReconcilerCommands {
+    private final RedisConnection<String, String> connection;
+    private final RedisConnection<String, byte[]> binaryConnection;
+    private final RedisKeys keys;
+
+    public RedisReconcilerCommands(RedisConnection<String, String> connection,
+                                   @Named("binary") RedisConnection<String, byte[]> binaryConnection,
+                                   RedisKeys keys) {
+        this.connection = connection;
+        this.binaryConnection = binaryConnection;
+        this.keys = keys;
+    }
+
+    @Override
+    public boolean lease(String owner, Duration lifetime) {
+        return "OK".equals(connection.sync().set(RECONCILER_KEY, owner, SetArgs.Builder.nx().px(lifetime.toMillis())));
+    }
+
+    @Override
+    public ScoredValueScanCursor<String> scanCreated(int partition, ScanCursor cursor, int count) {
+        return connection.sync().zscan(keys.createdIndex(partition), cursor, ScanArgs.Builder.limit(count));
+    }
+
+    @Override
+    public MapScanCursor<String, String> scanReferences(int partition, ScanCursor cursor, int count) {
+        return connection.sync().hscan(keys.referenceIndex(partition), cursor, ScanArgs.Builder.limit(count));
+    }
+
+    @Override
+    public List<String> missing(List<String> ids) {
+        RedisClusterAsyncCommands<String, String> async = connection.async();
+        List<RedisFuture<Long>> futures = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            futures.add(async.exists(keys.payment(id)));
+        }
+        LettuceFutures.awaitAll(connection.getTimeout(), futures.toArray(new RedisFuture[0]));
+
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (futures.get(i).toCompletableFuture().join() == 0) {
+                missing.add(ids.get(i));
+            }
+        }
+        return missing;
+    }
+
+    @Override
+    public List<Long> prune(int partition, List<String> ids, Map<String, String> references) {
+        return TransactionScripts.PRUNE_INDEX.execute(binaryConnection.sync(), ScriptOutputType.MULTI,
+            TransactionScripts.pruneIndexKeys(keys, partition, ids, references),
+            TransactionScripts.pruneIndexArgs(keys, partition, ids, references));
+    }
+}
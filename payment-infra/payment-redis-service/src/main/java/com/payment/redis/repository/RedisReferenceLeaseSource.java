@@ -0,0 +1,26 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.config.RedisConnection;
+import jakarta.inject.Singleton;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.payment.redis.repository.RedisKeys.COUNTER_KEY;
+
+/**
+ * Leases reference blocks from payment:counter with INCRBY, so blocks handed
+ * to different instances never overlap
+ */
+@Singleton
+public class RedisReferenceLeaseSource implements ReferenceLeaseSource {
+    private final RedisConnection<String, String> connection;
+
+    public RedisReferenceLeaseSource(RedisConnection<String, String> connection) {
+        this.connection = connection;
+    }
+
+    @Override
+    public CompletableFuture<Long> lease(int count) {
+        return connection.async().incrby(COUNTER_KEY, count).toCompletableFuture();
+    }
+}
@@ -0,0 +1,173 @@
+package com.payment.redis.repository;
+
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hi/lo allocator for transaction reference numbers.
+ *
+ * Instead of one INCR on payment:counter per transaction, each instance
+ * leases a block of block-size numbers with a single INCRBY and hands them out
+ * from memory with one atomic increment. When only refill-remaining numbers
+ * are left the next block is leased in the background, so callers normally
+ * never wait for Redis; they only do when a block runs out before its
+ * successor has arrived.
+ *
+ * Numbers are unique across threads and instances, because every block comes
+ * from the shared counter. They are not gap-free: numbers left in a block when
+ * the instance stops, or leased for items that then fail to store, are never
+ * used. Across instances, references are also no longer strictly in creation
+ * order.
+ */
+@Singleton
+public class ReferenceAllocator {
+    private static final Logger log = LoggerFactory.getLogger(ReferenceAllocator.class);
+    private static final long EXHAUSTED = Long.MIN_VALUE;
+
+    private final ReferenceLeaseSource source;
+    private final int blockSize;
+    private final int refillRemaining;
+    private final AtomicReference<Block> current;
+
+    public ReferenceAllocator(ReferenceLeaseSource source,
+                              @Value("${redis.reference-allocator.block-size:1000}") int blockSize,
+                              @Value("${redis.reference-allocator.refill-remaining:200}") int refillRemaining) {
+        if (blockSize < 1 || refillRemaining < 0 || refillRemaining >= blockSize) {
+            throw new IllegalArgumentException("Invalid reference allocator block-size " + blockSize
+                + " / refill-remaining " + refillRemaining);
+        }
+        this.source = source;
+        this.blockSize = blockSize;
+        this.refillRemaining = refillRemaining;
+        // Empty block: the first call leases the first real one
+        this.current = new AtomicReference<>(new Block(1, 0, 0));
+    }
+
+    /**
+     * Next reference, formatted like REF001, REF002, ... REF1234
+     */
+    public String nextReference() {
+        return format(next());
+    }
+
+    /**
+     * Next reference without blocking the calling thread
+     */
+    public CompletableFuture<String> nextReferenceAsync() {
+        return nextAsync().thenApply(ReferenceAllocator::format);
+    }
+
+    /**
+     * Next reference number, waiting for a lease only if the current block is exhausted
+     *
+     * @throws RuntimeException if a new block cannot be leased
+     */
+    public long next() {
+        while (true) {
+            Block block = current.get();
+            long number = block.take();
+            if (number != EXHAUSTED) {
+                return number;
+            }
+            try {
+                advance(block, successor(block).join());
+            } catch (CompletionException e) {
+                throw new RuntimeException("Failed to lease reference numbers", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Next reference number without blocking the calling thread
+     */
+    public CompletableFuture<Long> nextAsync() {
+        Block block = current.get();
+        long number = block.take();
+        if (number != EXHAUSTED) {
+            return CompletableFuture.completedFuture(number);
+        }
+        return successor(block).thenCompose(next -> {
+            advance(block, next);
+            return nextAsync();
+        });
+    }
+
+    /**
+     * REF + the number, zero-padded to at least three digits
+     */
+    static String format(long number) {
+        String digits = Long.toString(number);
+        return digits.length() >= 3 ? "REF" + digits : "REF" + "00".substring(digits.length() - 1) + digits;
+    }
+
+    private void advance(Block exhausted, Block next) {
+        current.compareAndSet(exhausted, next);
+    }
+
+    /**
+     * The block that follows the given one, leasing it if nobody has yet.
+     * A failed lease is forgotten so that the next caller retries.
+     */
+    private CompletableFuture<Block> successor(Block block) {
+        CompletableFuture<Block> lease = new CompletableFuture<>();
+        while (!block.successor.compareAndSet(null, lease)) {
+            CompletableFuture<Block> existing = block.successor.get();
+            if (existing != null) {
+                return existing;
+            }
+        }
+
+        CompletableFuture<Long> leased;
+        try {
+            leased = source.lease(blockSize);
+        } catch (RuntimeException e) {
+            leased = CompletableFuture.failedFuture(e);
+        }
+        leased.whenComplete((last, error) -> {
+            if (error != null) {
+                log.error("❌ Failed to lease {} reference numbers", blockSize, error);
+                block.successor.compareAndSet(lease, null);
+                lease.completeExceptionally(error);
+            } else {
+                long first = last - blockSize + 1;
+                lease.complete(new Block(first, last, last - refillRemaining));
+            }
+        });
+        return lease;
+    }
+
+    /**
+     * A leased range [first, last], handed out by one atomic increment
+     */
+    private final class Block {
+        private final AtomicLong cursor;
+        private final long last;
+        private final long refillAt;
+        private final AtomicReference<CompletableFuture<Block>> successor = new AtomicReference<>();
+
+        Block(long first, long last, long refillAt) {
+            this.cursor = new AtomicLong(first);
+            this.last = last;
+            this.refillAt = refillAt;
+        }
+
+        long take() {
+            long number = cursor.getAndIncrement();
+            if (number > last) {
+                return EXHAUSTED;
+            }
+            if (number == refillAt) {
+                // Exactly one caller sees this number: start leasing the next block now
+                successor(this);
+            }
+            return number;
+        }
+    }
+}
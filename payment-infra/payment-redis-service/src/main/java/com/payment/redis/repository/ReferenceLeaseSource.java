@@ -0,0 +1,17 @@
+package com.payment.redis.repository;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shared source of reference number blocks for {@link ReferenceAllocator}
+ */
+@FunctionalInterface
+public interface ReferenceLeaseSource {
+
+    /**
+     * Atomically reserve the next `count` reference numbers for the caller
+     *
+     * @return future completing with the last number of the reserved block
+     */
+    CompletableFuture<Long> lease(int count);
+}
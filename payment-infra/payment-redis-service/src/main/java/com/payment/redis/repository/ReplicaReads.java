@@ -0,0 +1,383 @@
+package com.payment.redis.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.payment.redis.config.BulkReadConnections;
+import com.payment.redis.config.RedisConfig;
+import com.payment.redis.config.RedisConnection;
+import com.payment.redis.config.RedisConnectionFactory;
+import com.payment.redis.domain.Transaction;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.StringCodec;
+import io.micronaut.context.annotation.Value;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Routes the read-only repository calls to replicas while they are close
+ * enough behind the primary, so that the primary's CPU goes to writes.
+ *
+ * Lag is measured with heartbeats. Every heartbeat-interval this instance
+ * writes the current time to its own key in every partition
+ * (payment:heartbeat[:{n}]:{instance}, on the primary) and reads the previous
+ * one back through the replica connection. A replica that returns heartbeat h
+ * has every write the primary completed before h, so it is at most now - h
+ * behind. While that is more than max-lag in a partition, or no heartbeat has
+ * come back yet (monitor failing, replica resyncing), reads of that partition
+ * go to the primary.
+ *
+ * Read-your-writes: IDs and references written by this instance are
+ * remembered for max-lag, and reading one goes to the primary until a
+ * heartbeat written after the write has reached the replica. A lookup that
+ * finds nothing on a replica is retried on the primary, so a transaction
+ * created through another instance is found at once as well; its updates
+ * and deletion may be seen up to max-lag late.
+ *
+ * Scripts always run on the primary. Replica results are never put into the
+ * near cache: an invalidation can arrive before the replica has the write it
+ * announces.
+ */
+@Singleton
+public class ReplicaReads {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaReads.class);
+    private static final Duration HEARTBEAT_TTL = Duration.ofMinutes(1);
+
+    private final RedisConnection<String, String> connection;
+    private final RedisConnection<String, byte[]> binaryConnection;
+    private final BulkReadConnections bulkConnections;
+    private final RedisConnection<String, String> replicaConnection;
+    private final RedisConnection<String, byte[]> binaryReplicaConnection;
+    private final BulkReadConnections bulkReplicaConnections;
+    private final RedisKeys keys;
+    private final long maxLagMillis;
+    private final LongSupplier clock;
+    private final Cache<String, Long> recentWrites;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicLongArray heartbeats;
+    private ScheduledExecutorService monitor;
+    private volatile boolean monitorFailing;
+
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong lagFallbacks = new AtomicLong();
+    private final AtomicLong writeFallbacks = new AtomicLong();
+    private final AtomicLong missRetries = new AtomicLong();
+
+    @Inject
+    public ReplicaReads(RedisConnectionFactory factory,
+                        RedisConnection<String, String> connection,
+                        @Named("binary") RedisConnection<String, byte[]> binaryConnection,
+                        BulkReadConnections bulkConnections,
+                        RedisKeys keys,
+                        @Value("${redis.replica-reads.enabled:false}") boolean enabled,
+                        @Value("${redis.replica-reads.nodes:}") String nodes,
+                        @Value("${redis.replica-reads.max-lag:1s}") Duration maxLag,
+                        @Value("${redis.replica-reads.heartbeat-interval:200ms}") Duration heartbeatInterval,
+                        @Value("${redis.replica-reads.read-your-writes:true}") boolean readYourWrites) {
+        this(connection, binaryConnection, bulkConnections,
+            enabled ? factory.connectReplicas(StringCodec.UTF8, nodes) : null,
+            enabled ? factory.connectReplicas(RedisConfig.BINARY_CODEC, nodes) : null,
+            enabled ? connectBulkReplicas(factory, nodes, bulkConnections.size()) : null,
+            keys, maxLag, readYourWrites, System::currentTimeMillis);
+        if (enabled) {
+            if (heartbeatInterval.compareTo(maxLag) >= 0) {
+                log.warn("⚠️ redis.replica-reads.heartbeat-interval {} is not below max-lag {}, "
+                    + "replicas will rarely be read", heartbeatInterval, maxLag);
+            }
+            start(heartbeatInterval);
+            log.info("🔧 Replica reads enabled (max lag {}, heartbeat every {}, read-your-writes {})",
+                maxLag, heartbeatInterval, readYourWrites);
+        }
+    }
+
+    ReplicaReads(RedisConnection<String, String> connection,
+                 RedisConnection<String, byte[]> binaryConnection,
+                 BulkReadConnections bulkConnections,
+                 RedisConnection<String, String> replicaConnection,
+                 RedisConnection<String, byte[]> binaryReplicaConnection,
+                 BulkReadConnections bulkReplicaConnections,
+                 RedisKeys keys, Duration maxLag, boolean readYourWrites, LongSupplier clock) {
+        this.connection = connection;
+        this.binaryConnection = binaryConnection;
+        this.bulkConnections = bulkConnections;
+        this.replicaConnection = replicaConnection;
+        this.binaryReplicaConnection = binaryReplicaConnection;
+        this.bulkReplicaConnections = bulkReplicaConnections;
+        this.keys = keys;
+        this.maxLagMillis = maxLag.toMillis();
+        this.clock = clock;
+        this.heartbeats = new AtomicLongArray(keys.partitions());
+        this.recentWrites = readYourWrites && replicaConnection != null
+            ? Caffeine.newBuilder()
+                .expireAfterWrite(maxLag)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.getAsLong()))
+                .build()
+            : null;
+    }
+
+    /**
+     * Every read on the primary, for repositories used outside the application context
+     */
+    public static ReplicaReads disabled(RedisConnection<String, String> connection,
+                                        RedisConnection<String, byte[]> binaryConnection,
+                                        BulkReadConnections bulkConnections, RedisKeys keys) {
+        return new ReplicaReads(connection, binaryConnection, bulkConnections, null, null, null,
+            keys, Duration.ZERO, false, System::currentTimeMillis);
+    }
+
+    /**
+     * Connection for reads over all partitions (indexes, counts, aggregates)
+     */
+    RedisConnection<String, String> connection() {
+        if (!allFresh()) {
+            return connection;
+        }
+        replicaReads.incrementAndGet();
+        return replicaConnection;
+    }
+
+    /**
+     * Connections for bulk hash fetches over all partitions
+     */
+    BulkReadConnections bulkConnections() {
+        if (!allFresh()) {
+            return bulkConnections;
+        }
+        replicaReads.incrementAndGet();
+        return bulkReplicaConnections;
+    }
+
+    /**
+     * Connections for bulk hash fetches that must see every write (always the primary)
+     */
+    BulkReadConnections primaryBulkConnections() {
+        return bulkConnections;
+    }
+
+    /**
+     * Connection for reading one transaction by ID
+     */
+    RedisConnection<String, byte[]> binaryConnection(String id) {
+        int partition = keys.partition(id);
+        if (!fresh(partition)) {
+            return binaryConnection;
+        }
+        if (isUnreplicatedWrite(id, heartbeats.get(partition))) {
+            writeFallbacks.incrementAndGet();
+            return binaryConnection;
+        }
+        replicaReads.incrementAndGet();
+        return binaryReplicaConnection;
+    }
+
+    /**
+     * Connection for looking a reference up (in any partition)
+     */
+    RedisConnection<String, byte[]> binaryConnectionForReference(String reference) {
+        if (!allFresh()) {
+            return binaryConnection;
+        }
+        if (isUnreplicatedWrite(reference, oldestHeartbeat())) {
+            writeFallbacks.incrementAndGet();
+            return binaryConnection;
+        }
+        replicaReads.incrementAndGet();
+        return binaryReplicaConnection;
+    }
+
+    boolean isReplica(RedisConnection<?, ?> candidate) {
+        return candidate != null && (candidate == replicaConnection || candidate == binaryReplicaConnection);
+    }
+
+    /**
+     * Remember a transaction this instance just wrote (created, saved or
+     * deleted), so that reading it back goes to the primary
+     */
+    void recordWrite(Transaction transaction) {
+        recordWrite(transaction.getId());
+        if (recentWrites != null && transaction.getReference() != null) {
+            recentWrites.put(transaction.getReference(), clock.getAsLong());
+        }
+    }
+
+    void recordWrite(String id) {
+        if (recentWrites != null) {
+            recentWrites.put(id, clock.getAsLong());
+        }
+    }
+
+    /**
+     * Count a lookup that found nothing on a replica and was repeated on the primary
+     */
+    void recordMissRetry() {
+        missRetries.incrementAndGet();
+    }
+
+    public boolean isEnabled() {
+        return replicaConnection != null;
+    }
+
+    /**
+     * Routing counters and the current lag per partition
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", isEnabled());
+        result.put("maxLagMillis", maxLagMillis);
+        if (isEnabled()) {
+            long now = clock.getAsLong();
+            List<Long> lag = new ArrayList<>(heartbeats.length());
+            for (int partition = 0; partition < heartbeats.length(); partition++) {
+                long heartbeat = heartbeats.get(partition);
+                lag.add(heartbeat == 0 ? null : now - heartbeat);
+            }
+            result.put("lagMillis", lag);
+            result.put("replicaReads", replicaReads.get());
+            result.put("lagFallbacks", lagFallbacks.get());
+            result.put("writeFallbacks", writeFallbacks.get());
+            result.put("missRetries", missRetries.get());
+        }
+        return result;
+    }
+
+    /**
+     * Record the heartbeat a replica returned for a partition
+     */
+    void observe(int partition, long heartbeat) {
+        heartbeats.set(partition, heartbeat);
+    }
+
+    /**
+     * One monitor round: read back the heartbeats that reached the replicas,
+     * then write the next ones to the primary
+     */
+    void beat() {
+        RedisClusterAsyncCommands<String, String> replica = replicaConnection.async();
+        List<RedisFuture<String>> reads = new ArrayList<>(keys.partitions());
+        for (int partition = 0; partition < keys.partitions(); partition++) {
+            reads.add(replica.get(keys.heartbeat(partition, instanceId)));
+        }
+        LettuceFutures.awaitAll(connection.getTimeout(), reads.toArray(new RedisFuture[0]));
+        for (int partition = 0; partition < reads.size(); partition++) {
+            String heartbeat = reads.get(partition).toCompletableFuture().join();
+            observe(partition, heartbeat == null ? 0 : Long.parseLong(heartbeat));
+        }
+
+        RedisClusterAsyncCommands<String, String> primary = connection.async();
+        String now = String.valueOf(clock.getAsLong());
+        SetArgs expiry = SetArgs.Builder.px(HEARTBEAT_TTL.toMillis());
+        List<RedisFuture<String>> writes = new ArrayList<>(keys.partitions());
+        for (int partition = 0; partition < keys.partitions(); partition++) {
+            writes.add(primary.set(keys.heartbeat(partition, instanceId), now, expiry));
+        }
+        LettuceFutures.awaitAll(connection.getTimeout(), writes.toArray(new RedisFuture[0]));
+    }
+
+    private void start(Duration interval) {
+        monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        monitor.scheduleWithFixedDelay(this::safeBeat, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void safeBeat() {
+        try {
+            beat();
+            if (monitorFailing) {
+                monitorFailing = false;
+                log.info("✅ Replica heartbeat restored");
+            }
+        } catch (Exception e) {
+            if (!monitorFailing) {
+                monitorFailing = true;
+                log.warn("⚠️ Replica heartbeat failed, reads fall back to the primary once it ages out: {}",
+                    e.getMessage());
+            }
+        }
+    }
+
+    private boolean fresh(int partition) {
+        if (replicaConnection == null) {
+            return false;
+        }
+        long heartbeat = heartbeats.get(partition);
+        if (heartbeat == 0 || clock.getAsLong() - heartbeat > maxLagMillis) {
+            lagFallbacks.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean allFresh() {
+        if (replicaConnection == null) {
+            return false;
+        }
+        long oldest = oldestHeartbeat();
+        if (oldest == 0 || clock.getAsLong() - oldest > maxLagMillis) {
+            lagFallbacks.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private long oldestHeartbeat() {
+        long oldest = Long.MAX_VALUE;
+        for (int partition = 0; partition < heartbeats.length(); partition++) {
+            oldest = Math.min(oldest, heartbeats.get(partition));
+        }
+        return oldest;
+    }
+
+    /**
+     * Whether key was written by this instance after the given heartbeat,
+     * i.e. the write may not have reached the replica yet
+     */
+    private boolean isUnreplicatedWrite(String key, long heartbeat) {
+        if (recentWrites == null) {
+            return false;
+        }
+        Long writtenAt = recentWrites.getIfPresent(key);
+        return writtenAt != null && writtenAt >= heartbeat;
+    }
+
+    private static BulkReadConnections connectBulkReplicas(RedisConnectionFactory factory, String nodes, int size) {
+        List<RedisConnection<String, byte[]>> connections = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            connections.add(factory.connectReplicas(RedisConfig.BINARY_CODEC, nodes));
+        }
+        return new BulkReadConnections(connections);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (monitor != null) {
+            monitor.shutdownNow();
+        }
+        if (replicaConnection != null) {
+            bulkReplicaConnections.close();
+            binaryReplicaConnection.close();
+            replicaConnection.close();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.payment.redis.repository;
+
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.Map;
+
+/**
+ * Replica read routing counters and lag at GET /replicareads
+ */
+@Endpoint(id = "replicareads", defaultSensitive = false)
+public class ReplicaReadsEndpoint {
+    private final ReplicaReads replicaReads;
+
+    public ReplicaReadsEndpoint(ReplicaReads replicaReads) {
+        this.replicaReads = replicaReads;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        return replicaReads.stats();
+    }
+}
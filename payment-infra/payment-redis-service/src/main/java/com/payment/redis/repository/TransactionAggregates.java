@@ -0,0 +1,170 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.domain.StatsResolution;
+import com.payment.redis.domain.Transaction;
+import com.payment.redis.domain.TransactionStats;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.payment.redis.repository.TransactionCodec.utf8;
+
+/**
+ * Java side of the running aggregates kept by the write scripts (layout in
+ * transaction-stats.lua): the contribution a transaction passes to them, and
+ * the conversion of the stats hash and time buckets into TransactionStats.
+ * With several partitions (see RedisKeys) each has its own stats hash and
+ * buckets, which are summed here.
+ *
+ * Amounts are summed with HINCRBY as integers in units of 10^-SCALE, so sums
+ * are exact; amounts with more decimals are rounded half-even.
+ */
+final class TransactionAggregates {
+    static final int SCALE = 4;
+    static final String UNKNOWN = "unknown";
+    private static final String[] METRICS = {"count", "amount", "feeAmount", "finalAmount"};
+    static final String[] BUCKET_FIELDS = METRICS.clone();
+
+    private TransactionAggregates() {
+    }
+
+    /**
+     * Script arguments for the transaction's contribution: status, currency,
+     * country, school, amount, feeAmount, finalAmount, createdAt epoch millis
+     */
+    static byte[][] contribution(Transaction t) {
+        return new byte[][]{
+            utf8(dimensionValue(t.getStatus())),
+            utf8(dimensionValue(t.getCurrencyFrom())),
+            utf8(dimensionValue(t.getCountryFrom())),
+            utf8(dimensionValue(t.getSchool())),
+            utf8(scaled(t.getAmount())),
+            utf8(scaled(t.getFeeAmount())),
+            utf8(scaled(t.getFinalAmount())),
+            utf8(String.valueOf(t.getCreatedAt().toEpochMilli()))
+        };
+    }
+
+    /**
+     * Convert the stats hash to TransactionStats. Groups whose count dropped
+     * to zero are left out.
+     */
+    static TransactionStats toStats(Map<String, String> hash) {
+        return toStats(List.of(hash));
+    }
+
+    /**
+     * Sum the stats hashes of all partitions into TransactionStats
+     */
+    static TransactionStats toStats(Collection<Map<String, String>> hashes) {
+        long[] total = new long[METRICS.length];
+        Map<String, Map<String, long[]>> groups = new LinkedHashMap<>();
+        for (String dimension : TransactionStats.DIMENSIONS) {
+            groups.put(dimension, new HashMap<>());
+        }
+
+        hashes.forEach(hash -> hash.forEach((field, value) -> {
+            // {metric} for the totals, {dimension}:{value}:{metric} per group;
+            // the value itself may contain ':'
+            int first = field.indexOf(':');
+            int last = field.lastIndexOf(':');
+            if (first < 0) {
+                add(total, field, value);
+                return;
+            }
+            Map<String, long[]> values = groups.get(field.substring(0, first));
+            if (values == null || last == first) {
+                return;
+            }
+            long[] sums = values.computeIfAbsent(field.substring(first + 1, last), v -> new long[METRICS.length]);
+            add(sums, field.substring(last + 1), value);
+        }));
+
+        Map<String, Map<String, TransactionStats.Totals>> result = new LinkedHashMap<>();
+        groups.forEach((dimension, values) -> {
+            Map<String, TransactionStats.Totals> byValue = new HashMap<>();
+            values.forEach((value, sums) -> {
+                if (sums[0] != 0) {
+                    byValue.put(value, totals(sums));
+                }
+            });
+            result.put(dimension, byValue);
+        });
+        return new TransactionStats(totals(total), result);
+    }
+
+    /**
+     * Convert a time bucket read with HMGET of BUCKET_FIELDS (null or "0"
+     * for a missing bucket) to totals
+     */
+    static TransactionStats.Totals toTotals(List<String> values) {
+        return sumTotals(List.of(values));
+    }
+
+    /**
+     * Sum one time bucket as read from each partition
+     */
+    static TransactionStats.Totals sumTotals(List<List<String>> partitions) {
+        long[] sums = new long[METRICS.length];
+        for (List<String> values : partitions) {
+            for (int i = 0; i < METRICS.length; i++) {
+                String value = values.get(i);
+                sums[i] += value == null ? 0 : Long.parseLong(value);
+            }
+        }
+        return totals(sums);
+    }
+
+    /**
+     * Start of every bucket from the one containing from up to the one containing to
+     */
+    static List<Instant> bucketStarts(StatsResolution resolution, Instant from, Instant to) {
+        List<Instant> starts = new ArrayList<>((int) resolution.bucketCount(from, to));
+        for (Instant start = resolution.bucketStart(from); !start.isAfter(to); start = start.plus(resolution.getWidth())) {
+            starts.add(start);
+        }
+        return starts;
+    }
+
+    /**
+     * Whether the bucket may still exist, i.e. has not passed its retention
+     */
+    static boolean isRetained(StatsResolution resolution, Instant start, Instant now) {
+        return resolution.getRetention() == null
+            || start.plus(resolution.getWidth()).plus(resolution.getRetention()).isAfter(now);
+    }
+
+    static String dimensionValue(String value) {
+        return value == null || value.isBlank() ? UNKNOWN : value;
+    }
+
+    static String scaled(BigDecimal amount) {
+        if (amount == null) {
+            return "0";
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().toString();
+    }
+
+    private static void add(long[] sums, String metric, String value) {
+        for (int i = 0; i < METRICS.length; i++) {
+            if (METRICS[i].equals(metric)) {
+                sums[i] += Long.parseLong(value);
+                return;
+            }
+        }
+    }
+
+    private static TransactionStats.Totals totals(long[] sums) {
+        return new TransactionStats.Totals(sums[0],
+            BigDecimal.valueOf(sums[1], SCALE),
+            BigDecimal.valueOf(sums[2], SCALE),
+            BigDecimal.valueOf(sums[3], SCALE));
+    }
+}
@@ -0,0 +1,145 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.diagnostics.OperationBytes;
+import com.payment.redis.domain.Transaction;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.payment.redis.repository.TransactionMapper.mapToTransaction;
+import static com.payment.redis.repository.TransactionMapper.transactionToMap;
+
+/**
+ * Converts transactions to and from the fields of their Redis hash, read and
+ * written as raw bytes.
+ *
+ * Writes use the configured redis.storage.format:
+ * - hash:   one UTF-8 field per property (the original layout)
+ * - binary: "reference" plus a compact "bin" record (see BinaryTransactionFormat)
+ *
+ * Reads accept either layout, so both can coexist while data is migrated.
+ */
+@Singleton
+public class TransactionCodec {
+    private static final Logger log = LoggerFactory.getLogger(TransactionCodec.class);
+    static final String RECORD_FIELD = "bin";
+
+    public enum StorageFormat {
+        HASH, BINARY
+    }
+
+    private final StorageFormat format;
+
+    public TransactionCodec(@Value("${redis.storage.format:hash}") String format) {
+        this.format = StorageFormat.valueOf(format.toUpperCase(Locale.ROOT));
+    }
+
+    public StorageFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Hash fields for the transaction in the configured format. Null
+     * properties are left out. A transaction the binary record cannot
+     * represent is written in the hash layout instead.
+     */
+    Map<String, byte[]> encode(Transaction t) {
+        Map<String, byte[]> fields = encodeFields(t);
+        if (OperationBytes.counting()) {
+            OperationBytes.add(size(fields));
+        }
+        return fields;
+    }
+
+    private Map<String, byte[]> encodeFields(Transaction t) {
+        if (format == StorageFormat.BINARY) {
+            try {
+                Map<String, byte[]> fields = new HashMap<>(2);
+                fields.put(RECORD_FIELD, BinaryTransactionFormat.encode(t));
+                if (t.getReference() != null) {
+                    fields.put("reference", utf8(t.getReference()));
+                }
+                return fields;
+            } catch (IllegalArgumentException e) {
+                log.warn("⚠️ Storing transaction {} in hash layout: {}", t.getId(), e.getMessage());
+            }
+        }
+        return encodeHash(t);
+    }
+
+    /**
+     * Decode hash fields written in either layout
+     *
+     * @throws IllegalArgumentException if the fields cannot be decoded
+     */
+    Transaction decode(Map<String, byte[]> fields) {
+        if (OperationBytes.counting()) {
+            OperationBytes.add(size(fields));
+        }
+        byte[] record = fields.get(RECORD_FIELD);
+        if (record != null) {
+            Transaction t = BinaryTransactionFormat.decode(record);
+            byte[] reference = fields.get("reference");
+            t.setReference(reference == null ? null : string(reference));
+            return t;
+        }
+        Map<String, String> map = new HashMap<>();
+        fields.forEach((field, value) -> map.put(field, string(value)));
+        try {
+            return mapToTransaction(map);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Undecodable transaction hash: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Whether the fields were written in the binary layout
+     */
+    static boolean isBinary(Map<String, byte[]> fields) {
+        return fields.containsKey(RECORD_FIELD);
+    }
+
+    /**
+     * Convert a flat [field, value, field, value...] script reply to a Map
+     */
+    static Map<String, byte[]> fieldsToMap(List<?> fields) {
+        Map<String, byte[]> map = new HashMap<>();
+        for (int i = 0; i + 1 < fields.size(); i += 2) {
+            map.put(string((byte[]) fields.get(i)), (byte[]) fields.get(i + 1));
+        }
+        return map;
+    }
+
+    private static long size(Map<String, byte[]> fields) {
+        long size = 0;
+        for (byte[] value : fields.values()) {
+            size += value.length;
+        }
+        return size;
+    }
+
+    static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, byte[]> encodeHash(Transaction t) {
+        Map<String, byte[]> fields = new HashMap<>();
+        transactionToMap(t).forEach((field, value) -> {
+            if (value != null) {
+                fields.put(field, utf8(value));
+            }
+        });
+        return fields;
+    }
+}
@@ -0,0 +1,70 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.domain.Transaction;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Conversion between Transaction objects and their Redis hash representation,
+ * shared by the blocking and reactive repositories
+ */
+public final class TransactionMapper {
+
+    private TransactionMapper() {
+    }
+
+    /**
+     * Convert Transaction object to Map for Redis storage
+     */
+    public static Map<String, String> transactionToMap(Transaction t) {
+        Map<String, String> map = new HashMap<>();
+        map.put("_id", t.getId());
+        map.put("reference", t.getReference());
+        map.put("name", t.getName());
+        map.put("email", t.getEmail());
+        map.put("amount", t.getAmount().toString());
+        map.put("amountReceived", t.getAmountReceived().toString());
+        map.put("school", t.getSchool());
+        map.put("senderFullName", t.getSenderFullName());
+        map.put("countryFrom", t.getCountryFrom());
+        map.put("senderAddress", t.getSenderAddress());
+        map.put("currencyFrom", t.getCurrencyFrom());
+        map.put("studentId", t.getStudentId());
+        map.put("status", t.getStatus());
+        map.put("feePercentage", t.getFeePercentage().toString());
+        map.put("feeAmount", t.getFeeAmount().toString());
+        map.put("finalAmount", t.getFinalAmount().toString());
+        map.put("createdAt", t.getCreatedAt().toString());
+        map.put("updatedAt", t.getUpdatedAt().toString());
+        return map;
+    }
+
+    /**
+     * Convert Redis Map to Transaction object
+     */
+    public static Transaction mapToTransaction(Map<String, String> map) {
+        Transaction t = new Transaction();
+        t.setId(map.get("_id"));
+        t.setReference(map.get("reference"));
+        t.setName(map.get("name"));
+        t.setEmail(map.get("email"));
+        t.setAmount(new BigDecimal(map.getOrDefault("amount", "0")));
+        t.setAmountReceived(new BigDecimal(map.getOrDefault("amountReceived", "0")));
+        t.setSchool(map.get("school"));
+        t.setSenderFullName(map.get("senderFullName"));
+        t.setCountryFrom(map.get("countryFrom"));
+        t.setSenderAddress(map.get("senderAddress"));
+        t.setCurrencyFrom(map.get("currencyFrom"));
+        t.setStudentId(map.get("studentId"));
+        t.setStatus(map.get("status"));
+        t.setFeePercentage(new BigDecimal(map.getOrDefault("feePercentage", "0")));
+        t.setFeeAmount(new BigDecimal(map.getOrDefault("feeAmount", "0")));
+        t.setFinalAmount(new BigDecimal(map.getOrDefault("finalAmount", "0")));
+        t.setCreatedAt(Instant.parse(map.get("createdAt")));
+        t.setUpdatedAt(Instant.parse(map.get("updatedAt")));
+        return t;
+    }
+}
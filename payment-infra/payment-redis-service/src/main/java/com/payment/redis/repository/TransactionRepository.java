@@ -1,61 +1,195 @@
 package com.payment.redis.repository;
 
+import com.payment.redis.cache.TransactionNearCache;
+import com.payment.redis.config.BulkReadConnections;
+import com.payment.redis.config.RedisConnection;
+import com.payment.redis.diagnostics.Recorded;
+import com.payment.redis.domain.BatchItemResult;
+import com.payment.redis.domain.StatsResolution;
+import com.payment.redis.domain.TimeSeriesPoint;
 import com.payment.redis.domain.Transaction;
-import io.lettuce.core.api.StatefulRedisConnection;
-import io.lettuce.core.api.sync.RedisCommands;
+import com.payment.redis.domain.TransactionPage;
+import com.payment.redis.domain.TransactionStats;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.api.reactive.RedisClusterReactiveCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import io.micrometer.core.annotation.Timed;
+import io.micronaut.aop.InterceptorBinding;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static com.payment.redis.repository.RedisKeys.*;
 
 /**
  * Repository for managing Transaction data in Redis.
  * 
  * Redis Schema:
- * - payment:{uuid} (hash) - stores transaction data
+ * - payment:{uuid} (hash) - stores transaction data, one field per property or
+ *   a compact binary record (see TransactionCodec); read and written as bytes
  * - payment:counter (string) - stores sequential counter for reference numbers
- * - audit:{uuid} (hash) - stores audit log entries
+ * - payment:reconciler (string) - lease of the instance running an index
+ *   reconciliation pass (see IndexReconciler)
+ * - audit:stream (stream) - audit log entries of all payments, trimmed to the retention period
+ * - audit:payment:{uuid} (stream) - audit log entries of one payment
  * 
  * Index Lists:
- * - payment:all (list) - list of all payment IDs for efficient retrieval
+ * - payment:idx:reference (hash) - reference number -> payment ID
+ * - payment:idx:{field}:{value} (sorted set) - payment IDs with that email,
+ *   studentId, school, status or countryFrom (normalized, see FieldIndex),
+ *   scored by createdAt epoch millis
+ * - payment:idx:entries:{uuid} (string) - the field index entries of one payment
+ * - payment:idx:created (sorted set) - payment IDs scored by createdAt epoch millis;
+ *   also the set of all payments (count, findAll). IDs whose hash expired stay
+ *   until IndexReconciler prunes them.
+ * - payment:all (list) - legacy list of all payment IDs, only read by the index
+ *   backfills and removed afterwards (see IndexBackfillJob)
+ * - payment:migrations (hash) - one-off data migrations already applied
+ *
+ * Aggregates:
+ * - payment:stats (hash) - count and amount sums, in total and by status,
+ *   currency, country and school, updated by the write scripts
+ * - payment:stats:rebuild (hash) - aggregates being recomputed by rebuildStats
+ * - payment:ts:{resolution}:{epoch seconds} (hash) - totals of the transactions
+ *   created in one minute, hour or day, expiring after the resolution's retention
+ *
+ * Cluster layout (see RedisKeys): every key above except payment:counter,
+ * payment:reconciler and payment:migrations exists once per partition, tagged
+ * with the partition number, e.g. payment:idx:created:{3} is the index of
+ * partition 3 and payment:{3}:... the hash of a transaction in it.
  */
 @Singleton
+@Recorded("repository")
+@InterceptorBinding(Timed.class)
 public class TransactionRepository {
     private static final Logger log = LoggerFactory.getLogger(TransactionRepository.class);
-    private static final String PAYMENT_KEY_PREFIX = "payment:";
-    private static final String COUNTER_KEY = "payment:counter";
-    private static final String ALL_PAYMENTS_KEY = "payment:all";
-    private static final String AUDIT_KEY_PREFIX = "audit:";
-
-    private final StatefulRedisConnection<String, String> connection;
+    private static final int CREATE_PIPELINE_DEPTH = 100;
+    private final RedisConnection<String, String> connection;
+    private final RedisConnection<String, byte[]> binaryConnection;
+    private final RedisKeys keys;
+    private final ReplicaReads replicaReads;
+    private final int bulkBatchSize;
+    private final TransactionCodec codec;
+    private final ReferenceAllocator referenceAllocator;
+    private final TransactionNearCache nearCache;
 
-    public TransactionRepository(StatefulRedisConnection<String, String> connection) {
+    public TransactionRepository(RedisConnection<String, String> connection,
+                                 @Named("binary") RedisConnection<String, byte[]> binaryConnection,
+                                 RedisKeys keys,
+                                 ReplicaReads replicaReads,
+                                 @Value("${redis.bulk-fetch.batch-size:500}") int bulkBatchSize,
+                                 TransactionCodec codec,
+                                 ReferenceAllocator referenceAllocator,
+                                 TransactionNearCache nearCache) {
         this.connection = connection;
+        this.binaryConnection = binaryConnection;
+        this.keys = keys;
+        this.replicaReads = replicaReads;
+        this.bulkBatchSize = bulkBatchSize;
+        this.codec = codec;
+        this.referenceAllocator = referenceAllocator;
+        this.nearCache = nearCache;
     }
 
     /**
-     * Save a transaction to Redis
+     * Create a new transaction in a single round trip. The reference number
+     * comes from the in-memory ReferenceAllocator block and the hash, indexes,
+     * TTL and audit entry are written atomically by one script.
+     *
+     * @return the allocated reference, also set on the given transaction
      */
-    public void save(Transaction transaction) {
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "create"})
+    public String create(Transaction transaction, String auditAction, String auditDetails) {
         try {
-            RedisCommands<String, String> commands = connection.sync();
-            String key = PAYMENT_KEY_PREFIX + transaction.getId();
-            
-            // Create hash map from transaction
-            Map<String, String> transactionMap = transactionToMap(transaction);
-            
-            // Store transaction as hash
-            commands.hset(key, transactionMap);
-            
-            // Add to index list
-            commands.rpush(ALL_PAYMENTS_KEY, transaction.getId());
+            String reference = referenceAllocator.nextReference();
+            transaction.setReference(reference);
+            RedisClusterCommands<String, byte[]> commands = binaryConnection.sync();
+            TransactionScripts.INSERT.execute(commands, ScriptOutputType.INTEGER,
+                TransactionScripts.insertKeys(keys, transaction),
+                TransactionScripts.insertArgs(keys, codec, transaction, auditAction, auditDetails));
+            replicaReads.recordWrite(transaction);
             
-            // Set expiration (optional - e.g., 1 year)
-            commands.expire(key, 365 * 24 * 60 * 60);
+            log.info("✅ Transaction created: {} with reference: {}", transaction.getId(), reference);
+            return reference;
+        } catch (Exception e) {
+            log.error("❌ Error creating transaction", e);
+            throw new RuntimeException("Failed to create transaction", e);
+        }
+    }
+
+    /**
+     * Create many transactions at once. References are taken from the
+     * ReferenceAllocator (at most a lease or two per batch), then each
+     * transaction is written by one script call (hash, indexes, TTL and audit
+     * entry, atomically per item), pipelined with up to CREATE_PIPELINE_DEPTH
+     * calls in flight.
+     *
+     * A failed item does not affect the others; its reference is left unused.
+     *
+     * @return one result per transaction, in order; created transactions have their reference set
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "createAll"})
+    public List<BatchItemResult> createAll(List<Transaction> transactions, String auditAction, String auditDetails) {
+        if (transactions.isEmpty()) {
+            return List.of();
+        }
+        try {
+            for (Transaction transaction : transactions) {
+                transaction.setReference(referenceAllocator.nextReference());
+            }
+        } catch (Exception e) {
+            log.error("❌ Error reserving references for batch", e);
+            throw new RuntimeException("Failed to reserve references", e);
+        }
+        
+        RedisClusterReactiveCommands<String, byte[]> commands = binaryConnection.reactive();
+        List<BatchItemResult> results = Flux.range(0, transactions.size())
+            .flatMapSequential(i -> {
+                Transaction t = transactions.get(i);
+                return TransactionScripts.INSERT.<Long>execute(commands, ScriptOutputType.INTEGER,
+                        TransactionScripts.insertKeys(keys, t),
+                        TransactionScripts.insertArgs(keys, codec, t, auditAction, auditDetails))
+                    .next()
+                    .doOnNext(ignored -> replicaReads.recordWrite(t))
+                    .map(ignored -> BatchItemResult.created(i, t))
+                    .onErrorResume(e -> {
+                        log.warn("⚠️ Batch item {} ({}) not created: {}", i, t.getReference(), e.getMessage());
+                        return Mono.just(BatchItemResult.failed(i, "Failed to store transaction"));
+                    });
+            }, CREATE_PIPELINE_DEPTH)
+            .collectList()
+            .block();
+        
+        long created = results.stream().filter(BatchItemResult::isCreated).count();
+        log.info("✅ Batch created: {} of {} transactions", created, transactions.size());
+        return results;
+    }
+
+    /**
+     * Save a transaction to Redis (hash, indexes, aggregates and TTL in one script call)
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "save"})
+    public void save(Transaction transaction) {
+        try {
+            RedisClusterCommands<String, byte[]> commands = binaryConnection.sync();
+            TransactionScripts.SAVE.execute(commands, ScriptOutputType.INTEGER,
+                TransactionScripts.saveKeys(keys, transaction), TransactionScripts.saveArgs(keys, codec, transaction));
+            nearCache.invalidate(transaction.getId());
+            replicaReads.recordWrite(transaction);
             
             log.info("✅ Transaction saved: {}", transaction.getId());
         } catch (Exception e) {
@@ -65,19 +199,35 @@ public class TransactionRepository {
     }
 
     /**
-     * Find a transaction by ID
+     * Find a transaction by ID, from the near cache when possible, else from a
+     * replica (see ReplicaReads) or the primary
      */
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "findById"})
     public Optional<Transaction> findById(String id) {
+        Optional<Transaction> cached = nearCache.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
         try {
-            RedisCommands<String, String> commands = connection.sync();
-            String key = PAYMENT_KEY_PREFIX + id;
+            RedisConnection<String, byte[]> reader = replicaReads.binaryConnection(id);
+            String key = keys.payment(id);
             
-            Map<String, String> data = commands.hgetall(key);
+            long ticket = nearCache.ticket();
+            Map<String, byte[]> data = reader.sync().hgetall(key);
+            if (data.isEmpty() && replicaReads.isReplica(reader)) {
+                replicaReads.recordMissRetry();
+                reader = binaryConnection;
+                data = reader.sync().hgetall(key);
+            }
             if (data.isEmpty()) {
                 return Optional.empty();
             }
             
-            return Optional.of(mapToTransaction(data));
+            Transaction transaction = codec.decode(data);
+            if (!replicaReads.isReplica(reader)) {
+                nearCache.put(ticket, transaction);
+            }
+            return Optional.of(transaction);
         } catch (Exception e) {
             log.error("❌ Error finding transaction by ID", e);
             return Optional.empty();
@@ -85,22 +235,43 @@ public class TransactionRepository {
     }
 
     /**
-     * Find transaction by reference number
+     * Find transaction by reference number (single round trip via the reference
+     * index, see TransactionScripts#findByReference), from the near cache when
+     * possible, else from a replica (see ReplicaReads) or the primary
      */
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "findByReference"})
     public Optional<Transaction> findByReference(String reference) {
+        Optional<Transaction> cached = nearCache.getByReference(reference);
+        if (cached.isPresent()) {
+            return cached;
+        }
         try {
-            RedisCommands<String, String> commands = connection.sync();
-            List<String> paymentIds = commands.lrange(ALL_PAYMENTS_KEY, 0, -1);
-            
-            for (String id : paymentIds) {
-                String key = PAYMENT_KEY_PREFIX + id;
-                Map<String, String> data = commands.hgetall(key);
-                if (reference.equals(data.get("reference"))) {
-                    return Optional.of(mapToTransaction(data));
+            RedisConnection<String, byte[]> reader = replicaReads.binaryConnectionForReference(reference);
+            long ticket = nearCache.ticket();
+            Map<String, byte[]> data = Map.of();
+            if (replicaReads.isReplica(reader)) {
+                data = TransactionScripts.findByReferenceOnReplica(reader.reactive(), keys, reference)
+                    .blockOptional()
+                    .orElse(Map.of());
+                if (data.isEmpty()) {
+                    replicaReads.recordMissRetry();
+                    reader = binaryConnection;
                 }
             }
+            if (data.isEmpty()) {
+                data = TransactionScripts.findByReference(binaryConnection.reactive(), keys, reference)
+                    .blockOptional()
+                    .orElse(Map.of());
+            }
+            if (data.isEmpty()) {
+                return Optional.empty();
+            }
             
-            return Optional.empty();
+            Transaction transaction = codec.decode(data);
+            if (!replicaReads.isReplica(reader)) {
+                nearCache.put(ticket, transaction);
+            }
+            return Optional.of(transaction);
         } catch (Exception e) {
             log.error("❌ Error finding transaction by reference", e);
             return Optional.empty();
@@ -108,26 +279,13 @@ public class TransactionRepository {
     }
 
     /**
-     * Get all transactions sorted by createdAt (newest first)
+     * Get all transactions sorted by createdAt (newest first), in index order
      */
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "findAll"})
     public List<Transaction> findAll() {
         try {
-            RedisCommands<String, String> commands = connection.sync();
-            List<String> paymentIds = commands.lrange(ALL_PAYMENTS_KEY, 0, -1);
-            
-            List<Transaction> transactions = new ArrayList<>();
-            for (String id : paymentIds) {
-                String key = PAYMENT_KEY_PREFIX + id;
-                Map<String, String> data = commands.hgetall(key);
-                if (!data.isEmpty()) {
-                    transactions.add(mapToTransaction(data));
-                }
-            }
-            
-            // Sort by createdAt descending
-            transactions.sort((t1, t2) -> t2.getCreatedAt().compareTo(t1.getCreatedAt()));
-            
-            return transactions;
+            List<String> paymentIds = CreatedIndex.all(replicaReads.connection().reactive(), keys).collectList().block();
+            return findAllById(paymentIds);
         } catch (Exception e) {
             log.error("❌ Error fetching all transactions", e);
             return Collections.emptyList();
@@ -135,13 +293,67 @@ public class TransactionRepository {
     }
 
     /**
-     * Get next reference number
+     * Get one page of transactions, newest first, reading only the requested
+     * window of the creation-time index (of each partition, concurrently).
+     *
+     * @param limit  maximum number of transactions to return
+     * @param cursor cursor from the previous page, or null for the first page
+     * @param from   inclusive lower bound on createdAt, or null
+     * @param to     inclusive upper bound on createdAt, or null
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "findPage"})
+    public TransactionPage findPage(int limit, String cursor, Instant from, Instant to) {
+        PageCursor after = cursor == null ? null : PageCursor.decode(cursor);
+        try {
+            // Fetch one extra entry to know whether another page exists
+            List<ScoredValue<String>> window =
+                CreatedIndex.window(replicaReads.connection().reactive(), keys, after, from, to, limit + 1).block();
+            
+            boolean hasMore = window.size() > limit;
+            List<ScoredValue<String>> pageEntries = hasMore ? window.subList(0, limit) : window;
+            List<String> ids = new ArrayList<>(pageEntries.size());
+            pageEntries.forEach(entry -> ids.add(entry.getValue()));
+            
+            String nextCursor = hasMore ? PageCursor.after(pageEntries.get(pageEntries.size() - 1)).encode() : null;
+            return new TransactionPage(findAllById(ids), nextCursor);
+        } catch (Exception e) {
+            log.error("❌ Error fetching transaction page", e);
+            throw new RuntimeException("Failed to fetch transaction page", e);
+        }
+    }
+
+    /**
+     * Search by field values: one page of the transactions matching all the
+     * given criteria, newest first. The field indexes are intersected in
+     * Redis (see FieldIndex) and only the matches are fetched.
+     *
+     * @param criteria field -> value, fields as in FieldIndex.FIELDS
+     * @param limit    maximum number of transactions to return
+     * @param cursor   cursor from the previous page, or null for the first page
+     * @throws IllegalArgumentException if a field is unknown, no criteria are
+     *         given or the cursor is malformed
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "search"})
+    public TransactionPage search(Map<String, String> criteria, int limit, String cursor) {
+        List<String> entries = FieldIndex.criteria(criteria);
+        PageCursor after = cursor == null ? null : PageCursor.decode(cursor);
+        try {
+            FieldIndex.Window window = FieldIndex.search(binaryConnection.reactive(), keys, entries, after, limit).block();
+            String nextCursor = window.next() == null ? null : window.next().encode();
+            return new TransactionPage(findAllById(window.ids()), nextCursor);
+        } catch (Exception e) {
+            log.error("❌ Error searching transactions", e);
+            throw new RuntimeException("Failed to search transactions", e);
+        }
+    }
+
+    /**
+     * Get next reference number (from the leased block, see ReferenceAllocator)
      */
     public String getNextReference() {
         try {
-            RedisCommands<String, String> commands = connection.sync();
-            Long count = commands.incr(COUNTER_KEY);
-            return "REF" + String.format("%03d", count);
+            return referenceAllocator.nextReference();
         } catch (Exception e) {
             log.error("❌ Error getting next reference number", e);
             throw new RuntimeException("Failed to get next reference number", e);
@@ -149,16 +361,18 @@ public class TransactionRepository {
     }
 
     /**
-     * Delete a transaction by ID
+     * Delete a transaction by ID (hash, index entries and its share of the
+     * aggregates in one script call)
      */
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "deleteById"})
     public boolean deleteById(String id) {
         try {
-            RedisCommands<String, String> commands = connection.sync();
-            String key = PAYMENT_KEY_PREFIX + id;
-            
-            Long deleted = commands.del(key);
+            RedisClusterCommands<String, byte[]> commands = binaryConnection.sync();
+            Long deleted = TransactionScripts.DELETE.execute(commands, ScriptOutputType.INTEGER,
+                TransactionScripts.deleteKeys(keys, id), TransactionScripts.deleteArgs(keys, id));
+            nearCache.invalidate(id);
+            replicaReads.recordWrite(id);
             if (deleted > 0) {
-                commands.lrem(ALL_PAYMENTS_KEY, 1, id);
                 log.info("✅ Transaction deleted: {}", id);
                 return true;
             }
@@ -172,18 +386,25 @@ public class TransactionRepository {
     /**
      * Update a transaction
      */
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "update"})
     public void update(Transaction transaction) {
         transaction.setUpdatedAt(Instant.now());
         save(transaction);
     }
 
     /**
-     * Get count of all transactions
+     * Get count of all transactions: ZCARD of the creation-time index, which
+     * includes expired transactions until IndexReconciler prunes them
      */
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "count"})
     public long count() {
         try {
-            RedisCommands<String, String> commands = connection.sync();
-            return commands.llen(ALL_PAYMENTS_KEY);
+            RedisClusterCommands<String, String> commands = replicaReads.connection().sync();
+            long count = 0;
+            for (int partition = 0; partition < keys.partitions(); partition++) {
+                count += commands.zcard(keys.createdIndex(partition));
+            }
+            return count;
         } catch (Exception e) {
             log.error("❌ Error counting transactions", e);
             return 0;
@@ -191,78 +412,487 @@ public class TransactionRepository {
     }
 
     /**
-     * Save audit log entry
+     * Get the running aggregates: one HGETALL per partition of a hash whose
+     * size depends on the number of distinct status, currency, country and
+     * school values, not on the number of transactions
      */
-    public void saveAuditLog(String paymentId, String action, String details) {
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "findStats"})
+    public TransactionStats findStats() {
         try {
-            RedisCommands<String, String> commands = connection.sync();
-            String auditId = UUID.randomUUID().toString();
-            String key = AUDIT_KEY_PREFIX + auditId;
+            RedisClusterAsyncCommands<String, String> async = replicaReads.connection().async();
+            List<RedisFuture<Map<String, String>>> futures = new ArrayList<>(keys.partitions());
+            for (int partition = 0; partition < keys.partitions(); partition++) {
+                futures.add(async.hgetall(keys.stats(partition)));
+            }
+            LettuceFutures.awaitAll(connection.getTimeout(), futures.toArray(new RedisFuture[0]));
             
-            Map<String, String> auditMap = new HashMap<>();
-            auditMap.put("paymentId", paymentId);
-            auditMap.put("action", action);
-            auditMap.put("details", details);
-            auditMap.put("createdAt", Instant.now().toString());
+            List<Map<String, String>> hashes = new ArrayList<>(futures.size());
+            futures.forEach(future -> hashes.add(future.toCompletableFuture().join()));
+            return TransactionAggregates.toStats(hashes);
+        } catch (Exception e) {
+            log.error("❌ Error fetching transaction stats", e);
+            throw new RuntimeException("Failed to fetch transaction stats", e);
+        }
+    }
+
+    /**
+     * Get the aggregates of the transactions created in [from, to], one point
+     * per bucket of the resolution, empty buckets included. Only the buckets in
+     * the range are read, as one pipeline of HMGETs (one per bucket and
+     * partition); buckets past their retention are known to be empty and not
+     * read at all.
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "findTimeSeries"})
+    public List<TimeSeriesPoint> findTimeSeries(StatsResolution resolution, Instant from, Instant to) {
+        try {
+            RedisClusterAsyncCommands<String, String> async = replicaReads.connection().async();
+            Instant now = Instant.now();
+            List<Instant> buckets = TransactionAggregates.bucketStarts(resolution, from, to);
             
-            commands.hset(key, auditMap);
-            commands.expire(key, 365 * 24 * 60 * 60);
+            List<List<RedisFuture<List<KeyValue<String, String>>>>> futures = new ArrayList<>(buckets.size());
+            List<RedisFuture<?>> pending = new ArrayList<>();
+            for (Instant bucket : buckets) {
+                List<RedisFuture<List<KeyValue<String, String>>>> partitions = new ArrayList<>(keys.partitions());
+                if (TransactionAggregates.isRetained(resolution, bucket, now)) {
+                    for (int partition = 0; partition < keys.partitions(); partition++) {
+                        partitions.add(async.hmget(keys.timeBucket(partition, resolution, bucket),
+                            TransactionAggregates.BUCKET_FIELDS));
+                    }
+                    pending.addAll(partitions);
+                }
+                futures.add(partitions);
+            }
+            LettuceFutures.awaitAll(connection.getTimeout(), pending.toArray(new RedisFuture[0]));
             
-            log.info("✅ Audit log saved: {} for transaction: {}", action, paymentId);
+            List<TimeSeriesPoint> points = new ArrayList<>(buckets.size());
+            for (int i = 0; i < buckets.size(); i++) {
+                List<List<String>> partitions = new ArrayList<>(futures.get(i).size());
+                for (RedisFuture<List<KeyValue<String, String>>> future : futures.get(i)) {
+                    List<String> values = new ArrayList<>(TransactionAggregates.BUCKET_FIELDS.length);
+                    future.toCompletableFuture().join().forEach(kv -> values.add(kv.getValueOrElse(null)));
+                    partitions.add(values);
+                }
+                points.add(new TimeSeriesPoint(buckets.get(i), TransactionAggregates.sumTotals(partitions)));
+            }
+            return points;
         } catch (Exception e) {
-            log.error("❌ Error saving audit log", e);
+            log.error("❌ Error fetching transaction time series", e);
+            throw new RuntimeException("Failed to fetch transaction time series", e);
+        }
+    }
+
+    /**
+     * Recompute the aggregates from the stored transactions and replace the
+     * running ones. Walks the creation-time index in chunks, pipelining the
+     * reads and then one script call per transaction that counts it into
+     * payment:stats:rebuild. Writes during the rebuild keep that hash up to
+     * date as well, so the result is exact without stopping them; it also
+     * drops the share of transactions that expired instead of being deleted.
+     * Transactions not yet in the time buckets are added to them. Every
+     * partition is rebuilt, under the same generation.
+     *
+     * @return number of transactions counted by the walk (those written
+     *         during the rebuild are counted by the write itself)
+     * @throws IllegalStateException if another rebuild started meanwhile
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "rebuildStats"})
+    public long rebuildStats(int batchSize) {
+        RedisClusterCommands<String, byte[]> binary = binaryConnection.sync();
+        String generation = UUID.randomUUID().toString();
+        for (int partition = 0; partition < keys.partitions(); partition++) {
+            TransactionScripts.STATS_REBUILD.execute(binary, ScriptOutputType.INTEGER,
+                TransactionScripts.statsRebuildKeys(keys, partition),
+                TransactionScripts.statsRebuildArgs("begin", generation));
+        }
+        
+        long counted = 0;
+        for (int partition = 0; partition < keys.partitions(); partition++) {
+            counted += restatPartition(partition, generation, batchSize);
+        }
+        
+        for (int partition = 0; partition < keys.partitions(); partition++) {
+            Long finished = TransactionScripts.STATS_REBUILD.execute(binary, ScriptOutputType.INTEGER,
+                TransactionScripts.statsRebuildKeys(keys, partition),
+                TransactionScripts.statsRebuildArgs("finish", generation));
+            if (finished == 0) {
+                throw new IllegalStateException("Stats rebuild superseded by another rebuild");
+            }
+        }
+        return counted;
+    }
+
+    /**
+     * Count the transactions of one partition into its rebuild (see rebuildStats)
+     *
+     * @return number of transactions counted
+     */
+    private long restatPartition(int partition, String generation, int batchSize) {
+        RedisClusterCommands<String, String> commands = connection.sync();
+        RedisClusterAsyncCommands<String, byte[]> async = binaryConnection.async();
+        long counted = 0;
+        
+        for (long start = 0; ; start += batchSize) {
+            List<String> ids = commands.zrange(keys.createdIndex(partition), start, start + batchSize - 1);
+            if (ids.isEmpty()) {
+                break;
+            }
+            
+            List<RedisFuture<Map<String, byte[]>>> futures = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                futures.add(async.hgetall(keys.payment(id)));
+            }
+            LettuceFutures.awaitAll(connection.getTimeout(), futures.toArray(new RedisFuture[0]));
+            
+            List<Flux<Long>> restats = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                Map<String, byte[]> data = futures.get(i).toCompletableFuture().join();
+                if (data.isEmpty()) {
+                    continue;
+                }
+                Transaction transaction;
+                try {
+                    transaction = codec.decode(data);
+                } catch (RuntimeException e) {
+                    log.warn("⚠️ Not counting undecodable transaction {}: {}", ids.get(i), e.getMessage());
+                    continue;
+                }
+                restats.add(TransactionScripts.RESTAT.execute(binaryConnection.reactive(),
+                    ScriptOutputType.INTEGER, TransactionScripts.restatKeys(keys, ids.get(i)),
+                    TransactionScripts.restatArgs(keys, generation, transaction)));
+            }
+            List<Long> results = Flux.merge(restats).collectList().block();
+            if (results.contains(-1L)) {
+                throw new IllegalStateException("Stats rebuild superseded by another rebuild");
+            }
+            counted += results.stream().filter(result -> result > 0).count();
+        }
+        return counted;
+    }
+
+    /**
+     * Check whether a one-off migration has already been applied
+     */
+    public boolean isMigrationApplied(String migration) {
+        return connection.sync().hexists(MIGRATIONS_KEY, migration);
+    }
+
+    /**
+     * Record that a one-off migration has been applied
+     */
+    public void markMigrationApplied(String migration) {
+        connection.sync().hset(MIGRATIONS_KEY, migration, Instant.now().toString());
+    }
+
+    /**
+     * Rebuild the reference index from the existing transaction hashes
+     *
+     * @return number of index entries written
+     */
+    public long backfillReferenceIndex(int batchSize) {
+        RedisClusterCommands<String, String> commands = connection.sync();
+        long indexed = 0;
+        for (int partition = 0; partition < keys.partitions(); partition++) {
+            String index = keys.referenceIndex(partition);
+            indexed += backfillFromField(partition, batchSize, "reference", (ids, references) -> {
+                Map<String, String> entries = new HashMap<>();
+                for (int i = 0; i < ids.size(); i++) {
+                    if (references.get(i) != null) {
+                        entries.put(references.get(i), ids.get(i));
+                    }
+                }
+                if (!entries.isEmpty()) {
+                    commands.hset(index, entries);
+                }
+            });
+        }
+        return indexed;
+    }
+
+    /**
+     * Rebuild the creation-time index from the existing transaction hashes
+     *
+     * @return number of index entries written
+     */
+    public long backfillCreatedIndex(int batchSize) {
+        RedisClusterCommands<String, String> commands = connection.sync();
+        long indexed = 0;
+        for (int partition = 0; partition < keys.partitions(); partition++) {
+            String index = keys.createdIndex(partition);
+            indexed += backfillFromField(partition, batchSize, "createdAt", (ids, createdAts) -> {
+                List<ScoredValue<String>> entries = new ArrayList<>();
+                for (int i = 0; i < ids.size(); i++) {
+                    if (createdAts.get(i) != null) {
+                        entries.add(ScoredValue.just(Instant.parse(createdAts.get(i)).toEpochMilli(), ids.get(i)));
+                    }
+                }
+                if (!entries.isEmpty()) {
+                    commands.zadd(index, entries.toArray(new ScoredValue[0]));
+                }
+            });
+        }
+        return indexed;
+    }
+
+    /**
+     * Add the existing transactions to the field indexes. Walks the
+     * creation-time index in chunks, pipelining the reads and then one script
+     * call per transaction; transactions written since they were read are
+     * already indexed and skipped by the script.
+     *
+     * @return number of transactions indexed
+     */
+    public long backfillFieldIndexes(int batchSize) {
+        long indexed = 0;
+        for (int partition = 0; partition < keys.partitions(); partition++) {
+            indexed += indexPartition(partition, batchSize);
+        }
+        return indexed;
+    }
+
+    private long indexPartition(int partition, int batchSize) {
+        RedisClusterCommands<String, String> commands = connection.sync();
+        RedisClusterAsyncCommands<String, byte[]> async = binaryConnection.async();
+        long indexed = 0;
+        
+        for (long start = 0; ; start += batchSize) {
+            List<String> ids = commands.zrange(keys.createdIndex(partition), start, start + batchSize - 1);
+            if (ids.isEmpty()) {
+                break;
+            }
+            
+            List<RedisFuture<Map<String, byte[]>>> futures = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                futures.add(async.hgetall(keys.payment(id)));
+            }
+            LettuceFutures.awaitAll(connection.getTimeout(), futures.toArray(new RedisFuture[0]));
+            
+            List<Flux<Long>> writes = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                Map<String, byte[]> data = futures.get(i).toCompletableFuture().join();
+                if (data.isEmpty()) {
+                    continue;
+                }
+                Transaction transaction;
+                try {
+                    transaction = codec.decode(data);
+                } catch (RuntimeException e) {
+                    log.warn("⚠️ Not indexing undecodable transaction {}: {}", ids.get(i), e.getMessage());
+                    continue;
+                }
+                writes.add(TransactionScripts.INDEX.execute(binaryConnection.reactive(),
+                    ScriptOutputType.INTEGER, TransactionScripts.indexKeys(keys, ids.get(i)),
+                    TransactionScripts.indexArgs(keys, ids.get(i), transaction)));
+            }
+            indexed += Flux.merge(writes).reduce(0L, Long::sum).blockOptional().orElse(0L);
+        }
+        return indexed;
+    }
+
+    /**
+     * Remove the legacy payment:all lists once the indexes have been backfilled
+     * from them. UNLINK frees the list in the background, so even a long list
+     * does not block Redis.
+     *
+     * @return number of lists removed
+     */
+    public long dropLegacyAllPayments() {
+        RedisClusterCommands<String, String> commands = connection.sync();
+        long removed = 0;
+        for (int partition = 0; partition < keys.partitions(); partition++) {
+            removed += commands.unlink(keys.allPayments(partition));
+        }
+        return removed;
+    }
+
+    /**
+     * Walk a partition's legacy payment:all in chunks, pipeline one HGET of the given
+     * field per transaction and hand each chunk of (ids, values) to the index
+     * writer. Values are null for transactions that no longer exist.
+     *
+     * @return number of non-null values seen
+     */
+    private long backfillFromField(int partition, int batchSize, String field,
+                                   BiConsumer<List<String>, List<String>> indexWriter) {
+        RedisClusterCommands<String, String> commands = connection.sync();
+        RedisClusterAsyncCommands<String, String> async = connection.async();
+        long indexed = 0;
+        
+        for (long start = 0; ; start += batchSize) {
+            List<String> ids = commands.lrange(keys.allPayments(partition), start, start + batchSize - 1);
+            if (ids.isEmpty()) {
+                break;
+            }
+            
+            List<RedisFuture<String>> futures = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                futures.add(async.hget(keys.payment(id), field));
+            }
+            LettuceFutures.awaitAll(connection.getTimeout(), futures.toArray(new RedisFuture[0]));
+            
+            List<String> values = new ArrayList<>(ids.size());
+            for (RedisFuture<String> future : futures) {
+                String value = future.toCompletableFuture().join();
+                values.add(value);
+                if (value != null) {
+                    indexed++;
+                }
+            }
+            indexWriter.accept(ids, values);
         }
+        
+        return indexed;
     }
 
     /**
-     * Convert Transaction object to Map for Redis storage
+     * Rewrite transactions still stored in the hash layout as binary records.
+     * Walks the creation-time index in chunks and pipelines both the reads and
+     * the rewrites. A hash that changes concurrently is left alone: the
+     * rewrite script compares updatedAt before replacing it.
+     *
+     * @return number of transactions rewritten
      */
-    private Map<String, String> transactionToMap(Transaction t) {
-        Map<String, String> map = new HashMap<>();
-        map.put("_id", t.getId());
-        map.put("reference", t.getReference());
-        map.put("name", t.getName());
-        map.put("email", t.getEmail());
-        map.put("amount", t.getAmount().toString());
-        map.put("amountReceived", t.getAmountReceived().toString());
-        map.put("school", t.getSchool());
-        map.put("senderFullName", t.getSenderFullName());
-        map.put("countryFrom", t.getCountryFrom());
-        map.put("senderAddress", t.getSenderAddress());
-        map.put("currencyFrom", t.getCurrencyFrom());
-        map.put("studentId", t.getStudentId());
-        map.put("status", t.getStatus());
-        map.put("feePercentage", t.getFeePercentage().toString());
-        map.put("feeAmount", t.getFeeAmount().toString());
-        map.put("finalAmount", t.getFinalAmount().toString());
-        map.put("createdAt", t.getCreatedAt().toString());
-        map.put("updatedAt", t.getUpdatedAt().toString());
-        return map;
+    public long convertToBinary(int batchSize) {
+        if (codec.getFormat() != TransactionCodec.StorageFormat.BINARY) {
+            throw new IllegalStateException("redis.storage.format is not binary");
+        }
+        long converted = 0;
+        for (int partition = 0; partition < keys.partitions(); partition++) {
+            converted += convertPartition(partition, batchSize);
+        }
+        return converted;
+    }
+
+    private long convertPartition(int partition, int batchSize) {
+        RedisClusterCommands<String, String> commands = connection.sync();
+        RedisClusterAsyncCommands<String, byte[]> async = binaryConnection.async();
+        long converted = 0;
+        
+        for (long start = 0; ; start += batchSize) {
+            List<String> ids = commands.zrange(keys.createdIndex(partition), start, start + batchSize - 1);
+            if (ids.isEmpty()) {
+                break;
+            }
+            
+            List<RedisFuture<Map<String, byte[]>>> futures = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                futures.add(async.hgetall(keys.payment(id)));
+            }
+            LettuceFutures.awaitAll(connection.getTimeout(), futures.toArray(new RedisFuture[0]));
+            
+            List<Flux<Long>> rewrites = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i++) {
+                Map<String, byte[]> data = futures.get(i).toCompletableFuture().join();
+                if (data.isEmpty() || TransactionCodec.isBinary(data) || !data.containsKey("updatedAt")) {
+                    continue;
+                }
+                Map<String, byte[]> fields;
+                try {
+                    fields = codec.encode(codec.decode(data));
+                } catch (RuntimeException e) {
+                    log.warn("⚠️ Not converting undecodable transaction {}: {}", ids.get(i), e.getMessage());
+                    continue;
+                }
+                // Transactions the record cannot represent stay in the hash layout
+                if (TransactionCodec.isBinary(fields)) {
+                    rewrites.add(TransactionScripts.CONVERT.execute(binaryConnection.reactive(),
+                        ScriptOutputType.INTEGER, TransactionScripts.convertKeys(keys, ids.get(i)),
+                        TransactionScripts.convertArgs(data.get("updatedAt"), fields)));
+                }
+            }
+            converted += Flux.merge(rewrites).reduce(0L, Long::sum).blockOptional().orElse(0L);
+        }
+        
+        return converted;
     }
 
     /**
-     * Convert Redis Map to Transaction object
+     * Bulk-fetch transactions by ID, preserving order.
+     *
+     * IDs are split into batches of redis.bulk-fetch.batch-size. Each batch is
+     * sent as one pipeline of HGETALLs on its own bulk read connection (replica
+     * connections while the replicas are current, see ReplicaReads), and up
+     * to one batch per connection is in flight at a time, which bounds memory
+     * while keeping every socket busy. Missing or expired keys, and hashes that
+     * can no longer be decoded, are skipped.
      */
-    private Transaction mapToTransaction(Map<String, String> map) {
-        Transaction t = new Transaction();
-        t.setId(map.get("_id"));
-        t.setReference(map.get("reference"));
-        t.setName(map.get("name"));
-        t.setEmail(map.get("email"));
-        t.setAmount(new BigDecimal(map.getOrDefault("amount", "0")));
-        t.setAmountReceived(new BigDecimal(map.getOrDefault("amountReceived", "0")));
-        t.setSchool(map.get("school"));
-        t.setSenderFullName(map.get("senderFullName"));
-        t.setCountryFrom(map.get("countryFrom"));
-        t.setSenderAddress(map.get("senderAddress"));
-        t.setCurrencyFrom(map.get("currencyFrom"));
-        t.setStudentId(map.get("studentId"));
-        t.setStatus(map.get("status"));
-        t.setFeePercentage(new BigDecimal(map.getOrDefault("feePercentage", "0")));
-        t.setFeeAmount(new BigDecimal(map.getOrDefault("feeAmount", "0")));
-        t.setFinalAmount(new BigDecimal(map.getOrDefault("finalAmount", "0")));
-        t.setCreatedAt(Instant.parse(map.get("createdAt")));
-        t.setUpdatedAt(Instant.parse(map.get("updatedAt")));
-        return t;
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "findAllById"})
+    public List<Transaction> findAllById(List<String> ids) {
+        return findAllById(ids, replicaReads.bulkConnections());
+    }
+
+    /**
+     * findAllById on the primary, for callers that must see every write
+     * already made, whatever the replication lag
+     */
+    @Timed(value = "payment.repository", extraTags = {"repository", "transactions", "operation", "findAllByIdOnPrimary"})
+    public List<Transaction> findAllByIdOnPrimary(List<String> ids) {
+        return findAllById(ids, replicaReads.primaryBulkConnections());
+    }
+
+    /**
+     * Walk all transactions oldest first, passing them to the consumer
+     * `batchSize` at a time on the calling thread. The creation-time indexes
+     * are read with keyset pagination, so transactions written or deleted
+     * during the walk do not make it skip others. Expired and undecodable
+     * transactions are left out.
+     *
+     * @return number of transactions passed to the consumer
+     */
+    public long forEachOldestFirst(int batchSize, Consumer<List<Transaction>> consumer) {
+        long walked = 0;
+        for (List<String> ids : CreatedIndex.oldestFirst(connection.reactive(), keys, batchSize)
+                .buffer(batchSize).toIterable(2)) {
+            List<Transaction> transactions = findAllById(ids);
+            consumer.accept(transactions);
+            walked += transactions.size();
+        }
+        return walked;
+    }
+
+    private List<Transaction> findAllById(List<String> ids, BulkReadConnections bulkConnections) {
+        List<Transaction> transactions = new ArrayList<>(ids.size());
+        int parallelism = bulkConnections.size();
+        int start = bulkConnections.nextStart();
+        
+        for (int waveStart = 0; waveStart < ids.size(); waveStart += bulkBatchSize * parallelism) {
+            // Issue up to one batch per connection without waiting
+            List<List<RedisFuture<Map<String, byte[]>>>> wave = new ArrayList<>(parallelism);
+            for (int batch = 0; batch < parallelism; batch++) {
+                int from = waveStart + batch * bulkBatchSize;
+                if (from >= ids.size()) {
+                    break;
+                }
+                int to = Math.min(from + bulkBatchSize, ids.size());
+                RedisClusterAsyncCommands<String, byte[]> async = bulkConnections.forBatch(start, batch).async();
+                List<RedisFuture<Map<String, byte[]>>> futures = new ArrayList<>(to - from);
+                for (String id : ids.subList(from, to)) {
+                    futures.add(async.hgetall(keys.payment(id)));
+                }
+                wave.add(futures);
+            }
+            
+            // Then collect the replies in order
+            int batchStart = waveStart;
+            for (List<RedisFuture<Map<String, byte[]>>> futures : wave) {
+                LettuceFutures.awaitAll(connection.getTimeout(), futures.toArray(new RedisFuture[0]));
+                for (int i = 0; i < futures.size(); i++) {
+                    decodeInto(ids.get(batchStart + i), futures.get(i).toCompletableFuture().join(), transactions);
+                }
+                batchStart += futures.size();
+            }
+        }
+        
+        return transactions;
+    }
+
+    private void decodeInto(String id, Map<String, byte[]> data, List<Transaction> transactions) {
+        if (data.isEmpty()) {
+            return;
+        }
+        try {
+            transactions.add(codec.decode(data));
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Skipping undecodable transaction {}: {}", id, e.getMessage());
+        }
     }
 }
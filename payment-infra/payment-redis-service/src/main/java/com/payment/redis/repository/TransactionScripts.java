@@ -0,0 +1,331 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.cache.TransactionNearCache;
+import com.payment.redis.domain.Transaction;
+import com.payment.redis.typeahead.TransactionTypeahead;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.cluster.api.reactive.RedisClusterReactiveCommands;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.payment.redis.repository.RedisKeys.*;
+import static com.payment.redis.repository.TransactionCodec.utf8;
+
+/**
+ * The Lua scripts used for transaction writes and lookups, together with the
+ * KEYS/ARGV layout each of them expects (documented in the .lua files).
+ * Transaction fields are passed as encoded by the TransactionCodec. Keys come
+ * from the RedisKeys layout, all from one partition per call.
+ */
+final class TransactionScripts {
+    private static final String STATS_LIBRARY = "transaction-stats";
+    private static final String INDEX_LIBRARY = "transaction-index";
+
+    static final LuaScript INSERT = LuaScript.load("insert-transaction", STATS_LIBRARY, INDEX_LIBRARY);
+    static final LuaScript SAVE = LuaScript.load("save-transaction", STATS_LIBRARY, INDEX_LIBRARY);
+    static final LuaScript FIND_BY_REFERENCE = LuaScript.load("find-by-reference");
+    static final LuaScript DELETE = LuaScript.load("delete-transaction", STATS_LIBRARY, INDEX_LIBRARY);
+    static final LuaScript CONVERT = LuaScript.load("convert-transaction");
+    static final LuaScript RESTAT = LuaScript.load("restat-transaction", STATS_LIBRARY);
+    static final LuaScript STATS_REBUILD = LuaScript.load("stats-rebuild");
+    static final LuaScript APPEND_AUDIT = LuaScript.load("append-audit");
+    static final LuaScript MERGE_AUDIT = LuaScript.load("merge-audit");
+    static final LuaScript PRUNE_INDEX = LuaScript.load("prune-index", INDEX_LIBRARY);
+    static final LuaScript INDEX = LuaScript.load("index-transaction", INDEX_LIBRARY);
+    static final LuaScript SEARCH_INDEX = LuaScript.load("search-index");
+    static final LuaScript RESERVE_IDEMPOTENCY = LuaScript.load("reserve-idempotency");
+    static final LuaScript COMPLETE_IDEMPOTENCY = LuaScript.load("complete-idempotency");
+    static final LuaScript RELEASE_IDEMPOTENCY = LuaScript.load("release-idempotency");
+
+    private TransactionScripts() {
+    }
+
+    static String[] insertKeys(RedisKeys keys, Transaction t) {
+        int partition = keys.partition(t.getId());
+        return new String[]{
+            keys.payment(t.getId()),
+            keys.referenceIndex(partition),
+            keys.auditStream(partition),
+            keys.createdIndex(partition),
+            keys.auditTrail(t.getId()),
+            keys.stats(partition),
+            keys.statsRebuild(partition),
+            keys.indexEntries(t.getId())
+        };
+    }
+
+    static byte[][] insertArgs(RedisKeys keys, TransactionCodec codec, Transaction t,
+                               String auditAction, String auditDetails) {
+        Map<String, byte[]> fields = codec.encode(t);
+        
+        List<byte[]> args = new ArrayList<>(19 + fields.size() * 2);
+        args.add(utf8(t.getId()));
+        args.add(utf8(t.getReference()));
+        args.add(utf8(String.valueOf(TTL_SECONDS)));
+        args.add(utf8(auditAction));
+        args.add(utf8(auditDetails));
+        args.add(utf8(String.valueOf(auditRetentionStart())));
+        args.add(utf8(String.valueOf(t.getCreatedAt().toEpochMilli())));
+        args.add(utf8(keys.timeBucketPrefix(keys.partition(t.getId()))));
+        args.addAll(List.of(TransactionAggregates.contribution(t)));
+        args.add(utf8(keys.fieldIndexPrefix(keys.partition(t.getId()))));
+        args.add(utf8(FieldIndex.entries(t)));
+        args.add(utf8(TransactionTypeahead.CREATED_CHANNEL));
+        addFields(args, fields);
+        return args.toArray(new byte[0][]);
+    }
+
+    static String[] saveKeys(RedisKeys keys, Transaction t) {
+        int partition = keys.partition(t.getId());
+        return new String[]{
+            keys.payment(t.getId()),
+            keys.referenceIndex(partition),
+            keys.createdIndex(partition),
+            keys.stats(partition),
+            keys.statsRebuild(partition),
+            keys.indexEntries(t.getId())
+        };
+    }
+
+    static byte[][] saveArgs(RedisKeys keys, TransactionCodec codec, Transaction t) {
+        Map<String, byte[]> fields = codec.encode(t);
+        
+        List<byte[]> args = new ArrayList<>(16 + fields.size() * 2);
+        args.add(utf8(t.getId()));
+        args.add(utf8(t.getReference()));
+        args.add(utf8(String.valueOf(TTL_SECONDS)));
+        args.add(utf8(String.valueOf(t.getCreatedAt().toEpochMilli())));
+        args.add(utf8(TransactionNearCache.INVALIDATION_CHANNEL));
+        args.add(utf8(keys.timeBucketPrefix(keys.partition(t.getId()))));
+        args.addAll(List.of(TransactionAggregates.contribution(t)));
+        args.add(utf8(keys.fieldIndexPrefix(keys.partition(t.getId()))));
+        args.add(utf8(FieldIndex.entries(t)));
+        addFields(args, fields);
+        return args.toArray(new byte[0][]);
+    }
+
+    static String[] findByReferenceKeys(RedisKeys keys, int partition) {
+        return new String[]{keys.referenceIndex(partition)};
+    }
+
+    static byte[][] findByReferenceArgs(RedisKeys keys, int partition, String reference) {
+        return new byte[][]{utf8(reference), utf8(keys.paymentPrefix(partition))};
+    }
+
+    /**
+     * Look a reference up with FIND_BY_REFERENCE. The reference alone does not
+     * tell which partition holds the transaction, so with several partitions
+     * all of them are asked at once and the one that has it answers.
+     *
+     * @return the transaction's fields, or empty if no partition has the reference
+     */
+    static Mono<Map<String, byte[]>> findByReference(RedisClusterReactiveCommands<String, byte[]> commands,
+                                                     RedisKeys keys, String reference) {
+        return Flux.range(0, keys.partitions())
+            .flatMap(partition -> FIND_BY_REFERENCE.<List<Object>>execute(commands, ScriptOutputType.MULTI,
+                findByReferenceKeys(keys, partition), findByReferenceArgs(keys, partition, reference)))
+            .map(TransactionCodec::fieldsToMap)
+            .filter(data -> !data.isEmpty())
+            .next();
+    }
+
+    /**
+     * The same lookup with plain reads (HGET on the indexes, then HGETALL), for
+     * replica connections: scripts are always sent to the primary
+     *
+     * @return the transaction's fields, or empty if the replica does not have them
+     */
+    static Mono<Map<String, byte[]>> findByReferenceOnReplica(RedisClusterReactiveCommands<String, byte[]> commands,
+                                                              RedisKeys keys, String reference) {
+        return Flux.range(0, keys.partitions())
+            .flatMapSequential(partition -> commands.hget(keys.referenceIndex(partition), reference))
+            .next()
+            .flatMap(id -> commands.hgetall(keys.payment(new String(id, StandardCharsets.UTF_8)))
+                .collectMap(KeyValue::getKey, KeyValue::getValue))
+            .filter(data -> !data.isEmpty());
+    }
+
+    static String[] deleteKeys(RedisKeys keys, String id) {
+        int partition = keys.partition(id);
+        return new String[]{
+            keys.payment(id),
+            keys.referenceIndex(partition),
+            keys.createdIndex(partition),
+            keys.stats(partition),
+            keys.statsRebuild(partition),
+            keys.indexEntries(id)
+        };
+    }
+
+    static byte[][] deleteArgs(RedisKeys keys, String id) {
+        return new byte[][]{
+            utf8(id),
+            utf8(TransactionNearCache.INVALIDATION_CHANNEL),
+            utf8(keys.timeBucketPrefix(keys.partition(id))),
+            utf8(keys.fieldIndexPrefix(keys.partition(id)))
+        };
+    }
+
+    static String[] convertKeys(RedisKeys keys, String id) {
+        return new String[]{keys.payment(id)};
+    }
+
+    static byte[][] convertArgs(byte[] expectedUpdatedAt, Map<String, byte[]> fields) {
+        List<byte[]> args = new ArrayList<>(1 + fields.size() * 2);
+        args.add(expectedUpdatedAt);
+        addFields(args, fields);
+        return args.toArray(new byte[0][]);
+    }
+
+    static String[] restatKeys(RedisKeys keys, String id) {
+        return new String[]{keys.payment(id), keys.statsRebuild(keys.partition(id))};
+    }
+
+    static byte[][] restatArgs(RedisKeys keys, String generation, Transaction t) {
+        List<byte[]> args = new ArrayList<>(10);
+        args.add(utf8(generation));
+        args.add(utf8(keys.timeBucketPrefix(keys.partition(t.getId()))));
+        args.addAll(List.of(TransactionAggregates.contribution(t)));
+        return args.toArray(new byte[0][]);
+    }
+
+    static String[] statsRebuildKeys(RedisKeys keys, int partition) {
+        return new String[]{keys.stats(partition), keys.statsRebuild(partition)};
+    }
+
+    /**
+     * @param phase "begin" or "finish"
+     */
+    static byte[][] statsRebuildArgs(String phase, String generation) {
+        return new byte[][]{utf8(phase), utf8(generation)};
+    }
+
+    static String[] appendAuditKeys(RedisKeys keys, String paymentId) {
+        return new String[]{keys.auditStream(keys.partition(paymentId)), keys.auditTrail(paymentId)};
+    }
+
+    static byte[][] appendAuditArgs(String paymentId, String action, String details, Instant createdAt) {
+        return new byte[][]{
+            utf8(paymentId),
+            utf8(action),
+            utf8(details),
+            utf8(String.valueOf(auditRetentionStart())),
+            utf8(String.valueOf(TTL_SECONDS)),
+            utf8(String.valueOf(createdAt.toEpochMilli()))
+        };
+    }
+
+    static String[] mergeAuditKeys(RedisKeys keys, String paymentId) {
+        return new String[]{keys.auditTrail(paymentId)};
+    }
+
+    /**
+     * @param entries entry ID, action, details for each migrated entry
+     */
+    static byte[][] mergeAuditArgs(String paymentId, List<String[]> entries) {
+        List<byte[]> args = new ArrayList<>(2 + entries.size() * 3);
+        args.add(utf8(String.valueOf(TTL_SECONDS)));
+        args.add(utf8(paymentId));
+        for (String[] entry : entries) {
+            for (String value : entry) {
+                args.add(utf8(value));
+            }
+        }
+        return args.toArray(new byte[0][]);
+    }
+
+    /**
+     * @param ids        IDs to remove from the creation-time index
+     * @param references reference -> ID entries to remove from the reference index
+     */
+    static String[] pruneIndexKeys(RedisKeys keys, int partition, List<String> ids, Map<String, String> references) {
+        List<String> names = new ArrayList<>(2 + ids.size() * 2 + references.size());
+        names.add(keys.createdIndex(partition));
+        names.add(keys.referenceIndex(partition));
+        for (String id : ids) {
+            names.add(keys.payment(id));
+            names.add(keys.indexEntries(id));
+        }
+        references.values().forEach(id -> names.add(keys.payment(id)));
+        return names.toArray(new String[0]);
+    }
+
+    static byte[][] pruneIndexArgs(RedisKeys keys, int partition, List<String> ids, Map<String, String> references) {
+        List<byte[]> args = new ArrayList<>(2 + ids.size() + references.size() * 2);
+        args.add(utf8(keys.fieldIndexPrefix(partition)));
+        args.add(utf8(String.valueOf(ids.size())));
+        for (String id : ids) {
+            args.add(utf8(id));
+        }
+        references.forEach((reference, id) -> {
+            args.add(utf8(reference));
+            args.add(utf8(id));
+        });
+        return args.toArray(new byte[0][]);
+    }
+
+    static String[] indexKeys(RedisKeys keys, String id) {
+        return new String[]{keys.payment(id), keys.indexEntries(id)};
+    }
+
+    static byte[][] indexArgs(RedisKeys keys, String id, Transaction t) {
+        return new byte[][]{
+            utf8(id),
+            utf8(keys.fieldIndexPrefix(keys.partition(id))),
+            utf8(String.valueOf(t.getCreatedAt().toEpochMilli())),
+            utf8(FieldIndex.entries(t))
+        };
+    }
+
+    /**
+     * @param entries field index entries ({field}:{value}) to intersect
+     */
+    static String[] searchIndexKeys(RedisKeys keys, int partition, List<String> entries) {
+        String[] indexes = new String[entries.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = keys.fieldIndex(partition, entries.get(i));
+        }
+        return indexes;
+    }
+
+    static byte[][] searchIndexArgs(PageCursor after, int wanted, int maxExamined) {
+        return new byte[][]{
+            utf8(after == null ? "+inf" : String.valueOf(after.getScore())),
+            utf8(after == null ? "" : after.getId()),
+            utf8("-inf"),
+            utf8(String.valueOf(wanted)),
+            utf8(String.valueOf(maxExamined))
+        };
+    }
+
+    static String[] idempotencyKeys(String key) {
+        return new String[]{RedisKeys.idempotency(key)};
+    }
+
+    static byte[][] reserveIdempotencyArgs(String fingerprint, String token, Duration lifetime) {
+        return new byte[][]{utf8(fingerprint), utf8(token), utf8(String.valueOf(lifetime.toMillis()))};
+    }
+
+    static byte[][] completeIdempotencyArgs(String token, int status, byte[] body, Duration retention) {
+        return new byte[][]{utf8(token), utf8(String.valueOf(status)), body, utf8(String.valueOf(retention.toMillis()))};
+    }
+
+    static byte[][] releaseIdempotencyArgs(String token) {
+        return new byte[][]{utf8(token)};
+    }
+
+    private static void addFields(List<byte[]> args, Map<String, byte[]> fields) {
+        fields.forEach((field, value) -> {
+            args.add(utf8(field));
+            args.add(value);
+        });
+    }
+}
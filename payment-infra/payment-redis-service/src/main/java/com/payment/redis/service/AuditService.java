@@ -0,0 +1,38 @@
+package com.payment.redis.service;
+
+import com.payment.redis.domain.AuditEntry;
+import com.payment.redis.domain.AuditPage;
+import com.payment.redis.repository.AuditRepository;
+import jakarta.inject.Singleton;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Read access to the audit log
+ */
+@Singleton
+public class AuditService {
+    private final AuditRepository repository;
+
+    public AuditService(AuditRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Audit trail of one payment, oldest first. Entries of deleted payments
+     * remain available until they expire.
+     */
+    public List<AuditEntry> getAuditTrail(String paymentId) {
+        return repository.findByPayment(paymentId);
+    }
+
+    /**
+     * One page of the audit log of all payments, oldest first
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public AuditPage getAuditLog(int limit, String cursor, Instant from, Instant to) {
+        return repository.findRange(limit, cursor, from, to);
+    }
+}
@@ -0,0 +1,179 @@
+package com.payment.redis.service;
+
+import com.payment.redis.repository.IdempotencyRepository;
+import com.payment.redis.repository.IdempotencyRepository.Entry;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per idempotency key.
+ *
+ * The first request with a key reserves it and runs; its response is stored
+ * under the key for the retention period. A later request with the same key
+ * and the same body gets the stored response without running again. A
+ * request that arrives while the first one is still running waits for its
+ * response, up to wait-timeout. Reusing a key for a different body is
+ * rejected.
+ *
+ * A reservation whose request fails is released, so a retry runs again. One
+ * whose instance dies expires after lock-timeout.
+ *
+ * A waiting request calls beforeWait once before its first pause, so the
+ * caller can give back resources it should not hold while idle (see
+ * ConcurrencyLimitFilter#releaseUnsampled).
+ */
+@Singleton
+public class IdempotencyService {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long FIRST_POLL_MILLIS = 10;
+    private static final long MAX_POLL_MILLIS = 200;
+
+    private final IdempotencyRepository repository;
+    private final Duration lockTimeout;
+    private final Duration waitTimeout;
+    private final Duration retention;
+
+    public IdempotencyService(IdempotencyRepository repository,
+                              @Value("${redis.idempotency.lock-timeout:30s}") Duration lockTimeout,
+                              @Value("${redis.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                              @Value("${redis.idempotency.retention:24h}") Duration retention) {
+        this.repository = repository;
+        this.lockTimeout = lockTimeout;
+        this.waitTimeout = waitTimeout;
+        this.retention = retention;
+    }
+
+    /**
+     * Run the action for the first request with this key, or return the response it stored
+     *
+     * @param key idempotency key sent by the client
+     * @param request request body, compared with the body the key was first used with
+     * @throws IllegalArgumentException if the key is empty, too long or has control characters
+     * @throws KeyReusedException if the key was used with a different body
+     * @throws RequestInProgressException if the first request is still running after wait-timeout
+     */
+    public Response execute(String key, byte[] request, Supplier<Response> action) {
+        return execute(key, request, () -> { }, action);
+    }
+
+    /**
+     * Like {@link #execute(String, byte[], Supplier)}, calling beforeWait once
+     * if the request has to wait for the first one
+     */
+    public Response execute(String key, byte[] request, Runnable beforeWait, Supplier<Response> action) {
+        validate(key);
+        String fingerprint = fingerprint(request);
+        String token = UUID.randomUUID().toString();
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        long pause = FIRST_POLL_MILLIS;
+        boolean waited = false;
+
+        Optional<Entry> existing = repository.reserve(key, fingerprint, token, lockTimeout);
+        while (existing.isPresent()) {
+            Entry entry = existing.get();
+            if (!entry.fingerprint().equals(fingerprint)) {
+                throw new KeyReusedException("Idempotency-Key was already used with a different request");
+            }
+            if (entry.completed()) {
+                log.info("🔧 Replaying stored response for idempotency key {}", key);
+                return new Response(entry.status(), entry.body(), true);
+            }
+            if (System.nanoTime() >= deadline) {
+                throw new RequestInProgressException("A request with this Idempotency-Key is still in progress");
+            }
+            if (!waited) {
+                waited = true;
+                beforeWait.run();
+            }
+            sleep(pause);
+            pause = Math.min(pause * 2, MAX_POLL_MILLIS);
+            existing = repository.find(key);
+            if (existing.isEmpty()) {
+                // The first request failed and released the key; this one runs instead
+                existing = repository.reserve(key, fingerprint, token, lockTimeout);
+            }
+        }
+
+        Response response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(key, token);
+            throw e;
+        }
+        try {
+            if (!repository.complete(key, token, response.status(), response.body(), retention)) {
+                log.warn("⚠️ Idempotency key {} expired before its request completed, response not stored", key);
+            }
+        } catch (Exception e) {
+            // The action has run; a retry finds the pending entry until it expires
+            log.error("❌ Failed to store response for idempotency key {}", key, e);
+        }
+        return response;
+    }
+
+    static void validate(String key) {
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        if (key.chars().anyMatch(Character::isISOControl)) {
+            throw new IllegalArgumentException("Idempotency-Key must not contain control characters");
+        }
+    }
+
+    static String fingerprint(byte[] request) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(request));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void release(String key, String token) {
+        try {
+            repository.release(key, token);
+        } catch (Exception e) {
+            log.warn("⚠️ Failed to release idempotency key {}, it expires after {}: {}", key, lockTimeout,
+                e.getMessage());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestInProgressException("Interrupted while waiting for the request in progress");
+        }
+    }
+
+    /**
+     * Status and body of a response; replayed when it was stored by an earlier request
+     */
+    public record Response(int status, byte[] body, boolean replayed) {
+    }
+
+    public static class KeyReusedException extends RuntimeException {
+        public KeyReusedException(String message) {
+            super(message);
+        }
+    }
+
+    public static class RequestInProgressException extends RuntimeException {
+        public RequestInProgressException(String message) {
+            super(message);
+        }
+    }
+}
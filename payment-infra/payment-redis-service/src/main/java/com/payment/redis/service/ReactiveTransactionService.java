@@ -0,0 +1,130 @@
+package com.payment.redis.service;
+
+import com.payment.redis.audit.AuditWriteBehind;
+import com.payment.redis.domain.StatsResolution;
+import com.payment.redis.domain.TimeSeriesPoint;
+import com.payment.redis.domain.Transaction;
+import com.payment.redis.domain.TransactionPage;
+import com.payment.redis.domain.TransactionStats;
+import com.payment.redis.repository.ReactiveTransactionRepository;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Non-blocking business logic for transactions. Pricing and status rules are
+ * shared with {@link TransactionService}; all Redis I/O goes through
+ * {@link ReactiveTransactionRepository}.
+ */
+@Singleton
+public class ReactiveTransactionService {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveTransactionService.class);
+    private final ReactiveTransactionRepository repository;
+    private final TransactionService transactionService;
+    private final AuditWriteBehind auditWriteBehind;
+
+    public ReactiveTransactionService(ReactiveTransactionRepository repository,
+                                      TransactionService transactionService,
+                                      AuditWriteBehind auditWriteBehind) {
+        this.repository = repository;
+        this.transactionService = transactionService;
+        this.auditWriteBehind = auditWriteBehind;
+    }
+
+    /**
+     * Create a new transaction with automatic fee calculation and amount received
+     */
+    public Mono<Transaction> createTransaction(String name, String email, BigDecimal amount,
+                                               String school, String countryFrom, String senderAddress,
+                                               String currencyFrom, String studentId) {
+        return Mono.fromCallable(() -> transactionService.newTransaction(name, email, amount, school,
+                countryFrom, senderAddress, currencyFrom, studentId))
+            .flatMap(transaction -> repository.create(transaction, "CREATE", "Transaction created")
+                .thenReturn(transaction))
+            .onErrorMap(e -> {
+                log.error("❌ Error creating transaction", e);
+                return new RuntimeException("Failed to create transaction", e);
+            });
+    }
+
+    /**
+     * Stream all transactions, newest first
+     */
+    public Flux<Transaction> getAllTransactions() {
+        return repository.findAll();
+    }
+
+    /**
+     * Stream transactions for export, newest first, fetching chunkSize at a time
+     * as the consumer keeps up
+     */
+    public Flux<Transaction> exportTransactions(int chunkSize, Instant from, Instant to) {
+        return repository.streamAll(chunkSize, from, to);
+    }
+
+    /**
+     * Get one page of transactions, newest first
+     */
+    public Mono<TransactionPage> getTransactionPage(int limit, String cursor, Instant from, Instant to) {
+        return Mono.defer(() -> repository.findPage(limit, cursor, from, to));
+    }
+
+    /**
+     * Get transaction by ID
+     */
+    public Mono<Transaction> getTransactionById(String id) {
+        return repository.findById(id);
+    }
+
+    /**
+     * Get transaction by reference number
+     */
+    public Mono<Transaction> getTransactionByReference(String reference) {
+        return repository.findByReference(reference);
+    }
+
+    /**
+     * Delete transaction. The audit entry is written behind; only when the
+     * queue is full (or write-behind is off) is it written before responding,
+     * since blocking on the queue is not an option here.
+     */
+    public Mono<Boolean> deleteTransaction(String id) {
+        return repository.deleteById(id)
+            .flatMap(deleted -> {
+                if (!deleted) {
+                    return Mono.just(false);
+                }
+                if (auditWriteBehind.offer(id, "DELETE", "Transaction deleted")) {
+                    return Mono.just(true);
+                }
+                return repository.saveAuditLog(id, "DELETE", "Transaction deleted").thenReturn(true);
+            });
+    }
+
+    /**
+     * Get total transaction count
+     */
+    public Mono<Long> getTransactionCount() {
+        return repository.count();
+    }
+
+    /**
+     * Get the running aggregates by status, currency, country and school
+     */
+    public Mono<TransactionStats> getTransactionStats() {
+        return repository.findStats();
+    }
+
+    /**
+     * Get the aggregates per time bucket of the transactions created in [from, to]
+     */
+    public Mono<List<TimeSeriesPoint>> getTransactionTimeSeries(StatsResolution resolution, Instant from, Instant to) {
+        return repository.findTimeSeries(resolution, from, to);
+    }
+}
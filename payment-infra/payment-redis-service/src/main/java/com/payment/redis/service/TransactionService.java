@@ -1,6 +1,14 @@
 package com.payment.redis.service;
 
+import com.payment.redis.audit.AuditWriteBehind;
+import com.payment.redis.diagnostics.Recorded;
+import com.payment.redis.domain.BatchItemResult;
+import com.payment.redis.domain.StatsResolution;
+import com.payment.redis.domain.TimeSeriesPoint;
 import com.payment.redis.domain.Transaction;
+import com.payment.redis.domain.TransactionPage;
+import com.payment.redis.domain.TransactionStats;
+import com.payment.redis.dto.CreateTransactionRequest;
 import com.payment.redis.repository.TransactionRepository;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
@@ -9,7 +17,9 @@ import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,12 +27,16 @@ import java.util.UUID;
  * Business logic service for managing transactions
  */
 @Singleton
+@Recorded("service")
 public class TransactionService {
     private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
+    private static final int STATS_REBUILD_BATCH_SIZE = 1000;
     private final TransactionRepository repository;
+    private final AuditWriteBehind auditWriteBehind;
 
-    public TransactionService(TransactionRepository repository) {
+    public TransactionService(TransactionRepository repository, AuditWriteBehind auditWriteBehind) {
         this.repository = repository;
+        this.auditWriteBehind = auditWriteBehind;
     }
 
     /**
@@ -32,41 +46,13 @@ public class TransactionService {
                                         String school, String countryFrom, String senderAddress,
                                         String currencyFrom, String studentId) {
         try {
-            // Generate ID and reference
-            String id = UUID.randomUUID().toString();
-            String reference = repository.getNextReference();
+            Transaction transaction = newTransaction(name, email, amount, school, countryFrom,
+                senderAddress, currencyFrom, studentId);
             
-            // Simulate amount received (80-120% of requested amount)
-            double randomFactor = 0.8 + (Math.random() * 0.4);
-            BigDecimal amountReceived = amount.multiply(
-                BigDecimal.valueOf(randomFactor)
-            ).setScale(2, RoundingMode.HALF_UP);
+            // Save to Redis together with the audit entry in one round trip
+            String reference = repository.create(transaction, "CREATE", "Transaction created");
             
-            // Calculate fee based on amount
-            BigDecimal feePercentage = calculateFeePercentage(amount);
-            BigDecimal feeAmount = amount.multiply(feePercentage)
-                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-            BigDecimal finalAmount = amount.add(feeAmount);
-            
-            // Determine status
-            String status = determineStatus(amount, amountReceived);
-            
-            Instant now = Instant.now();
-            
-            Transaction transaction = new Transaction(
-                id, reference, name, email, amount, amountReceived,
-                school, name, countryFrom, senderAddress, currencyFrom, studentId,
-                status, feePercentage, feeAmount, finalAmount,
-                now, now
-            );
-            
-            // Save to Redis
-            repository.save(transaction);
-            
-            // Log audit
-            repository.saveAuditLog(id, "CREATE", "Transaction created");
-            
-            log.info("✅ Transaction created: {} with reference: {}", id, reference);
+            log.info("✅ Transaction created: {} with reference: {}", transaction.getId(), reference);
             return transaction;
         } catch (Exception e) {
             log.error("❌ Error creating transaction", e);
@@ -74,6 +60,75 @@ public class TransactionService {
         }
     }
 
+    /**
+     * Create many transactions in one call. Items are validated and priced in
+     * memory; the valid ones are then persisted together (see
+     * TransactionRepository#createAll). Invalid or failed items are reported
+     * individually and do not affect the rest of the batch.
+     *
+     * @return one result per request, in request order
+     */
+    public List<BatchItemResult> createTransactions(List<CreateTransactionRequest> requests) {
+        BatchItemResult[] results = new BatchItemResult[requests.size()];
+        List<Transaction> transactions = new ArrayList<>(requests.size());
+        List<Integer> positions = new ArrayList<>(requests.size());
+        
+        for (int i = 0; i < requests.size(); i++) {
+            CreateTransactionRequest request = requests.get(i);
+            String error = validate(request);
+            if (error != null) {
+                results[i] = BatchItemResult.failed(i, error);
+                continue;
+            }
+            transactions.add(newTransaction(request.getName(), request.getEmail(), request.getAmount(),
+                request.getSchool(), request.getCountryFrom(), request.getSenderAddress(),
+                request.getCurrencyFrom(), request.getStudentId()));
+            positions.add(i);
+        }
+        
+        List<BatchItemResult> stored = repository.createAll(transactions, "CREATE", "Transaction created (batch)");
+        for (BatchItemResult result : stored) {
+            int position = positions.get(result.getIndex());
+            results[position] = result.withIndex(position);
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Build a new, not yet persisted transaction: generates the ID, simulates the
+     * amount received and calculates fee and status. The reference is taken
+     * from ReferenceAllocator when the repository creates the transaction.
+     */
+    public Transaction newTransaction(String name, String email, BigDecimal amount,
+                                      String school, String countryFrom, String senderAddress,
+                                      String currencyFrom, String studentId) {
+        String id = UUID.randomUUID().toString();
+        
+        // Simulate amount received (80-120% of requested amount)
+        double randomFactor = 0.8 + (Math.random() * 0.4);
+        BigDecimal amountReceived = amount.multiply(
+            BigDecimal.valueOf(randomFactor)
+        ).setScale(2, RoundingMode.HALF_UP);
+        
+        // Calculate fee based on amount
+        BigDecimal feePercentage = calculateFeePercentage(amount);
+        BigDecimal feeAmount = amount.multiply(feePercentage)
+            .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        BigDecimal finalAmount = amount.add(feeAmount);
+        
+        // Determine status
+        String status = determineStatus(amount, amountReceived);
+        
+        Instant now = Instant.now();
+        
+        return new Transaction(
+            id, null, name, email, amount, amountReceived,
+            school, name, countryFrom, senderAddress, currencyFrom, studentId,
+            status, feePercentage, feeAmount, finalAmount,
+            now, now
+        );
+    }
+
     /**
      * Get all transactions
      */
@@ -81,6 +136,20 @@ public class TransactionService {
         return repository.findAll();
     }
 
+    /**
+     * Get one page of transactions, newest first
+     */
+    public TransactionPage getTransactionPage(int limit, String cursor, Instant from, Instant to) {
+        return repository.findPage(limit, cursor, from, to);
+    }
+
+    /**
+     * Search transactions by field values (see TransactionRepository#search)
+     */
+    public TransactionPage searchTransactions(Map<String, String> criteria, int limit, String cursor) {
+        return repository.search(criteria, limit, cursor);
+    }
+
     /**
      * Get transaction by ID
      */
@@ -96,12 +165,12 @@ public class TransactionService {
     }
 
     /**
-     * Delete transaction
+     * Delete transaction. The audit entry is written behind, off the request path.
      */
     public boolean deleteTransaction(String id) {
         boolean deleted = repository.deleteById(id);
         if (deleted) {
-            repository.saveAuditLog(id, "DELETE", "Transaction deleted");
+            auditWriteBehind.submit(id, "DELETE", "Transaction deleted");
         }
         return deleted;
     }
@@ -113,10 +182,59 @@ public class TransactionService {
         return repository.count();
     }
 
+    /**
+     * Get the running aggregates by status, currency, country and school
+     */
+    public TransactionStats getTransactionStats() {
+        return repository.findStats();
+    }
+
+    /**
+     * Get the aggregates per time bucket of the transactions created in [from, to]
+     */
+    public List<TimeSeriesPoint> getTransactionTimeSeries(StatsResolution resolution, Instant from, Instant to) {
+        return repository.findTimeSeries(resolution, from, to);
+    }
+
+    /**
+     * Recompute the aggregates from the stored transactions
+     *
+     * @return number of transactions counted
+     */
+    public long rebuildTransactionStats() {
+        log.info("🔧 Rebuilding transaction stats");
+        long start = System.currentTimeMillis();
+        long counted = repository.rebuildStats(STATS_REBUILD_BATCH_SIZE);
+        log.info("✅ Transaction stats rebuilt from {} transactions in {} ms",
+            counted, System.currentTimeMillis() - start);
+        return counted;
+    }
+
+    /**
+     * Check the fields a transaction cannot be created without
+     *
+     * @return the problem, or null if the request is valid
+     */
+    private String validate(CreateTransactionRequest request) {
+        if (request == null) {
+            return "request is empty";
+        }
+        if (request.getName() == null || request.getName().isBlank()) {
+            return "name is required";
+        }
+        if (request.getEmail() == null || request.getEmail().isBlank()) {
+            return "email is required";
+        }
+        if (request.getAmount() == null || request.getAmount().signum() <= 0) {
+            return "amount must be positive";
+        }
+        return null;
+    }
+
     /**
      * Calculate fee percentage based on amount
      */
-    private BigDecimal calculateFeePercentage(BigDecimal amount) {
+    static BigDecimal calculateFeePercentage(BigDecimal amount) {
         if (amount.compareTo(BigDecimal.valueOf(50000)) > 0) {
             return BigDecimal.valueOf(5.0);
         } else if (amount.compareTo(BigDecimal.valueOf(30000)) > 0) {
@@ -129,7 +247,7 @@ public class TransactionService {
     /**
      * Determine transaction status based on amount received
      */
-    private String determineStatus(BigDecimal amount, BigDecimal amountReceived) {
+    static String determineStatus(BigDecimal amount, BigDecimal amountReceived) {
         int comparison = amountReceived.compareTo(amount);
         if (comparison < 0) {
             return "UNDERPAYMENT";
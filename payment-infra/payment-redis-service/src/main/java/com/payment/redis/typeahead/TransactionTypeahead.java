@@ -0,0 +1,319 @@
+package com.payment.redis.typeahead;
+
+import com.payment.redis.cache.TransactionNearCache;
+import com.payment.redis.config.RedisConnectionFactory;
+import com.payment.redis.domain.Transaction;
+import com.payment.redis.repository.TransactionRepository;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Typeahead over sender name, name, school and email, served from an
+ * in-process {@link TypeaheadIndex} so a keystroke costs no Redis scan.
+ *
+ * On startup the index is loaded in the background by walking every
+ * transaction oldest first, so the newest transactions rank first. It is kept
+ * current through pub/sub: the create script publishes new IDs on
+ * {@link #CREATED_CHANNEL}, and the save and delete scripts publish changed
+ * IDs on {@link TransactionNearCache#INVALIDATION_CHANNEL}, from every
+ * instance. Published IDs are collected and re-read from the primary in
+ * batches every refresh-interval; an ID that no longer exists is removed. The
+ * subscription is made before the load starts and messages are applied after
+ * it, so nothing written during the load is missed.
+ *
+ * Messages sent while the subscription is down are lost, so after a
+ * reconnect the index is loaded again; the old one keeps answering until the
+ * new one is complete. Transactions that expire are removed once a search
+ * returns them and their hash is gone.
+ */
+@Singleton
+@Requires(property = "redis.typeahead.enabled", notEquals = "false")
+public class TransactionTypeahead implements RedisConnectionStateListener {
+    private static final Logger log = LoggerFactory.getLogger(TransactionTypeahead.class);
+    public static final String CREATED_CHANNEL = "payment:created";
+    private static final long RELOAD_RETRY_MILLIS = 5000;
+    private static final int LATENCY_SAMPLES = 1024;
+
+    /**
+     * Indexed fields
+     */
+    static final List<Function<Transaction, String>> FIELDS = List.of(
+        Transaction::getSenderFullName,
+        Transaction::getName,
+        Transaction::getSchool,
+        Transaction::getEmail);
+
+    private final RedisConnectionFactory client;
+    private final TransactionRepository repository;
+    private final int batchSize;
+    private final Duration refreshInterval;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private volatile TypeaheadIndex index = new TypeaheadIndex();
+    private volatile boolean ready;
+    private volatile boolean subscribed;
+    private volatile boolean reloadNeeded;
+    private volatile boolean loading;
+    private long nextLoadAt;
+    private volatile boolean refreshFailing;
+    private volatile boolean closed;
+    private StatefulRedisPubSubConnection<String, String> connection;
+    private ScheduledExecutorService updater;
+
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_SAMPLES);
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong removed = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile Instant lastLoadCompletedAt;
+    private volatile long lastLoadMillis;
+
+    public TransactionTypeahead(RedisConnectionFactory client,
+                                TransactionRepository repository,
+                                @Value("${redis.typeahead.batch-size:500}") int batchSize,
+                                @Value("${redis.typeahead.refresh-interval:20ms}") Duration refreshInterval) {
+        this.client = client;
+        this.repository = repository;
+        this.batchSize = batchSize;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @EventListener
+    public void onStartup(StartupEvent event) {
+        if (updater != null) {
+            return;
+        }
+        updater = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "typeahead-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            connection = client.connectPubSub();
+            connection.addListener(new RedisPubSubAdapter<>() {
+                @Override
+                public void message(String channel, String id) {
+                    pending.add(id);
+                }
+            });
+            client.addListener(this);
+            connection.sync().subscribe(CREATED_CHANNEL, TransactionNearCache.INVALIDATION_CHANNEL);
+            subscribed = true;
+        } catch (Exception e) {
+            // Loaded once and never updated; searches still work
+            log.error("❌ Typeahead subscription failed, index will not follow writes", e);
+        }
+        reloadNeeded = true;
+        updater.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Transactions matching every word of the query by prefix, newest first
+     *
+     * @throws IllegalStateException while the index is loading for the first time
+     */
+    public List<Transaction> search(String query, int limit) {
+        if (!ready) {
+            throw new IllegalStateException("Typeahead index is loading");
+        }
+        long start = System.nanoTime();
+        List<String> ids = index.search(query, limit);
+        latencies.set((int) (searches.getAndIncrement() % LATENCY_SAMPLES), System.nanoTime() - start);
+
+        List<Transaction> found = repository.findAllById(ids);
+        if (found.size() < ids.size()) {
+            // Expired since they were indexed; checked and removed by the next refresh
+            Set<String> missing = new HashSet<>(ids);
+            found.forEach(t -> missing.remove(t.getId()));
+            pending.addAll(missing);
+        }
+        return found;
+    }
+
+    /**
+     * Index size and memory, search latency and update counters
+     */
+    public Map<String, Object> stats() {
+        TypeaheadIndex current = index;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("loading", loading);
+        stats.put("subscribed", subscribed);
+        stats.put("transactions", current.size());
+        stats.put("terms", current.termCount());
+        stats.put("postings", current.postingCount());
+        stats.put("memoryBytes", current.memoryBytes());
+        stats.put("pending", pending.size());
+        stats.put("searches", searches.get());
+
+        int samples = (int) Math.min(searches.get(), LATENCY_SAMPLES);
+        long[] recent = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            recent[i] = latencies.get(i);
+        }
+        Arrays.sort(recent);
+        stats.put("searchP50Micros", samples == 0 ? null : recent[samples / 2] / 1000);
+        stats.put("searchP99Micros", samples == 0 ? null : recent[samples * 99 / 100] / 1000);
+        stats.put("searchMaxMicros", samples == 0 ? null : recent[samples - 1] / 1000);
+
+        stats.put("updated", updated.get());
+        stats.put("removed", removed.get());
+        stats.put("loads", loads.get());
+        stats.put("lastLoadCompletedAt", lastLoadCompletedAt == null ? null : lastLoadCompletedAt.toString());
+        stats.put("lastLoadMs", lastLoadMillis);
+        stats.put("failures", failures.get());
+        return stats;
+    }
+
+    static List<String> values(Transaction t) {
+        List<String> values = new ArrayList<>(FIELDS.size());
+        for (Function<Transaction, String> field : FIELDS) {
+            values.add(field.apply(t));
+        }
+        return values;
+    }
+
+    /**
+     * One scheduled step: load the index if needed, then apply the published IDs
+     */
+    private void refresh() {
+        try {
+            if (reloadNeeded && System.currentTimeMillis() >= nextLoadAt) {
+                load();
+            }
+            if (!ready) {
+                return;
+            }
+            while (!pending.isEmpty()) {
+                apply(drain());
+            }
+            if (refreshFailing) {
+                refreshFailing = false;
+                log.info("✅ Typeahead updates restored");
+            }
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            if (!refreshFailing) {
+                refreshFailing = true;
+                log.warn("⚠️ Typeahead update failed, retrying: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void load() {
+        reloadNeeded = false;
+        loading = true;
+        long start = System.currentTimeMillis();
+        try {
+            TypeaheadIndex fresh = new TypeaheadIndex();
+            long loaded = repository.forEachOldestFirst(batchSize,
+                transactions -> transactions.forEach(t -> fresh.put(t.getId(), values(t))));
+            index = fresh;
+            ready = true;
+            loads.incrementAndGet();
+            lastLoadCompletedAt = Instant.now();
+            lastLoadMillis = System.currentTimeMillis() - start;
+            log.info("✅ Typeahead index loaded: {} transactions, {} terms, ~{} MB in {} ms",
+                loaded, fresh.termCount(), fresh.memoryBytes() / (1024 * 1024), lastLoadMillis);
+        } catch (Exception e) {
+            reloadNeeded = true;
+            nextLoadAt = System.currentTimeMillis() + RELOAD_RETRY_MILLIS;
+            throw e;
+        } finally {
+            loading = false;
+        }
+    }
+
+    private List<String> drain() {
+        List<String> ids = new ArrayList<>(batchSize);
+        Iterator<String> iterator = pending.iterator();
+        while (iterator.hasNext() && ids.size() < batchSize) {
+            ids.add(iterator.next());
+            iterator.remove();
+        }
+        return ids;
+    }
+
+    private void apply(List<String> ids) {
+        List<Transaction> transactions;
+        try {
+            transactions = repository.findAllByIdOnPrimary(ids);
+        } catch (RuntimeException e) {
+            pending.addAll(ids);
+            throw e;
+        }
+        TypeaheadIndex current = index;
+        Set<String> gone = new HashSet<>(ids);
+        for (Transaction t : transactions) {
+            current.put(t.getId(), values(t));
+            gone.remove(t.getId());
+        }
+        for (String id : gone) {
+            if (current.remove(id)) {
+                removed.incrementAndGet();
+            }
+        }
+        updated.addAndGet(transactions.size());
+    }
+
+    @Override
+    public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress socketAddress) {
+        if (handler == connection && !subscribed) {
+            log.info("🔧 Typeahead subscription restored, reloading the index");
+            subscribed = true;
+            reloadNeeded = true;
+        }
+    }
+
+    @Override
+    public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+        if (handler == connection && !closed) {
+            log.warn("⚠️ Typeahead subscription lost, index will be reloaded once it reconnects");
+            subscribed = false;
+        }
+    }
+
+    @Override
+    public void onRedisExceptionCaught(RedisChannelHandler<?, ?> handler, Throwable cause) {
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        if (updater != null) {
+            updater.shutdownNow();
+        }
+        if (connection != null) {
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.payment.redis.typeahead;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+
+import java.util.Map;
+
+/**
+ * Typeahead index size, memory and search latency at GET /typeahead
+ */
+@Endpoint(id = "typeahead", defaultSensitive = false)
+@Requires(beans = TransactionTypeahead.class)
+public class TypeaheadEndpoint {
+    private final TransactionTypeahead typeahead;
+
+    public TypeaheadEndpoint(TransactionTypeahead typeahead) {
+        this.typeahead = typeahead;
+    }
+
+    @Read
+    public Map<String, Object> stats() {
+        return typeahead.stats();
+    }
+}
@@ -0,0 +1,643 @@
+package com.payment.redis.typeahead;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index for prefix search over short text fields.
+ *
+ * Text is split into tokens on anything that is not a letter or digit, lower
+ * cased and stripped of accents. Every distinct token is a term of a sorted
+ * dictionary, with a postings list of the documents containing it. Each
+ * indexed ID gets a document number in the order it was first added, and
+ * postings are kept sorted by it, so larger numbers are newer documents.
+ *
+ * A query matches the documents that have, for every query token, some term
+ * starting with it ("ali sm" matches "Alice Smith"), and returns the newest
+ * ones. The terms of one query token are a contiguous range of the
+ * dictionary. A single token's range is merged newest first with a heap;
+ * several tokens' ranges are intersected as bit sets, led by the range with
+ * the fewest postings, and the candidates are checked against every token
+ * through their own sorted terms. When the leading range is so common that
+ * matches are dense among recent documents, recent documents are scanned
+ * directly instead; a scan that finds too few within its budget continues
+ * below where it stopped.
+ *
+ * Memory is kept flat: postings are int arrays, UUIDs are held as two longs in
+ * an open-addressing table, and a document's terms are the dictionary's own
+ * strings. Document numbers are not reused, so an ID that is removed keeps its
+ * two longs until the index is rebuilt.
+ *
+ * Reads and writes are guarded by a read-write lock; queries run in parallel.
+ */
+final class TypeaheadIndex {
+    static final int MAX_QUERY_TOKENS = 8;
+    static final int MAX_TOKEN_LENGTH = 64;
+    /**
+     * A query token whose range holds more terms than this, or more postings
+     * than there are documents, is not counted to the end: the range is
+     * treated as too common to be read as a whole
+     */
+    private static final int WIDE_RANGE_TERMS = 4096;
+    private static final int MIN_SCAN_BUDGET = 4096;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final DocumentIds ids = new DocumentIds();
+    private String[][] documentTerms = new String[1024][];
+    private int nextDocument;
+    private int size;
+    private long postings;
+
+    /**
+     * Index the values of an ID, replacing what was indexed for it before. An
+     * ID without any token is removed. A replaced ID keeps its position.
+     */
+    void put(String id, List<String> values) {
+        String[] tokens = documentTokens(values);
+        lock.writeLock().lock();
+        try {
+            int document = ids.get(id);
+            if (tokens.length == 0) {
+                if (document >= 0) {
+                    removeDocument(id, document);
+                }
+                return;
+            }
+            if (document < 0) {
+                document = nextDocument++;
+                if (document == documentTerms.length) {
+                    documentTerms = Arrays.copyOf(documentTerms, document + (document >> 1));
+                }
+                ids.put(id, document);
+                size++;
+                documentTerms[document] = new String[0];
+            }
+            documentTerms[document] = replaceTerms(document, documentTerms[document], tokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return false if the ID was not indexed
+     */
+    boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            int document = ids.get(id);
+            if (document < 0) {
+                return false;
+            }
+            removeDocument(id, document);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * IDs of up to `limit` documents matching every token of the query, newest first
+     */
+    List<String> search(String query, int limit) {
+        List<String> tokens = queryTokens(query);
+        if (tokens.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Range> ranges = new ArrayList<>(tokens.size());
+            Range driver = null;
+            for (String token : tokens) {
+                Range range = range(token);
+                if (range.postings == 0) {
+                    return List.of();
+                }
+                ranges.add(range);
+                if (driver == null || range.isNarrowerThan(driver)) {
+                    driver = range;
+                }
+            }
+
+            List<Integer> documents = new ArrayList<>(limit);
+            int below = nextDocument;
+            long expectedScan = (long) limit * size / Math.max(1, driver.postings);
+            if (driver.wide || expectedScan <= driver.postings) {
+                long budget = Math.max(MIN_SCAN_BUDGET, 4 * expectedScan);
+                below = scan(tokens, limit, budget, documents);
+            }
+            if (documents.size() < limit && below > 0) {
+                if (tokens.size() == 1) {
+                    merge(driver, limit, below, documents);
+                } else {
+                    intersect(driver, ranges, tokens, limit, below, documents);
+                }
+            }
+
+            List<String> result = new ArrayList<>(documents.size());
+            for (int document : documents) {
+                result.add(ids.id(document));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long postingCount() {
+        lock.readLock().lock();
+        try {
+            return postings;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estimated heap used by the index in bytes (64-bit JVM with compressed
+     * references), from the sizes of its arrays and objects
+     */
+    long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = array(4L * documentTerms.length) + ids.memoryBytes();
+            for (String[] document : documentTerms) {
+                if (document != null) {
+                    bytes += array(4L * document.length);
+                }
+            }
+            for (Postings list : terms.values()) {
+                // TreeMap entry, String with its byte array, Postings, int array
+                bytes += 40 + 24 + array(list.term.length()) + 24 + array(4L * list.documents.length);
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tokens of a text: runs of letters and digits, lower case, without
+     * accents, cut to MAX_TOKEN_LENGTH
+     */
+    static List<String> tokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < decomposed.length(); ) {
+            int c = decomposed.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.isLetterOrDigit(c)) {
+                if (token.length() < MAX_TOKEN_LENGTH) {
+                    token.appendCodePoint(Character.toLowerCase(c));
+                }
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Distinct tokens of a query, at most MAX_QUERY_TOKENS
+     */
+    static List<String> queryTokens(String query) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokens(query)));
+        return tokens.size() > MAX_QUERY_TOKENS ? tokens.subList(0, MAX_QUERY_TOKENS) : tokens;
+    }
+
+    private static String[] documentTokens(List<String> values) {
+        TreeSet<String> tokens = new TreeSet<>();
+        for (String value : values) {
+            tokens.addAll(tokens(value));
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /**
+     * Move a document from its old terms to its new ones (both sorted), touching
+     * only the postings of terms that changed
+     *
+     * @return the new terms as dictionary strings
+     */
+    private String[] replaceTerms(int document, String[] old, String[] tokens) {
+        String[] replaced = new String[tokens.length];
+        int o = 0;
+        for (int t = 0; t < tokens.length; t++) {
+            while (o < old.length && old[o].compareTo(tokens[t]) < 0) {
+                removePosting(old[o++], document);
+            }
+            if (o < old.length && old[o].equals(tokens[t])) {
+                replaced[t] = old[o++];
+                continue;
+            }
+            Postings list = terms.computeIfAbsent(tokens[t], Postings::new);
+            list.add(document);
+            postings++;
+            replaced[t] = list.term;
+        }
+        while (o < old.length) {
+            removePosting(old[o++], document);
+        }
+        return replaced;
+    }
+
+    private void removePosting(String term, int document) {
+        Postings list = terms.get(term);
+        if (list != null && list.remove(document)) {
+            postings--;
+            if (list.size == 0) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    private void removeDocument(String id, int document) {
+        for (String term : documentTerms[document]) {
+            removePosting(term, document);
+        }
+        documentTerms[document] = null;
+        ids.remove(id);
+        size--;
+    }
+
+    /**
+     * The dictionary terms starting with a token and their total postings,
+     * counted until the range turns out to be wide
+     */
+    private Range range(String token) {
+        NavigableMap<String, Postings> range = terms.subMap(token, true, token + Character.MAX_VALUE, false);
+        long total = 0;
+        int count = 0;
+        for (Postings list : range.values()) {
+            if (++count > WIDE_RANGE_TERMS || total > size) {
+                return new Range(range, total, true);
+            }
+            total += list.size;
+        }
+        return new Range(range, total, false);
+    }
+
+    /**
+     * Check the newest documents one by one
+     *
+     * @return the document number below which nothing has been checked
+     */
+    private int scan(List<String> tokens, int limit, long budget, List<Integer> documents) {
+        int document = nextDocument - 1;
+        for (; document >= 0 && budget > 0 && documents.size() < limit; document--, budget--) {
+            String[] candidate = documentTerms[document];
+            if (candidate != null && matches(candidate, tokens)) {
+                documents.add(document);
+            }
+        }
+        return document + 1;
+    }
+
+    /**
+     * Merge the postings of a one-token query's range newest first, from
+     * below the given document number. It stops after `limit` documents, so
+     * only the newest postings of each term are read.
+     */
+    private void merge(Range range, int limit, int below, List<Integer> documents) {
+        List<Cursor> cursors = new ArrayList<>();
+        for (Postings list : range.terms.values()) {
+            int position = list.lastBelow(below);
+            if (position >= 0) {
+                cursors.add(new Cursor(list, position));
+            }
+        }
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(cursors);
+        int previous = -1;
+        while (!heap.isEmpty() && documents.size() < limit) {
+            Cursor cursor = heap.poll();
+            int document = cursor.document();
+            // A document is reached once per term of the range it contains
+            if (document != previous) {
+                previous = document;
+                documents.add(document);
+            }
+            if (--cursor.position >= 0) {
+                heap.add(cursor);
+            }
+        }
+    }
+
+    /**
+     * Intersect the ranges of a query with several tokens below the given
+     * document number, as bit sets of the driving range and of every range
+     * that is not wide, then check the newest candidates against all tokens.
+     * Matches of several tokens are often rare, and a merge would then read
+     * all of the driving range through the heap; setting bits reads each
+     * posting once at the cost of an array access.
+     */
+    private void intersect(Range driver, List<Range> ranges, List<String> tokens, int limit, int below,
+                           List<Integer> documents) {
+        BitSet candidates = bits(driver, below);
+        for (Range range : ranges) {
+            if (range != driver && !range.wide && !candidates.isEmpty()) {
+                candidates.and(bits(range, below));
+            }
+        }
+        for (int document = candidates.previousSetBit(below - 1);
+             document >= 0 && documents.size() < limit;
+             document = candidates.previousSetBit(document - 1)) {
+            if (matches(documentTerms[document], tokens)) {
+                documents.add(document);
+            }
+        }
+    }
+
+    private static BitSet bits(Range range, int below) {
+        BitSet bits = new BitSet(below);
+        for (Postings list : range.terms.values()) {
+            int[] postings = list.documents;
+            for (int i = list.lastBelow(below); i >= 0; i--) {
+                bits.set(postings[i]);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Whether some term of the document (sorted) starts with each token
+     */
+    private static boolean matches(String[] documentTerms, List<String> tokens) {
+        for (String token : tokens) {
+            int position = Arrays.binarySearch(documentTerms, token);
+            if (position < 0) {
+                position = -position - 1;
+                if (position == documentTerms.length || !documentTerms[position].startsWith(token)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static long array(long payload) {
+        return (16 + payload + 7) & ~7L;
+    }
+
+    private record Range(NavigableMap<String, Postings> terms, long postings, boolean wide) {
+        boolean isNarrowerThan(Range other) {
+            return !wide && (other.wide || postings < other.postings);
+        }
+    }
+
+    /**
+     * Document numbers containing one term, ascending
+     */
+    private static final class Postings {
+        private final String term;
+        private int[] documents = new int[1];
+        private int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void add(int document) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size + (size >> 1) + 1);
+            }
+            // New documents have the highest number so far
+            if (size == 0 || documents[size - 1] < document) {
+                documents[size++] = document;
+                return;
+            }
+            int position = Arrays.binarySearch(documents, 0, size, document);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            System.arraycopy(documents, position, documents, position + 1, size - position);
+            documents[position] = document;
+            size++;
+        }
+
+        boolean remove(int document) {
+            int position = Arrays.binarySearch(documents, 0, size, document);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(documents, position + 1, documents, position, size - position - 1);
+            size--;
+            if (documents.length > 8 && size < documents.length / 4) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            return true;
+        }
+
+        /**
+         * Position of the largest document number below the bound, or -1
+         */
+        int lastBelow(int bound) {
+            if (size > 0 && documents[size - 1] < bound) {
+                return size - 1;
+            }
+            int position = Arrays.binarySearch(documents, 0, size, bound);
+            return position >= 0 ? position - 1 : -position - 2;
+        }
+    }
+
+    /**
+     * Position in one postings list during a merge; the heap yields the highest document first
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+        private final Postings postings;
+        private int position;
+
+        Cursor(Postings postings, int position) {
+            this.postings = postings;
+            this.position = position;
+        }
+
+        int document() {
+            return postings.documents[position];
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return Integer.compare(other.document(), document());
+        }
+    }
+
+    /**
+     * ID to document number and back. IDs in canonical UUID form are stored
+     * as two longs per document and looked up in an open-addressing table of
+     * document numbers; any other ID falls back to hash maps.
+     */
+    private static final class DocumentIds {
+        private long[] high = new long[1024];
+        private long[] low = new long[1024];
+        // document number + 1, 0 for a free slot
+        private int[] slots = new int[2048];
+        private int count;
+        private final Map<String, Integer> otherDocuments = new HashMap<>();
+        private final Map<Integer, String> otherIds = new HashMap<>();
+
+        int get(String id) {
+            UUID uuid = uuid(id);
+            if (uuid == null) {
+                return otherDocuments.getOrDefault(id, -1);
+            }
+            int slot = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            return slot < 0 ? -1 : slots[slot] - 1;
+        }
+
+        void put(String id, int document) {
+            if (document >= high.length) {
+                high = Arrays.copyOf(high, document + (document >> 1));
+                low = Arrays.copyOf(low, high.length);
+            }
+            UUID uuid = uuid(id);
+            if (uuid == null) {
+                otherDocuments.put(id, document);
+                otherIds.put(document, id);
+                return;
+            }
+            if ((count + 1) * 2 > slots.length) {
+                rehash(slots.length * 2);
+            }
+            high[document] = uuid.getMostSignificantBits();
+            low[document] = uuid.getLeastSignificantBits();
+            int mask = slots.length - 1;
+            int slot = hash(high[document], low[document]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = document + 1;
+            count++;
+        }
+
+        void remove(String id) {
+            UUID uuid = uuid(id);
+            if (uuid == null) {
+                Integer document = otherDocuments.remove(id);
+                if (document != null) {
+                    otherIds.remove(document);
+                }
+                return;
+            }
+            int slot = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            if (slot < 0) {
+                return;
+            }
+            // Backward-shift deletion keeps every probe sequence unbroken
+            int mask = slots.length - 1;
+            slots[slot] = 0;
+            count--;
+            for (int next = (slot + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+                int document = slots[next] - 1;
+                int home = hash(high[document], low[document]) & mask;
+                boolean movable = slot <= next ? home <= slot || home > next : home <= slot && home > next;
+                if (movable) {
+                    slots[slot] = slots[next];
+                    slots[next] = 0;
+                    slot = next;
+                }
+            }
+        }
+
+        String id(int document) {
+            if (!otherIds.isEmpty()) {
+                String other = otherIds.get(document);
+                if (other != null) {
+                    return other;
+                }
+            }
+            return new UUID(high[document], low[document]).toString();
+        }
+
+        long memoryBytes() {
+            // A HashMap entry with a boxed key is about 48 bytes, twice for the two maps
+            return array(8L * high.length) * 2 + array(4L * slots.length) + otherIds.size() * 96L;
+        }
+
+        private int find(long mostSignificant, long leastSignificant) {
+            int mask = slots.length - 1;
+            for (int slot = hash(mostSignificant, leastSignificant) & mask; slots[slot] != 0;
+                 slot = (slot + 1) & mask) {
+                int document = slots[slot] - 1;
+                if (high[document] == mostSignificant && low[document] == leastSignificant) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private void rehash(int capacity) {
+            int[] old = slots;
+            slots = new int[capacity];
+            int mask = capacity - 1;
+            for (int entry : old) {
+                if (entry != 0) {
+                    int slot = hash(high[entry - 1], low[entry - 1]) & mask;
+                    while (slots[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    slots[slot] = entry;
+                }
+            }
+        }
+
+        private static int hash(long mostSignificant, long leastSignificant) {
+            long h = (mostSignificant * 0x9E3779B97F4A7C15L) ^ leastSignificant;
+            h ^= h >>> 32;
+            return (int) (h ^ (h >>> 16));
+        }
+
+        /**
+         * The UUID of an ID in canonical form (lower case, as generated), else null
+         */
+        private static UUID uuid(String id) {
+            if (id.length() != 36) {
+                return null;
+            }
+            try {
+                UUID uuid = UUID.fromString(id);
+                return uuid.toString().equals(id) ? uuid : null;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
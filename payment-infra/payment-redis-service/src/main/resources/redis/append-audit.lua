@@ -0,0 +1,19 @@
+-- Append an audit entry to the audit stream and to the payment's own stream,
+-- trimming entries older than the retention period.
+-- All keys are in the payment's partition (see RedisKeys).
+-- KEYS[1] audit stream (all payments)
+-- KEYS[2] audit stream of this payment
+-- ARGV[1] payment ID
+-- ARGV[2] action
+-- ARGV[3] details
+-- ARGV[4] audit retention: entries with IDs below this epoch millis are trimmed
+-- ARGV[5] TTL in seconds of the payment audit stream
+-- ARGV[6] when the audited action happened, in epoch millis (entries written
+--         behind may be appended a little later)
+-- Returns the entry ID in the audit stream.
+local id = redis.call('XADD', KEYS[1], 'MINID', '~', ARGV[4], '*',
+    'paymentId', ARGV[1], 'action', ARGV[2], 'details', ARGV[3], 'createdAt', ARGV[6])
+redis.call('XADD', KEYS[2], 'MINID', '~', ARGV[4], '*',
+    'paymentId', ARGV[1], 'action', ARGV[2], 'details', ARGV[3], 'createdAt', ARGV[6])
+redis.call('EXPIRE', KEYS[2], tonumber(ARGV[5]))
+return id
@@ -0,0 +1,13 @@
+-- Store the response of a request that reserved an idempotency key.
+-- KEYS[1] idempotency entry (see reserve-idempotency.lua)
+-- ARGV[1] token of the reserving request
+-- ARGV[2] response status
+-- ARGV[3] response body
+-- ARGV[4] retention in milliseconds
+-- Returns 1, or 0 if the reservation expired or was taken over meanwhile.
+if redis.call('HGET', KEYS[1], 'token') ~= ARGV[1] then
+    return 0
+end
+redis.call('HSET', KEYS[1], 'state', 'completed', 'status', ARGV[2], 'body', ARGV[3])
+redis.call('PEXPIRE', KEYS[1], ARGV[4])
+return 1
@@ -0,0 +1,21 @@
+-- Rewrite a hash-layout transaction as a binary record, unless it was
+-- changed or deleted since it was read. The remaining TTL and the stored
+-- contribution to the aggregates are kept.
+-- KEYS[1] transaction hash
+-- ARGV[1] updatedAt value the hash was read with
+-- ARGV[2..] new field/value pairs
+-- Returns 1 if the hash was rewritten, 0 otherwise.
+if redis.call('HGET', KEYS[1], 'updatedAt') ~= ARGV[1] then
+    return 0
+end
+local ttl = redis.call('PTTL', KEYS[1])
+local stats = redis.call('HGET', KEYS[1], 'stats')
+redis.call('DEL', KEYS[1])
+redis.call('HSET', KEYS[1], unpack(ARGV, 2))
+if stats then
+    redis.call('HSET', KEYS[1], 'stats', stats)
+end
+if ttl > 0 then
+    redis.call('PEXPIRE', KEYS[1], ttl)
+end
+return 1
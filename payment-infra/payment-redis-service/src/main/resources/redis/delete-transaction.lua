@@ -0,0 +1,29 @@
+-- Delete a transaction together with its index entries (including the field
+-- indexes), taking its contribution out of the aggregates.
+-- All keys are in the transaction's partition (see RedisKeys).
+-- KEYS[1] transaction hash
+-- KEYS[2] reference index (hash: reference -> id)
+-- KEYS[3] creation-time index (sorted set)
+-- KEYS[4] aggregates (hash, see transaction-stats.lua)
+-- KEYS[5] aggregates being rebuilt
+-- KEYS[6] index entries of this transaction (see transaction-index.lua)
+-- ARGV[1] transaction ID
+-- ARGV[2] invalidation channel
+-- ARGV[3] time bucket key prefix
+-- ARGV[4] field index key prefix
+-- Returns 1 if the transaction existed, 0 otherwise.
+local reference = redis.call('HGET', KEYS[1], 'reference')
+local stats = stats_stored(KEYS[1])
+if redis.call('DEL', KEYS[1]) == 0 then
+    return 0
+end
+if stats then
+    stats_replace(KEYS[4], KEYS[5], ARGV[3], stats, nil)
+end
+redis.call('ZREM', KEYS[3], ARGV[1])
+index_replace(KEYS[6], ARGV[4], ARGV[1], 0, 0, nil)
+if reference and redis.call('HGET', KEYS[2], reference) == ARGV[1] then
+    redis.call('HDEL', KEYS[2], reference)
+end
+redis.call('PUBLISH', ARGV[2], ARGV[1])
+return 1
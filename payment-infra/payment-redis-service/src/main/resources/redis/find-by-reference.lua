@@ -0,0 +1,11 @@
+-- Resolve a reference number to its transaction hash in one round trip.
+-- The index and the hash belong to one partition (see RedisKeys).
+-- KEYS[1] reference index (hash: reference -> id)
+-- ARGV[1] reference
+-- ARGV[2] transaction key prefix; the hash it names is not in KEYS, as its ID
+--         is only known here (see LuaScript)
+local id = redis.call('HGET', KEYS[1], ARGV[1])
+if not id then
+    return {}
+end
+return redis.call('HGETALL', ARGV[2] .. id)
@@ -0,0 +1,22 @@
+-- Add an existing transaction to the field indexes, unless a write has done
+-- so since it was read. Used by the field index backfill.
+-- All keys are in the transaction's partition (see RedisKeys).
+-- KEYS[1] transaction hash
+-- KEYS[2] index entries of this transaction (see transaction-index.lua)
+-- ARGV[1] transaction ID
+-- ARGV[2] field index key prefix
+-- ARGV[3] createdAt in epoch millis
+-- ARGV[4] field index entries, one per line
+-- Returns 1 if indexed, 0 if skipped.
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    return 0
+end
+local ttl = redis.call('TTL', KEYS[1])
+if ttl == -2 then
+    return 0
+end
+if ttl < 0 then
+    ttl = 0
+end
+index_replace(KEYS[2], ARGV[2], ARGV[1], ARGV[3], ttl, ARGV[4])
+return 1
@@ -0,0 +1,48 @@
+-- Create a transaction whose reference was allocated beforehand (leased
+-- in blocks by ReferenceAllocator): write the hash,
+-- update the indexes, aggregates and time buckets, set the TTL, append the audit entry
+-- and announce the new ID.
+-- The indexes include the field indexes (see transaction-index.lua).
+-- All keys are in the transaction's partition (see RedisKeys).
+-- KEYS[1] transaction hash
+-- KEYS[2] reference index (hash: reference -> id)
+-- KEYS[3] audit stream (all payments)
+-- KEYS[4] creation-time index (sorted set: id scored by createdAt epoch millis)
+-- KEYS[5] audit stream of this payment
+-- KEYS[6] aggregates (hash, see transaction-stats.lua)
+-- KEYS[7] aggregates being rebuilt
+-- KEYS[8] index entries of this payment (see transaction-index.lua)
+-- ARGV[1] transaction ID
+-- ARGV[2] reference
+-- ARGV[3] TTL in seconds (transaction and payment audit stream)
+-- ARGV[4] audit action
+-- ARGV[5] audit details
+-- ARGV[6] audit retention: entries with IDs below this epoch millis are trimmed
+-- ARGV[7] createdAt in epoch millis
+-- ARGV[8] time bucket key prefix
+-- ARGV[9..16] contribution to the aggregates: status, currency, country,
+--             school, amount, feeAmount, finalAmount, createdAt
+-- ARGV[17] field index key prefix
+-- ARGV[18] field index entries, one per line
+-- ARGV[19] channel announcing created IDs
+-- ARGV[20..] transaction field/value pairs, including the reference
+-- Returns 1, or an error without writing anything if the reference is taken.
+if redis.call('HSETNX', KEYS[2], ARGV[2], ARGV[1]) == 0 then
+    return redis.error_reply('reference already in use: ' .. ARGV[2])
+end
+local ttl = tonumber(ARGV[3])
+
+redis.call('HSET', KEYS[1], unpack(ARGV, 20))
+redis.call('HSET', KEYS[1], 'stats', stats_replace(KEYS[6], KEYS[7], ARGV[8], nil, stats_contribution(9)))
+redis.call('EXPIRE', KEYS[1], ttl)
+redis.call('ZADD', KEYS[4], ARGV[7], ARGV[1])
+index_replace(KEYS[8], ARGV[17], ARGV[1], ARGV[7], ttl, ARGV[18])
+
+redis.call('XADD', KEYS[3], 'MINID', '~', ARGV[6], '*',
+    'paymentId', ARGV[1], 'action', ARGV[4], 'details', ARGV[5])
+redis.call('XADD', KEYS[5], 'MINID', '~', ARGV[6], '*',
+    'paymentId', ARGV[1], 'action', ARGV[4], 'details', ARGV[5])
+redis.call('EXPIRE', KEYS[5], ttl)
+redis.call('PUBLISH', ARGV[19], ARGV[1])
+
+return 1
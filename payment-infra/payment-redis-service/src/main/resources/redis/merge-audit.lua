@@ -0,0 +1,45 @@
+-- Merge migrated audit entries into a payment's audit stream. Streams only
+-- append, so the stream is rebuilt in ID order: existing entries keep their
+-- IDs and migrated ones use the IDs given (derived from their timestamps).
+-- Entries whose ID is already present are skipped, so re-running is harmless.
+-- KEYS[1] audit stream of the payment
+-- ARGV[1] TTL in seconds of the stream
+-- ARGV[2] payment ID
+-- ARGV[3..] entry ID, action, details triples
+-- Returns the number of entries added.
+local function parse(id)
+    local ms, seq = string.match(id, '^(%d+)-(%d+)$')
+    return tonumber(ms), tonumber(seq)
+end
+
+local entries = {}
+local present = {}
+for _, entry in ipairs(redis.call('XRANGE', KEYS[1], '-', '+')) do
+    present[entry[1]] = true
+    entries[#entries + 1] = entry
+end
+
+local added = 0
+for i = 3, #ARGV, 3 do
+    if not present[ARGV[i]] then
+        present[ARGV[i]] = true
+        entries[#entries + 1] = {ARGV[i], {'paymentId', ARGV[2], 'action', ARGV[i + 1], 'details', ARGV[i + 2]}}
+        added = added + 1
+    end
+end
+if added == 0 then
+    return 0
+end
+
+table.sort(entries, function(a, b)
+    local ams, aseq = parse(a[1])
+    local bms, bseq = parse(b[1])
+    return ams < bms or (ams == bms and aseq < bseq)
+end)
+
+redis.call('DEL', KEYS[1])
+for _, entry in ipairs(entries) do
+    redis.call('XADD', KEYS[1], entry[1], unpack(entry[2]))
+end
+redis.call('EXPIRE', KEYS[1], tonumber(ARGV[1]))
+return added
@@ -0,0 +1,33 @@
+-- Remove index entries of transactions whose hash no longer exists, i.e.
+-- expired without being deleted. The caller found them missing; each one is
+-- checked again here so an entry written meanwhile is kept.
+-- The indexes and hashes belong to one partition (see RedisKeys).
+-- KEYS[1] creation-time index (sorted set)
+-- KEYS[2] reference index (hash: reference -> id)
+-- KEYS[3..2+2n] transaction hash and index entries key (see transaction-index.lua)
+--               of each ID to remove, in ARGV order
+-- KEYS[3+2n..] transaction hash of the ID of each reference to remove, in ARGV order
+-- ARGV[1] field index key prefix
+-- ARGV[2] number n of IDs to remove from the creation-time and field indexes
+-- ARGV[3..2+n] those IDs
+-- ARGV[3+n..] reference/id pairs to remove from the reference index
+-- Returns {IDs removed, references removed}.
+local ids = 0
+local references = 0
+local n = tonumber(ARGV[2])
+for i = 1, n do
+    local id = ARGV[2 + i]
+    if redis.call('EXISTS', KEYS[1 + 2 * i]) == 0 then
+        ids = ids + redis.call('ZREM', KEYS[1], id)
+        index_replace(KEYS[2 + 2 * i], ARGV[1], id, 0, 0, nil)
+    end
+end
+local hash = 3 + 2 * n
+for i = 3 + n, #ARGV, 2 do
+    local id = ARGV[i + 1]
+    if redis.call('EXISTS', KEYS[hash]) == 0 and redis.call('HGET', KEYS[2], ARGV[i]) == id then
+        references = references + redis.call('HDEL', KEYS[2], ARGV[i])
+    end
+    hash = hash + 1
+end
+return {ids, references}
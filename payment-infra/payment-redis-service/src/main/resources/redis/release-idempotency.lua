@@ -0,0 +1,9 @@
+-- Drop the reservation of a request that failed, so that a retry runs again.
+-- KEYS[1] idempotency entry (see reserve-idempotency.lua)
+-- ARGV[1] token of the reserving request
+-- Returns 1, or 0 if the key is no longer reserved by that request.
+if redis.call('HGET', KEYS[1], 'token') ~= ARGV[1] or redis.call('HGET', KEYS[1], 'state') ~= 'pending' then
+    return 0
+end
+redis.call('DEL', KEYS[1])
+return 1
@@ -0,0 +1,15 @@
+-- Reserve an idempotency key for the request about to run, unless the key
+-- is already reserved or completed.
+-- KEYS[1] idempotency entry (hash: state, fingerprint, token, status, body)
+-- ARGV[1] fingerprint of the request
+-- ARGV[2] token of the reserving request
+-- ARGV[3] reservation lifetime in milliseconds
+-- Returns an empty array if the key was reserved, otherwise the entry's
+-- field/value pairs.
+local entry = redis.call('HGETALL', KEYS[1])
+if #entry > 0 then
+    return entry
+end
+redis.call('HSET', KEYS[1], 'state', 'pending', 'fingerprint', ARGV[1], 'token', ARGV[2])
+redis.call('PEXPIRE', KEYS[1], ARGV[3])
+return {}
@@ -0,0 +1,30 @@
+-- Count one transaction into the aggregates being rebuilt, unless a write
+-- since the rebuild started has already done so. A transaction that is not in
+-- the time buckets yet is added to them.
+-- All keys are in the transaction's partition (see RedisKeys).
+-- KEYS[1] transaction hash
+-- KEYS[2] aggregates being rebuilt
+-- ARGV[1] rebuild generation
+-- ARGV[2] time bucket key prefix
+-- ARGV[3..10] contribution to the aggregates: status, currency, country,
+--            school, amount, feeAmount, finalAmount, createdAt (as read after
+--            the rebuild started)
+-- Returns 1 if counted, 0 if skipped, -1 if another rebuild has taken over.
+if redis.call('HGET', KEYS[2], '_generation') ~= ARGV[1] then
+    return -1
+end
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return 0
+end
+local stored = stats_stored(KEYS[1])
+if stored and stored[1] == ARGV[1] then
+    return 0
+end
+local contribution = stats_contribution(3)
+contribution[1] = ARGV[1]
+stats_apply(KEYS[2], contribution, 1)
+if not (stored and stored[9]) then
+    stats_apply_buckets(ARGV[2], contribution, 1)
+end
+redis.call('HSET', KEYS[1], 'stats', cjson.encode(contribution))
+return 1
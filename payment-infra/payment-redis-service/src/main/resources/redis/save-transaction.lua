@@ -0,0 +1,32 @@
+-- Write a transaction hash together with its index entries (including the
+-- field indexes) and aggregates.
+-- The hash is replaced as a whole, so no fields of a previous storage format
+-- remain; the previous version's contribution is taken out of the aggregates.
+-- All keys are in the transaction's partition (see RedisKeys).
+-- KEYS[1] transaction hash
+-- KEYS[2] reference index (hash: reference -> id)
+-- KEYS[3] creation-time index (sorted set: id scored by createdAt epoch millis)
+-- KEYS[4] aggregates (hash, see transaction-stats.lua)
+-- KEYS[5] aggregates being rebuilt
+-- KEYS[6] index entries of this transaction (see transaction-index.lua)
+-- ARGV[1] transaction ID
+-- ARGV[2] reference
+-- ARGV[3] TTL in seconds
+-- ARGV[4] createdAt in epoch millis
+-- ARGV[5] invalidation channel
+-- ARGV[6] time bucket key prefix
+-- ARGV[7..14] contribution to the aggregates: status, currency, country,
+--            school, amount, feeAmount, finalAmount, createdAt
+-- ARGV[15] field index key prefix
+-- ARGV[16] field index entries, one per line
+-- ARGV[17..] transaction field/value pairs
+local stats = stats_replace(KEYS[4], KEYS[5], ARGV[6], stats_stored(KEYS[1]), stats_contribution(7))
+redis.call('DEL', KEYS[1])
+redis.call('HSET', KEYS[1], unpack(ARGV, 17))
+redis.call('HSET', KEYS[1], 'stats', stats)
+redis.call('EXPIRE', KEYS[1], tonumber(ARGV[3]))
+redis.call('HSET', KEYS[2], ARGV[2], ARGV[1])
+redis.call('ZADD', KEYS[3], ARGV[4], ARGV[1])
+index_replace(KEYS[6], ARGV[15], ARGV[1], ARGV[4], tonumber(ARGV[3]), ARGV[16])
+redis.call('PUBLISH', ARGV[5], ARGV[1])
+return 1
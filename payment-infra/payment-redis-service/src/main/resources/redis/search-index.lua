@@ -0,0 +1,74 @@
+-- Find the transactions of one partition in every one of the given field
+-- indexes, newest first, continuing after a position.
+-- The smallest index is read in createdAt order and each of its members is
+-- looked up in the others, so the work depends on the smallest index, not on
+-- the number of transactions. At most ARGV[5] members are examined per call;
+-- the caller continues from the returned position.
+-- KEYS[1..] field indexes of one partition (sorted sets, see transaction-index.lua)
+-- ARGV[1] score to start at (inclusive), or +inf
+-- ARGV[2] ID of the last member already seen at that score, or '' for none
+-- ARGV[3] lowest score to read, or -inf
+-- ARGV[4] number of matches wanted
+-- ARGV[5] most members to examine
+-- Returns {done, last score, last ID, id1, score1, id2, score2, ...}: done is
+-- 1 if the smallest index was read to the end, otherwise last score and ID
+-- are the position reached.
+local smallest = 1
+local size = redis.call('ZCARD', KEYS[1])
+for i = 2, #KEYS do
+    local card = redis.call('ZCARD', KEYS[i])
+    if card < size then
+        smallest, size = i, card
+    end
+end
+
+local wanted = tonumber(ARGV[4])
+local budget = tonumber(ARGV[5])
+local chunk = math.min(budget, 200)
+local result = {0, '', ''}
+local examined = 0
+-- Position reached: members above max are done, and so are those at max from
+-- after on. Each read starts at the position with offset 0.
+local max, after = ARGV[1], ARGV[2]
+while size > 0 do
+    local batch
+    if after ~= '' then
+        -- The rest of the members sharing the score reached; only as many as
+        -- were created in the same millisecond
+        batch = redis.call('ZREVRANGEBYSCORE', KEYS[smallest], max, max, 'WITHSCORES')
+    else
+        batch = redis.call('ZREVRANGEBYSCORE', KEYS[smallest], max, ARGV[3],
+            'WITHSCORES', 'LIMIT', 0, chunk)
+    end
+    for j = 1, #batch, 2 do
+        local id, score = batch[j], batch[j + 1]
+        -- Members at the same score come in descending ID order
+        if after == '' or id < after then
+            local match = true
+            for i = 1, #KEYS do
+                if i ~= smallest and not redis.call('ZSCORE', KEYS[i], id) then
+                    match = false
+                    break
+                end
+            end
+            if match then
+                result[#result + 1] = id
+                result[#result + 1] = score
+            end
+            examined = examined + 1
+            result[2], result[3] = score, id
+            if (#result - 3) / 2 >= wanted or examined >= budget then
+                return result
+            end
+        end
+    end
+    if after ~= '' then
+        max, after = '(' .. max, ''
+    elseif #batch < 2 * chunk then
+        break
+    else
+        max, after = batch[#batch], batch[#batch - 1]
+    end
+end
+result[1] = 1
+return result
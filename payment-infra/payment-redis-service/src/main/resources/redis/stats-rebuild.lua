@@ -0,0 +1,25 @@
+-- Start or finish a rebuild of the aggregates (see transaction-stats.lua).
+-- Runs once per partition (see RedisKeys).
+-- KEYS[1] aggregates
+-- KEYS[2] aggregates being rebuilt
+-- ARGV[1] 'begin' or 'finish'
+-- ARGV[2] rebuild generation
+-- begin discards any unfinished rebuild and starts an empty one. finish
+-- replaces the aggregates with the rebuilt ones; it returns 0 and changes
+-- nothing if another rebuild has started since.
+if ARGV[1] == 'begin' then
+    redis.call('DEL', KEYS[2])
+    redis.call('HSET', KEYS[2], '_generation', ARGV[2])
+    return 1
+end
+
+if redis.call('HGET', KEYS[2], '_generation') ~= ARGV[2] then
+    return 0
+end
+redis.call('HDEL', KEYS[2], '_generation')
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    redis.call('RENAME', KEYS[2], KEYS[1])
+else
+    redis.call('DEL', KEYS[1])
+end
+return 1
@@ -0,0 +1,52 @@
+-- Equality indexes of the searchable transaction fields, shared by the
+-- scripts that write them (prepended to each by LuaScript.load).
+--
+-- One sorted set per field and value, members transaction IDs scored by
+-- createdAt (epoch millis):
+--   {index prefix}{field}:{value}
+-- where the index prefix (payment:idx:, with the partition's hash tag in
+-- cluster mode) is passed by the calling script. Values are normalized by
+-- FieldIndex before they get here.
+--
+-- A transaction's entries ({field}:{value}, one per line) are kept in a key of
+-- their own, payment:idx:entries:{uuid}, so updates and deletes remove exactly
+-- what was added whatever the storage format. It expires INDEX_ENTRIES_GRACE
+-- after the transaction, which leaves the index reconciler time to remove the
+-- entries of a transaction that expired.
+
+local INDEX_ENTRIES_GRACE = 7 * 86400
+
+local function index_split(entries)
+    local split = {}
+    if entries then
+        for entry in string.gmatch(entries, '[^\n]+') do
+            split[#split + 1] = entry
+        end
+    end
+    return split
+end
+
+-- Replace a transaction's index entries with new ones (nil or '' for a
+-- delete). ttl is the transaction's TTL in seconds.
+-- The field index keys are built from index_prefix and are not in KEYS: the
+-- old ones are only known from entries_key. index_prefix must carry the hash
+-- tag of the caller's partition (see LuaScript).
+local function index_replace(entries_key, index_prefix, id, score, ttl, new)
+    local added = {}
+    for _, entry in ipairs(index_split(new)) do
+        added[entry] = true
+    end
+    for _, entry in ipairs(index_split(redis.call('GET', entries_key))) do
+        if not added[entry] then
+            redis.call('ZREM', index_prefix .. entry, id)
+        end
+    end
+    if new and new ~= '' then
+        for entry in pairs(added) do
+            redis.call('ZADD', index_prefix .. entry, score, id)
+        end
+        redis.call('SET', entries_key, new, 'EX', ttl + INDEX_ENTRIES_GRACE)
+    else
+        redis.call('DEL', entries_key)
+    end
+end
@@ -0,0 +1,144 @@
+-- Running aggregates of the transactions, shared by the scripts that write
+-- them (prepended to each by LuaScript.load). Every write updates the stats
+-- hash and the time buckets in the same call as the record itself.
+--
+-- Stats hash fields, amounts as integers in units of 10^-4:
+--   count, amount, feeAmount, finalAmount                    all transactions
+--   {dimension}:{value}:{count|amount|feeAmount|finalAmount} per group
+-- with dimension one of status, currency, country, school.
+--
+-- Time buckets, one hash per resolution and bucket, by createdAt (UTC):
+--   {bucket prefix}{resolution}:{bucket start, epoch seconds}
+-- where the bucket prefix (payment:ts:, with the partition's hash tag in
+-- cluster mode) is passed by the calling script. Bucket keys are not in
+-- KEYS: those of a stored contribution are only known once it is read here,
+-- and new ones are built the same way (see LuaScript).
+--   fields count, amount, feeAmount, finalAmount
+-- Each bucket expires once it is older than the resolution's retention.
+-- Buckets already past their retention are not written, and a bucket that no
+-- longer exists is not subtracted from, so an expired bucket is never
+-- recreated with negative totals. Keep STATS_RESOLUTIONS in step with
+-- StatsResolution.
+--
+-- A transaction's contribution is kept in its own hash, field 'stats', as a
+-- JSON array: generation, status, currency, country, school, amount,
+-- feeAmount, finalAmount, createdAt (epoch millis). Updates and deletes
+-- subtract what is stored there, so the totals never depend on decoding the
+-- record. Contributions stored before the time buckets existed have no
+-- createdAt and are not in any bucket.
+--
+-- While a rebuild is running the staging hash holds its generation in field
+-- '_generation'. Writes then also keep the staging hash up to date for the
+-- transactions the rebuild has already counted (or that they count themselves),
+-- and tag them with the generation, so the rebuild skips them. Time buckets
+-- have no staging copy: the rebuild only adds the buckets of contributions
+-- that have none yet.
+
+local STATS_DIMENSIONS = {'status', 'currency', 'country', 'school'}
+local STATS_METRICS = {'amount', 'feeAmount', 'finalAmount'}
+-- name, bucket width and retention in seconds (0: kept forever)
+local STATS_RESOLUTIONS = {
+    {'minute', 60, 48 * 3600},
+    {'hour', 3600, 90 * 86400},
+    {'day', 86400, 0}
+}
+
+local function stats_increment(key, field, value, sign)
+    local delta = tonumber(value) * sign
+    if delta ~= 0 then
+        redis.call('HINCRBY', key, field, string.format('%d', delta))
+    end
+end
+
+-- Add (sign 1) or subtract (sign -1) a contribution
+local function stats_apply(key, contribution, sign)
+    redis.call('HINCRBY', key, 'count', sign)
+    for m, metric in ipairs(STATS_METRICS) do
+        stats_increment(key, metric, contribution[5 + m], sign)
+    end
+    for d, dimension in ipairs(STATS_DIMENSIONS) do
+        local prefix = dimension .. ':' .. contribution[1 + d] .. ':'
+        redis.call('HINCRBY', key, prefix .. 'count', sign)
+        for m, metric in ipairs(STATS_METRICS) do
+            stats_increment(key, prefix .. metric, contribution[5 + m], sign)
+        end
+    end
+end
+
+-- Add or subtract a contribution in the time buckets of its createdAt
+local function stats_apply_buckets(prefix, contribution, sign)
+    if not contribution[9] then
+        return
+    end
+    local created = math.floor(tonumber(contribution[9]) / 1000)
+    local now = tonumber(redis.call('TIME')[1])
+    for _, resolution in ipairs(STATS_RESOLUTIONS) do
+        local start = created - created % resolution[2]
+        local expires = start + resolution[2] + resolution[3]
+        local key = prefix .. resolution[1] .. ':' .. start
+        -- skip buckets past retention, and subtractions from a bucket that
+        -- already expired (HINCRBY would recreate it with negative totals)
+        if (resolution[3] == 0 or expires > now) and (sign > 0 or redis.call('EXISTS', key) == 1) then
+            if redis.call('HINCRBY', key, 'count', sign) == 0 then
+                -- the bucket's last transaction was deleted
+                redis.call('DEL', key)
+            else
+                for m, metric in ipairs(STATS_METRICS) do
+                    stats_increment(key, metric, contribution[5 + m], sign)
+                end
+                if resolution[3] > 0 then
+                    redis.call('EXPIREAT', key, expires)
+                end
+            end
+        end
+    end
+end
+
+-- Contribution from the 8 script arguments starting at ARGV[first]
+local function stats_contribution(first)
+    local contribution = {''}
+    for i = first, first + 7 do
+        contribution[#contribution + 1] = ARGV[i]
+    end
+    return contribution
+end
+
+-- The contribution stored in a transaction hash, or nil
+local function stats_stored(key)
+    local stored = redis.call('HGET', key, 'stats')
+    if not stored then
+        return nil
+    end
+    return cjson.decode(stored)
+end
+
+-- Replace a transaction's contribution (old may be nil, new may be nil for a
+-- delete) in the live totals and time buckets and, during a rebuild, in the
+-- staging hash. Returns the value to store in the transaction's 'stats'
+-- field, or nil.
+local function stats_replace(stats_key, rebuild_key, bucket_prefix, old, new)
+    if old then
+        stats_apply(stats_key, old, -1)
+        stats_apply_buckets(bucket_prefix, old, -1)
+    end
+    if new then
+        stats_apply(stats_key, new, 1)
+        stats_apply_buckets(bucket_prefix, new, 1)
+    end
+
+    local generation = redis.call('HGET', rebuild_key, '_generation')
+    if generation then
+        if old and old[1] == generation then
+            stats_apply(rebuild_key, old, -1)
+        end
+        if new then
+            new[1] = generation
+            stats_apply(rebuild_key, new, 1)
+        end
+    end
+    if new then
+        return cjson.encode(new)
+    end
+    return nil
+end
+
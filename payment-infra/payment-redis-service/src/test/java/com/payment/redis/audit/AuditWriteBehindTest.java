@@ -0,0 +1,166 @@
+package com.payment.redis.audit;
+
+import com.payment.redis.audit.AuditWriteBehind.OverflowPolicy;
+import com.payment.redis.domain.AuditEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditWriteBehindTest {
+    private final List<List<AuditEntry>> batches = new CopyOnWriteArrayList<>();
+
+    @Test
+    void testBatchesBySize() {
+        AuditWriteBehind writeBehind = writeBehind(batch -> batches.add(List.copyOf(batch)),
+            1000, 100, Duration.ofSeconds(5), OverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 500; i++) {
+            assertTrue(writeBehind.submit("p" + i, "DELETE", "Transaction deleted"));
+        }
+        writeBehind.close();
+
+        assertEquals(500, batches.stream().mapToInt(List::size).sum());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 100));
+        assertEquals("p0", batches.get(0).get(0).getPaymentId());
+        assertNotNull(batches.get(0).get(0).getCreatedAt());
+        assertEquals(500L, writeBehind.stats().get("written"));
+    }
+
+    @Test
+    void testFlushesPartialBatchAfterInterval() throws InterruptedException {
+        CountDownLatch flushed = new CountDownLatch(1);
+        AuditWriteBehind writeBehind = writeBehind(batch -> {
+            batches.add(List.copyOf(batch));
+            flushed.countDown();
+        }, 1000, 100, Duration.ofMillis(20), OverflowPolicy.BLOCK);
+
+        writeBehind.submit("p1", "DELETE", "Transaction deleted");
+
+        assertTrue(flushed.await(2, TimeUnit.SECONDS));
+        assertEquals(1, batches.get(0).size());
+        writeBehind.close();
+    }
+
+    @Test
+    void testDropPolicyCountsOverflow() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AuditWriteBehind writeBehind = writeBehind(batch -> {
+            writing.countDown();
+            await(release);
+            batches.add(List.copyOf(batch));
+        }, 2, 1, Duration.ZERO, OverflowPolicy.DROP);
+
+        writeBehind.submit("p0", "DELETE", "");
+        assertTrue(writing.await(2, TimeUnit.SECONDS));
+        // The flusher holds p0; the queue takes two more, the rest are dropped
+        assertTrue(writeBehind.submit("p1", "DELETE", ""));
+        assertTrue(writeBehind.submit("p2", "DELETE", ""));
+        assertFalse(writeBehind.submit("p3", "DELETE", ""));
+        assertTrue(writeBehind.offer("p4", "DELETE", ""));
+        release.countDown();
+        writeBehind.close();
+
+        assertEquals(2L, writeBehind.stats().get("dropped"));
+        assertEquals(3, batches.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void testOfferRefusesWhenFullUnderBlock() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AuditWriteBehind writeBehind = writeBehind(batch -> {
+            writing.countDown();
+            await(release);
+        }, 1, 1, Duration.ZERO, OverflowPolicy.BLOCK);
+
+        writeBehind.submit("p0", "DELETE", "");
+        assertTrue(writing.await(2, TimeUnit.SECONDS));
+        assertTrue(writeBehind.offer("p1", "DELETE", ""));
+        assertFalse(writeBehind.offer("p2", "DELETE", ""));
+        release.countDown();
+        writeBehind.close();
+
+        assertEquals(0L, writeBehind.stats().get("dropped"));
+    }
+
+    @Test
+    void testFailedBatchIsRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        AuditWriteBehind writeBehind = writeBehind(batch -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("connection reset");
+            }
+            batches.add(List.copyOf(batch));
+        }, 10, 10, Duration.ZERO, OverflowPolicy.BLOCK);
+
+        writeBehind.submit("p0", "DELETE", "");
+        writeBehind.close();
+
+        assertEquals(2, attempts.get());
+        assertEquals(1, batches.size());
+        assertEquals(0L, writeBehind.stats().get("failed"));
+    }
+
+    @Test
+    void testEntriesSubmittedDuringCloseAreWritten() throws InterruptedException {
+        AuditWriteBehind writeBehind = writeBehind(batch -> batches.add(List.copyOf(batch)),
+            100_000, 100, Duration.ZERO, OverflowPolicy.BLOCK);
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> submitters = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread submitter = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < 5_000; i++) {
+                    if (writeBehind.submit("p" + i, "DELETE", "")) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+            submitter.start();
+            submitters.add(submitter);
+        }
+
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        writeBehind.close();
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+
+        assertEquals(20_000, accepted.get());
+        assertEquals(20_000, batches.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void testDisabledWritesDirectly() {
+        AuditWriteBehind writeBehind = new AuditWriteBehind(batch -> batches.add(List.copyOf(batch)), false,
+            10, 10, Duration.ZERO, OverflowPolicy.BLOCK, Duration.ofSeconds(1));
+
+        assertTrue(writeBehind.submit("p0", "DELETE", ""));
+        assertFalse(writeBehind.offer("p1", "DELETE", ""));
+
+        assertEquals(1, batches.size());
+    }
+
+    private static AuditWriteBehind writeBehind(AuditBatchWriter writer, int capacity, int batchSize,
+                                                Duration flushInterval, OverflowPolicy policy) {
+        return new AuditWriteBehind(writer, true, capacity, batchSize, flushInterval, policy, Duration.ofSeconds(5));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.payment.redis.cache;
+
+import com.payment.redis.domain.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionNearCacheTest {
+    private TransactionNearCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TransactionNearCache(true, 100, Duration.ofMinutes(5));
+        cache.setCoherent(true);
+    }
+
+    @Test
+    void testHitByIdAndReference() {
+        cache.put(cache.ticket(), transaction("t1", "REF001"));
+
+        assertEquals("t1", cache.get("t1").orElseThrow().getId());
+        assertEquals("t1", cache.getByReference("REF001").orElseThrow().getId());
+        assertTrue(cache.get("t2").isEmpty());
+    }
+
+    @Test
+    void testReturnsCopies() {
+        cache.put(cache.ticket(), transaction("t1", "REF001"));
+
+        cache.get("t1").orElseThrow().setStatus("MUTATED");
+
+        assertEquals("EXACT", cache.get("t1").orElseThrow().getStatus());
+    }
+
+    @Test
+    void testPutAfterInvalidationIsDropped() {
+        long ticket = cache.ticket();
+        cache.invalidate("t1");
+
+        cache.put(ticket, transaction("t1", "REF001"));
+
+        assertTrue(cache.get("t1").isEmpty());
+    }
+
+    @Test
+    void testBypassedWhileIncoherent() {
+        cache.put(cache.ticket(), transaction("t1", "REF001"));
+        cache.setCoherent(false);
+
+        assertTrue(cache.get("t1").isEmpty());
+        cache.put(cache.ticket(), transaction("t1", "REF001"));
+
+        cache.setCoherent(true);
+        assertTrue(cache.get("t1").isEmpty());
+    }
+
+    @Test
+    void testStatsCountHitsAndMisses() {
+        cache.put(cache.ticket(), transaction("t1", "REF001"));
+        cache.get("t1");
+        cache.get("t2");
+
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void testDisabledNeverCaches() {
+        TransactionNearCache disabled = TransactionNearCache.disabled();
+        disabled.setCoherent(true);
+
+        disabled.put(disabled.ticket(), transaction("t1", "REF001"));
+
+        assertTrue(disabled.get("t1").isEmpty());
+    }
+
+    private static Transaction transaction(String id, String reference) {
+        Instant now = Instant.now();
+        BigDecimal amount = new BigDecimal("100.00");
+        return new Transaction(id, reference, "Test", "test@example.com", amount, amount, "School",
+            "Test", "IN", "Address", "INR", "S-1", "EXACT", BigDecimal.ONE, BigDecimal.ONE, amount, now, now);
+    }
+}
@@ -0,0 +1,76 @@
+package com.payment.redis.config;
+
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.event.command.CommandFailedEvent;
+import io.lettuce.core.event.command.CommandStartedEvent;
+import io.lettuce.core.event.command.CommandSucceededEvent;
+import io.lettuce.core.output.StatusOutput;
+import io.lettuce.core.protocol.Command;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.protocol.RedisCommand;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisMetricsTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RedisMetrics metrics = new RedisMetrics(registry);
+
+    @Test
+    void testCommandsTimedByType() {
+        RedisCommand<Object, Object, Object> command = command(CommandType.HGETALL);
+        CommandStartedEvent started = new CommandStartedEvent(command, System.currentTimeMillis());
+        metrics.commandStarted(started);
+        metrics.commandSucceeded(new CommandSucceededEvent(command, started.getContext(), 0, 0));
+        metrics.commandSucceeded(new CommandSucceededEvent(command, started.getContext(), 0, 0));
+
+        Timer timer = registry.get(RedisMetrics.COMMAND_TIMER).tag("command", "HGETALL").timer();
+        assertEquals(2, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    void testFailuresCountedByCommandAndException() {
+        RedisCommand<Object, Object, Object> command = command(CommandType.EVALSHA);
+        CommandStartedEvent started = new CommandStartedEvent(command, System.currentTimeMillis());
+        metrics.commandStarted(started);
+        metrics.commandFailed(new CommandFailedEvent(command, started.getContext(),
+            new RedisCommandTimeoutException("timed out")));
+
+        assertEquals(1, registry.get(RedisMetrics.COMMAND_ERRORS)
+            .tag("command", "EVALSHA")
+            .tag("exception", "RedisCommandTimeoutException")
+            .counter().count());
+        assertTrue(registry.find(RedisMetrics.COMMAND_TIMER).timers().isEmpty());
+    }
+
+    @Test
+    void testPayloadSizesRecordedForValuesOnly() {
+        RedisCodec<String, String> codec = metrics.measure(StringCodec.UTF8);
+
+        ByteBuffer encoded = codec.encodeValue("hello");
+        codec.encodeKey("payment:1");
+        assertEquals("hello", codec.decodeValue(encoded));
+
+        DistributionSummary written = registry.get(RedisMetrics.PAYLOAD).tag("direction", "write").summary();
+        DistributionSummary read = registry.get(RedisMetrics.PAYLOAD).tag("direction", "read").summary();
+        assertEquals(1, written.count());
+        assertEquals(5, written.totalAmount());
+        assertEquals(1, read.count());
+        assertEquals(5, read.totalAmount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisCommand<Object, Object, Object> command(CommandType type) {
+        return (RedisCommand<Object, Object, Object>) (RedisCommand<?, ?, ?>)
+            new Command<>(type, new StatusOutput<>(StringCodec.UTF8));
+    }
+}
@@ -0,0 +1,64 @@
+package com.payment.redis.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.redis.domain.Transaction;
+import com.payment.redis.dto.TransactionResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonEncoderTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void testOneObjectPerLine() throws IOException {
+        NdjsonEncoder encoder = new NdjsonEncoder(objectMapper, false);
+
+        String first = new String(encoder.encode(List.of(response("a"), response("b"))), StandardCharsets.UTF_8);
+        String second = new String(encoder.encode(List.of(response("c"))), StandardCharsets.UTF_8);
+
+        String[] lines = (first + second).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(second.endsWith("\n"));
+        assertEquals("c", objectMapper.readTree(lines[2]).get("_id").asText());
+        assertEquals(0, encoder.finish().length);
+    }
+
+    @Test
+    void testGzipChunksFormOneStream() throws IOException {
+        NdjsonEncoder encoder = new NdjsonEncoder(objectMapper, true);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        for (int i = 0; i < 5; i++) {
+            byte[] chunk = encoder.encode(List.of(response("id-" + i)));
+            // Flushed: every chunk carries its records, not just buffered state
+            assertTrue(chunk.length > 0);
+            body.write(chunk);
+        }
+        body.write(encoder.finish());
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+            String[] lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+            assertEquals(5, lines.length);
+            assertEquals("id-4", objectMapper.readTree(lines[4]).get("_id").asText());
+        }
+    }
+
+    private static TransactionResponse response(String id) {
+        Instant now = Instant.ofEpochSecond(1_705_610_400L);
+        BigDecimal amount = new BigDecimal("100.00");
+        return TransactionResponse.fromTransaction(new Transaction(id, "REF001", "Jane Doe", "jane@example.com",
+            amount, amount, "MIT", "Jane Doe", "India", "1 Main Road", "usd", "S-1", "EXACT",
+            new BigDecimal("2.0"), new BigDecimal("2.00"), new BigDecimal("102.00"), now, now));
+    }
+}
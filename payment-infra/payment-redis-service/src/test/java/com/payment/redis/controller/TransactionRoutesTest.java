@@ -0,0 +1,78 @@
+package com.payment.redis.controller;
+
+import com.payment.redis.config.RedisConnection;
+import com.payment.redis.config.RedisConnectionFactory;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpMethod;
+import io.micronaut.web.router.Router;
+import io.micronaut.web.router.UriRouteMatch;
+import jakarta.inject.Singleton;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routes of the controllers, resolved by the router without starting the
+ * server or connecting to Redis
+ */
+class TransactionRoutesTest {
+    private static ApplicationContext context;
+    private static Router router;
+
+    @BeforeAll
+    static void start() {
+        context = ApplicationContext.run(Map.of(
+            "spec.name", "TransactionRoutesTest",
+            "redis.migrations.enabled", false,
+            "redis.near-cache.enabled", false,
+            "redis.reconciler.enabled", false));
+        router = context.getBean(Router.class);
+    }
+
+    @AfterAll
+    static void stop() {
+        context.close();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "GET, /api/transactions/stats, getTransactionStats",
+        "GET, /api/transactions/stats/count, getTransactionCount",
+        "GET, /api/transactions/stats/timeseries, getTransactionTimeSeries",
+        "POST, /api/transactions/stats/rebuild, rebuildTransactionStats"
+    })
+    void testStatsRoutes(HttpMethod method, String path, String handler) {
+        UriRouteMatch<Object, Object> match = router.<Object, Object>find(method, path, null)
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No route for " + method + " " + path));
+
+        assertEquals(TransactionController.class, match.getDeclaringType());
+        assertEquals(handler, match.getMethodName());
+    }
+
+    @Factory
+    @Requires(property = "spec.name", value = "TransactionRoutesTest")
+    static class RedisStub {
+
+        @Singleton
+        @Replaces(RedisConnectionFactory.class)
+        @SuppressWarnings("unchecked")
+        RedisConnectionFactory redisConnectionFactory() {
+            RedisConnectionFactory factory = mock(RedisConnectionFactory.class);
+            when(factory.connect()).thenReturn(mock(RedisConnection.class));
+            when(factory.connect(any())).thenReturn(mock(RedisConnection.class));
+            return factory;
+        }
+    }
+}
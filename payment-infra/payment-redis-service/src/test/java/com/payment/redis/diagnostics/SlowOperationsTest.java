@@ -0,0 +1,63 @@
+package com.payment.redis.diagnostics;
+
+import com.payment.redis.domain.Transaction;
+import com.payment.redis.domain.TransactionPage;
+import io.micronaut.core.type.Argument;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowOperationsTest {
+
+    @Test
+    void testKeepsMostRecentSlowestFirst() {
+        SlowOperations slow = new SlowOperations(Duration.ofMillis(10), 3);
+        assertFalse(slow.isSlow(Duration.ofMillis(9).toNanos()));
+        assertTrue(slow.isSlow(Duration.ofMillis(10).toNanos()));
+
+        for (int millis = 10; millis <= 50; millis += 10) {
+            slow.add("repository", "findById" + millis, Duration.ofMillis(millis).toNanos(), 1, 100, 1, null);
+        }
+
+        // The two oldest were replaced
+        List<String> operations = slow.slowest().stream().map(SlowOperations.SlowOperation::operation).toList();
+        assertEquals(List.of("findById50", "findById40", "findById30"), operations);
+        assertEquals(50_000, slow.slowest().get(0).durationMicros());
+        assertEquals(5L, slow.stats().get("recorded"));
+    }
+
+    @Test
+    void testNestedOperationBytesCountTowardsOuter() {
+        assertFalse(OperationBytes.counting());
+        OperationBytes.Frame service = OperationBytes.open();
+        OperationBytes.add(10);
+
+        OperationBytes.Frame repository = OperationBytes.open();
+        OperationBytes.add(100);
+        assertEquals(100, repository.close());
+
+        OperationBytes.add(1);
+        assertEquals(111, service.close());
+        assertFalse(OperationBytes.counting());
+        OperationBytes.add(5);
+    }
+
+    @Test
+    void testKeysAndRecords() {
+        Argument<?>[] arguments = {Argument.of(String.class, "id"), Argument.of(String.class, "cursor"),
+            Argument.of(List.class, "ids")};
+        assertEquals(3, OperationInterceptor.keys(arguments, new Object[]{"a", "cursor", List.of("b", "c")}));
+        assertEquals(1, OperationInterceptor.keys(new Argument<?>[]{Argument.of(Transaction.class, "transaction")},
+            new Object[]{new Transaction()}));
+
+        assertEquals(0, OperationInterceptor.records(Optional.empty()));
+        assertEquals(1, OperationInterceptor.records(Optional.of(new Transaction())));
+        assertEquals(2, OperationInterceptor.records(List.of(new Transaction(), new Transaction())));
+        assertEquals(1, OperationInterceptor.records(new TransactionPage(List.of(new Transaction()), null)));
+        assertEquals(0, OperationInterceptor.records(42L));
+    }
+}
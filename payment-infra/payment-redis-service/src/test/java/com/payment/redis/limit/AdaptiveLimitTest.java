@@ -0,0 +1,136 @@
+package com.payment.redis.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimitTest {
+    private static final long WINDOW = 500_000L;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testRejectsOverLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10, 1.5, WINDOW, clock::get);
+
+        AdaptiveLimit.Permit first = limit.tryAcquire();
+        assertNotNull(first);
+        assertNotNull(limit.tryAcquire());
+        assertNull(limit.tryAcquire());
+
+        first.release(false);
+        assertNotNull(limit.tryAcquire());
+        assertEquals(1L, limit.stats().get("rejected"));
+    }
+
+    @Test
+    void testGrowsWhileLatencyIsSteady() {
+        AdaptiveLimit limit = new AdaptiveLimit(20, 5, 100, 1.5, WINDOW, clock::get);
+
+        for (int i = 0; i < 20; i++) {
+            window(limit, limit.getLimit(), 1_000_000);
+        }
+        assertTrue(limit.getLimit() > 30, "limit " + limit.getLimit());
+        assertTrue(limit.getLimit() <= 100);
+    }
+
+    @Test
+    void testShrinksWhenLatencyRises() {
+        AdaptiveLimit limit = new AdaptiveLimit(50, 5, 100, 1.5, WINDOW, clock::get);
+        for (int i = 0; i < 5; i++) {
+            window(limit, 40, 1_000_000);
+        }
+        int before = limit.getLimit();
+
+        for (int i = 0; i < 10; i++) {
+            window(limit, limit.getLimit(), 10_000_000);
+        }
+        assertTrue(limit.getLimit() < before * 2 / 3, before + " -> " + limit.getLimit());
+        assertTrue(limit.getLimit() >= 5);
+    }
+
+    @Test
+    void testKeepsLimitWhenMostlyIdle() {
+        AdaptiveLimit limit = new AdaptiveLimit(50, 5, 100, 1.5, WINDOW, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            window(limit, 10, 1_000_000);
+        }
+        assertEquals(50, limit.getLimit());
+    }
+
+    @Test
+    void testBacksOffOnFailure() {
+        AdaptiveLimit limit = new AdaptiveLimit(50, 5, 100, 1.5, WINDOW, clock::get);
+
+        clock.addAndGet(WINDOW);
+        limit.tryAcquire().release(true);
+        assertEquals(45, limit.getLimit());
+        assertEquals(1L, limit.stats().get("dropped"));
+    }
+
+    @Test
+    void testLongHeldPermitsReleasedUnsampledKeepLimit() {
+        AdaptiveLimit unsampled = new AdaptiveLimit(50, 5, 100, 1.5, WINDOW, clock::get);
+        AdaptiveLimit sampled = new AdaptiveLimit(50, 5, 100, 1.5, WINDOW, clock::get);
+        for (int i = 0; i < 5; i++) {
+            window(unsampled, 40, 1_000_000);
+            window(sampled, 40, 1_000_000);
+        }
+        int before = unsampled.getLimit();
+
+        // Every window, up to 40 requests wait 5s on something other than Redis
+        // (e.g. duplicate Idempotency-Keys) next to 20 ordinary requests
+        for (int i = 0; i < 30; i++) {
+            waitingWindow(unsampled, AdaptiveLimit.Permit::releaseUnsampled);
+            waitingWindow(sampled, permit -> permit.release(false));
+        }
+        assertTrue(unsampled.getLimit() >= before, before + " -> " + unsampled.getLimit());
+        assertEquals(0, unsampled.getInflight());
+        assertEquals(5, sampled.getLimit());
+    }
+
+    @Test
+    void testRejectsInconsistentLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(10, 20, 100, 1.5, WINDOW, clock::get));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(10, 0, 100, 1.5, WINDOW, clock::get));
+    }
+
+    /**
+     * Up to 40 requests held 5s and released the given way, then 20 ordinary
+     * ones; a waiting permit released twice counts once
+     */
+    private void waitingWindow(AdaptiveLimit limit, Consumer<AdaptiveLimit.Permit> release) {
+        List<AdaptiveLimit.Permit> waiting = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            AdaptiveLimit.Permit permit = limit.tryAcquire();
+            if (permit != null) {
+                waiting.add(permit);
+            }
+        }
+        clock.addAndGet(5_000_000_000L);
+        waiting.forEach(release);
+        waiting.forEach(permit -> permit.release(false));
+        window(limit, 20, 1_000_000);
+    }
+
+    /**
+     * One window of concurrent requests that each take the given latency
+     */
+    private void window(AdaptiveLimit limit, int concurrency, long latencyNanos) {
+        List<AdaptiveLimit.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            AdaptiveLimit.Permit permit = limit.tryAcquire();
+            if (permit != null) {
+                permits.add(permit);
+            }
+        }
+        clock.addAndGet(latencyNanos);
+        permits.forEach(permit -> permit.release(false));
+    }
+}
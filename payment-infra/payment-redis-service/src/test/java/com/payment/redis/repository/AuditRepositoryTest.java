@@ -0,0 +1,62 @@
+package com.payment.redis.repository;
+
+import io.lettuce.core.StreamMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditRepositoryTest {
+
+    @Test
+    void testStreamIdsCompareNumerically() {
+        assertTrue(AuditRepository.compareIds("999-5", "1000-0") < 0);
+        assertTrue(AuditRepository.compareIds("1000-10", "1000-9") > 0);
+        assertEquals(0, AuditRepository.compareIds("1000-1", "1000-1"));
+        assertTrue(AuditRepository.compareIds("1000-18446744073709551615", "1000-1") > 0);
+    }
+
+    @Test
+    void testMergeKeepsIdOrderAndLimit() {
+        List<StreamMessage<String, String>> live = List.of(message("100-0"), message("300-0"), message("300-1"));
+        List<StreamMessage<String, String>> legacy = List.of(message("99-0"), message("200-0"));
+
+        List<StreamMessage<String, String>> merged = AuditRepository.merge(List.of(live, legacy), 4);
+
+        assertEquals(List.of("99-0", "100-0", "200-0", "300-0"), ids(merged));
+        assertEquals(2, AuditRepository.merge(List.of(List.of(), legacy), 10).size());
+    }
+
+    @Test
+    void testPageDoesNotSplitEntriesSharingAnId() {
+        // Streams of different partitions can hold entries with the same ID
+        List<StreamMessage<String, String>> merged = AuditRepository.merge(List.of(
+            List.of(message("100-0"), message("200-0")),
+            List.of(message("200-0"), message("300-0")),
+            List.of(message("200-0"))), Integer.MAX_VALUE);
+
+        assertEquals(List.of("100-0", "200-0", "200-0", "200-0", "300-0"), ids(merged));
+        assertEquals(1, AuditRepository.pageEnd(merged, 2));
+        assertEquals(3, AuditRepository.pageEnd(merged.subList(1, 5), 1));
+        assertEquals(4, AuditRepository.pageEnd(merged, 4));
+        assertEquals(5, AuditRepository.pageEnd(merged, 10));
+    }
+
+    @Test
+    void testCursorValidation() {
+        assertTrue(AuditRepository.isStreamId("1705610400000-0"));
+        assertFalse(AuditRepository.isStreamId("1705610400000"));
+        assertFalse(AuditRepository.isStreamId("abc-0"));
+        assertFalse(AuditRepository.isStreamId("1-99999999999999999999"));
+    }
+
+    private static List<String> ids(List<StreamMessage<String, String>> messages) {
+        return messages.stream().map(StreamMessage::getId).toList();
+    }
+
+    private static StreamMessage<String, String> message(String id) {
+        return new StreamMessage<>("audit:stream", id, Map.of("paymentId", "p", "action", "CREATE", "details", ""));
+    }
+}
@@ -0,0 +1,82 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.domain.Transaction;
+import io.lettuce.core.ScoredValue;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldIndexTest {
+
+    @Test
+    void testEntriesAreNormalized() {
+        Transaction t = newTransaction();
+        t.setEmail("  Alice@Example.COM ");
+        t.setStudentId("");
+        t.setSchool("Bench\nUniversity");
+
+        assertEquals("email:alice@example.com\nschool:bench university\nstatus:exact\ncountryFrom:in",
+            FieldIndex.entries(t));
+    }
+
+    @Test
+    void testCriteria() {
+        Map<String, String> criteria = new LinkedHashMap<>();
+        criteria.put("status", "EXACT");
+        criteria.put("email", " ");
+        assertEquals(List.of("status:exact"), FieldIndex.criteria(criteria));
+
+        assertThrows(IllegalArgumentException.class, () -> FieldIndex.criteria(Map.of("email", "")));
+        assertThrows(IllegalArgumentException.class, () -> FieldIndex.criteria(Map.of("name", "Bench User")));
+    }
+
+    @Test
+    void testMergeOfCompletePartitions() {
+        FieldIndex.Window window = FieldIndex.merge(List.of(
+            new FieldIndex.Partial(List.of(entry(30, "c"), entry(10, "a")), null),
+            new FieldIndex.Partial(List.of(entry(20, "b")), null)), 2);
+
+        assertEquals(List.of("c", "b"), window.ids());
+        assertEquals(20, window.next().getScore());
+        assertEquals("b", window.next().getId());
+
+        FieldIndex.Window last = FieldIndex.merge(List.of(
+            new FieldIndex.Partial(List.of(entry(10, "a")), null),
+            new FieldIndex.Partial(List.of(), null)), 2);
+        assertEquals(List.of("a"), last.ids());
+        assertNull(last.next());
+    }
+
+    @Test
+    void testMergeStopsWherePartitionStopped() {
+        // The second partition examined down to score 25 without finishing, so
+        // it may still hold matches between 25 and 10
+        FieldIndex.Window window = FieldIndex.merge(List.of(
+            new FieldIndex.Partial(List.of(entry(30, "c"), entry(10, "a")), null),
+            new FieldIndex.Partial(List.of(), entry(25, "x"))), 5);
+
+        assertEquals(List.of("c"), window.ids());
+        assertEquals(25, window.next().getScore());
+        assertEquals("x", window.next().getId());
+    }
+
+    private static ScoredValue<String> entry(long score, String id) {
+        return ScoredValue.just(score, id);
+    }
+
+    private static Transaction newTransaction() {
+        Instant now = Instant.now();
+        BigDecimal amount = new BigDecimal("12500.00");
+        return new Transaction(UUID.randomUUID().toString(), null, "Bench User", "bench@example.com",
+            amount, amount, "Bench University", "Bench User", "IN", "1 Bench Road", "INR", "S-1",
+            "EXACT", BigDecimal.valueOf(2.0), new BigDecimal("250.00"), new BigDecimal("12750.00"),
+            now, now);
+    }
+}
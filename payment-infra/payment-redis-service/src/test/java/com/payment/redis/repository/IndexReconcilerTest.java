@@ -0,0 +1,241 @@
+package com.payment.redis.repository;
+
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScoredValueScanCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexReconcilerTest {
+    private final RedisKeys keys = RedisKeys.cluster(3);
+    private final FakeRedis redis = new FakeRedis();
+
+    @Test
+    void testPassSweepsBothIndexesOfEveryPartition() {
+        for (int p = 0; p < 3; p++) {
+            for (int i = 0; i < 5; i++) {
+                redis.add(p, "id-" + p + i, "REF" + p + i, i % 2 == 0);
+            }
+        }
+        IndexReconciler reconciler = reconciler(2);
+
+        assertEquals(12, reconciler.reconcile());
+
+        for (int p = 0; p < 3; p++) {
+            assertEquals(Set.of("id-" + p + "0", "id-" + p + "2", "id-" + p + "4"), redis.created(p).keySet());
+            assertEquals(Set.of("REF" + p + "0", "REF" + p + "2", "REF" + p + "4"), redis.references(p).keySet());
+        }
+        // 3 chunks of 2 per index: partitions in order, the creation-time index first
+        assertEquals(List.of(
+            "created:0", "created:0", "created:0", "reference:0", "reference:0", "reference:0",
+            "created:1", "created:1", "created:1", "reference:1", "reference:1", "reference:1",
+            "created:2", "created:2", "created:2", "reference:2", "reference:2", "reference:2"), redis.scans);
+        assertEquals(30L, reconciler.stats().get("scanned"));
+        assertEquals(6L, reconciler.stats().get("prunedIds"));
+        assertEquals(6L, reconciler.stats().get("prunedReferences"));
+    }
+
+    @Test
+    void testRecreatedIdIsNotPruned() {
+        redis.add(1, "id-a", "REFA", false);
+        // Written again between the EXISTS check and the prune script
+        redis.afterMissing = missing -> redis.hashes.add("id-a");
+
+        assertEquals(0, reconciler(10).reconcile());
+
+        assertTrue(redis.created(1).containsKey("id-a"));
+        assertEquals("id-a", redis.references(1).get("REFA"));
+    }
+
+    @Test
+    void testReferencePointingToAnotherIdIsKept() {
+        redis.references(2).put("REFA", "id-a");
+        // The reference was taken over by another transaction after the scan
+        redis.afterMissing = missing -> {
+            redis.hashes.add("id-b");
+            redis.references(2).put("REFA", "id-b");
+        };
+
+        assertEquals(0, reconciler(10).reconcile());
+
+        assertEquals("id-b", redis.references(2).get("REFA"));
+    }
+
+    @Test
+    void testOneInstanceRunsEachPass() {
+        redis.add(0, "id-a", "REFA", false);
+        IndexReconciler first = reconciler(10);
+        IndexReconciler second = reconciler(10);
+
+        first.tick();
+        second.tick();
+        assertEquals(true, first.stats().get("passActive"));
+        assertEquals(false, second.stats().get("passActive"));
+
+        for (int i = 0; i < 6; i++) {
+            first.tick();
+            second.tick();
+        }
+        assertEquals(1L, first.stats().get("passes"));
+        assertEquals(0L, second.stats().get("passes"));
+        assertTrue(redis.created(0).isEmpty());
+        assertTrue(redis.references(0).isEmpty());
+    }
+
+    @Test
+    void testFailedChunkIsRetriedFromSameCursor() {
+        for (int i = 0; i < 4; i++) {
+            redis.add(0, "id-" + i, "REF" + i, false);
+        }
+        redis.failures = 1;
+        IndexReconciler reconciler = reconciler(2);
+
+        for (int i = 0; i < 12; i++) {
+            reconciler.tick();
+        }
+
+        assertEquals(1L, reconciler.stats().get("failures"));
+        assertEquals(1L, reconciler.stats().get("passes"));
+        assertEquals(4L, reconciler.stats().get("prunedIds"));
+        assertTrue(redis.references(0).isEmpty());
+    }
+
+    @Test
+    void testPruneKeysFollowArgs() {
+        Map<String, String> references = new LinkedHashMap<>();
+        references.put("REF1", "id-c");
+        references.put("REF2", "id-d");
+
+        assertArrayEquals(new String[]{
+            keys.createdIndex(1), keys.referenceIndex(1),
+            keys.payment("id-a"), keys.indexEntries("id-a"),
+            keys.payment("id-b"), keys.indexEntries("id-b"),
+            keys.payment("id-c"), keys.payment("id-d")
+        }, TransactionScripts.pruneIndexKeys(keys, 1, List.of("id-a", "id-b"), references));
+        assertEquals(List.of(keys.fieldIndexPrefix(1), "2", "id-a", "id-b", "REF1", "id-c", "REF2", "id-d"),
+            Arrays.stream(TransactionScripts.pruneIndexArgs(keys, 1, List.of("id-a", "id-b"), references))
+                .map(TransactionCodec::string)
+                .toList());
+    }
+
+    private IndexReconciler reconciler(int batchSize) {
+        return new IndexReconciler(redis, keys, true, batchSize, Duration.ofMillis(50), Duration.ofHours(1));
+    }
+
+    /**
+     * In-memory indexes and transaction hashes. Scans resume after the last
+     * member returned, so members present throughout a scan are all returned
+     * once, as ZSCAN and HSCAN guarantee. prune() re-checks like
+     * prune-index.lua.
+     */
+    private static final class FakeRedis implements ReconcilerCommands {
+        private final Map<Integer, TreeMap<String, Double>> created = new HashMap<>();
+        private final Map<Integer, TreeMap<String, String>> references = new HashMap<>();
+        private final Set<String> hashes = new HashSet<>();
+        private final List<String> scans = new ArrayList<>();
+        private String leaseOwner;
+        private Consumer<List<String>> afterMissing = missing -> { };
+        private int failures;
+
+        void add(int partition, String id, String reference, boolean exists) {
+            created(partition).put(id, (double) created(partition).size());
+            references(partition).put(reference, id);
+            if (exists) {
+                hashes.add(id);
+            }
+        }
+
+        TreeMap<String, Double> created(int partition) {
+            return created.computeIfAbsent(partition, p -> new TreeMap<>());
+        }
+
+        TreeMap<String, String> references(int partition) {
+            return references.computeIfAbsent(partition, p -> new TreeMap<>());
+        }
+
+        @Override
+        public boolean lease(String owner, Duration lifetime) {
+            if (leaseOwner != null) {
+                return false;
+            }
+            leaseOwner = owner;
+            return true;
+        }
+
+        @Override
+        public ScoredValueScanCursor<String> scanCreated(int partition, ScanCursor cursor, int count) {
+            scans.add("created:" + partition);
+            ScoredValueScanCursor<String> scan = new ScoredValueScanCursor<>();
+            List<String> chunk = chunk(created(partition).keySet(), cursor, count, scan);
+            chunk.forEach(id -> scan.getValues().add(ScoredValue.just(created(partition).get(id), id)));
+            return scan;
+        }
+
+        @Override
+        public MapScanCursor<String, String> scanReferences(int partition, ScanCursor cursor, int count) {
+            scans.add("reference:" + partition);
+            MapScanCursor<String, String> scan = new MapScanCursor<>();
+            List<String> chunk = chunk(references(partition).keySet(), cursor, count, scan);
+            chunk.forEach(reference -> scan.getMap().put(reference, references(partition).get(reference)));
+            return scan;
+        }
+
+        @Override
+        public List<String> missing(List<String> ids) {
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("connection reset");
+            }
+            List<String> missing = ids.stream().filter(id -> !hashes.contains(id)).toList();
+            afterMissing.accept(missing);
+            return missing;
+        }
+
+        @Override
+        public List<Long> prune(int partition, List<String> ids, Map<String, String> dangling) {
+            long removedIds = 0;
+            long removedReferences = 0;
+            for (String id : ids) {
+                if (!hashes.contains(id) && created(partition).remove(id) != null) {
+                    removedIds++;
+                }
+            }
+            for (Map.Entry<String, String> entry : dangling.entrySet()) {
+                String id = entry.getValue();
+                if (!hashes.contains(id) && id.equals(references(partition).get(entry.getKey()))) {
+                    references(partition).remove(entry.getKey());
+                    removedReferences++;
+                }
+            }
+            return List.of(removedIds, removedReferences);
+        }
+
+        private static List<String> chunk(Set<String> members, ScanCursor cursor, int count, ScanCursor next) {
+            List<String> chunk = new ArrayList<>();
+            for (String member : members) {
+                if ((cursor.getCursor().equals("0") || member.compareTo(cursor.getCursor()) > 0)
+                        && chunk.size() < count) {
+                    chunk.add(member);
+                }
+            }
+            next.setCursor(chunk.isEmpty() ? "0" : chunk.get(chunk.size() - 1));
+            next.setFinished(chunk.size() < count || members.stream()
+                .noneMatch(member -> member.compareTo(next.getCursor()) > 0));
+            return chunk;
+        }
+    }
+}
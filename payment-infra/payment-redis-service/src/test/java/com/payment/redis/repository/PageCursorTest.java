@@ -0,0 +1,37 @@
+package com.payment.redis.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void testRoundTrip() {
+        PageCursor cursor = new PageCursor(1705610400123L, "550e8400-e29b-41d4-a716-446655440000");
+
+        PageCursor decoded = PageCursor.decode(cursor.encode());
+
+        assertEquals(cursor.getScore(), decoded.getScore());
+        assertEquals(cursor.getId(), decoded.getId());
+    }
+
+    @Test
+    void testOrderingIsNewestFirstThenIdDescending() {
+        PageCursor cursor = new PageCursor(1000L, "m");
+
+        assertTrue(cursor.isBefore(999L, "z"));
+        assertTrue(cursor.isBefore(1000L, "a"));
+        assertFalse(cursor.isBefore(1000L, "m"));
+        assertFalse(cursor.isBefore(1000L, "n"));
+        assertFalse(cursor.isBefore(1001L, "a"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not base64!", "MTIz", "YWJjOmRlZg"})
+    void testMalformedCursorIsRejected(String token) {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token));
+    }
+}
@@ -0,0 +1,245 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.cache.TransactionNearCache;
+import com.payment.redis.config.BulkReadConnections;
+import com.payment.redis.config.RedisConfig;
+import com.payment.redis.config.RedisConnection;
+import com.payment.redis.config.RedisConnectionFactory;
+import com.payment.redis.domain.AuditEntry;
+import com.payment.redis.domain.AuditPage;
+import com.payment.redis.domain.StatsResolution;
+import com.payment.redis.domain.TimeSeriesPoint;
+import com.payment.redis.domain.Transaction;
+import com.payment.redis.domain.TransactionPage;
+import com.payment.redis.domain.TransactionStats;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The repositories against a real Redis Cluster: every script must stay
+ * within one slot, and queries over all transactions must see every partition.
+ *
+ * Not part of the regular test run. Point it at a scratch cluster (it flushes
+ * every node), e.g. the one in payment-infra/docker/docker-compose.cluster.yml:
+ *
+ *   mvn test -Dtest=RedisClusterTest -Dredis.cluster.test.uris=redis://localhost:7000
+ */
+@EnabledIfSystemProperty(named = "redis.cluster.test.uris", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RedisClusterTest {
+    private static final int TRANSACTIONS = 50;
+
+    private RedisConnectionFactory factory;
+    private RedisConnection<String, String> connection;
+    private RedisConnection<String, byte[]> binaryConnection;
+    private TransactionRepository repository;
+    private ReactiveTransactionRepository reactiveRepository;
+    private AuditRepository auditRepository;
+    private IndexReconciler reconciler;
+
+    @BeforeAll
+    void connect() {
+        factory = RedisConnectionFactory.cluster(System.getProperty("redis.cluster.test.uris"), Duration.ofSeconds(30));
+        connection = factory.connect();
+        binaryConnection = factory.connect(RedisConfig.BINARY_CODEC);
+        RedisKeys keys = RedisKeys.cluster(16);
+        ReferenceAllocator references = new ReferenceAllocator(new RedisReferenceLeaseSource(connection), 1000, 200);
+        BulkReadConnections bulk = new BulkReadConnections(List.of(binaryConnection));
+        TransactionCodec codec = new TransactionCodec("hash");
+        ReplicaReads replicaReads = ReplicaReads.disabled(connection, binaryConnection, bulk, keys);
+        repository = new TransactionRepository(connection, binaryConnection, keys, replicaReads, 7, codec,
+            references, TransactionNearCache.disabled());
+        reactiveRepository = new ReactiveTransactionRepository(binaryConnection, keys, replicaReads, 7, codec,
+            references, TransactionNearCache.disabled());
+        auditRepository = new AuditRepository(connection, binaryConnection, keys);
+        reconciler = new IndexReconciler(new RedisReconcilerCommands(connection, binaryConnection, keys), keys, false, 7,
+            Duration.ofMillis(50), Duration.ofHours(1));
+    }
+
+    @BeforeEach
+    void flush() {
+        connection.sync().flushall();
+    }
+
+    @AfterAll
+    void close() {
+        binaryConnection.close();
+        connection.close();
+        factory.shutdown();
+    }
+
+    @Test
+    void testTransactionsAcrossPartitions() {
+        List<Transaction> created = createTransactions();
+        Transaction first = created.get(0);
+
+        assertEquals(TRANSACTIONS, repository.count());
+        assertEquals(first.getName(), repository.findById(first.getId()).orElseThrow().getName());
+        assertEquals(first.getId(), repository.findByReference(first.getReference()).orElseThrow().getId());
+        assertEquals(first.getId(), reactiveRepository.findByReference(first.getReference()).block().getId());
+        assertEquals(TRANSACTIONS, repository.findAll().size());
+        assertEquals(TRANSACTIONS, reactiveRepository.findAll().collectList().block().size());
+
+        // Pages walk all partitions newest first, without gaps or repeats
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransactionPage page = repository.findPage(9, cursor, null, null);
+            page.getItems().forEach(t -> paged.add(t.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        List<String> newestFirst = new ArrayList<>(created.stream().map(Transaction::getId).toList());
+        Collections.reverse(newestFirst);
+        assertEquals(newestFirst, paged);
+
+        assertTrue(repository.deleteById(first.getId()));
+        assertTrue(repository.findById(first.getId()).isEmpty());
+        assertTrue(repository.findByReference(first.getReference()).isEmpty());
+        assertEquals(TRANSACTIONS - 1, reactiveRepository.count().block());
+    }
+
+    @Test
+    void testAggregatesSumAllPartitions() {
+        createTransactions();
+        Instant now = Instant.now();
+
+        TransactionStats stats = repository.findStats();
+        assertEquals(TRANSACTIONS, stats.getTotal().getCount());
+        assertEquals(0, new BigDecimal("100.00").multiply(BigDecimal.valueOf(TRANSACTIONS))
+            .compareTo(stats.getTotal().getAmount()));
+        assertEquals(TRANSACTIONS, reactiveRepository.findStats().block().getTotal().getCount());
+
+        List<TimeSeriesPoint> points = repository.findTimeSeries(StatsResolution.DAY, now, now);
+        assertEquals(TRANSACTIONS, points.get(0).getTotals().getCount());
+        assertEquals(TRANSACTIONS,
+            reactiveRepository.findTimeSeries(StatsResolution.DAY, now, now).block().get(0).getTotals().getCount());
+
+        assertEquals(TRANSACTIONS, repository.rebuildStats(7));
+        assertEquals(TRANSACTIONS, repository.findStats().getTotal().getCount());
+    }
+
+    @Test
+    void testAuditRangeMergesPartitions() {
+        List<Transaction> created = createTransactions();
+        Transaction first = created.get(0);
+
+        assertEquals(1, auditRepository.findByPayment(first.getId()).size());
+
+        Set<String> payments = new HashSet<>();
+        Set<String> ids = new HashSet<>();
+        String cursor = null;
+        do {
+            AuditPage page = auditRepository.findRange(7, cursor, null, null);
+            for (AuditEntry entry : page.getItems()) {
+                payments.add(entry.getPaymentId());
+                assertTrue(ids.add(entry.getId() + entry.getPaymentId()));
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(TRANSACTIONS, payments.size());
+    }
+
+    @Test
+    void testSearchIntersectsFieldIndexesOfAllPartitions() {
+        List<Transaction> created = createTransactions();
+        for (int i = 0; i < created.size(); i += 5) {
+            Transaction t = created.get(i);
+            t.setSchool("Cluster College");
+            repository.update(t);
+        }
+        repository.deleteById(created.get(0).getId());
+
+        List<String> found = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransactionPage page = repository.search(
+                Map.of("school", "cluster college", "status", "EXACT"), 3, cursor);
+            page.getItems().forEach(t -> found.add(t.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = created.size() - 1; i > 0; i--) {
+            if (i % 5 == 0) {
+                expected.add(created.get(i).getId());
+            }
+        }
+        assertEquals(expected, found);
+        assertTrue(repository.search(Map.of("email", "nobody@example.com"), 3, null).getItems().isEmpty());
+    }
+
+    @Test
+    void testWalkOldestFirstMergesPartitions() {
+        List<Transaction> created = createTransactions();
+        repository.deleteById(created.get(3).getId());
+
+        List<String> walked = new ArrayList<>();
+        long count = repository.forEachOldestFirst(7, batch -> batch.forEach(t -> walked.add(t.getId())));
+
+        List<String> expected = new ArrayList<>(created.stream().map(Transaction::getId).toList());
+        expected.remove(3);
+        assertEquals(expected, walked);
+        assertEquals(TRANSACTIONS - 1, count);
+    }
+
+    @Test
+    void testReconcilerPrunesExpiredTransactions() {
+        List<Transaction> created = createTransactions();
+        repository.update(created.get(1));
+        assertEquals(TRANSACTIONS, repository.count());
+
+        // Expire three transactions the way the TTL does: the hash goes, the index entries stay
+        RedisKeys keys = RedisKeys.cluster(16);
+        for (Transaction t : created.subList(0, 3)) {
+            connection.sync().del(keys.payment(t.getId()));
+        }
+        assertEquals(TRANSACTIONS, repository.count());
+
+        assertEquals(6, reconciler.reconcile());
+        assertEquals(TRANSACTIONS - 3, repository.count());
+        assertEquals(TRANSACTIONS - 3, repository.findAll().size());
+        assertTrue(repository.findByReference(created.get(0).getReference()).isEmpty());
+        assertEquals(0, connection.sync().exists(keys.indexEntries(created.get(0).getId())));
+        assertEquals(TRANSACTIONS - 3, repository.search(Map.of("status", "exact"), 100, null).getItems().size());
+        assertEquals(0, reconciler.reconcile());
+    }
+
+    private List<Transaction> createTransactions() {
+        List<Transaction> created = new ArrayList<>(TRANSACTIONS);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            Transaction t = newTransaction();
+            t.setName("Cluster User " + i);
+            t.setAmount(new BigDecimal("100.00"));
+            t.setCreatedAt(Instant.now().plusMillis(i));
+            repository.create(t, "CREATE", "Transaction created");
+            created.add(t);
+        }
+        return created;
+    }
+
+    private static Transaction newTransaction() {
+        Instant now = Instant.now();
+        BigDecimal amount = new BigDecimal("12500.00");
+        return new Transaction(UUID.randomUUID().toString(), null, "Bench User", "bench@example.com",
+            amount, amount, "Bench University", "Bench User", "IN", "1 Bench Road", "INR", "S-1",
+            "EXACT", BigDecimal.valueOf(2.0), new BigDecimal("250.00"), new BigDecimal("12750.00"),
+            now, now);
+    }
+}
@@ -0,0 +1,53 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.domain.StatsResolution;
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisKeysTest {
+
+    @Test
+    void testStandaloneLayoutIsUnchanged() {
+        RedisKeys keys = RedisKeys.standalone();
+
+        assertEquals(1, keys.partitions());
+        assertEquals("payment:abc", keys.payment("abc"));
+        assertEquals("audit:payment:abc", keys.auditTrail("abc"));
+        assertEquals("payment:all", keys.allPayments(0));
+        assertEquals("payment:idx:created", keys.createdIndex(0));
+        assertEquals("payment:stats:rebuild", keys.statsRebuild(0));
+        assertEquals("payment:ts:hour:3600", keys.timeBucket(0, StatsResolution.HOUR, Instant.ofEpochSecond(3600)));
+    }
+
+    @Test
+    void testClusterKeysOfATransactionShareASlot() {
+        RedisKeys keys = RedisKeys.cluster(16);
+
+        for (int i = 0; i < 100; i++) {
+            String id = UUID.randomUUID().toString();
+            int partition = keys.partition(id);
+            int slot = SlotHash.getSlot(keys.payment(id));
+            List<String> related = List.of(keys.auditTrail(id), keys.allPayments(partition),
+                keys.referenceIndex(partition), keys.createdIndex(partition), keys.auditStream(partition),
+                keys.stats(partition), keys.statsRebuild(partition),
+                keys.timeBucket(partition, StatsResolution.DAY, Instant.EPOCH));
+            for (String key : related) {
+                assertEquals(slot, SlotHash.getSlot(key), key);
+            }
+        }
+        assertNotEquals(SlotHash.getSlot(keys.createdIndex(0)), SlotHash.getSlot(keys.createdIndex(1)));
+    }
+
+    @Test
+    void testPartitionCountMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> RedisKeys.cluster(0));
+        assertEquals(1, new RedisKeys(false, 16).partitions());
+        assertEquals(16, new RedisKeys(true, 16).partitions());
+    }
+}
@@ -0,0 +1,116 @@
+package com.payment.redis.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceAllocatorTest {
+
+    @Test
+    void testReferencesUniqueAcrossThreadsAndInstances() throws Exception {
+        // payment:counter shared by four instances, leases answered asynchronously like INCRBY
+        AtomicLong counter = new AtomicLong();
+        ExecutorService redis = Executors.newFixedThreadPool(2);
+        ReferenceLeaseSource source = count -> CompletableFuture.supplyAsync(() -> counter.addAndGet(count), redis);
+        List<ReferenceAllocator> instances = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            instances.add(new ReferenceAllocator(source, 50, 10));
+        }
+
+        int threads = 16;
+        int perThread = 2_000;
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<CompletableFuture<Void>> done = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            ReferenceAllocator allocator = instances.get(t % instances.size());
+            boolean async = t % 2 == 0;
+            done.add(CompletableFuture.runAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    long number = async ? allocator.nextAsync().join() : allocator.next();
+                    if (!seen.add(number)) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+            }, pool));
+        }
+        start.countDown();
+        CompletableFuture.allOf(done.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+        redis.shutdown();
+
+        assertEquals(0, duplicates.get());
+        assertEquals(threads * perThread, seen.size());
+        assertTrue(seen.stream().allMatch(n -> n >= 1 && n <= counter.get()));
+    }
+
+    @Test
+    void testNumbersComeFromLeasedBlocks() {
+        AtomicLong counter = new AtomicLong(500);
+        ReferenceAllocator allocator = new ReferenceAllocator(
+            count -> CompletableFuture.completedFuture(counter.addAndGet(count)), 3, 1);
+
+        assertEquals(501, allocator.next());
+        // refill-remaining reached: the next block is leased before this one runs out
+        assertEquals(502, allocator.next());
+        assertEquals(506, counter.get());
+        assertEquals(503, allocator.next());
+        assertEquals(504, allocator.next());
+    }
+
+    @Test
+    void testFailedLeaseIsRetried() {
+        AtomicLong counter = new AtomicLong();
+        AtomicInteger calls = new AtomicInteger();
+        ReferenceAllocator allocator = new ReferenceAllocator(count -> {
+            if (calls.incrementAndGet() == 1) {
+                return CompletableFuture.failedFuture(new IllegalStateException("connection lost"));
+            }
+            return CompletableFuture.completedFuture(counter.addAndGet(count));
+        }, 10, 2);
+
+        RuntimeException e = assertThrows(RuntimeException.class, allocator::next);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(1, allocator.next());
+        assertEquals(2, allocator.nextAsync().join());
+    }
+
+    @Test
+    void testSourceThrowingIsReportedNotHung() {
+        ReferenceAllocator allocator = new ReferenceAllocator(count -> {
+            throw new IllegalStateException("not connected");
+        }, 10, 2);
+
+        assertThrows(RuntimeException.class, allocator::next);
+        assertTrue(allocator.nextAsync().isCompletedExceptionally());
+    }
+
+    @Test
+    void testReferenceFormat() {
+        assertEquals("REF001", ReferenceAllocator.format(1));
+        assertEquals("REF042", ReferenceAllocator.format(42));
+        assertEquals("REF999", ReferenceAllocator.format(999));
+        assertEquals("REF123456", ReferenceAllocator.format(123456));
+        assertEquals(String.format("REF%03d", 7L), ReferenceAllocator.format(7));
+    }
+}
@@ -0,0 +1,97 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.config.BulkReadConnections;
+import com.payment.redis.config.RedisConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ReplicaReadsTest {
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final RedisKeys keys = RedisKeys.cluster(4);
+
+    private RedisConnection<String, String> primary;
+    private RedisConnection<String, byte[]> binaryPrimary;
+    private RedisConnection<String, String> replica;
+    private RedisConnection<String, byte[]> binaryReplica;
+    private ReplicaReads reads;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        primary = mock(RedisConnection.class);
+        binaryPrimary = mock(RedisConnection.class);
+        replica = mock(RedisConnection.class);
+        binaryReplica = mock(RedisConnection.class);
+        reads = new ReplicaReads(primary, binaryPrimary, new BulkReadConnections(List.of(binaryPrimary)),
+            replica, binaryReplica, new BulkReadConnections(List.of(binaryReplica)),
+            keys, Duration.ofSeconds(1), true, clock::get);
+    }
+
+    @Test
+    void testPrimaryUntilHeartbeatsArrive() {
+        assertSame(primary, reads.connection());
+
+        reads.observe(0, clock.get());
+        reads.observe(1, clock.get());
+        reads.observe(2, clock.get());
+        assertSame(primary, reads.connection());
+
+        reads.observe(3, clock.get());
+        assertSame(replica, reads.connection());
+        assertSame(binaryReplica, reads.bulkConnections().forBatch(0, 0));
+    }
+
+    @Test
+    void testFallsBackWhenPartitionLags() {
+        String id = "4f1c9a2e-0000-4000-8000-000000000001";
+        int partition = keys.partition(id);
+        for (int p = 0; p < keys.partitions(); p++) {
+            reads.observe(p, clock.get());
+        }
+        assertSame(binaryReplica, reads.binaryConnection(id));
+
+        clock.addAndGet(800);
+        reads.observe((partition + 1) % keys.partitions(), clock.get() - 1500);
+        assertSame(binaryReplica, reads.binaryConnection(id));
+        assertSame(primary, reads.connection());
+
+        clock.addAndGet(300);
+        assertSame(binaryPrimary, reads.binaryConnection(id));
+    }
+
+    @Test
+    void testOwnWritesReadFromPrimaryUntilReplicated() {
+        String id = "4f1c9a2e-0000-4000-8000-000000000002";
+        int partition = keys.partition(id);
+        for (int p = 0; p < keys.partitions(); p++) {
+            reads.observe(p, clock.get());
+        }
+        reads.recordWrite(id);
+        assertSame(binaryPrimary, reads.binaryConnection(id));
+        assertSame(binaryReplica, reads.binaryConnection("4f1c9a2e-0000-4000-8000-000000000003"));
+
+        // A heartbeat written after the write has reached the replica
+        clock.addAndGet(200);
+        reads.observe(partition, clock.get());
+        assertSame(binaryReplica, reads.binaryConnection(id));
+    }
+
+    @Test
+    void testDisabledAlwaysReadsPrimary() {
+        ReplicaReads disabled = ReplicaReads.disabled(primary, binaryPrimary,
+            new BulkReadConnections(List.of(binaryPrimary)), keys);
+        disabled.observe(0, Long.MAX_VALUE);
+
+        assertSame(primary, disabled.connection());
+        assertSame(binaryPrimary, disabled.binaryConnection("any"));
+        assertFalse(disabled.isReplica(binaryPrimary));
+        assertEquals(false, disabled.stats().get("enabled"));
+    }
+}
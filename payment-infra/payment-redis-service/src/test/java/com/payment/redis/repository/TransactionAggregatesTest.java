@@ -0,0 +1,85 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.domain.StatsResolution;
+import com.payment.redis.domain.Transaction;
+import com.payment.redis.domain.TransactionStats;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionAggregatesTest {
+
+    @Test
+    void testContributionUsesScaledAmountsAndUnknownForMissingValues() {
+        Transaction t = new Transaction();
+        t.setStatus("EXACT");
+        t.setCurrencyFrom("usd");
+        t.setCountryFrom(" ");
+        t.setAmount(new BigDecimal("100.12345"));
+        t.setFeeAmount(new BigDecimal("2"));
+        t.setFinalAmount(new BigDecimal("102.12"));
+        t.setCreatedAt(Instant.ofEpochMilli(1705610400123L));
+
+        List<String> values = Arrays.stream(TransactionAggregates.contribution(t))
+            .map(TransactionCodec::string)
+            .toList();
+
+        assertEquals(List.of("EXACT", "usd", "unknown", "unknown", "1001234", "20000", "1021200", "1705610400123"), values);
+    }
+
+    @Test
+    void testStatsHashIsGroupedByDimension() {
+        Map<String, String> hash = new HashMap<>();
+        hash.put("count", "3");
+        hash.put("amount", "3000125");
+        hash.put("feeAmount", "60000");
+        hash.put("finalAmount", "3060125");
+        hash.put("school:MIT:count", "2");
+        hash.put("school:MIT:amount", "2000000");
+        hash.put("school:Lab:East:count", "1");
+        hash.put("school:Lab:East:amount", "1000125");
+        hash.put("status:EXACT:count", "0");
+        hash.put("status:EXACT:amount", "0");
+
+        TransactionStats stats = TransactionAggregates.toStats(hash);
+
+        assertEquals(3, stats.getTotal().getCount());
+        assertEquals(new BigDecimal("300.0125"), stats.getTotal().getAmount());
+        assertEquals(new BigDecimal("306.0125"), stats.getTotal().getFinalAmount());
+        assertEquals(List.of("status", "currency", "country", "school"), List.copyOf(stats.getGroups().keySet()));
+        assertEquals(2, stats.getGroups().get("school").get("MIT").getCount());
+        assertEquals(new BigDecimal("100.0125"), stats.getGroups().get("school").get("Lab:East").getAmount());
+        // a group emptied by deletes is left out
+        assertTrue(stats.getGroups().get("status").isEmpty());
+    }
+
+    @Test
+    void testBucketsCoverTheRangeAlignedToUtc() {
+        Instant from = Instant.parse("2026-03-01T22:30:00Z");
+        Instant to = Instant.parse("2026-03-03T00:00:00Z");
+
+        assertEquals(List.of(Instant.parse("2026-03-01T00:00:00Z"), Instant.parse("2026-03-02T00:00:00Z"),
+            Instant.parse("2026-03-03T00:00:00Z")), TransactionAggregates.bucketStarts(StatsResolution.DAY, from, to));
+        assertEquals(27, StatsResolution.HOUR.bucketCount(from, to));
+        assertEquals(27, TransactionAggregates.bucketStarts(StatsResolution.HOUR, from, to).size());
+        assertEquals(0, StatsResolution.MINUTE.bucketCount(to, from));
+    }
+
+    @Test
+    void testBucketsPastRetentionAreNotRead() {
+        Instant now = Instant.parse("2026-03-10T12:00:00Z");
+
+        assertTrue(TransactionAggregates.isRetained(StatsResolution.MINUTE, now.minus(Duration.ofHours(47)), now));
+        assertFalse(TransactionAggregates.isRetained(StatsResolution.MINUTE, now.minus(Duration.ofHours(49)), now));
+        assertTrue(TransactionAggregates.isRetained(StatsResolution.DAY, Instant.EPOCH, now));
+        assertEquals(0, TransactionAggregates.toTotals(List.of("0", "0", "0", "0")).getCount());
+    }
+}
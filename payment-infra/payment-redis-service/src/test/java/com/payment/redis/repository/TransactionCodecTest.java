@@ -0,0 +1,133 @@
+package com.payment.redis.repository;
+
+import com.payment.redis.domain.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCodecTest {
+    private final TransactionCodec binary = new TransactionCodec("binary");
+    private final TransactionCodec hash = new TransactionCodec("hash");
+
+    @Test
+    void testBinaryRoundTrip() {
+        Transaction t = transaction(UUID.randomUUID().toString());
+
+        Map<String, byte[]> fields = binary.encode(t);
+
+        assertEquals(2, fields.size());
+        assertTrue(TransactionCodec.isBinary(fields));
+        assertSameTransaction(t, binary.decode(fields));
+    }
+
+    @Test
+    void testNonTableValuesAndNonUuidIdRoundTrip() {
+        Transaction t = transaction("legacy-id-1");
+        t.setSchool("Üniversität Zürich");
+        t.setStatus("PENDING_REVIEW");
+        t.setCurrencyFrom("jpy");
+        t.setAmount(new BigDecimal("-12.345"));
+
+        assertSameTransaction(t, binary.decode(binary.encode(t)));
+    }
+
+    @Test
+    void testNullFieldsAreKept() {
+        Transaction t = transaction(UUID.randomUUID().toString());
+        t.setReference(null);
+        t.setName(null);
+        t.setSchool(null);
+
+        Transaction decoded = binary.decode(binary.encode(t));
+
+        assertNull(decoded.getReference());
+        assertNull(decoded.getName());
+        assertNull(decoded.getSchool());
+        assertEquals(t.getEmail(), decoded.getEmail());
+    }
+
+    @Test
+    void testTimestampsTruncatedToMicros() {
+        Transaction t = transaction(UUID.randomUUID().toString());
+        t.setCreatedAt(Instant.ofEpochSecond(1_705_610_400L, 123_456_789));
+
+        Transaction decoded = binary.decode(binary.encode(t));
+
+        assertEquals(Instant.ofEpochSecond(1_705_610_400L, 123_456_000), decoded.getCreatedAt());
+    }
+
+    @Test
+    void testBinaryReaderAcceptsHashLayout() {
+        Transaction t = transaction(UUID.randomUUID().toString());
+
+        Map<String, byte[]> fields = hash.encode(t);
+
+        assertFalse(TransactionCodec.isBinary(fields));
+        assertSameTransaction(t, binary.decode(fields));
+        assertSameTransaction(t, hash.decode(binary.encode(t)));
+    }
+
+    @Test
+    void testOversizedAmountFallsBackToHashLayout() {
+        Transaction t = transaction(UUID.randomUUID().toString());
+        t.setAmount(new BigDecimal("123456789012345678901234567890.00"));
+
+        Map<String, byte[]> fields = binary.encode(t);
+
+        assertFalse(TransactionCodec.isBinary(fields));
+        assertEquals(t.getAmount(), binary.decode(fields).getAmount());
+    }
+
+    @Test
+    void testBinaryIsSmallerThanHashLayout() {
+        Transaction t = transaction(UUID.randomUUID().toString());
+
+        assertTrue(size(binary.encode(t)) * 2 < size(hash.encode(t)));
+    }
+
+    @Test
+    void testUnknownVersionRejected() {
+        byte[] record = BinaryTransactionFormat.encode(transaction(UUID.randomUUID().toString()));
+        record[0] = 99;
+
+        assertThrows(IllegalArgumentException.class,
+            () -> binary.decode(Map.of(TransactionCodec.RECORD_FIELD, record)));
+    }
+
+    @Test
+    void testTruncatedRecordRejected() {
+        byte[] record = BinaryTransactionFormat.encode(transaction(UUID.randomUUID().toString()));
+        byte[] truncated = Arrays.copyOf(record, record.length / 2);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> binary.decode(Map.of(TransactionCodec.RECORD_FIELD, truncated)));
+    }
+
+    private static int size(Map<String, byte[]> fields) {
+        return fields.entrySet().stream().mapToInt(e -> e.getKey().length() + e.getValue().length).sum();
+    }
+
+    private static void assertSameTransaction(Transaction expected, Transaction actual) {
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getFeePercentage(), actual.getFeePercentage());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+        assertEquals(expected.getSenderAddress(), actual.getSenderAddress());
+        assertEquals(expected.getStudentId(), actual.getStudentId());
+    }
+
+    private static Transaction transaction(String id) {
+        Instant now = Instant.ofEpochSecond(1_705_610_400L, 123_456_000);
+        return new Transaction(id, "REF042", "Jane Doe", "jane@example.com",
+            new BigDecimal("12500.00"), new BigDecimal("12500.00"), "MIT", "Jane Doe", "India",
+            "1 Main Road", "usd", "S-1", "EXACT", new BigDecimal("2.0"), new BigDecimal("250.00"),
+            new BigDecimal("12750.00"), now, now.plusSeconds(5));
+    }
+}
@@ -0,0 +1,145 @@
+package com.payment.redis.service;
+
+import com.payment.redis.repository.IdempotencyRepository;
+import com.payment.redis.repository.IdempotencyRepository.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+    private static final byte[] REQUEST = "{\"amount\":100}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BODY = "{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8);
+    private static final String FINGERPRINT = IdempotencyService.fingerprint(REQUEST);
+
+    private final IdempotencyRepository repository = mock(IdempotencyRepository.class);
+    private final IdempotencyService service = new IdempotencyService(repository,
+        Duration.ofSeconds(30), Duration.ofMillis(100), Duration.ofHours(24));
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void testFirstRequestRunsAndStoresResponse() {
+        when(repository.reserve(eq("key-1"), eq(FINGERPRINT), anyString(), any())).thenReturn(Optional.empty());
+        when(repository.complete(eq("key-1"), anyString(), eq(201), eq(BODY), any())).thenReturn(true);
+
+        IdempotencyService.Response response = service.execute("key-1", REQUEST, this::create);
+
+        assertEquals(1, runs.get());
+        assertEquals(201, response.status());
+        assertFalse(response.replayed());
+        verify(repository).complete(eq("key-1"), anyString(), eq(201), eq(BODY), eq(Duration.ofHours(24)));
+    }
+
+    @Test
+    void testCompletedKeyIsReplayed() {
+        when(repository.reserve(eq("key-1"), eq(FINGERPRINT), anyString(), any()))
+            .thenReturn(Optional.of(new Entry(FINGERPRINT, true, 201, BODY)));
+
+        IdempotencyService.Response response = service.execute("key-1", REQUEST, this::create);
+
+        assertEquals(0, runs.get());
+        assertTrue(response.replayed());
+        assertArrayEquals(BODY, response.body());
+        verify(repository, never()).complete(any(), any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testDuplicateWaitsForRequestInProgress() {
+        Entry pending = new Entry(FINGERPRINT, false, 0, null);
+        when(repository.reserve(eq("key-1"), eq(FINGERPRINT), anyString(), any())).thenReturn(Optional.of(pending));
+        when(repository.find("key-1"))
+            .thenReturn(Optional.of(pending))
+            .thenReturn(Optional.of(new Entry(FINGERPRINT, true, 201, BODY)));
+
+        IdempotencyService.Response response = service.execute("key-1", REQUEST, this::create);
+
+        assertEquals(0, runs.get());
+        assertTrue(response.replayed());
+    }
+
+    @Test
+    void testBeforeWaitRunsOnceOnlyWhenWaiting() {
+        Entry pending = new Entry(FINGERPRINT, false, 0, null);
+        when(repository.reserve(eq("key-1"), eq(FINGERPRINT), anyString(), any()))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(pending));
+        when(repository.find("key-1"))
+            .thenReturn(Optional.of(pending))
+            .thenReturn(Optional.of(pending))
+            .thenReturn(Optional.of(new Entry(FINGERPRINT, true, 201, BODY)));
+        AtomicInteger waits = new AtomicInteger();
+
+        service.execute("key-1", REQUEST, waits::incrementAndGet, this::create);
+        assertEquals(0, waits.get());
+
+        IdempotencyService.Response response = service.execute("key-1", REQUEST, waits::incrementAndGet, this::create);
+        assertEquals(1, waits.get());
+        assertTrue(response.replayed());
+    }
+
+    @Test
+    void testDuplicateGivesUpAfterWaitTimeout() {
+        Entry pending = new Entry(FINGERPRINT, false, 0, null);
+        when(repository.reserve(eq("key-1"), eq(FINGERPRINT), anyString(), any())).thenReturn(Optional.of(pending));
+        when(repository.find("key-1")).thenReturn(Optional.of(pending));
+
+        assertThrows(IdempotencyService.RequestInProgressException.class,
+            () -> service.execute("key-1", REQUEST, this::create));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void testDuplicateRunsWhenFirstRequestReleasedKey() {
+        when(repository.reserve(eq("key-1"), eq(FINGERPRINT), anyString(), any()))
+            .thenReturn(Optional.of(new Entry(FINGERPRINT, false, 0, null)))
+            .thenReturn(Optional.empty());
+        when(repository.find("key-1")).thenReturn(Optional.empty());
+        when(repository.complete(any(), any(), anyInt(), any(), any())).thenReturn(true);
+
+        IdempotencyService.Response response = service.execute("key-1", REQUEST, this::create);
+
+        assertEquals(1, runs.get());
+        assertFalse(response.replayed());
+    }
+
+    @Test
+    void testKeyReusedWithDifferentRequestIsRejected() {
+        when(repository.reserve(eq("key-1"), anyString(), anyString(), any()))
+            .thenReturn(Optional.of(new Entry(FINGERPRINT, true, 201, BODY)));
+
+        byte[] other = "{\"amount\":200}".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IdempotencyService.KeyReusedException.class,
+            () -> service.execute("key-1", other, this::create));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void testFailedRequestReleasesKey() {
+        when(repository.reserve(eq("key-1"), eq(FINGERPRINT), anyString(), any())).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> service.execute("key-1", REQUEST, () -> {
+            throw new IllegalStateException("write failed");
+        }));
+        verify(repository).release(eq("key-1"), anyString());
+        verify(repository, never()).complete(any(), any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testInvalidKeysAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.execute("", REQUEST, this::create));
+        assertThrows(IllegalArgumentException.class, () -> service.execute("a".repeat(256), REQUEST, this::create));
+        assertThrows(IllegalArgumentException.class, () -> service.execute("key\n1", REQUEST, this::create));
+        verifyNoInteractions(repository);
+    }
+
+    private IdempotencyService.Response create() {
+        runs.incrementAndGet();
+        return new IdempotencyService.Response(201, BODY, false);
+    }
+}
@@ -1,12 +1,20 @@
 package com.payment.redis.service;
 
+import com.payment.redis.domain.BatchItemResult;
+import com.payment.redis.domain.Transaction;
+import com.payment.redis.dto.CreateTransactionRequest;
+import com.payment.redis.repository.TransactionRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
 class TransactionServiceTest {
 
@@ -19,16 +27,11 @@ class TransactionServiceTest {
         "55000, 5.0",
         "100000, 5.0"
     })
-    void testFeeCalculation(String amountStr, String expectedFeeStr) throws Exception {
+    void testFeeCalculation(String amountStr, String expectedFeeStr) {
         BigDecimal amount = new BigDecimal(amountStr);
         BigDecimal expectedFee = new BigDecimal(expectedFeeStr);
         
-        // Use reflection to test private method
-        var method = TransactionService.class.getDeclaredMethod("calculateFeePercentage", BigDecimal.class);
-        method.setAccessible(true);
-        
-        var service = new TransactionService(null);
-        BigDecimal actualFee = (BigDecimal) method.invoke(service, amount);
+        BigDecimal actualFee = TransactionService.calculateFeePercentage(amount);
         
         assertEquals(expectedFee, actualFee);
     }
@@ -39,17 +42,44 @@ class TransactionServiceTest {
         "1000, 1000, EXACT",
         "1000, 1100, OVERPAYMENT"
     })
-    void testStatusDetermination(String amountStr, String receivedStr, String expectedStatus) throws Exception {
+    void testStatusDetermination(String amountStr, String receivedStr, String expectedStatus) {
         BigDecimal amount = new BigDecimal(amountStr);
         BigDecimal received = new BigDecimal(receivedStr);
         
-        // Use reflection to test private method
-        var method = TransactionService.class.getDeclaredMethod("determineStatus", BigDecimal.class, BigDecimal.class);
-        method.setAccessible(true);
-        
-        var service = new TransactionService(null);
-        String actualStatus = (String) method.invoke(service, amount, received);
+        String actualStatus = TransactionService.determineStatus(amount, received);
         
         assertEquals(expectedStatus, actualStatus);
     }
+
+    @Test
+    void testBatchCreateReportsEachItemAtItsRequestPosition() {
+        TransactionRepository repository = mock(TransactionRepository.class);
+        when(repository.createAll(anyList(), anyString(), anyString())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            List<BatchItemResult> results = new ArrayList<>();
+            results.add(BatchItemResult.created(0, transactions.get(0)));
+            results.add(BatchItemResult.failed(1, "Failed to store transaction"));
+            return results;
+        });
+        var service = new TransactionService(repository, null);
+
+        List<BatchItemResult> results = service.createTransactions(List.of(
+            request("Ann", new BigDecimal("1000")),
+            request("Bob", BigDecimal.ZERO),
+            request("Cid", new BigDecimal("2000"))));
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isCreated());
+        assertEquals("Ann", results.get(0).getTransaction().getName());
+        assertEquals(1, results.get(1).getIndex());
+        assertEquals("amount must be positive", results.get(1).getError());
+        assertEquals(2, results.get(2).getIndex());
+        assertEquals("Failed to store transaction", results.get(2).getError());
+        verify(repository).createAll(argThat(list -> list.size() == 2), anyString(), anyString());
+    }
+
+    private static CreateTransactionRequest request(String name, BigDecimal amount) {
+        return new CreateTransactionRequest(name, name.toLowerCase() + "@example.com", amount,
+            "MIT", "India", "1 Main Road", "usd", "S-1");
+    }
 }
@@ -0,0 +1,95 @@
+package com.payment.redis.typeahead;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeaheadIndexTest {
+    private final TypeaheadIndex index = new TypeaheadIndex();
+
+    @Test
+    void testTokens() {
+        assertEquals(List.of("jose", "garcia", "mit", "edu"),
+            TypeaheadIndex.tokens("José García <mit.EDU>"));
+        assertEquals(List.of("ali", "sm"), TypeaheadIndex.queryTokens(" Ali  sm ali "));
+        assertTrue(TypeaheadIndex.tokens("  -- ").isEmpty());
+    }
+
+    @Test
+    void testEveryWordMatchesByPrefixNewestFirst() {
+        String alice = put("Alice Smith", "MIT");
+        String bob = put("Bob Smith", "Stanford");
+        String alicia = put("Alicia Smithers", "MIT");
+
+        assertEquals(List.of(alicia, alice), index.search("ali", 10));
+        assertEquals(List.of(alicia, bob, alice), index.search("smi", 10));
+        assertEquals(List.of(alicia, alice), index.search("sm MIT", 10));
+        assertEquals(List.of(alicia), index.search("smith ALICIA", 10));
+        assertEquals(List.of(alicia), index.search("smi", 1));
+        assertTrue(index.search("alice stanford", 10).isEmpty());
+        assertTrue(index.search("zed", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+    }
+
+    @Test
+    void testReplaceKeepsPositionAndRemoveDropsTerms() {
+        String first = put("Carol Jones", "Yale");
+        String second = put("Carla Jones", "Yale");
+        assertEquals(6, index.postingCount());
+
+        index.put(first, List.of("Caroline Jones", "Harvard"));
+        assertEquals(List.of(second, first), index.search("car jones", 10));
+        assertTrue(index.search("carol yale", 10).isEmpty());
+        assertEquals(List.of(first), index.search("harv", 10));
+
+        assertTrue(index.remove(second));
+        assertFalse(index.remove(second));
+        assertEquals(List.of(first), index.search("car", 10));
+        assertEquals(1, index.size());
+        assertEquals(3, index.termCount());
+
+        index.put(first, List.of(" "));
+        assertEquals(0, index.size());
+        assertEquals(0, index.termCount());
+    }
+
+    @Test
+    void testCommonPrefixScansAndFallsBackToMerge() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(put("Student " + i, i % 1000 == 0 ? "Rare College" : "Common University"));
+        }
+
+        // "student" is in every document: the newest ones are scanned
+        assertEquals(List.of(ids.get(9999), ids.get(9998)), index.search("stu", 2));
+        // "common" is dense, "rare" sparse: drives the merge instead
+        assertEquals(List.of(ids.get(9000), ids.get(8000), ids.get(7000)), index.search("student rare", 3));
+        // Numbers starting with 1 are not among the newest documents: the scan
+        // runs out of budget and the merge continues below it
+        List<String> expected = new ArrayList<>();
+        for (int i = 1999; i >= 1900; i--) {
+            expected.add(ids.get(i));
+        }
+        assertEquals(expected, index.search("student 1", 100));
+    }
+
+    @Test
+    void testIdsThatAreNotUuids() {
+        index.put("legacy-1", List.of("Dana Legacy"));
+        String uuid = put("Dana Modern");
+
+        assertEquals(List.of(uuid, "legacy-1"), index.search("dana", 10));
+        assertTrue(index.remove("legacy-1"));
+        assertEquals(List.of(uuid), index.search("dana", 10));
+    }
+
+    private String put(String... values) {
+        String id = UUID.randomUUID().toString();
+        index.put(id, List.of(values));
+        return id;
+    }
+}
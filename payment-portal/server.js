@@ -70,14 +70,26 @@ app.post('/api/bookings', async (req, res) => {
       studentId: req.body.student_id || 'Unknown'
     };
 
+    // Forward the client's Idempotency-Key so its retries don't create the payment twice
+    const idempotencyKey = req.get('Idempotency-Key');
     const response = await axios.post(
       `${REDIS_SERVICE_URL}/api/transactions`,
-      payload
+      payload,
+      idempotencyKey ? { headers: { 'Idempotency-Key': idempotencyKey } } : undefined
     );
 
+    if (response.headers['idempotent-replayed']) {
+      res.set('Idempotent-Replayed', response.headers['idempotent-replayed']);
+    }
     res.status(201).json(response.data);
   } catch (error) {
     console.error('Error creating payment:', error.message);
+    if (error.response && [400, 409, 422].includes(error.response.status)) {
+      if (error.response.headers['retry-after']) {
+        res.set('Retry-After', error.response.headers['retry-after']);
+      }
+      return res.status(error.response.status).json({ error: error.response.data.message });
+    }
     res.status(500).json({ error: 'Failed to create payment' });
   }
 });